@@ -0,0 +1,47 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a public method to be measured by the {@link BenchmarkRunner}. The
+ * method takes no arguments or a {@link Blackhole}, and its return value, if
+ * any, is consumed so that the work producing it can not be eliminated.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Benchmark {
+
+    /**
+     * The mode the method is measured in.
+     */
+    Mode mode() default Mode.AVERAGE_TIME;
+
+    /**
+     * The number of operations a single invocation of the method performs,
+     * the scores are reported per operation.
+     */
+    int operations() default 1;
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The scores of the measurement iterations of a benchmark method, for one
+ * combination of its parameter values.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class BenchmarkResult {
+
+    // two-sided 99.9% quantiles of the Student's t-distribution, by the degrees of freedom
+    private static final double[] T_999 = {
+        Double.NaN, 636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+        4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+        3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+    private final String benchmark;
+    private final Mode mode;
+    private final Map<String, String> params;
+    private final int warmupIterations, measurementIterations;
+    private final long warmupTime, measurementTime;
+    private final double[] samples;
+
+    BenchmarkResult(String benchmark, Mode mode, Map<String, String> params,
+            int warmupIterations, long warmupTime, int measurementIterations, long measurementTime, double[] samples) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.params = Collections.unmodifiableMap(params);
+        this.warmupIterations = warmupIterations;
+        this.warmupTime = warmupTime;
+        this.measurementIterations = measurementIterations;
+        this.measurementTime = measurementTime;
+        this.samples = samples;
+    }
+
+    /**
+     * Returns the fully qualified name of the benchmark method.
+     */
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public long getWarmupTime() {
+        return warmupTime;
+    }
+
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    public long getMeasurementTime() {
+        return measurementTime;
+    }
+
+    /**
+     * Returns the scores of the measurement iterations.
+     */
+    public double[] getSamples() {
+        return samples.clone();
+    }
+
+    /**
+     * Returns the mean of the scores.
+     */
+    public double getScore() {
+        double sum = 0;
+        for (double s : samples) {
+            sum += s;
+        }
+        return sum / samples.length;
+    }
+
+    /**
+     * Returns the half width of the 99.9% confidence interval of the score, or
+     * <tt>NaN</tt> with a single measurement iteration.
+     */
+    public double getScoreError() {
+        int n = samples.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double mean = getScore(), var = 0;
+        for (double s : samples) {
+            var += (s - mean) * (s - mean);
+        }
+        double t = n - 1 < T_999.length ? T_999[n - 1] : 3.291;
+        return t * Math.sqrt(var / (n - 1)) / Math.sqrt(n);
+    }
+
+    public String getUnit() {
+        return mode.unit();
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import org.mongkie.benchmark.clustering.ClusteringBenchmark;
+import org.mongkie.benchmark.data.GraphBenchmark;
+import org.mongkie.benchmark.data.TableBenchmark;
+import org.mongkie.benchmark.display.PaintBenchmark;
+import org.mongkie.benchmark.io.ImportBenchmark;
+import org.mongkie.benchmark.io.VizGraphBenchmark;
+import org.mongkie.benchmark.layout.LayoutBenchmark;
+
+/**
+ * Runs the benchmarks of the core data, I/O, layout, clustering and rendering
+ * paths in the manner of JMH: every {@link Benchmark} method of a class is
+ * measured for each combination of its {@link Param} values, after warmup
+ * iterations, and the scores are reported with their 99.9% confidence
+ * intervals. The benchmarks run in this JVM rather than in forked ones, so
+ * the runs to compare should be started with the same JVM options.
+ * <p>
+ * Run from the command line with:
+ * <pre>
+ * BenchmarkRunner [regexp...] [-p name=value,...] [-wi iterations] [-i iterations]
+ *                 [-r millis] [-rf text|json|csv] [-rff file] [-l]
+ * </pre>
+ * where the regular expressions select the benchmarks to run by their fully
+ * qualified method names, and <tt>-rff</tt> writes the results, by default in
+ * JSON, to track the regressions across releases.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class BenchmarkRunner {
+
+    static final Class<?>[] BENCHMARKS = {
+        TableBenchmark.class, GraphBenchmark.class,
+        ImportBenchmark.class, VizGraphBenchmark.class,
+        LayoutBenchmark.class, ClusteringBenchmark.class, PaintBenchmark.class
+    };
+    private static final int DEFAULT_WARMUP_ITERATIONS = 3, DEFAULT_MEASUREMENT_ITERATIONS = 5;
+    private static final long DEFAULT_WARMUP_TIME = 500, DEFAULT_MEASUREMENT_TIME = 1000;
+    private static final Comparator<Method> METHOD_ORDER = new Comparator<Method>() {
+        @Override
+        public int compare(Method m1, Method m2) {
+            return m1.getName().compareTo(m2.getName());
+        }
+    };
+    private static final Comparator<Field> FIELD_ORDER = new Comparator<Field>() {
+        @Override
+        public int compare(Field f1, Field f2) {
+            return f1.getName().compareTo(f2.getName());
+        }
+    };
+    private final List<Pattern> includes = new ArrayList<Pattern>();
+    private final Map<String, String[]> params = new HashMap<String, String[]>();
+    private int warmupIterations = -1, measurementIterations = -1;
+    private long iterationTime = -1;
+    private PrintWriter log;
+
+    public BenchmarkRunner() {
+    }
+
+    /**
+     * Selects the benchmarks to run by their fully qualified method names, all
+     * of them are run if nothing is included.
+     *
+     * @param regex the regular expression found in the names to run
+     */
+    public void addInclude(String regex) {
+        includes.add(Pattern.compile(regex));
+    }
+
+    /**
+     * Overrides the values of a {@link Param} field of the benchmarks.
+     *
+     * @param name the name of the parameter field
+     * @param values the values to measure
+     */
+    public void setParam(String name, String... values) {
+        params.put(name, values);
+    }
+
+    /**
+     * Overrides the number of warmup iterations of all benchmarks.
+     */
+    public void setWarmupIterations(int iterations) {
+        warmupIterations = iterations;
+    }
+
+    /**
+     * Overrides the number of measurement iterations of all benchmarks.
+     */
+    public void setMeasurementIterations(int iterations) {
+        measurementIterations = iterations;
+    }
+
+    /**
+     * Overrides the time of the warmup and measurement iterations of all
+     * benchmarks.
+     *
+     * @param millis the time of an iteration in milliseconds
+     */
+    public void setIterationTime(long millis) {
+        iterationTime = millis;
+    }
+
+    /**
+     * Sets the writer reporting the progress of the iterations, or
+     * <tt>null</tt> to run silently.
+     */
+    public void setLog(PrintWriter log) {
+        this.log = log;
+    }
+
+    /**
+     * Returns the fully qualified names of the selected benchmark methods.
+     *
+     * @param classes the benchmark classes
+     * @return the selected names
+     */
+    public List<String> list(Class<?>... classes) {
+        List<String> names = new ArrayList<String>();
+        for (Class<?> c : classes) {
+            for (Method m : getBenchmarks(c)) {
+                names.add(c.getName() + "." + m.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Runs the selected benchmarks of the given classes. A benchmark failing
+     * is logged and left out of the results, so that the others still run.
+     *
+     * @param classes the benchmark classes
+     * @return the results in the order of the runs
+     */
+    public List<BenchmarkResult> run(Class<?>... classes) {
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        for (Class<?> c : classes) {
+            List<Method> benchmarks = getBenchmarks(c);
+            if (benchmarks.isEmpty()) {
+                continue;
+            }
+            Map<Level, List<Method>> setups = getFixtures(c, Setup.class);
+            Map<Level, List<Method>> tearDowns = getFixtures(c, TearDown.class);
+            List<Field> fields = getParamFields(c);
+            Warmup warmup = c.getAnnotation(Warmup.class);
+            Measurement measurement = c.getAnnotation(Measurement.class);
+            int wi = warmupIterations >= 0 ? warmupIterations
+                    : warmup != null ? warmup.iterations() : DEFAULT_WARMUP_ITERATIONS;
+            long wt = iterationTime > 0 ? iterationTime
+                    : warmup != null ? warmup.time() : DEFAULT_WARMUP_TIME;
+            int mi = measurementIterations > 0 ? measurementIterations
+                    : measurement != null ? measurement.iterations() : DEFAULT_MEASUREMENT_ITERATIONS;
+            long mt = iterationTime > 0 ? iterationTime
+                    : measurement != null ? measurement.time() : DEFAULT_MEASUREMENT_TIME;
+            for (Method m : benchmarks) {
+                String name = c.getName() + "." + m.getName();
+                for (Map<String, String> combination : getCombinations(fields)) {
+                    log("# Benchmark: %s", name);
+                    if (!combination.isEmpty()) {
+                        log("# Parameters: %s", combination);
+                    }
+                    try {
+                        Object instance = c.newInstance();
+                        for (Field f : fields) {
+                            f.set(instance, convert(f.getType(), combination.get(f.getName())));
+                        }
+                        double[] samples = measure(instance, m, setups, tearDowns, wi, wt, mi, mt);
+                        results.add(new BenchmarkResult(name, m.getAnnotation(Benchmark.class).mode(), combination,
+                                wi, wt, mi, mt, samples));
+                    } catch (Exception ex) {
+                        Throwable cause = ex instanceof InvocationTargetException ? ex.getCause() : ex;
+                        Logger.getLogger(BenchmarkRunner.class.getName()).log(java.util.logging.Level.WARNING,
+                                "Failed to run the benchmark " + name + combination, cause);
+                    }
+                    log("");
+                }
+            }
+        }
+        return results;
+    }
+
+    private double[] measure(Object instance, Method m,
+            Map<Level, List<Method>> setups, Map<Level, List<Method>> tearDowns,
+            int wi, long wt, int mi, long mt) throws Exception {
+        Benchmark b = m.getAnnotation(Benchmark.class);
+        Blackhole blackhole = new Blackhole();
+        double[] samples = new double[mi];
+        invoke(instance, setups.get(Level.TRIAL));
+        try {
+            for (int i = 0; i < wi + mi; i++) {
+                invoke(instance, setups.get(Level.ITERATION));
+                long[] opsAndNanos = iterate(instance, m, b, blackhole, setups.get(Level.INVOCATION),
+                        tearDowns.get(Level.INVOCATION), i < wi ? wt : mt);
+                invoke(instance, tearDowns.get(Level.ITERATION));
+                blackhole.publish();
+                double score = b.mode().score(opsAndNanos[0], Math.max(opsAndNanos[1], 1));
+                if (i < wi) {
+                    log("# Warmup Iteration %3d: %.3f %s", i + 1, score, b.mode().unit());
+                } else {
+                    log("Iteration %3d: %.3f %s", i - wi + 1, score, b.mode().unit());
+                    samples[i - wi] = score;
+                }
+            }
+        } finally {
+            invoke(instance, tearDowns.get(Level.TRIAL));
+        }
+        return samples;
+    }
+
+    private long[] iterate(Object instance, Method m, Benchmark b, Blackhole blackhole,
+            List<Method> setups, List<Method> tearDowns, long millis) throws Exception {
+        Object[] args = m.getParameterTypes().length == 0 ? new Object[0] : new Object[]{blackhole};
+        boolean consume = m.getReturnType() != void.class;
+        long ops = 0, nanos = 0;
+        if (b.mode() != Mode.SINGLE_SHOT && setups.isEmpty() && tearDowns.isEmpty()) {
+            // no fixtures to leave out, so time the whole loop rather than each call
+            long start = System.nanoTime(), deadline = start + millis * 1000000L, now;
+            do {
+                Object r = invokeBenchmark(instance, m, args);
+                if (consume) {
+                    blackhole.consume(r);
+                }
+                ops += b.operations();
+            } while ((now = System.nanoTime()) < deadline);
+            nanos = now - start;
+        } else {
+            long deadline = System.nanoTime() + millis * 1000000L;
+            do {
+                invoke(instance, setups);
+                long start = System.nanoTime();
+                Object r = invokeBenchmark(instance, m, args);
+                nanos += System.nanoTime() - start;
+                if (consume) {
+                    blackhole.consume(r);
+                }
+                invoke(instance, tearDowns);
+                ops += b.operations();
+            } while (b.mode() != Mode.SINGLE_SHOT && System.nanoTime() < deadline);
+        }
+        return new long[]{ops, nanos};
+    }
+
+    private static Object invokeBenchmark(Object instance, Method m, Object[] args) throws Exception {
+        try {
+            return m.invoke(instance, args);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static void invoke(Object instance, List<Method> fixtures) throws Exception {
+        for (Method m : fixtures) {
+            invokeBenchmark(instance, m, new Object[0]);
+        }
+    }
+
+    private void log(String format, Object... args) {
+        if (log != null) {
+            log.println(String.format(Locale.US, format, args));
+            log.flush();
+        }
+    }
+
+    private List<Method> getBenchmarks(Class<?> c) {
+        List<Method> benchmarks = new ArrayList<Method>();
+        for (Method m : c.getMethods()) {
+            if (m.isAnnotationPresent(Benchmark.class)) {
+                Class<?>[] types = m.getParameterTypes();
+                if (types.length > 1 || (types.length == 1 && types[0] != Blackhole.class)) {
+                    throw new IllegalArgumentException("A benchmark takes no arguments or a Blackhole: " + m);
+                }
+                if (isIncluded(c.getName() + "." + m.getName())) {
+                    benchmarks.add(m);
+                }
+            }
+        }
+        Collections.sort(benchmarks, METHOD_ORDER);
+        return benchmarks;
+    }
+
+    private boolean isIncluded(String name) {
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (Pattern p : includes) {
+            if (p.matcher(name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<Level, List<Method>> getFixtures(Class<?> c, Class<? extends java.lang.annotation.Annotation> type) {
+        Map<Level, List<Method>> fixtures =
+                new EnumMap<Level, List<Method>>(Level.class);
+        for (Level level : Level.values()) {
+            fixtures.put(level, new ArrayList<Method>());
+        }
+        for (Method m : c.getMethods()) {
+            if (m.isAnnotationPresent(type)) {
+                Level level = type == Setup.class
+                        ? m.getAnnotation(Setup.class).value() : m.getAnnotation(TearDown.class).value();
+                fixtures.get(level).add(m);
+            }
+        }
+        for (List<Method> methods : fixtures.values()) {
+            Collections.sort(methods, METHOD_ORDER);
+        }
+        return fixtures;
+    }
+
+    private static List<Field> getParamFields(Class<?> c) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Field f : c.getFields()) {
+            if (f.isAnnotationPresent(Param.class)) {
+                if (Modifier.isStatic(f.getModifiers()) || Modifier.isFinal(f.getModifiers())) {
+                    throw new IllegalArgumentException("A parameter must be neither static nor final: " + f);
+                }
+                fields.add(f);
+            }
+        }
+        Collections.sort(fields, FIELD_ORDER);
+        return fields;
+    }
+
+    private List<Map<String, String>> getCombinations(List<Field> fields) {
+        List<Map<String, String>> combinations = new ArrayList<Map<String, String>>();
+        combinations.add(new LinkedHashMap<String, String>());
+        for (Field f : fields) {
+            String[] values = params.containsKey(f.getName()) ? params.get(f.getName()) : f.getAnnotation(Param.class).value();
+            List<Map<String, String>> expanded = new ArrayList<Map<String, String>>();
+            for (Map<String, String> combination : combinations) {
+                for (String value : values) {
+                    Map<String, String> c = new LinkedHashMap<String, String>(combination);
+                    c.put(f.getName(), value);
+                    expanded.add(c);
+                }
+            }
+            combinations = expanded;
+        }
+        return combinations;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(Class<?> type, String value) {
+        if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(value);
+        } else if (type == long.class || type == Long.class) {
+            return Long.valueOf(value);
+        } else if (type == double.class || type == Double.class) {
+            return Double.valueOf(value);
+        } else if (type == float.class || type == Float.class) {
+            return Float.valueOf(value);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value);
+        } else if (type == String.class) {
+            return value;
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class) type, value);
+        }
+        throw new IllegalArgumentException("Unsupported parameter type: " + type);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty(HeadlessLookup.LOOKUP_PROPERTY) == null) {
+            System.setProperty(HeadlessLookup.LOOKUP_PROPERTY, HeadlessLookup.class.getName());
+        }
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        BenchmarkRunner runner = new BenchmarkRunner();
+        ResultFormat format = null;
+        File file = null;
+        boolean list = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-p")) {
+                String param = args[++i];
+                int eq = param.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("A parameter is given as name=value,...: " + param);
+                }
+                runner.setParam(param.substring(0, eq), param.substring(eq + 1).split(","));
+            } else if (arg.equals("-wi")) {
+                runner.setWarmupIterations(Integer.parseInt(args[++i]));
+            } else if (arg.equals("-i")) {
+                runner.setMeasurementIterations(Integer.parseInt(args[++i]));
+            } else if (arg.equals("-r")) {
+                runner.setIterationTime(Long.parseLong(args[++i]));
+            } else if (arg.equals("-rf")) {
+                format = ResultFormat.valueOf(args[++i].toUpperCase(Locale.US));
+            } else if (arg.equals("-rff")) {
+                file = new File(args[++i]);
+            } else if (arg.equals("-l")) {
+                list = true;
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("Unknown option: " + arg + ", usage: BenchmarkRunner [regexp...] "
+                        + "[-p name=value,...] [-wi iterations] [-i iterations] [-r millis] [-rf text|json|csv] [-rff file] [-l]");
+            } else {
+                runner.addInclude(arg);
+            }
+        }
+        if (list) {
+            for (String name : runner.list(BENCHMARKS)) {
+                System.out.println(name);
+            }
+            return;
+        }
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out));
+        runner.setLog(out);
+        List<BenchmarkResult> results = runner.run(BENCHMARKS);
+        out.println();
+        ResultFormat.TEXT.write(results, out);
+        if (file != null) {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            try {
+                (format != null ? format : ResultFormat.JSON).write(results, writer);
+            } finally {
+                writer.close();
+            }
+            out.println("Results are written to " + file.getAbsolutePath());
+        } else if (format != null && format != ResultFormat.TEXT) {
+            format.write(results, out);
+        }
+        out.flush();
+    }
+}
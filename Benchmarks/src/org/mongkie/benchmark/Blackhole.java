@@ -0,0 +1,60 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+/**
+ * Consumes the values computed by a benchmark, so that the JIT compiler can
+ * not eliminate the code computing them as dead. The values are folded into a
+ * sink published once per iteration, which is cheaper than a volatile write
+ * per value.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class Blackhole {
+
+    private long sink;
+    private volatile long published;
+
+    Blackhole() {
+    }
+
+    public void consume(Object o) {
+        sink = sink * 31 + (o == null ? 0 : 1);
+    }
+
+    public void consume(boolean b) {
+        sink = sink * 31 + (b ? 1 : 0);
+    }
+
+    public void consume(int i) {
+        sink = sink * 31 + i;
+    }
+
+    public void consume(long l) {
+        sink = sink * 31 + l;
+    }
+
+    public void consume(double d) {
+        sink = sink * 31 + Double.doubleToRawLongBits(d);
+    }
+
+    void publish() {
+        published = sink;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.Timer;
+import java.util.TimerTask;
+import org.mongkie.layout.LayoutController;
+import org.mongkie.layout.LayoutModel;
+import org.mongkie.layout.LayoutModelChangeListener;
+import org.mongkie.layout.spi.Layout;
+import org.mongkie.layout.spi.LayoutBuilder;
+import org.mongkie.visualization.MongkieDisplay;
+
+/**
+ * A {@link LayoutController} running the layouts on a display given by the
+ * benchmarks rather than the selected one, without the selection only mode.
+ * The layouts run synchronously in the calling thread, the same way as they
+ * run in a long task of the platform.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class HeadlessLayoutController implements LayoutController {
+
+    private static final Timer timer = new Timer("HeadlessLayoutController", true);
+    private final Model model = new Model();
+    private long timeLimit = 60000;
+
+    HeadlessLayoutController() {
+    }
+
+    /**
+     * Sets the display the layouts run on.
+     */
+    public void setDisplay(MongkieDisplay display) {
+        if (model.running) {
+            throw new IllegalStateException("Can not change the display while a layout is running");
+        }
+        model.display = display;
+        if (model.layout != null) {
+            model.layout.setDisplay(display);
+        }
+    }
+
+    /**
+     * Sets the time a layout, running until stopped on small graphs, is
+     * stopped after.
+     *
+     * @param millis the time limit in milliseconds
+     */
+    public void setTimeLimit(long millis) {
+        timeLimit = millis;
+    }
+
+    @Override
+    public LayoutModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void addModelChangeListener(LayoutModelChangeListener l) {
+    }
+
+    @Override
+    public void removeModelChangeListener(LayoutModelChangeListener l) {
+    }
+
+    @Override
+    public boolean setSelectionOnly(boolean selectionOnly) {
+        return false;
+    }
+
+    @Override
+    public void setLayout(LayoutBuilder builder) {
+        Layout old = model.layout;
+        model.layout = builder.buildLayout();
+        if (model.display != null) {
+            model.layout.setDisplay(model.display);
+        }
+        model.pcs.firePropertyChange(LayoutModel.SELECTED_LAYOUT, old, model.layout);
+    }
+
+    @Override
+    public void executeLayout() {
+        if (!canExecute()) {
+            throw new IllegalStateException("No layout or display is set");
+        }
+        final Layout layout = model.layout;
+        TimerTask stop = new TimerTask() {
+            @Override
+            public void run() {
+                layout.cancelAlgo();
+            }
+        };
+        model.setRunning(true);
+        timer.schedule(stop, timeLimit);
+        try {
+            layout.initAlgo();
+            while (layout.hasNextStep()) {
+                layout.goAlgo();
+            }
+            layout.endAlgo();
+        } finally {
+            stop.cancel();
+            model.setRunning(false);
+        }
+    }
+
+    @Override
+    public boolean canExecute() {
+        return model.layout != null && model.display != null && !model.running;
+    }
+
+    @Override
+    public void stopLayout() {
+        if (model.running) {
+            model.layout.cancelAlgo();
+        }
+    }
+
+    @Override
+    public boolean canStop() {
+        return model.running;
+    }
+
+    private static class Model implements LayoutModel {
+
+        private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+        private volatile MongkieDisplay display;
+        private volatile Layout layout;
+        private volatile boolean running;
+
+        @Override
+        public MongkieDisplay getDisplay() {
+            return display;
+        }
+
+        @Override
+        public boolean isSelectionOnly() {
+            return false;
+        }
+
+        @Override
+        public Layout getSelectedLayout() {
+            return layout;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        private void setRunning(boolean running) {
+            this.running = running;
+            pcs.firePropertyChange(IS_RUNNING, !running, running);
+        }
+
+        @Override
+        public void addPropertyChangeListener(PropertyChangeListener listener) {
+            pcs.addPropertyChangeListener(listener);
+        }
+
+        @Override
+        public void removePropertyChangeListener(PropertyChangeListener listener) {
+            pcs.removePropertyChangeListener(listener);
+        }
+    }
+}
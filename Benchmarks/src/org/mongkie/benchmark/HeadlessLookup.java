@@ -0,0 +1,42 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import org.openide.util.lookup.Lookups;
+import org.openide.util.lookup.ProxyLookup;
+
+/**
+ * The default lookup of the benchmarks running outside of the platform, set by
+ * the {@link BenchmarkRunner} through the <tt>org.openide.util.Lookup</tt>
+ * system property. It finds the services registered by the modules on the
+ * class path, except the {@link org.mongkie.layout.LayoutController} which is
+ * replaced with a {@link HeadlessLayoutController} not depending on a
+ * selected display.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class HeadlessLookup extends ProxyLookup {
+
+    public static final String LOOKUP_PROPERTY = "org.openide.util.Lookup";
+
+    public HeadlessLookup() {
+        super(Lookups.singleton(new HeadlessLayoutController()),
+                Lookups.metaInfServices(HeadlessLookup.class.getClassLoader()));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+/**
+ * When a {@link Setup} or {@link TearDown} method of a benchmark is called.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public enum Level {
+
+    /**
+     * Once for each combination of the parameter values.
+     */
+    TRIAL,
+    /**
+     * Before or after each warmup and measurement iteration.
+     */
+    ITERATION,
+    /**
+     * Before or after each call of the benchmark method, outside of the
+     * measured time.
+     */
+    INVOCATION
+}
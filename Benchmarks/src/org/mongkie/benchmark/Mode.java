@@ -0,0 +1,76 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+/**
+ * How a {@link Benchmark} method is measured and its score is reported.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public enum Mode {
+
+    /**
+     * Calls the method repeatedly for the iteration time and reports the
+     * operations per second.
+     */
+    THROUGHPUT("thrpt", "ops/s"),
+    /**
+     * Calls the method repeatedly for the iteration time and reports the
+     * average time of an operation.
+     */
+    AVERAGE_TIME("avgt", "us/op"),
+    /**
+     * Calls the method once per iteration and reports its time, for the
+     * macrobenchmarks running a whole scripted task.
+     */
+    SINGLE_SHOT("ss", "ms/op");
+    private final String shortLabel;
+    private final String unit;
+
+    private Mode(String shortLabel, String unit) {
+        this.shortLabel = shortLabel;
+        this.unit = unit;
+    }
+
+    public String shortLabel() {
+        return shortLabel;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    /**
+     * Returns the score of an iteration in the unit of this mode.
+     *
+     * @param operations the number of operations performed
+     * @param nanos the time the operations took
+     * @return the score
+     */
+    double score(long operations, long nanos) {
+        switch (this) {
+            case THROUGHPUT:
+                return operations * 1e9 / nanos;
+            case AVERAGE_TIME:
+                return nanos / 1e3 / operations;
+            default:
+                return nanos / 1e6 / operations;
+        }
+    }
+}
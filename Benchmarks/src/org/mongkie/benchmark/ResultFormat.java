@@ -0,0 +1,214 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The formats the {@link BenchmarkRunner} writes the results in. The
+ * <tt>JSON</tt> and <tt>CSV</tt> formats follow the ones of JMH, so that the
+ * results of releases can be compared with its tools.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public enum ResultFormat {
+
+    TEXT {
+        @Override
+        public void write(List<BenchmarkResult> results, PrintWriter out) {
+            int width = "Benchmark".length();
+            for (BenchmarkResult r : results) {
+                width = Math.max(width, label(r).length());
+            }
+            out.println(String.format(Locale.US, "%-" + width + "s  %5s  %3s  %14s    %12s  %s",
+                    "Benchmark", "Mode", "Cnt", "Score", "Error", "Units"));
+            for (BenchmarkResult r : results) {
+                out.println(String.format(Locale.US, "%-" + width + "s  %5s  %3d  %14.3f +- %12.3f  %s",
+                        label(r), r.getMode().shortLabel(), r.getSamples().length, r.getScore(), r.getScoreError(), r.getUnit()));
+            }
+            out.flush();
+        }
+
+        private String label(BenchmarkResult r) {
+            StringBuilder label = new StringBuilder(r.getBenchmark().substring(r.getBenchmark().lastIndexOf('.', r.getBenchmark().lastIndexOf('.') - 1) + 1));
+            if (!r.getParams().isEmpty()) {
+                label.append(r.getParams());
+            }
+            return label.toString();
+        }
+    },
+    JSON {
+        @Override
+        public void write(List<BenchmarkResult> results, PrintWriter out) {
+            List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+            out.println("[");
+            for (Iterator<BenchmarkResult> i = results.iterator(); i.hasNext();) {
+                BenchmarkResult r = i.next();
+                out.println("    {");
+                out.println("        \"benchmark\" : " + quote(r.getBenchmark()) + ",");
+                out.println("        \"mode\" : " + quote(r.getMode().shortLabel()) + ",");
+                out.println("        \"threads\" : 1,");
+                out.println("        \"forks\" : 0,");
+                out.println("        \"jvm\" : " + quote(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java") + ",");
+                out.println("        \"jvmArgs\" : " + quote(jvmArgs) + ",");
+                out.println("        \"jdkVersion\" : " + quote(System.getProperty("java.version")) + ",");
+                out.println("        \"vmName\" : " + quote(System.getProperty("java.vm.name")) + ",");
+                out.println("        \"vmVersion\" : " + quote(System.getProperty("java.vm.version")) + ",");
+                out.println("        \"warmupIterations\" : " + r.getWarmupIterations() + ",");
+                out.println("        \"warmupTime\" : " + quote(time(r.getMode(), r.getWarmupTime())) + ",");
+                out.println("        \"measurementIterations\" : " + r.getMeasurementIterations() + ",");
+                out.println("        \"measurementTime\" : " + quote(time(r.getMode(), r.getMeasurementTime())) + ",");
+                if (!r.getParams().isEmpty()) {
+                    out.println("        \"params\" : {");
+                    for (Iterator<Map.Entry<String, String>> p = r.getParams().entrySet().iterator(); p.hasNext();) {
+                        Map.Entry<String, String> param = p.next();
+                        out.println("            " + quote(param.getKey()) + " : " + quote(param.getValue()) + (p.hasNext() ? "," : ""));
+                    }
+                    out.println("        },");
+                }
+                double score = r.getScore(), error = r.getScoreError();
+                out.println("        \"primaryMetric\" : {");
+                out.println("            \"score\" : " + number(score) + ",");
+                out.println("            \"scoreError\" : " + number(error) + ",");
+                out.println("            \"scoreConfidence\" : [");
+                out.println("                " + number(score - error) + ",");
+                out.println("                " + number(score + error));
+                out.println("            ],");
+                out.println("            \"scoreUnit\" : " + quote(r.getUnit()) + ",");
+                out.println("            \"rawData\" : [");
+                out.println("                [");
+                double[] samples = r.getSamples();
+                for (int s = 0; s < samples.length; s++) {
+                    out.println("                    " + number(samples[s]) + (s < samples.length - 1 ? "," : ""));
+                }
+                out.println("                ]");
+                out.println("            ]");
+                out.println("        },");
+                out.println("        \"secondaryMetrics\" : {");
+                out.println("        }");
+                out.println("    }" + (i.hasNext() ? "," : ""));
+            }
+            out.println("]");
+            out.flush();
+        }
+
+        private String number(double d) {
+            return Double.isNaN(d) || Double.isInfinite(d) ? quote(String.valueOf(d)) : String.valueOf(d);
+        }
+
+        private String quote(Collection<String> values) {
+            StringBuilder s = new StringBuilder("[");
+            for (Iterator<String> i = values.iterator(); i.hasNext();) {
+                s.append(quote(i.next())).append(i.hasNext() ? ", " : "");
+            }
+            return s.append(']').toString();
+        }
+
+        private String quote(String s) {
+            StringBuilder q = new StringBuilder("\"");
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    q.append('\\').append(c);
+                } else if (c < ' ') {
+                    q.append(String.format("\\u%04x", (int) c));
+                } else {
+                    q.append(c);
+                }
+            }
+            return q.append('"').toString();
+        }
+    },
+    CSV {
+        @Override
+        public void write(List<BenchmarkResult> results, PrintWriter out) {
+            Set<String> params = new LinkedHashSet<String>();
+            for (BenchmarkResult r : results) {
+                params.addAll(r.getParams().keySet());
+            }
+            List<String> header = new ArrayList<String>();
+            header.add("Benchmark");
+            header.add("Mode");
+            header.add("Threads");
+            header.add("Samples");
+            header.add("Score");
+            header.add("Score Error (99.9%)");
+            header.add("Unit");
+            for (String p : params) {
+                header.add("Param: " + p);
+            }
+            writeRow(header, out);
+            for (BenchmarkResult r : results) {
+                List<String> row = new ArrayList<String>();
+                row.add(r.getBenchmark());
+                row.add(r.getMode().shortLabel());
+                row.add("1");
+                row.add(String.valueOf(r.getSamples().length));
+                row.add(String.valueOf(r.getScore()));
+                row.add(String.valueOf(r.getScoreError()));
+                row.add(r.getUnit());
+                for (String p : params) {
+                    String value = r.getParams().get(p);
+                    row.add(value == null ? "" : value);
+                }
+                writeRow(row, out);
+            }
+            out.flush();
+        }
+
+        private void writeRow(List<String> values, PrintWriter out) {
+            StringBuilder row = new StringBuilder();
+            for (String v : values) {
+                if (row.length() > 0) {
+                    row.append(',');
+                }
+                boolean numeric = true;
+                try {
+                    Double.parseDouble(v);
+                } catch (NumberFormatException ex) {
+                    numeric = false;
+                }
+                row.append(numeric ? v : '"' + v.replace("\"", "\"\"") + '"');
+            }
+            out.println(row);
+        }
+    };
+
+    /**
+     * Writes the results to the given writer.
+     *
+     * @param results the results to write
+     * @param out the writer
+     */
+    public abstract void write(List<BenchmarkResult> results, PrintWriter out);
+
+    private static String time(Mode mode, long millis) {
+        return mode == Mode.SINGLE_SHOT ? "single-shot" : millis + " ms";
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import kobic.prefuse.data.GraphFactory;
+import org.mongkie.visualization.MongkieDisplay;
+import prefuse.Visualization;
+import prefuse.data.Graph;
+import prefuse.util.PrefuseLib;
+import prefuse.visual.VisualItem;
+
+/**
+ * Generates the synthetic networks the benchmarks run on, seeded so that the
+ * runs of different releases measure the same networks.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class SyntheticNetworks {
+
+    public static final String NAME = "name";
+    public static final String SCORE = "score";
+    public static final String WEIGHT = "weight";
+    public static final long SEED = 20130101L;
+
+    /**
+     * The random graph models of the networks.
+     */
+    public static enum Model {
+
+        /**
+         * The Erdős–Rényi model, edges between uniformly chosen nodes.
+         */
+        RANDOM,
+        /**
+         * The Barabási–Albert model, nodes attached to the existing ones by
+         * preferential attachment, giving the power-law degrees of biological
+         * networks.
+         */
+        SCALE_FREE
+    }
+
+    private SyntheticNetworks() {
+    }
+
+    /**
+     * Creates an undirected network with a node name and score, and an edge
+     * weight.
+     *
+     * @param model the random graph model
+     * @param nodes the number of nodes
+     * @param degree the average degree of the nodes
+     * @param seed the seed of the generator
+     * @return the network
+     */
+    public static Graph create(Model model, int nodes, int degree, long seed) {
+        Random random = new Random(seed);
+        Graph g = GraphFactory.create(NAME);
+        g.getNodeTable().addColumn(SCORE, double.class);
+        g.getEdgeTable().addColumn(WEIGHT, double.class);
+        for (int i = 0; i < nodes; i++) {
+            int n = g.addNodeRow();
+            g.getNodeTable().setString(n, NAME, "N" + i);
+            g.getNodeTable().setDouble(n, SCORE, random.nextDouble());
+        }
+        int[][] edges = model == Model.RANDOM
+                ? random(nodes, (long) nodes * degree / 2, random) : scaleFree(nodes, Math.max(degree / 2, 1), random);
+        for (int[] e : edges) {
+            g.getEdgeTable().setDouble(g.addEdge(e[0], e[1]), WEIGHT, random.nextDouble());
+        }
+        return g;
+    }
+
+    /**
+     * Returns distinct random pairs of distinct nodes.
+     */
+    static int[][] random(int nodes, long edges, Random random) {
+        edges = Math.min(edges, (long) nodes * (nodes - 1) / 2);
+        int[][] pairs = new int[(int) edges][];
+        Set<Long> seen = new HashSet<Long>();
+        for (int e = 0; e < pairs.length;) {
+            int s = random.nextInt(nodes), t = random.nextInt(nodes);
+            if (s != t && seen.add((long) Math.min(s, t) * nodes + Math.max(s, t))) {
+                pairs[e++] = new int[]{s, t};
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns the edges of a Barabási–Albert graph, each node attached to
+     * <tt>m</tt> earlier ones chosen with a probability proportional to their
+     * degrees, by sampling the endpoints of the edges so far.
+     */
+    static int[][] scaleFree(int nodes, int m, Random random) {
+        m = Math.min(m, Math.max(nodes - 1, 0));
+        int count = nodes <= m ? 0 : m * (m - 1) / 2 + (nodes - m) * m;
+        int[][] pairs = new int[count][];
+        int[] endpoints = new int[2 * count];
+        int e = 0;
+        // a clique seeds the attachment
+        for (int s = 0; s < m && nodes > m; s++) {
+            for (int t = s + 1; t < m; t++) {
+                endpoints[2 * e] = s;
+                endpoints[2 * e + 1] = t;
+                pairs[e++] = new int[]{s, t};
+            }
+        }
+        Set<Integer> targets = new HashSet<Integer>();
+        for (int s = m; s < nodes && m > 0; s++) {
+            targets.clear();
+            while (targets.size() < m) {
+                targets.add(e == 0 ? random.nextInt(s) : endpoints[random.nextInt(2 * e)]);
+            }
+            for (int t : targets) {
+                endpoints[2 * e] = s;
+                endpoints[2 * e + 1] = t;
+                pairs[e++] = new int[]{s, t};
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Creates a display of a network, sized as given and with its nodes
+     * scattered over it. The layout and animation the display starts with are
+     * cancelled, so that they do not run behind the measurements.
+     *
+     * @param g the network
+     * @param width the width of the display
+     * @param height the height of the display
+     * @return the display
+     */
+    public static MongkieDisplay createDisplay(Graph g, int width, int height) {
+        MongkieDisplay display = new MongkieDisplay(g);
+        display.setSize(width, height);
+        display.cancelLayoutAction();
+        display.getVisualization().cancel(Visualization.ANIMATE);
+        display.getActionList(Visualization.DRAW).run(0);
+        scatter(display, SEED);
+        return display;
+    }
+
+    /**
+     * Places the nodes of a display at random positions within its bounds.
+     *
+     * @param display the display
+     * @param seed the seed of the positions
+     */
+    public static void scatter(MongkieDisplay display, long seed) {
+        Random random = new Random(seed);
+        synchronized (display.getVisualization()) {
+            for (Iterator<?> nodes = display.getVisualGraph().nodes(); nodes.hasNext();) {
+                VisualItem n = (VisualItem) nodes.next();
+                PrefuseLib.setX(n, null, random.nextDouble() * display.getWidth());
+                PrefuseLib.setY(n, null, random.nextDouble() * display.getHeight());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.clustering;
+
+import java.util.Collection;
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Mode;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.Warmup;
+import org.mongkie.clustering.spi.Clustering;
+import org.mongkie.clustering.spi.ClusteringBuilder;
+import org.openide.util.Lookup;
+import prefuse.data.Graph;
+
+/**
+ * Macrobenchmarks running the clustering algorithms registered by the
+ * clustering plugins on synthetic networks, with their default settings.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ClusteringBenchmark {
+
+    /**
+     * The clustering, named after its builder class without the
+     * <tt>Builder</tt> suffix.
+     */
+    @Param({"MCL", "MCODE"})
+    public String clustering;
+    @Param({"1000", "5000"})
+    public int nodes;
+    @Param({"SCALE_FREE"})
+    public SyntheticNetworks.Model model;
+    private Graph graph;
+    private Clustering<?> algorithm;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticNetworks.create(model, nodes, 8, SyntheticNetworks.SEED);
+        for (ClusteringBuilder<?> b : Lookup.getDefault().lookupAll(ClusteringBuilder.class)) {
+            if (b.getClass().getSimpleName().equals(clustering + "Builder")) {
+                algorithm = b.getClustering();
+            }
+        }
+        if (algorithm == null) {
+            throw new IllegalArgumentException("No clustering is registered as " + clustering);
+        }
+    }
+
+    @Benchmark(mode = Mode.SINGLE_SHOT)
+    public Collection<?> execute() {
+        return algorithm.execute(graph);
+    }
+}
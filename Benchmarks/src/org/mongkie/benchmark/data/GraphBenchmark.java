@@ -0,0 +1,106 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.data;
+
+import java.util.Random;
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Level;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.Warmup;
+import prefuse.data.Graph;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Microbenchmarks of the edge insertion, lookup and adjacency iteration of a
+ * {@link Graph}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphBenchmark {
+
+    private static final int OPERATIONS = 1000;
+    private static final int DEGREE = 8;
+    @Param({"1000", "10000"})
+    public int nodes;
+    @Param({"RANDOM", "SCALE_FREE"})
+    public SyntheticNetworks.Model model;
+    private Graph graph, growing;
+    private int[] sources, targets;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticNetworks.create(model, nodes, DEGREE, SyntheticNetworks.SEED);
+        growing = SyntheticNetworks.create(model, nodes, 0, SyntheticNetworks.SEED);
+        Random random = new Random(SyntheticNetworks.SEED);
+        sources = new int[OPERATIONS];
+        targets = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                // half of the lookups find an edge
+                int e = random.nextInt(graph.getEdgeCount());
+                sources[i] = graph.getSourceNode(e);
+                targets[i] = graph.getTargetNode(e);
+            } else {
+                sources[i] = random.nextInt(nodes);
+                targets[i] = random.nextInt(nodes);
+            }
+        }
+    }
+
+    @Setup(Level.INVOCATION)
+    public void clearEdges() {
+        growing.getEdgeTable().clear();
+    }
+
+    @Benchmark(operations = OPERATIONS)
+    public int addEdge() {
+        int e = -1;
+        for (int i = 0; i < OPERATIONS; i++) {
+            e = growing.addEdge(sources[i], targets[i]);
+        }
+        return e;
+    }
+
+    @Benchmark(operations = OPERATIONS)
+    public int getEdge() {
+        int found = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (graph.getEdge(sources[i], targets[i]) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark(operations = OPERATIONS)
+    public int edgeRows() {
+        int sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            for (IntIterator edges = graph.edgeRows(sources[i]); edges.hasNext();) {
+                sum += edges.nextInt();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.data;
+
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.Warmup;
+import prefuse.data.Table;
+import prefuse.data.event.TableListener;
+
+/**
+ * Microbenchmarks of the cell access of a {@link Table} and the dispatch of its
+ * update events to the listeners.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TableBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String VALUE = "value";
+    @Param({"0", "1", "8"})
+    public int listeners;
+    private Table table;
+    private int value;
+    private long events;
+
+    @Setup
+    public void setUp() {
+        table = new Table();
+        table.addColumn(VALUE, int.class);
+        table.addRows(ROWS);
+        for (int i = 0; i < listeners; i++) {
+            table.addTableListener(new TableListener() {
+                @Override
+                public void tableChanged(Table t, int start, int end, int col, int type) {
+                    events += end - start + 1;
+                }
+            });
+        }
+    }
+
+    @Benchmark(operations = ROWS)
+    public int getInt() {
+        int sum = 0;
+        for (int row = 0; row < ROWS; row++) {
+            sum += table.getInt(row, VALUE);
+        }
+        return sum;
+    }
+
+    @Benchmark(operations = ROWS)
+    public void setInt() {
+        int v = ++value;
+        for (int row = 0; row < ROWS; row++) {
+            table.setInt(row, VALUE, v);
+        }
+    }
+
+    @Benchmark(operations = ROWS)
+    public void setIntBatched() {
+        int v = ++value;
+        table.beginBatch();
+        try {
+            for (int row = 0; row < ROWS; row++) {
+                table.setInt(row, VALUE, v);
+            }
+        } finally {
+            table.commitBatch();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.display;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.TearDown;
+import org.mongkie.benchmark.Warmup;
+import org.mongkie.visualization.MongkieDisplay;
+
+/**
+ * Benchmarks of painting a whole frame of a display showing a synthetic
+ * network, into an offscreen image.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PaintBenchmark {
+
+    private static final int WIDTH = 1024, HEIGHT = 768;
+    @Param({"1000", "10000"})
+    public int nodes;
+    @Param({"false", "true"})
+    public boolean highQuality;
+    private MongkieDisplay display;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        display = SyntheticNetworks.createDisplay(
+                SyntheticNetworks.create(SyntheticNetworks.Model.SCALE_FREE, nodes, 4, SyntheticNetworks.SEED), WIDTH, HEIGHT);
+        display.setHighQuality(highQuality);
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public void paint() {
+        display.damageReport();
+        display.paintComponent(graphics);
+    }
+}
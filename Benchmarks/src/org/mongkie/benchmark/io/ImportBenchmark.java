@@ -0,0 +1,71 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.Warmup;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+import prefuse.data.io.CSVTableReader;
+import prefuse.data.io.CSVTableWriter;
+import prefuse.data.io.DataIOException;
+import prefuse.data.io.GraphMLReader;
+import prefuse.data.io.GraphMLWriter;
+
+/**
+ * Microbenchmarks of the parsing of the CSV tables and GraphML networks the
+ * importers read, from memory so that the disk is not measured.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ImportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int nodes;
+    private byte[] csv, graphML;
+
+    @Setup
+    public void setUp() throws DataIOException {
+        Graph g = SyntheticNetworks.create(SyntheticNetworks.Model.SCALE_FREE, nodes, 8, SyntheticNetworks.SEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CSVTableWriter().writeTable(g.getNodeTable(), out);
+        csv = out.toByteArray();
+        out = new ByteArrayOutputStream();
+        new GraphMLWriter().writeGraph(g, out);
+        graphML = out.toByteArray();
+    }
+
+    @Benchmark
+    public Table readCSV() throws DataIOException {
+        return new CSVTableReader().readTable(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public Graph readGraphML() throws DataIOException {
+        return new GraphMLReader().readGraph(new ByteArrayInputStream(graphML));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.io;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import kobic.prefuse.data.io.GraphIO;
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.TearDown;
+import org.mongkie.benchmark.Warmup;
+import prefuse.data.Graph;
+
+/**
+ * Microbenchmarks of saving and loading the networks in the <tt>.vizgraph</tt>
+ * formats, the serialized tables and the columnar one, through a file.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VizGraphBenchmark {
+
+    // keeps the logger, so that its level is not reset when it is collected
+    private static final Logger logger = Logger.getLogger(GraphIO.class.getName());
+    @Param({"1000", "10000", "20000"})
+    public int nodes;
+    @Param({"serializable", "columnar"})
+    public String format;
+    private Graph graph;
+    private File saved, file;
+
+    @Setup
+    public void setUp() throws IOException {
+        logger.setLevel(Level.WARNING);
+        graph = SyntheticNetworks.create(SyntheticNetworks.Model.SCALE_FREE, nodes, 8, SyntheticNetworks.SEED);
+        saved = File.createTempFile("benchmark", ".vizgraph");
+        file = File.createTempFile("benchmark", ".vizgraph");
+        write(graph, saved);
+    }
+
+    @TearDown
+    public void tearDown() {
+        saved.delete();
+        file.delete();
+    }
+
+    private boolean write(Graph g, File f) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(f));
+        try {
+            return format.equals("columnar") ? GraphIO.writeColumnarGraph(g, out) : GraphIO.writeSerializableGraph(g, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Benchmark
+    public boolean save() throws IOException {
+        return write(graph, file);
+    }
+
+    @Benchmark
+    public Graph load() throws IOException {
+        InputStream in = new FileInputStream(saved);
+        try {
+            return format.equals("columnar") ? GraphIO.readColumnarGraph(in) : GraphIO.readSerializableGraph(in);
+        } finally {
+            in.close();
+        }
+    }
+}
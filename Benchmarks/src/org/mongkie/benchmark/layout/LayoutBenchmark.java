@@ -0,0 +1,94 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark.layout;
+
+import org.mongkie.benchmark.Benchmark;
+import org.mongkie.benchmark.HeadlessLayoutController;
+import org.mongkie.benchmark.HeadlessLookup;
+import org.mongkie.benchmark.Level;
+import org.mongkie.benchmark.Measurement;
+import org.mongkie.benchmark.Mode;
+import org.mongkie.benchmark.Param;
+import org.mongkie.benchmark.Setup;
+import org.mongkie.benchmark.SyntheticNetworks;
+import org.mongkie.benchmark.Warmup;
+import org.mongkie.layout.LayoutController;
+import org.mongkie.layout.spi.LayoutBuilder;
+import org.mongkie.visualization.MongkieDisplay;
+import org.openide.util.Lookup;
+
+/**
+ * Macrobenchmarks running the layout algorithms registered by the layout
+ * plugins on synthetic networks, from the same scattered positions every time,
+ * the way the layout controller runs them. The layouts animated by the
+ * activities of the display are measured with their frame pacing, as users see
+ * them.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class LayoutBenchmark {
+
+    /**
+     * The layout, named after its builder class without the
+     * <tt>LayoutBuilder</tt> suffix.
+     */
+    @Param({"Circle", "ForceDirected", "FruchtermanReingold", "Grid", "Multilevel", "RadialTree", "Random"})
+    public String layout;
+    @Param({"1000", "5000"})
+    public int nodes;
+    @Param({"SCALE_FREE"})
+    public SyntheticNetworks.Model model;
+    private MongkieDisplay display;
+    private HeadlessLayoutController controller;
+
+    @Setup
+    public void setUp() {
+        LayoutController c = Lookup.getDefault().lookup(LayoutController.class);
+        if (!(c instanceof HeadlessLayoutController)) {
+            throw new IllegalStateException("The layouts run with the " + HeadlessLookup.LOOKUP_PROPERTY
+                    + " system property set to " + HeadlessLookup.class.getName());
+        }
+        controller = (HeadlessLayoutController) c;
+        display = SyntheticNetworks.createDisplay(
+                SyntheticNetworks.create(model, nodes, 4, SyntheticNetworks.SEED), 1024, 768);
+        controller.setDisplay(display);
+        controller.setLayout(getBuilder(layout));
+    }
+
+    static LayoutBuilder<?> getBuilder(String name) {
+        for (LayoutBuilder<?> b : Lookup.getDefault().lookupAll(LayoutBuilder.class)) {
+            if (b.getClass().getSimpleName().equals(name + "LayoutBuilder")) {
+                return b;
+            }
+        }
+        throw new IllegalArgumentException("No layout is registered as " + name);
+    }
+
+    @Setup(Level.INVOCATION)
+    public void scatter() {
+        SyntheticNetworks.scatter(display, SyntheticNetworks.SEED);
+    }
+
+    @Benchmark(mode = Mode.SINGLE_SHOT)
+    public void run() {
+        controller.executeLayout();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.benchmark;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import prefuse.data.Graph;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class BenchmarkRunnerTest {
+
+    public BenchmarkRunnerTest() {
+    }
+
+    @Warmup(iterations = 1, time = 20)
+    @Measurement(iterations = 2, time = 20)
+    public static class Counting {
+
+        @Param({"1", "2"})
+        public int size;
+        @Param({"RANDOM"})
+        public SyntheticNetworks.Model model;
+        public static int trials, iterations, invocations;
+        private int[] values;
+
+        @Setup
+        public void setUp() {
+            trials++;
+            values = new int[size];
+        }
+
+        @Setup(Level.ITERATION)
+        public void next() {
+            iterations++;
+        }
+
+        @TearDown(Level.INVOCATION)
+        public void invoked() {
+            invocations++;
+        }
+
+        @Benchmark(operations = 10)
+        public int sum() {
+            int sum = 0;
+            for (int v : values) {
+                sum += v;
+            }
+            return sum;
+        }
+
+        @Benchmark(mode = Mode.SINGLE_SHOT)
+        public void once(Blackhole blackhole) {
+            blackhole.consume(values.length);
+        }
+    }
+
+    @Test
+    public void testRun() {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.addInclude("Counting.once");
+        List<BenchmarkResult> results = runner.run(Counting.class);
+
+        // a trial for each parameter value, an invocation per single shot iteration
+        assertEquals(2, results.size());
+        assertEquals(2, Counting.trials);
+        assertEquals(6, Counting.iterations);
+        assertEquals(6, Counting.invocations);
+        BenchmarkResult r = results.get(0);
+        assertEquals(Counting.class.getName() + ".once", r.getBenchmark());
+        assertEquals("1", r.getParams().get("size"));
+        assertEquals("RANDOM", r.getParams().get("model"));
+        assertEquals(2, r.getSamples().length);
+        assertEquals("ms/op", r.getUnit());
+
+        runner = new BenchmarkRunner();
+        runner.addInclude("Counting.sum");
+        runner.setParam("size", "3");
+        results = runner.run(Counting.class);
+        assertEquals(1, results.size());
+        assertEquals("3", results.get(0).getParams().get("size"));
+        assertTrue(results.get(0).getScore() > 0);
+        assertFalse(Double.isNaN(results.get(0).getScoreError()));
+
+        StringWriter json = new StringWriter();
+        ResultFormat.JSON.write(results, new PrintWriter(json));
+        assertTrue(json.toString().contains("\"benchmark\" : \"" + Counting.class.getName() + ".sum\""));
+        assertTrue(json.toString().contains("\"size\" : \"3\""));
+        StringWriter csv = new StringWriter();
+        ResultFormat.CSV.write(results, new PrintWriter(csv));
+        assertTrue(csv.toString().startsWith("\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\",\"Param: model\",\"Param: size\""));
+    }
+
+    @Test
+    public void testSyntheticNetworks() {
+        for (SyntheticNetworks.Model model : SyntheticNetworks.Model.values()) {
+            Graph g = SyntheticNetworks.create(model, 500, 6, SyntheticNetworks.SEED);
+            assertEquals(500, g.getNodeCount());
+            assertTrue(model.toString(), Math.abs(g.getEdgeCount() - 1500) < 20);
+            for (int e = 0; e < g.getEdgeCount(); e++) {
+                assertTrue(g.getSourceNode(e) != g.getTargetNode(e));
+            }
+            Graph same = SyntheticNetworks.create(model, 500, 6, SyntheticNetworks.SEED);
+            for (int e = 0; e < g.getEdgeCount(); e++) {
+                assertEquals(g.getSourceNode(e), same.getSourceNode(e));
+                assertEquals(g.getTargetNode(e), same.getTargetNode(e));
+            }
+        }
+    }
+}
@@ -169,6 +169,10 @@ public class DistanceMatrix {
             return matrix;
         }
         matrix = DoubleFactory2D.sparse.make(nodes.size(), nodes.size());
+        Map<Node, Integer> nodeIndices = new HashMap<Node, Integer>(nodes.size() * 2);
+        for (int nodeIndex = 0; nodeIndex < nodes.size(); nodeIndex++) {
+            nodeIndices.put(nodes.get(nodeIndex), nodeIndex);
+        }
         int sourceIndex;
         int targetIndex;
         for (int edgeIndex = 0; edgeIndex < edges.size(); edgeIndex++) {
@@ -179,8 +183,8 @@ public class DistanceMatrix {
                 continue; // Nope, don't add it
             }
             /*Add edge to matrix*/
-            sourceIndex = nodes.indexOf(edge.getSourceNode());
-            targetIndex = nodes.indexOf(edge.getTargetNode());
+            sourceIndex = nodeIndices.get(edge.getSourceNode());
+            targetIndex = nodeIndices.get(edge.getTargetNode());
             matrix.set(targetIndex, sourceIndex, edgeWeights[edgeIndex]);
             if (unDirectedEdges) {
                 matrix.set(sourceIndex, targetIndex, edgeWeights[edgeIndex]);
@@ -0,0 +1,362 @@
+/*
+ *  This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ *  Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ *  MONGKIE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ * 
+ *  MONGKIE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ * 
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.clustering.plugins.clustermaker.mcl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Square sparse matrix in compressed sparse column form, which keeps the row
+ * indices and the values of all nonzero cells in primitive arrays column by
+ * column. MCL works on column stochastic matrices, so the expansion, the
+ * inflation and the normalization are all done one column at a time.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class CompressedColumnMatrix {
+
+    // Columns of the product computed by a single task of the expansion
+    private static final int MIN_CHUNK_SIZE = 256;
+    private final int size;
+    private final int[] columnStarts;
+    private int[] rows;
+    private double[] values;
+
+    private CompressedColumnMatrix(int size, int[] columnStarts, int[] rows, double[] values) {
+        this.size = size;
+        this.columnStarts = columnStarts;
+        this.rows = rows;
+        this.values = values;
+    }
+
+    /**
+     * Create a matrix from its nonzero cells given in any order, without
+     * duplicated cells.
+     *
+     * @param size the number of rows and columns
+     * @param cellRows the row of each cell
+     * @param cellColumns the column of each cell
+     * @param cellValues the value of each cell
+     * @param count the number of cells
+     */
+    static CompressedColumnMatrix create(int size, int[] cellRows, int[] cellColumns, double[] cellValues, int count) {
+        int[] columnStarts = new int[size + 1];
+        for (int i = 0; i < count; i++) {
+            columnStarts[cellColumns[i] + 1]++;
+        }
+        for (int col = 0; col < size; col++) {
+            columnStarts[col + 1] += columnStarts[col];
+        }
+        int[] fill = Arrays.copyOf(columnStarts, size);
+        int[] rows = new int[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            int p = fill[cellColumns[i]]++;
+            rows[p] = cellRows[i];
+            values[p] = cellValues[i];
+        }
+        return new CompressedColumnMatrix(size, columnStarts, rows, values);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of nonzero cells
+     */
+    int cardinality() {
+        return columnStarts[size];
+    }
+
+    /**
+     * @return the index of the first cell of the given column, and the end of
+     * the cells of the previous column
+     */
+    int getColumnStart(int col) {
+        return columnStarts[col];
+    }
+
+    int getRow(int cell) {
+        return rows[cell];
+    }
+
+    double getValue(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * Raise every nonzero cell to the given power in place.
+     */
+    void power(double p) {
+        for (int i = 0, end = columnStarts[size]; i < end; i++) {
+            values[i] = Math.pow(values[i], p);
+        }
+    }
+
+    /**
+     * Normalize every column to sum to 1 in place, after removing the cells
+     * below the threshold if prune is true. A column left without any cell is
+     * replaced by a single 1 on the diagonal.
+     */
+    void normalize(double threshold, boolean prune) {
+        int emptyColumns = 0;
+        int write = 0;
+        int start = columnStarts[0];
+        for (int col = 0; col < size; col++) {
+            int end = columnStarts[col + 1];
+            int first = write;
+            double sum = 0;
+            for (int p = start; p < end; p++) {
+                double value = values[p];
+                if (prune && value < threshold) {
+                    continue;
+                }
+                rows[write] = rows[p];
+                values[write++] = value;
+                sum += value;
+            }
+            if (sum == 0.0) {
+                // a column of only zeros is normalized to the diagonal below
+                write = first;
+                emptyColumns++;
+            } else {
+                for (int p = first; p < write; p++) {
+                    values[p] /= sum;
+                }
+            }
+            start = end;
+            columnStarts[col + 1] = write;
+        }
+        if (emptyColumns > 0) {
+            setEmptyDiagonals(emptyColumns);
+        }
+    }
+
+    private void setEmptyDiagonals(int emptyColumns) {
+        int[] newRows = new int[columnStarts[size] + emptyColumns];
+        double[] newValues = new double[newRows.length];
+        int write = 0;
+        int start = columnStarts[0];
+        for (int col = 0; col < size; col++) {
+            int end = columnStarts[col + 1];
+            columnStarts[col] = write;
+            if (start == end) {
+                newRows[write] = col;
+                newValues[write++] = 1.0;
+            } else {
+                System.arraycopy(rows, start, newRows, write, end - start);
+                System.arraycopy(values, start, newValues, write, end - start);
+                write += end - start;
+            }
+            start = end;
+        }
+        columnStarts[size] = write;
+        rows = newRows;
+        values = newValues;
+    }
+
+    /**
+     * Get the residual of a column stochastic matrix, which is the maximum
+     * over all columns of the sum minus the sum of squares. It is 0 only if
+     * every column has a single nonzero cell.
+     */
+    double residual() {
+        double residual = 0.0;
+        for (int col = 0; col < size; col++) {
+            double sum = 0, sumSquares = 0;
+            for (int p = columnStarts[col], end = columnStarts[col + 1]; p < end; p++) {
+                double value = values[p];
+                sum += value;
+                sumSquares += value * value;
+            }
+            residual = Math.max(residual, sum - sumSquares);
+        }
+        return residual;
+    }
+
+    /**
+     * Multiply this matrix by itself. The columns of the product are computed
+     * in parallel chunks if an executor is given, and the cells below the
+     * threshold are left out of each column. A column with more cells than
+     * <tt>maxEntries</tt> keeps only its largest ones, which bounds the fill-in
+     * of the first expansions of large graphs.
+     *
+     * @param threshold the maximum value taken as zero
+     * @param maxEntries the maximum number of cells kept in a column
+     * @param pool the executor for the columns of the product, or null to
+     * compute them in the calling thread
+     * @param threads the number of chunks the columns are split into
+     * @return the product
+     */
+    CompressedColumnMatrix square(double threshold, int maxEntries, ExecutorService pool, int threads) throws InterruptedException {
+        int chunks = pool == null ? 1 : Math.max(1, Math.min(threads, size / MIN_CHUNK_SIZE));
+        int chunkSize = Math.max(1, (size + chunks - 1) / chunks);
+        List<ColumnProduct> products = new ArrayList<ColumnProduct>(chunks);
+        for (int from = 0; from < size; from += chunkSize) {
+            products.add(new ColumnProduct(from, Math.min(from + chunkSize, size), threshold, maxEntries));
+        }
+        if (products.size() > 1) {
+            for (Future<Object> f : pool.invokeAll(products)) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+        } else {
+            for (ColumnProduct product : products) {
+                product.call();
+            }
+        }
+
+        int[] newStarts = new int[size + 1];
+        int count = 0;
+        for (ColumnProduct product : products) {
+            count += product.count;
+        }
+        int[] newRows = new int[count];
+        double[] newValues = new double[count];
+        int offset = 0;
+        for (ColumnProduct product : products) {
+            for (int col = product.from; col < product.to; col++) {
+                newStarts[col + 1] = offset + product.columnEnds[col - product.from];
+            }
+            System.arraycopy(product.rows, 0, newRows, offset, product.count);
+            System.arraycopy(product.values, 0, newValues, offset, product.count);
+            offset += product.count;
+        }
+        return new CompressedColumnMatrix(size, newStarts, newRows, newValues);
+    }
+
+    /**
+     * Find the <tt>k</tt>-th smallest of the first <tt>n</tt> values, which
+     * are reordered.
+     */
+    private static double select(double[] a, int n, int k) {
+        int left = 0, right = n - 1;
+        while (left < right) {
+            double pivot = a[(left + right) >>> 1];
+            int i = left, j = right;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = a[i];
+                    a[i++] = a[j];
+                    a[j--] = tmp;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return a[k];
+    }
+
+    /**
+     * Columns <tt>[from, to)</tt> of the square of this matrix, accumulated
+     * in a dense column one column at a time.
+     */
+    private final class ColumnProduct implements Callable<Object> {
+
+        private final int from, to;
+        private final double threshold;
+        private final int maxEntries;
+        private final int[] columnEnds;
+        private int[] rows;
+        private double[] values;
+        private int count;
+
+        ColumnProduct(int from, int to, double threshold, int maxEntries) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.maxEntries = maxEntries;
+            columnEnds = new int[to - from];
+        }
+
+        @Override
+        public Object call() {
+            int[] aRows = CompressedColumnMatrix.this.rows;
+            double[] aValues = CompressedColumnMatrix.this.values;
+            double[] accumulator = new double[size];
+            boolean[] occupied = new boolean[size];
+            int[] pattern = new int[size];
+            double[] selection = maxEntries < size ? new double[size] : null;
+            int capacity = Math.max(16, columnStarts[to] - columnStarts[from]);
+            rows = new int[capacity];
+            values = new double[capacity];
+            for (int col = from; col < to; col++) {
+                int nonzeros = 0;
+                // column col of A * A is the sum of the columns k of A
+                // weighted by A(k, col)
+                for (int p = columnStarts[col], end = columnStarts[col + 1]; p < end; p++) {
+                    int k = aRows[p];
+                    double a = aValues[p];
+                    for (int q = columnStarts[k], qend = columnStarts[k + 1]; q < qend; q++) {
+                        int row = aRows[q];
+                        if (!occupied[row]) {
+                            occupied[row] = true;
+                            pattern[nonzeros++] = row;
+                        }
+                        accumulator[row] += a * aValues[q];
+                    }
+                }
+                if (count + nonzeros > rows.length) {
+                    capacity = Math.max(rows.length * 2, count + nonzeros);
+                    rows = Arrays.copyOf(rows, capacity);
+                    values = Arrays.copyOf(values, capacity);
+                }
+                double cutoff = threshold;
+                if (nonzeros > maxEntries) {
+                    // keep only the largest cells of a column
+                    for (int i = 0; i < nonzeros; i++) {
+                        selection[i] = accumulator[pattern[i]];
+                    }
+                    cutoff = Math.max(cutoff, select(selection, nonzeros, nonzeros - maxEntries));
+                }
+                for (int i = 0; i < nonzeros; i++) {
+                    int row = pattern[i];
+                    double value = accumulator[row];
+                    if (value >= cutoff) {
+                        rows[count] = row;
+                        values[count++] = value;
+                    }
+                    accumulator[row] = 0;
+                    occupied[row] = false;
+                }
+                columnEnds[col - from] = count;
+            }
+            return null;
+        }
+    }
+}
@@ -48,6 +48,7 @@ public class MCL implements Clustering<MCLCluster> {
     private double clusteringThresh = 1.0E-15;
     private double maxResidual = 1.0E-4;
     private int maxThreads = 0;
+    private int maxColumnEntries = MCLAlgorithm.DEFAULT_MAX_COLUMN_ENTRIES;
     // Distance matrix parameters
     private boolean directed = false;
     private Double edgeCutOff = 1.0D;
@@ -98,10 +99,45 @@ public class MCL implements Clustering<MCLCluster> {
         }
 
         algo.setDebug(false);
+        algo.setMaxColumnEntries(maxColumnEntries);
         List<MCLCluster> results = algo.run();
         return results;
     }
 
+    double getInflationParameter() {
+        return inflationParameter;
+    }
+
+    void setInflationParameter(double inflationParameter) {
+        this.inflationParameter = inflationParameter;
+    }
+
+    int getIterations() {
+        return rNumber;
+    }
+
+    void setIterations(int iterations) {
+        this.rNumber = iterations;
+    }
+
+    /**
+     * @return the number of the largest entries kept in a column by each
+     * expansion, 0 if all are kept
+     */
+    int getMaxColumnEntries() {
+        return maxColumnEntries;
+    }
+
+    /**
+     * Bounds the entries of a column kept by each expansion, which speeds up
+     * dense graphs at the cost of possibly different clusters.
+     *
+     * @param maxColumnEntries the number of entries kept, or 0 to keep all
+     */
+    void setMaxColumnEntries(int maxColumnEntries) {
+        this.maxColumnEntries = Math.max(0, maxColumnEntries);
+    }
+
     @Override
     public boolean cancel() {
         cancelled = true;
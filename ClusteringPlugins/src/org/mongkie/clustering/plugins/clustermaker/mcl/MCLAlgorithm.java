@@ -35,26 +35,23 @@ import org.mongkie.clustering.plugins.clustermaker.DistanceMatrix;
 import java.util.ArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import cern.colt.function.IntIntDoubleFunction;
-import cern.colt.matrix.DoubleFactory2D;
-import cern.colt.matrix.DoubleMatrix1D;
 import cern.colt.matrix.DoubleMatrix2D;
-import cern.colt.matrix.impl.SparseDoubleMatrix2D;
 import java.util.LinkedHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.mongkie.clustering.spi.Cluster;
 import prefuse.data.Edge;
 import prefuse.data.Graph;
 import prefuse.data.Node;
 
 public class MCLAlgorithm {
 
+    public static final int DEFAULT_MAX_COLUMN_ENTRIES = 0; // all entries kept
     private double inflationParameter; //density parameter 
     private int iterationsNumber; //number of inflation/expansion cycles
     private double clusteringThresh; //Threshold used to remove weak edges between distinct clusters
@@ -69,6 +66,7 @@ public class MCLAlgorithm {
     private DoubleMatrix2D matrix = null;
     private boolean debug = false;
     private int nThreads = Runtime.getRuntime().availableProcessors() - 1;
+    private int maxColumnEntries = DEFAULT_MAX_COLUMN_ENTRIES; //Number of the largest values kept in a column by expansion
     private Graph g;
 
     public MCLAlgorithm(Graph g, DistanceMatrix dmatrix,
@@ -100,6 +98,17 @@ public class MCLAlgorithm {
         this.debug = debug;
     }
 
+    /**
+     * Keep only the largest entries of each column after an expansion, which
+     * bounds the time and memory of the first expansions of dense graphs but
+     * may change the clusters found.
+     *
+     * @param maxColumnEntries the number of entries kept, or 0 to keep all
+     */
+    public void setMaxColumnEntries(int maxColumnEntries) {
+        this.maxColumnEntries = maxColumnEntries;
+    }
+
     public List<MCLCluster> run() {
         cancelled = false;
         long startTime = System.currentTimeMillis();
@@ -107,73 +116,77 @@ public class MCLAlgorithm {
         debugln("Initial matrix:");
         printMatrix(matrix);
 
-        // Normalize
-        normalize(matrix, clusteringThresh, false);
+        CompressedColumnMatrix m = toCompressedColumns(matrix);
 
-        debugln("Normalized matrix:");
-        printMatrix(matrix);
+        // Normalize
+        m.normalize(clusteringThresh, false);
+
+        ExecutorService pool = null;
+        if (nThreads > 1) {
+            pool = Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "MCL Expansion");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
 
         // logger.info("Calculating clusters");
 
         double residual = 1.0;
-        IntIntDoubleFunction myPow = new MatrixPow(inflationParameter);
-        // debugln("residual = "+residual+" maxResidual = "+maxResidual);
-        for (int i = 0; (i < iterationsNumber) && (residual > maxResidual); i++) {
-            // Expand
-            {
-                long t = System.currentTimeMillis();
-                logger.log(Level.INFO, "Iteration: {0} expanding..", (i + 1));
-                // debugln("Iteration: "+(i+1)+" expanding ");
-                // printMatrixInfo(matrix);
-                if (nThreads > 1) {
-                    matrix = multiplyMatrix(matrix, matrix);
-                } else {
-                    DoubleMatrix2D newMatrix = DoubleFactory2D.sparse.make(matrix.rows(), matrix.columns());
-                    matrix = matrix.zMult(matrix, newMatrix);
+        try {
+            for (int i = 0; (i < iterationsNumber) && (residual > maxResidual); i++) {
+                // Expand
+                {
+                    long t = System.currentTimeMillis();
+                    logger.log(Level.INFO, "Iteration: {0} expanding..", (i + 1));
+                    m = m.square(clusteringThresh, maxColumnEntries > 0 ? maxColumnEntries : Integer.MAX_VALUE, pool, nThreads);
+                    // Normalize
+                    m.normalize(clusteringThresh, false);
+                    logger.log(Level.FINE, "Expansion {0} took {1}ms", new Object[]{i + 1, System.currentTimeMillis() - t});
                 }
-                // Normalize
-                normalize(matrix, clusteringThresh, false);
-                logger.log(Level.FINE, "Expansion {0} took {1}ms", new Object[]{i + 1, System.currentTimeMillis() - t});
-            }
 
-            // printMatrix(matrix);
-            // debugln("^ "+(i+1)+" after expansion");
-
-            // Inflate
-            {
-                long t = System.currentTimeMillis();
-                logger.log(Level.INFO, "Iteration: {0} inflating..", (i + 1));
-                // debugln("Iteration: "+(i+1)+" inflating");
-                // printMatrixInfo(matrix);
-                matrix.forEachNonZero(myPow);
-                // Normalize
-                normalize(matrix, clusteringThresh, true);
-                logger.log(Level.FINE, "Inflation {0} took {1}ms", new Object[]{i + 1, System.currentTimeMillis() - t});
-            }
+                if (cancelled) {
+                    logger.log(Level.INFO, "cancelled");
+                    return null;
+                }
 
-            // printMatrix(matrix);
-            // debugln("^ "+(i+1)+" after inflation");
+                // Inflate
+                {
+                    long t = System.currentTimeMillis();
+                    logger.log(Level.INFO, "Iteration: {0} inflating..", (i + 1));
+                    m.power(inflationParameter);
+                    // Normalize
+                    m.normalize(clusteringThresh, true);
+                    logger.log(Level.FINE, "Inflation {0} took {1}ms", new Object[]{i + 1, System.currentTimeMillis() - t});
+                }
 
-            matrix.trimToSize();
-            residual = calculateResiduals(matrix);
-            // debugln("Iteration: "+(i+1)+" residual: "+residual);
+                residual = m.residual();
+                // debugln("Iteration: "+(i+1)+" residual: "+residual);
 
-            if (cancelled) {
-                logger.log(Level.INFO, "cancelled");
-                return null;
+                if (cancelled) {
+                    logger.log(Level.INFO, "cancelled");
+                    return null;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
             }
         }
 
-        // If we're in debug mode, output the matrix
-        // printMatrixInfo(matrix);
-        // printMatrix(matrix);
-
         logger.log(Level.INFO, "Assigning nodes to clusters...");
 
-        clusterCount = 0;
-        HashMap<Integer, MCLCluster> clusterMap = new HashMap<Integer, MCLCluster>();
-        matrix.forEachNonZero(new ClusterMatrix(clusterMap));
-        // System.out.println("Cluster map has "+clusterMap.keySet().size()+" clusters");
+        Map<Integer, MCLCluster> clusterMap = assignClusters(m);
+        if (clusterMap == null) {
+            logger.log(Level.INFO, "cancelled");
+            return null;
+        }
 
         //Update node attributes in network to include clusters. Create cygroups from clustered nodes
         logger.log(Level.INFO, "{0} clusters created", clusterCount);
@@ -194,11 +207,6 @@ public class MCLAlgorithm {
                 continue;
             }
 
-            // for (Integer i: cluster) {
-            // 	CyNode node = nodes.get(i.intValue());
-            // 	debug(node.getIdentifier()+"\t");
-            // }
-            // debugln();
             cMap.put(cluster, cluster);
 
             cluster.setClusterNumber(clusterNumber);
@@ -212,75 +220,106 @@ public class MCLAlgorithm {
     }
 
     /**
-     * This method does threshold and normalization.  First, we get rid of
-     * any cells that have a value beneath our threshold and in the same pass
-     * calculate all of the column sums.  Then we use the column sums to normalize
-     * each column such that all of the cells in the column sum to 1.
+     * Copy the nonzero cells of the (sparse) data matrix into compressed
+     * columns.
      *
-     * @param matrix the (sparse) data matrix we're operating on
-     * @param clusteringThresh the maximum value that we will take as a "zero" value
-     * @param prune if 'false', don't prune this pass
+     * @param matrix the (sparse) data matrix
+     * @return the same matrix in compressed sparse column form
      */
-    private void normalize(DoubleMatrix2D matrix, double clusteringThresh, boolean prune) {
-        // Remove any really low values and create the sums array
-        double[] sums = new double[matrix.columns()];
-        matrix.forEachNonZero(new MatrixZeroAndSum(prune, clusteringThresh, sums));
-
-        // Finally, adjust the values
-        matrix.forEachNonZero(new MatrixNormalize(sums));
-
-        // Last step -- find any columns that summed to zero and set the diagonal to 1
-        for (int col = 0; col < sums.length; col++) {
-            if (sums[col] == 0.0) {
-                // debugln("Column "+col+" sums to 0");
-                matrix.set(col, col, 1.0);
+    private CompressedColumnMatrix toCompressedColumns(DoubleMatrix2D matrix) {
+        int cardinality = matrix.cardinality();
+        final int[] rows = new int[cardinality];
+        final int[] columns = new int[cardinality];
+        final double[] values = new double[cardinality];
+        final int[] count = new int[1];
+        matrix.forEachNonZero(new IntIntDoubleFunction() {
+            @Override
+            public double apply(int row, int column, double value) {
+                rows[count[0]] = row;
+                columns[count[0]] = column;
+                values[count[0]++] = value;
+                return value;
             }
-        }
+        });
+        return CompressedColumnMatrix.create(matrix.columns(), rows, columns, values, count[0]);
     }
 
     /**
-     * This method normalizes the weights to between 0 and 1.
+     * Every nonzero cell off the diagonal of the converged matrix joins the
+     * nodes of its row and its column into the same cluster, so the clusters
+     * are the connected components of the nonzero cells. Nodes with only the
+     * diagonal cell are not assigned to any cluster.
      *
-     * @param matrix the (sparse) data matrix we're operating on
-     * @param min the minimum weight
-     * @param max the maximum weight
+     * @param m the converged matrix
+     * @return the cluster of each clustered node by its index, or null if
+     * cancelled
      */
-    private void normalizeWeights(DoubleMatrix2D matrix, double min, double max) {
-        matrix.forEachNonZero(new MatrixNormalizeWeights(min, max));
-    }
+    private Map<Integer, MCLCluster> assignClusters(CompressedColumnMatrix m) {
+        // union-find over the node indices
+        int[] parents = new int[m.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = -1;
+        }
+        for (int col = 0; col < m.size(); col++) {
+            for (int p = m.getColumnStart(col), end = m.getColumnStart(col + 1); p < end; p++) {
+                int row = m.getRow(p);
+                if (row == col) {
+                    continue;
+                }
+                int a = find(parents, row), b = find(parents, col);
+                if (a < 0) {
+                    a = parents[row] = row;
+                }
+                if (b < 0) {
+                    b = parents[col] = col;
+                }
+                if (a != b) {
+                    parents[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+            if (cancelled) {
+                return null;
+            }
+        }
 
-    /**
-     * This method calculates the residuals.  Calculate the sum and
-     * sum of squares for each row, then return the maximum residual.
-     *
-     * @param matrix the (sparse) data matrix we're operating on
-     * @return residual value
-     */
-    private double calculateResiduals(DoubleMatrix2D matrix) {
-        // Calculate and return the residuals
-        double[] sums = new double[matrix.columns()];
-        double[] sumSquares = new double[matrix.columns()];
-        matrix.forEachNonZero(new MatrixSumAndSumSq(sums, sumSquares));
-        double residual = 0.0;
-        for (int i = 0; i < sums.length; i++) {
-            residual = Math.max(residual, sums[i] - sumSquares[i]);
+        clusterCount = 0;
+        Map<Integer, MCLCluster> clusterMap = new HashMap<Integer, MCLCluster>();
+        MCLCluster[] roots = new MCLCluster[m.size()];
+        for (int i = 0; i < parents.length; i++) {
+            int root = find(parents, i);
+            if (root < 0) {
+                continue;
+            }
+            MCLCluster cluster = roots[root];
+            if (cluster == null) {
+                cluster = roots[root] = new MCLCluster(g);
+                clusterCount++;
+            }
+            cluster.add(nodes, i);
+            clusterMap.put(i, cluster);
         }
-        return residual;
+        return clusterMap;
     }
 
     /**
-     * Debugging routine to print out information about a matrix
-     *
-     * @param matrix the matrix we're going to print out information about
+     * @return the representative of the set of the given node, or -1 if the
+     * node has not been added to any set
      */
-    private void printMatrixInfo(DoubleMatrix2D matrix) {
-        debugln("Matrix(" + matrix.rows() + ", " + matrix.columns() + ")");
-        if (matrix instanceof SparseDoubleMatrix2D) {
-            debugln(" matrix is sparse");
-        } else {
-            debugln(" matrix is dense");
+    private static int find(int[] parents, int i) {
+        if (parents[i] < 0) {
+            return -1;
         }
-        debugln(" cardinality is " + matrix.cardinality());
+        int root = i;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // path compression
+        while (parents[i] != root) {
+            int next = parents[i];
+            parents[i] = root;
+            i = next;
+        }
+        return root;
     }
 
     /**
@@ -289,6 +328,9 @@ public class MCLAlgorithm {
      * @param matrix the matrix we're going to print out information about
      */
     private void printMatrix(DoubleMatrix2D matrix) {
+        if (!debug) {
+            return;
+        }
         for (int row = 0; row < matrix.rows(); row++) {
             debug(nodes.get(row).getRow() + ":\t");
             for (int col = 0; col < matrix.columns(); col++) {
@@ -297,11 +339,6 @@ public class MCLAlgorithm {
             debugln();
         }
         debugln("Matrix(" + matrix.rows() + ", " + matrix.columns() + ")");
-        if (matrix instanceof SparseDoubleMatrix2D) {
-            debugln(" matrix is sparse");
-        } else {
-            debugln(" matrix is dense");
-        }
         debugln(" cardinality is " + matrix.cardinality());
     }
 
@@ -322,265 +359,4 @@ public class MCLAlgorithm {
             System.out.print(message);
         }
     }
-
-    private DoubleMatrix2D multiplyMatrix(DoubleMatrix2D A, DoubleMatrix2D B) {
-        int m = A.rows();
-        int n = A.columns();
-        int p = B.columns();
-
-        // Create views into B
-        final DoubleMatrix1D[] Brows = new DoubleMatrix1D[n];
-        for (int i = n; --i >= 0;) {
-            Brows[i] = B.viewRow(i);
-        }
-
-        // Create a series of 1D vectors
-        final DoubleMatrix1D[] Crows = new DoubleMatrix1D[n];
-        for (int i = m; --i >= 0;) {
-            Crows[i] = B.like1D(m);
-        }
-
-        // Create the thread pools
-        final ExecutorService[] threadPools = new ExecutorService[nThreads];
-        for (int pool = 0; pool < threadPools.length; pool++) {
-            threadPools[pool] = Executors.newFixedThreadPool(1);
-        }
-
-        A.forEachNonZero(
-                new cern.colt.function.IntIntDoubleFunction() {
-
-                    @Override
-                    public double apply(int row, int column, double value) {
-
-                        Runnable r = new ThreadedDotProduct(value, Brows[column], Crows[row]);
-                        threadPools[row % nThreads].submit(r);
-                        return value;
-                    }
-                });
-
-        for (int pool = 0; pool < threadPools.length; pool++) {
-            threadPools[pool].shutdown();
-            try {
-                boolean result = threadPools[pool].awaitTermination(7, TimeUnit.DAYS);
-            } catch (Exception e) {
-            }
-        }
-        // Recreate C
-        return create2DMatrix(Crows);
-    }
-
-    private DoubleMatrix2D create2DMatrix(DoubleMatrix1D[] rows) {
-        int columns = rows[0].size();
-        DoubleMatrix2D C = DoubleFactory2D.sparse.make(rows.length, columns);
-        for (int row = 0; row < rows.length; row++) {
-            for (int col = 0; col < columns; col++) {
-                double value = rows[row].getQuick(col);
-                if (value != 0.0) {
-                    C.setQuick(row, col, value);
-                }
-            }
-        }
-        return C;
-    }
-
-    private class ThreadedDotProduct implements Runnable {
-
-        double value;
-        DoubleMatrix1D Bcol;
-        DoubleMatrix1D Crow;
-        // final cern.jet.math.PlusMult fun = cern.jet.math.PlusMult.plusMult(0);
-
-        ThreadedDotProduct(double value, DoubleMatrix1D Bcol,
-                DoubleMatrix1D Crow) {
-            this.value = value;
-            this.Bcol = Bcol;
-            this.Crow = Crow;
-        }
-
-        @Override
-        public void run() {
-            // fun.multiplicator = value;
-            for (int k = 0; k < Bcol.size(); k++) {
-                if (Bcol.getQuick(k) != 0.0) {
-                    Crow.setQuick(k, Crow.getQuick(k) + Bcol.getQuick(k) * value);
-                }
-            }
-            // Crow.assign(Bcol, fun);
-        }
-    }
-
-    /**
-     * The MatrixPow class raises the value of each non-zero cell of the matrix
-     * to the power passed in it's constructor.
-     */
-    private class MatrixPow implements IntIntDoubleFunction {
-
-        double pow;
-
-        public MatrixPow(double power) {
-            this.pow = power;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            if (cancelled) {
-                return 0.0;
-            }
-            return Math.pow(value, pow);
-        }
-    }
-
-    /**
-     * The MatrixZeroAndSum looks through all non-zero cells in a matrix
-     * and if the value of the cell is beneath "threshold" it is set to
-     * zero.  All non-zero cells in a column are added together to return
-     * the sum of each column.
-     */
-    private class MatrixZeroAndSum implements IntIntDoubleFunction {
-
-        double threshold;
-        double[] colSums;
-        boolean prune;
-
-        public MatrixZeroAndSum(boolean prune, double threshold, double[] colSums) {
-            this.threshold = threshold;
-            this.colSums = colSums;
-            this.prune = prune;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            if (prune && (value < threshold)) {
-                return 0.0;
-            }
-            colSums[column] += value;
-            return value;
-        }
-    }
-
-    /**
-     * The MatrixSumAndSumSq looks through all non-zero cells in a matrix
-     * and calculates the sums and sum of squares for each column.
-     */
-    private class MatrixSumAndSumSq implements IntIntDoubleFunction {
-
-        double[] sumSquares;
-        double[] colSums;
-
-        public MatrixSumAndSumSq(double[] colSums, double[] sumSquares) {
-            this.sumSquares = sumSquares;
-            this.colSums = colSums;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            colSums[column] += value;
-            sumSquares[column] += value * value;
-            return value;
-        }
-    }
-
-    /**
-     * The MatrixNormalize class takes as input an array of sums for
-     * each column in the matrix and uses that to normalize the sum of the
-     * column to 1.  If the sum of the column is 0, the diagonal is set to 1.
-     */
-    private class MatrixNormalize implements IntIntDoubleFunction {
-
-        double[] colSums;
-
-        public MatrixNormalize(double[] colSums) {
-            this.colSums = colSums;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            if (cancelled) {
-                return 0.0;
-            }
-            return value / colSums[column];
-        }
-    }
-
-    private class MatrixNormalizeWeights implements IntIntDoubleFunction {
-
-        double min;
-        double max;
-
-        public MatrixNormalizeWeights(double min, double max) {
-            this.min = min;
-            this.max = max;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            return (value - min) / (max - min);
-        }
-    }
-
-    private class ClusterMatrix implements IntIntDoubleFunction {
-
-        Map<Integer, MCLCluster> clusterMap;
-
-        public ClusterMatrix(Map<Integer, MCLCluster> clusterMap) {
-            this.clusterMap = clusterMap;
-        }
-
-        @Override
-        public double apply(int row, int column, double value) {
-            if (cancelled) {
-                return 0.0;
-            }
-
-            if (row == column) {
-                return value;
-            }
-
-            if (clusterMap.containsKey(column)) {
-                // Already seen "column" -- get the cluster and add column
-                MCLCluster columnCluster = clusterMap.get(column);
-                if (clusterMap.containsKey(row)) {
-                    // We've already seen row also -- join them
-                    MCLCluster rowCluster = clusterMap.get(row);
-                    if (rowCluster == columnCluster) {
-                        return value;
-                    }
-                    clusterCount--;
-                    logger.log(Level.FINE, "Joining cluster {0} and {1}", new Object[]{columnCluster.getClusterNumber(), rowCluster.getClusterNumber()});
-                    logger.log(Level.FINE, "clusterCount = {0}", clusterCount);
-                    columnCluster.addAll(rowCluster);
-                } else {
-                    logger.log(Level.FINE, "Adding {0} to {1}", new Object[]{row, columnCluster.getClusterNumber()});
-                    logger.log(Level.FINE, "clusterCount = {0}", clusterCount);
-                    columnCluster.add(nodes, row);
-                }
-                updateClusters(columnCluster);
-            } else {
-                MCLCluster rowCluster;
-                // First time we've seen "column" -- have we already seen "row"
-                if (clusterMap.containsKey(row)) {
-                    // Yes, just add column to row's cluster
-                    rowCluster = clusterMap.get(row);
-                    logger.log(Level.FINE, "Adding {0} to {1}", new Object[]{column, rowCluster.getClusterNumber()});
-                    logger.log(Level.FINE, "clusterCount = {0}", clusterCount);
-                    rowCluster.add(nodes, column);
-                } else {
-                    clusterCount++;
-                    rowCluster = new MCLCluster(g);
-                    logger.log(Level.FINE, "Created new cluster {0} with {1} and {2}", new Object[]{rowCluster.getClusterNumber(), row, column});
-                    logger.log(Level.FINE, "clusterCount = {0}", clusterCount);
-                    rowCluster.add(nodes, column);
-                    rowCluster.add(nodes, row);
-                }
-                updateClusters(rowCluster);
-            }
-            return value;
-        }
-
-        private void updateClusters(MCLCluster c) {
-            for (Node node : c) {
-                clusterMap.put(nodes.indexOf(node), c);
-            }
-        }
-    }
 }
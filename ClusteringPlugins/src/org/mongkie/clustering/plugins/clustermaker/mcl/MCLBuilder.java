@@ -30,6 +30,7 @@ import org.openide.util.lookup.ServiceProvider;
 public class MCLBuilder implements ClusteringBuilder {
 
     private final MCL mcl = new MCL(this);
+    private final SettingUI settings = new MCLSettingUI();
 
     @Override
     public Clustering getClustering() {
@@ -48,7 +49,7 @@ public class MCLBuilder implements ClusteringBuilder {
 
     @Override
     public SettingUI getSettingUI() {
-        return null;
+        return settings;
     }
 
     @Override
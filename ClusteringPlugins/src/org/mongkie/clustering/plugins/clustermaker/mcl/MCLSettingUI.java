@@ -18,26 +18,121 @@
 package org.mongkie.clustering.plugins.clustermaker.mcl;
 
 import javax.swing.JPanel;
+import javax.swing.SpinnerModel;
+import javax.swing.SpinnerNumberModel;
 import org.mongkie.clustering.spi.ClusteringBuilder.SettingUI;
 
 /**
  *
  * @author Yeongjun Jang <yjjang@kribb.re.kr>
  */
-public class MCLSettingUI implements SettingUI<MCL> {
+public class MCLSettingUI extends javax.swing.JPanel implements SettingUI<MCL> {
+
+    private SpinnerModel inflationSpinnerModel, iterationsSpinnerModel, maxColumnEntriesSpinnerModel;
+
+    /** Creates new form MCLSettingUI */
+    MCLSettingUI() {
+        inflationSpinnerModel = new SpinnerNumberModel(
+                Double.valueOf(2.0), Double.valueOf(1.0), null, Double.valueOf(0.1));
+        iterationsSpinnerModel = new SpinnerNumberModel(
+                Integer.valueOf(16), Integer.valueOf(1), null, Integer.valueOf(1));
+        maxColumnEntriesSpinnerModel = new SpinnerNumberModel(
+                Integer.valueOf(MCLAlgorithm.DEFAULT_MAX_COLUMN_ENTRIES), Integer.valueOf(0), null, Integer.valueOf(10));
+        initComponents();
+    }
+
+    /** This method is called from within the constructor to
+     * initialize the form.
+     * WARNING: Do NOT modify this code. The content of this method is
+     * always regenerated by the Form Editor.
+     */
+    @SuppressWarnings("unchecked")
+    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
+    private void initComponents() {
+
+        inflationLabel = new javax.swing.JLabel();
+        inflationSpinner = new javax.swing.JSpinner();
+        iterationsLabel = new javax.swing.JLabel();
+        iterationsSpinner = new javax.swing.JSpinner();
+        maxColumnEntriesLabel = new javax.swing.JLabel();
+        maxColumnEntriesSpinner = new javax.swing.JSpinner();
+
+        inflationLabel.setText(org.openide.util.NbBundle.getMessage(MCLSettingUI.class, "MCLSettingUI.inflationLabel.text")); // NOI18N
+
+        inflationSpinner.setModel(inflationSpinnerModel);
+        inflationSpinner.setPreferredSize(new java.awt.Dimension(60, 26));
+
+        iterationsLabel.setText(org.openide.util.NbBundle.getMessage(MCLSettingUI.class, "MCLSettingUI.iterationsLabel.text")); // NOI18N
+
+        iterationsSpinner.setModel(iterationsSpinnerModel);
+        iterationsSpinner.setPreferredSize(new java.awt.Dimension(60, 26));
+
+        maxColumnEntriesLabel.setText(org.openide.util.NbBundle.getMessage(MCLSettingUI.class, "MCLSettingUI.maxColumnEntriesLabel.text")); // NOI18N
+        maxColumnEntriesLabel.setToolTipText(org.openide.util.NbBundle.getMessage(MCLSettingUI.class, "MCLSettingUI.maxColumnEntriesLabel.toolTipText")); // NOI18N
+
+        maxColumnEntriesSpinner.setModel(maxColumnEntriesSpinnerModel);
+        maxColumnEntriesSpinner.setPreferredSize(new java.awt.Dimension(60, 26));
+
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
+        this.setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(inflationLabel)
+                    .addComponent(iterationsLabel)
+                    .addComponent(maxColumnEntriesLabel))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(inflationSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(iterationsSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(maxColumnEntriesSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addContainerGap(16, Short.MAX_VALUE))
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(inflationLabel)
+                    .addComponent(inflationSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(iterationsLabel)
+                    .addComponent(iterationsSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(maxColumnEntriesLabel)
+                    .addComponent(maxColumnEntriesSpinner, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }// </editor-fold>//GEN-END:initComponents
 
     @Override
     public JPanel getPanel() {
-        throw new UnsupportedOperationException("Not supported yet.");
+        return this;
     }
 
     @Override
     public void load(MCL mcl) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        inflationSpinner.setValue(mcl.getInflationParameter());
+        iterationsSpinner.setValue(mcl.getIterations());
+        maxColumnEntriesSpinner.setValue(mcl.getMaxColumnEntries());
     }
 
     @Override
     public void apply(MCL mcl) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        mcl.setInflationParameter((Double) inflationSpinner.getValue());
+        mcl.setIterations((Integer) iterationsSpinner.getValue());
+        mcl.setMaxColumnEntries((Integer) maxColumnEntriesSpinner.getValue());
     }
+    // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JLabel inflationLabel;
+    private javax.swing.JSpinner inflationSpinner;
+    private javax.swing.JLabel iterationsLabel;
+    private javax.swing.JSpinner iterationsSpinner;
+    private javax.swing.JLabel maxColumnEntriesLabel;
+    private javax.swing.JSpinner maxColumnEntriesSpinner;
+    // End of variables declaration//GEN-END:variables
 }
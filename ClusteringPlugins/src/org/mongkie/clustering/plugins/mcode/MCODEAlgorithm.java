@@ -37,6 +37,9 @@ package org.mongkie.clustering.plugins.mcode;
 
 import java.util.*;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import prefuse.data.Graph;
@@ -54,7 +57,7 @@ public class MCODEAlgorithm {
     /**
      * Data structure for storing information required for each nodeIter
      */
-    private static class NodeInfo {
+    static class NodeInfo {
 
         double density;         //neighborhood density
         int numNodeNeighbors;   //number of nodeIter nieghbors
@@ -212,16 +215,42 @@ public class MCODEAlgorithm {
                         }
                     }
                 });
-        // iterate over all nodesIterator and calculate MCODE score
+        // calculate the MCODE information of all nodesIterator on a shared adjacency
+        int[] nodeRows = new int[graph.getNodeCount()];
+        int n = 0;
+        for (Iterator<Node> nodes = graph.nodes(); nodes.hasNext();) {
+            nodeRows[n++] = nodes.next().getRow();
+        }
+        NodeInfo[] nodeInfos;
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = null;
+        if (nThreads > 1) {
+            pool = Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "MCODE Scoring");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        try {
+            nodeInfos = new NeighborhoodScorer(graph).calcNodeInfos(nodeRows, params.isIncludeLoops(), this, pool, nThreads);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        // iterate over all nodesIterator in the graph order and save their MCODE score
         NodeInfo nodeInfo = null;
         double nodeScore;
         List<Integer> nodeIndices;
-//        int i = 0;
-        Iterator<Node> nodes = graph.nodes();
-        while (nodes.hasNext() && (!cancelled)) {
-            Node n = nodes.next();
-            int nodeIdx = n.getRow();
-            nodeInfo = calcNodeInfo(graph, nodeIdx);
+        for (int i = 0; i < nodeRows.length && (!cancelled); i++) {
+            int nodeIdx = nodeRows[i];
+            nodeInfo = nodeInfos[i];
             nodeInfoHashMap.put(nodeIdx, nodeInfo);
             // score nodeIter TODO: add support for other scoring functions (low priority)
             nodeScore = scoreNode(nodeInfo);
@@ -236,10 +265,6 @@ public class MCODEAlgorithm {
                 nodeIndices.add(nodeIdx);
                 nodeScoreSortedMap.put(nodeScore, nodeIndices);
             }
-//            if (taskMonitor != null) {
-//                i++;
-//                taskMonitor.setPercentCompleted((i * 100) / graph.getNodeCount());
-//            }
         }
         nodeScoreResultsMap.put(resultTitle, nodeScoreSortedMap);
         nodeInfoResultsMap.put(resultTitle, nodeInfoHashMap);
@@ -507,89 +532,6 @@ public class MCODEAlgorithm {
         return (score);
     }
 
-    /**
-     * Calculates nodeIter information for each nodeIter according to the original MCODE publication.
-     * This information is used to score the nodesIterator nodeIter the scoring stage.
-     * This is a utility function for the algorithm.
-     *
-     * @param graph The input network for reference
-     * @param nodeRow    The index of the nodeIter nodeIter the input network to score
-     * @return A NodeInfo object containing nodeIter information required for the algorithm
-     */
-    private NodeInfo calcNodeInfo(Graph graph, int nodeRow) {
-        int[] neighborhood;
-
-        String callerID = "MCODEAlgorithm.calcNodeInfo";
-        if (graph == null) {
-            System.err.println("In " + callerID + ": gpInputGraph was null.");
-            return null;
-        }
-
-        //get neighborhood of this nodeIter (including the nodeIter)
-        Set<Node> neighborSet = graph.neighborSet(graph.getNode(nodeRow));
-        int[] neighbors = new int[neighborSet.size()];
-        int i = 0;
-        for (Node neighbor : neighborSet) {
-            neighbors[i++] = neighbor.getRow();
-        }
-
-        if (neighbors.length < 2) {
-            //if there are no neighborsIter or just one neighbor, nodeInfo calculation is trivial
-            NodeInfo nodeInfo = new NodeInfo();
-            if (neighbors.length == 1) {
-                nodeInfo.coreLevel = 1;
-                nodeInfo.coreDensity = 1.0;
-                nodeInfo.density = 1.0;
-            }
-            return (nodeInfo);
-        }
-        //add original nodeIter to extract complete neighborhood
-        Arrays.sort(neighbors);
-        if (Arrays.binarySearch(neighbors, nodeRow) < 0) {
-            neighborhood = new int[neighbors.length + 1];
-            System.arraycopy(neighbors, 0, neighborhood, 1, neighbors.length);
-            neighborhood[0] = nodeRow;
-        } else {
-            neighborhood = neighbors;
-        }
-
-        //extract neighborhood subgraph
-        List<Integer> neighborhoodList = new ArrayList<Integer>(neighborhood.length);
-        for (int row : neighborhood) {
-            neighborhoodList.add(row);
-        }
-        GraphPerspective gpNodeNeighborhood = GraphPerspective.create(neighborhoodList, graph);
-        if (gpNodeNeighborhood == null) {
-            //this shouldn't happen
-            System.err.println("In " + callerID + ": gpNodeNeighborhood was null.");
-            return null;
-        }
-
-        //calculate the nodeIter information for each nodeIter
-        NodeInfo nodeInfo = new NodeInfo();
-        //density
-        if (gpNodeNeighborhood != null) {
-            nodeInfo.density = calcDensity(gpNodeNeighborhood, params.isIncludeLoops());
-        }
-        nodeInfo.numNodeNeighbors = neighborhood.length;
-        //calculate the highest k-core
-        GraphPerspective gpCore = null;
-        Integer k = null;
-        Object[] returnArray = getHighestKCore(gpNodeNeighborhood);
-        k = (Integer) returnArray[0];
-        gpCore = (GraphPerspective) returnArray[1];
-        nodeInfo.coreLevel = k.intValue();
-        //calculate the core density - amplifies the density of heavily interconnected regions and attenuates
-        //that of less connected regions
-        if (gpCore != null) {
-            nodeInfo.coreDensity = calcDensity(gpCore, params.isIncludeLoops());
-        }
-        //record neighbor array for later use nodeIter cluster detection step
-        nodeInfo.nodeNeighbors = neighborhood;
-
-        return (nodeInfo);
-    }
-
     /**
      * Find the high-scoring central region of the cluster.
      * This is a utility function for the algorithm.
@@ -0,0 +1,325 @@
+/*
+ *  This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ *  Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ *  MONGKIE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  MONGKIE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.clustering.plugins.mcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.mongkie.clustering.plugins.mcode.MCODEAlgorithm.NodeInfo;
+import prefuse.data.Graph;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Computes the MCODE information of the nodes on a primitive adjacency of the
+ * whole graph, which is built once and shared by all nodes. The neighborhood of
+ * a node is marked in a stamp array, so its density and its highest k-core are
+ * computed in time linear to the number of edges incident to the neighborhood,
+ * without building a subgraph for each node. Nodes are scored in parallel
+ * chunks when an executor is given.
+ * <p>
+ * Degrees and edge counts follow the {@link GraphPerspective} based
+ * computation: multiple edges are counted once each, a self loop adds one to
+ * the edge count and two to the degree of its node less one for the node.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class NeighborhoodScorer {
+
+    // Nodes scored by a single task
+    private static final int MIN_CHUNK_SIZE = 256;
+    private final int rowCount;
+    // end points of the edges other than self loops incident to each node row
+    private final int[] adjacencyStarts, adjacency;
+    private final int[] loops;
+
+    /**
+     * Build the adjacency of the given graph.
+     */
+    NeighborhoodScorer(Graph graph) {
+        rowCount = graph.getNodeTable().getMaximumRow() + 1;
+        loops = new int[rowCount];
+        adjacencyStarts = new int[rowCount + 1];
+        for (IntIterator edges = graph.edgeRows(); edges.hasNext();) {
+            int e = edges.nextInt();
+            int s = graph.getSourceNode(e), t = graph.getTargetNode(e);
+            if (s == t) {
+                loops[s]++;
+            } else {
+                adjacencyStarts[s + 1]++;
+                adjacencyStarts[t + 1]++;
+            }
+        }
+        for (int row = 0; row < rowCount; row++) {
+            adjacencyStarts[row + 1] += adjacencyStarts[row];
+        }
+        adjacency = new int[adjacencyStarts[rowCount]];
+        int[] fill = Arrays.copyOf(adjacencyStarts, rowCount);
+        for (IntIterator edges = graph.edgeRows(); edges.hasNext();) {
+            int e = edges.nextInt();
+            int s = graph.getSourceNode(e), t = graph.getTargetNode(e);
+            if (s != t) {
+                adjacency[fill[s]++] = t;
+                adjacency[fill[t]++] = s;
+            }
+        }
+    }
+
+    /**
+     * Compute the information of the given nodes, without their scores.
+     *
+     * @param nodeRows the rows of the nodes to compute
+     * @param includeLoops include the possibility of loops in the densities
+     * @param algorithm the algorithm checked for cancellation
+     * @param pool the executor of the chunks of nodes, or null to compute them
+     * in the calling thread
+     * @param threads the number of chunks the nodes are split into
+     * @return the information of each node in the order of the given rows, with
+     * null for nodes skipped after cancellation
+     */
+    NodeInfo[] calcNodeInfos(final int[] nodeRows, final boolean includeLoops, final MCODEAlgorithm algorithm,
+            ExecutorService pool, int threads) throws InterruptedException {
+        final NodeInfo[] infos = new NodeInfo[nodeRows.length];
+        int chunks = pool == null ? 1 : Math.min(threads, nodeRows.length / MIN_CHUNK_SIZE);
+        if (chunks > 1) {
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(chunks);
+            int chunkSize = (nodeRows.length + chunks - 1) / chunks;
+            for (int start = 0; start < nodeRows.length; start += chunkSize) {
+                final int from = start, to = Math.min(start + chunkSize, nodeRows.length);
+                tasks.add(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        new Workspace().calcNodeInfos(nodeRows, from, to, includeLoops, algorithm, infos);
+                        return null;
+                    }
+                });
+            }
+            for (Future<Object> f : pool.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+        } else {
+            new Workspace().calcNodeInfos(nodeRows, 0, nodeRows.length, includeLoops, algorithm, infos);
+        }
+        return infos;
+    }
+
+    /**
+     * Buffers of a single thread, indexed by node rows or by the positions of
+     * the nodes in the current neighborhood.
+     */
+    private final class Workspace {
+
+        private final int[] stamps = new int[rowCount];
+        private final int[] positions = new int[rowCount];
+        private int stamp = 0;
+        private int[] members = new int[16];
+        private int[] localStarts = new int[17];
+        private int[] local = new int[16];
+        private int[] degrees = new int[16];
+        private int[] bins = new int[16];
+        private int[] order = new int[16];
+        private int[] orderPositions = new int[16];
+
+        void calcNodeInfos(int[] nodeRows, int from, int to, boolean includeLoops, MCODEAlgorithm algorithm, NodeInfo[] infos) {
+            for (int i = from; i < to && !algorithm.isCancelled(); i++) {
+                infos[i] = calcNodeInfo(nodeRows[i], includeLoops);
+            }
+        }
+
+        private int nextStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+
+        NodeInfo calcNodeInfo(int nodeRow, boolean includeLoops) {
+            // distinct neighbors of the node, including itself if it has a self loop
+            int mark = nextStamp();
+            int count = 0;
+            for (int p = adjacencyStarts[nodeRow], end = adjacencyStarts[nodeRow + 1]; p < end; p++) {
+                int neighbor = adjacency[p];
+                if (stamps[neighbor] != mark) {
+                    stamps[neighbor] = mark;
+                    members = ensure(members, count + 2);
+                    members[count++] = neighbor;
+                }
+            }
+            boolean selfLinked = loops[nodeRow] > 0;
+            if (selfLinked) {
+                members = ensure(members, count + 1);
+                members[count++] = nodeRow;
+            }
+
+            NodeInfo nodeInfo = new NodeInfo();
+            if (count < 2) {
+                //if there are no neighbors or just one neighbor, nodeInfo calculation is trivial
+                if (count == 1) {
+                    nodeInfo.coreLevel = 1;
+                    nodeInfo.coreDensity = 1.0;
+                    nodeInfo.density = 1.0;
+                }
+                return nodeInfo;
+            }
+            //add original node to extract complete neighborhood
+            Arrays.sort(members, 0, count);
+            if (!selfLinked) {
+                System.arraycopy(members, 0, members, 1, count);
+                members[0] = nodeRow;
+                count++;
+            }
+            int[] neighborhood = Arrays.copyOf(members, count);
+
+            // adjacency of the neighborhood subgraph in local positions
+            mark = nextStamp();
+            for (int i = 0; i < count; i++) {
+                stamps[neighborhood[i]] = mark;
+                positions[neighborhood[i]] = i;
+            }
+            localStarts = ensure(localStarts, count + 1);
+            degrees = ensure(degrees, count);
+            int entries = 0, loopNodes = 0, loopEdges = 0;
+            for (int i = 0; i < count; i++) {
+                localStarts[i] = entries;
+                int row = neighborhood[i];
+                for (int p = adjacencyStarts[row], end = adjacencyStarts[row + 1]; p < end; p++) {
+                    int neighbor = adjacency[p];
+                    if (stamps[neighbor] == mark) {
+                        local = ensure(local, entries + 1);
+                        local[entries++] = positions[neighbor];
+                    }
+                }
+                degrees[i] = entries - localStarts[i] + (loops[row] > 0 ? 2 * loops[row] - 1 : 0);
+                if (loops[row] > 0) {
+                    loopNodes++;
+                    loopEdges += loops[row];
+                }
+            }
+            localStarts[count] = entries;
+
+            nodeInfo.density = calcDensity(count, entries / 2 + loopEdges, loopNodes, includeLoops);
+            nodeInfo.numNodeNeighbors = count;
+            //calculate the highest k-core, the core number of each node is left in degrees
+            int k = decomposeCores(count);
+            nodeInfo.coreLevel = k;
+            //calculate the core density - amplifies the density of heavily interconnected regions and attenuates
+            //that of less connected regions
+            if (k > 0) {
+                int coreCount = 0, coreEntries = 0, coreLoopNodes = 0, coreLoopEdges = 0;
+                for (int i = 0; i < count; i++) {
+                    if (degrees[i] == k) {
+                        coreCount++;
+                        for (int p = localStarts[i]; p < localStarts[i + 1]; p++) {
+                            if (degrees[local[p]] == k) {
+                                coreEntries++;
+                            }
+                        }
+                        int row = neighborhood[i];
+                        if (loops[row] > 0) {
+                            coreLoopNodes++;
+                            coreLoopEdges += loops[row];
+                        }
+                    }
+                }
+                nodeInfo.coreDensity = calcDensity(coreCount, coreEntries / 2 + coreLoopEdges, coreLoopNodes, includeLoops);
+            }
+            //record neighbor array for later use in cluster detection step
+            nodeInfo.nodeNeighbors = neighborhood;
+
+            return nodeInfo;
+        }
+
+        /**
+         * Batagelj-Zaversnik core decomposition of the neighborhood subgraph,
+         * which replaces the degrees by the core numbers.
+         *
+         * @return the highest core number, or 0 for an empty subgraph
+         */
+        private int decomposeCores(int count) {
+            int maxDegree = 0;
+            for (int i = 0; i < count; i++) {
+                maxDegree = Math.max(maxDegree, degrees[i]);
+            }
+            bins = ensure(bins, maxDegree + 1);
+            Arrays.fill(bins, 0, maxDegree + 1, 0);
+            for (int i = 0; i < count; i++) {
+                bins[degrees[i]]++;
+            }
+            for (int d = 0, start = 0; d <= maxDegree; d++) {
+                int size = bins[d];
+                bins[d] = start;
+                start += size;
+            }
+            order = ensure(order, count);
+            orderPositions = ensure(orderPositions, count);
+            for (int i = 0; i < count; i++) {
+                orderPositions[i] = bins[degrees[i]]++;
+                order[orderPositions[i]] = i;
+            }
+            for (int d = maxDegree; d > 0; d--) {
+                bins[d] = bins[d - 1];
+            }
+            bins[0] = 0;
+            int k = 0;
+            for (int o = 0; o < count; o++) {
+                int v = order[o];
+                k = Math.max(k, degrees[v]);
+                for (int p = localStarts[v]; p < localStarts[v + 1]; p++) {
+                    int u = local[p];
+                    if (degrees[u] > degrees[v]) {
+                        // move u to the front of its bin and the bin one position back
+                        int du = degrees[u], pu = orderPositions[u];
+                        int pw = bins[du], w = order[pw];
+                        if (u != w) {
+                            order[pu] = w;
+                            orderPositions[w] = pu;
+                            order[pw] = u;
+                            orderPositions[u] = pw;
+                        }
+                        bins[du]++;
+                        degrees[u]--;
+                    }
+                }
+            }
+            return k;
+        }
+    }
+
+    /**
+     * Calculate the density as the number of edges over the number of possible
+     * edges, as {@link MCODEAlgorithm#calcDensity(GraphPerspective, boolean)}
+     * does.
+     */
+    private static double calcDensity(int nodeCount, int edgeCount, int loopNodeCount, boolean includeLoops) {
+        int possibleEdgeNum = nodeCount * nodeCount;
+        int actualEdgeNum = includeLoops ? edgeCount - loopNodeCount : edgeCount;
+        return (double) actualEdgeNum / (double) possibleEdgeNum;
+    }
+
+    private static int[] ensure(int[] array, int length) {
+        return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+}
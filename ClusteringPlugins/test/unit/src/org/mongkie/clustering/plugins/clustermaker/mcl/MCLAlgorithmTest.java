@@ -0,0 +1,136 @@
+/*
+ *  This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ *  Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ *  MONGKIE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ * 
+ *  MONGKIE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ * 
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.clustering.plugins.clustermaker.mcl;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import kobic.prefuse.data.GraphFactory;
+import org.junit.AfterClass;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mongkie.clustering.plugins.clustermaker.DistanceMatrix;
+import org.mongkie.clustering.plugins.clustermaker.converters.NoneConverter;
+import prefuse.data.Graph;
+import prefuse.data.Node;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+import prefuse.data.io.CSVTableReader;
+import prefuse.data.io.DataIOException;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class MCLAlgorithmTest {
+
+    static Graph sox2Graph;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        sox2Graph = readGraph("/org/mongkie/clustering/plugins/mcode/resources/sox2.csv");
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        sox2Graph.dispose();
+        sox2Graph.clear();
+    }
+
+    @Test
+    public void testSox2Network() {
+        List<MCLCluster> clusters = run(sox2Graph, MCLAlgorithm.DEFAULT_MAX_COLUMN_ENTRIES);
+
+        assertEquals(83, clusters.size());
+        assertEquals(15, clusters.get(0).getNodesCount());
+        assertEquals(15, clusters.get(1).getNodesCount());
+        assertEquals(12, clusters.get(2).getNodesCount());
+        assertEquals(9, clusters.get(3).getNodesCount());
+        assertEquals(8, clusters.get(4).getNodesCount());
+
+        Set<Node> clustered = new HashSet<Node>();
+        for (int i = 0; i < clusters.size(); i++) {
+            assertEquals(i + 1, clusters.get(i).getClusterNumber());
+            for (Node n : clusters.get(i)) {
+                assertTrue(clustered.add(n));
+            }
+        }
+    }
+
+    @Test
+    public void testMaxColumnEntries() {
+        // No column of the sox2 network needs more than 50 entries to
+        // converge to the same clusters as without any limit
+        assertEquals(partition(run(sox2Graph, Integer.MAX_VALUE)), partition(run(sox2Graph, 50)));
+    }
+
+    @Test
+    public void testAllColumnEntriesByDefault() {
+        assertEquals(0, MCLAlgorithm.DEFAULT_MAX_COLUMN_ENTRIES);
+        // a bound below the entries needed changes the clusters, so no
+        // bound is taken unless given
+        assertFalse(partition(run(sox2Graph, 0)).equals(partition(run(sox2Graph, 1))));
+        assertEquals(partition(run(sox2Graph, Integer.MAX_VALUE)), partition(run(sox2Graph, 0)));
+    }
+
+    private static List<MCLCluster> run(Graph g, int maxColumnEntries) {
+        DistanceMatrix matrix = DistanceMatrix.create(g, null, new NoneConverter(), false, 1.0D, true);
+        MCLAlgorithm algo = new MCLAlgorithm(g, matrix, 2.0, 16, 1.0E-15, 1.0E-4, 0);
+        algo.setMaxColumnEntries(maxColumnEntries);
+        return algo.run();
+    }
+
+    private static Set<Set<Node>> partition(List<MCLCluster> clusters) {
+        Set<Set<Node>> partition = new HashSet<Set<Node>>();
+        for (MCLCluster c : clusters) {
+            partition.add(new HashSet<Node>(c));
+        }
+        return partition;
+    }
+
+    private static Graph readGraph(String resource) throws DataIOException, IOException {
+        Graph g = GraphFactory.createDefault();
+        Table ppiTable = new CSVTableReader().readTable(MCLAlgorithmTest.class.getResourceAsStream(resource));
+        Iterator<Tuple> ppiIter = ppiTable.tuples();
+        Map<String, Integer> id2Key = new HashMap<String, Integer>();
+        while (ppiIter.hasNext()) {
+            Tuple ppi = ppiIter.next();
+            String A = ppi.getString("GENE_A");
+            Node source = id2Key.containsKey(A) ? g.getNode(id2Key.get(A)) : null;
+            if (source == null) {
+                source = g.addNode();
+                id2Key.put(A, source.getRow());
+            }
+            String B = ppi.getString("GENE_B");
+            Node target = id2Key.containsKey(B) ? g.getNode(id2Key.get(B)) : null;
+            if (target == null) {
+                target = g.addNode();
+                id2Key.put(B, target.getRow());
+            }
+            if (g.getEdge(source, target) == null && g.getEdge(target, source) == null) {
+                g.addEdge(source, target);
+            }
+        }
+        return g;
+    }
+}
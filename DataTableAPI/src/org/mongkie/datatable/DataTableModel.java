@@ -0,0 +1,412 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.datatable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import kobic.prefuse.display.DataEditSupport;
+import kobic.prefuse.display.DataViewSupport;
+import kobic.prefuse.display.NetworkDisplay;
+import prefuse.data.Schema;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+import prefuse.data.event.EventConstants;
+import prefuse.data.event.ExpressionListener;
+import prefuse.data.event.TableListener;
+import prefuse.data.expression.Expression;
+import prefuse.data.util.Index;
+import prefuse.util.TypeLib;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * A virtualized model of a data table, reading the cells straight from the
+ * columns of the table for the rows shown, instead of creating a
+ * {@link DataNode} per tuple like the {@link DataChildFactory}. It keeps only
+ * the rows not filtered by the {@link DataViewSupport} in arrays, sorted
+ * through the index of a column if any.
+ * <p>
+ * Must be accessed in the AWT event dispatching thread, the changes of the
+ * table are applied to the model there.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class DataTableModel extends AbstractTableModel implements TableListener, ExpressionListener {
+
+    private Table table;
+    private DataViewSupport viewSupport;
+    private String[] fields = new String[0];
+    private int[] rows = new int[0]; // rows of the table in the order shown
+    private int[] viewRows = new int[0]; // view rows of the rows of the table, or -1 if filtered
+    private String sortField;
+    private boolean ascending, sortIndexCreated;
+    private volatile boolean refreshPending, structurePending;
+    private int updateStart = -1, updateEnd = -1; // rows updated, pending
+
+    public DataTableModel(Table table) {
+        setTable(table);
+    }
+
+    public DataTableModel setTable(Table table) {
+        Table old = this.table;
+        if (old != null) {
+            old.removeTableListener(this);
+            viewSupport.getFilter().removeExpressionListener(this);
+            removeSortIndex();
+        }
+        this.table = table;
+        sortField = null;
+        if (table != null) {
+            viewSupport = (DataViewSupport) table.getClientProperty(DataViewSupport.PROP_KEY);
+            table.addTableListener(this);
+            // Add a listener for filter changes to refresh rows
+            viewSupport.getFilter().addExpressionListener(this);
+        } else {
+            viewSupport = null;
+        }
+        refreshColumns();
+        refreshRows();
+        fireTableStructureChanged();
+        return this;
+    }
+
+    public Table getTable() {
+        return table;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return fields.length;
+    }
+
+    public String getField(int column) {
+        return fields[column];
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return viewSupport.getColumnTitle(fields[column]);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        Class<?> type = table.getColumnType(fields[column]);
+        return type.isPrimitive() ? TypeLib.getWrapperType(type) : type;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return table.get(rows[row], fields[column]);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        DataEditSupport editSupport = (DataEditSupport) table.getClientProperty(DataEditSupport.PROP_KEY);
+        return editSupport != null && editSupport.isEditable(fields[column]);
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        ((DataEditSupport) table.getClientProperty(DataEditSupport.PROP_KEY)).setValueAt(getTuple(row), fields[column], value);
+    }
+
+    /**
+     * Returns the row of the table shown at the given view row.
+     */
+    public int getRow(int viewRow) {
+        return rows[viewRow];
+    }
+
+    /**
+     * Returns the view row of the given row of the table.
+     *
+     * @return the view row, or -1 if the row is filtered or not valid
+     */
+    public int getViewRow(int row) {
+        return row >= 0 && row < viewRows.length ? viewRows[row] : -1;
+    }
+
+    /**
+     * Returns the tuple shown at the given view row, created only when asked,
+     * e.g. for the row to be edited.
+     */
+    public Tuple getTuple(int viewRow) {
+        return table.getTuple(rows[viewRow]);
+    }
+
+    /**
+     * Sorts the rows by the given column, through its index.
+     *
+     * @param field the column to sort by, or <tt>null</tt> to show the rows in
+     * the order of the table
+     * @param ascending the order
+     */
+    public void sort(String field, boolean ascending) {
+        if (field != null ? field.equals(sortField) : sortField == null) {
+            if (this.ascending == ascending) {
+                return;
+            }
+        } else {
+            removeSortIndex();
+        }
+        this.sortField = field;
+        this.ascending = ascending;
+        refreshRows();
+        fireTableDataChanged();
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Applies the pending changes of the table at once, e.g. before looking up
+     * the view row of a tuple just added.
+     */
+    public void flush() {
+        if (refreshPending) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        boolean structure;
+        synchronized (this) {
+            structure = structurePending;
+            refreshPending = structurePending = false;
+        }
+        if (table == null) {
+            return;
+        }
+        if (structure) {
+            refreshColumns();
+        }
+        refreshRows();
+        if (structure) {
+            fireTableStructureChanged();
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    private void refreshColumns() {
+        if (table == null) {
+            fields = new String[0];
+            return;
+        }
+        Schema outline = viewSupport.getOutlineSchema();
+        fields = new String[outline.getColumnCount()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = outline.getColumnName(i);
+        }
+    }
+
+    private void refreshRows() {
+        if (table == null) {
+            rows = viewRows = new int[0];
+            return;
+        }
+        if (sortField != null && table.getColumnNumber(sortField) < 0) {
+            sortField = null; // Column deleted
+            sortIndexCreated = false;
+        }
+        int[] shown = new int[table.getRowCount()];
+        int count = 0;
+        if (sortField == null) {
+            for (IntIterator rowIter = viewSupport.rows(); rowIter.hasNext();) {
+                shown[count++] = rowIter.nextInt();
+            }
+        } else {
+            BitSet passing = new BitSet(table.getMaximumRow() + 1);
+            for (IntIterator rowIter = viewSupport.rows(); rowIter.hasNext();) {
+                passing.set(rowIter.nextInt());
+            }
+            IntIterator sorted = sortedRows();
+            if (sorted != null) {
+                while (sorted.hasNext()) {
+                    int row = sorted.nextInt();
+                    if (passing.get(row)) {
+                        shown[count++] = row;
+                    }
+                }
+            } else {
+                for (int row = passing.nextSetBit(0); row >= 0; row = passing.nextSetBit(row + 1)) {
+                    shown[count++] = row;
+                }
+                sortByStrings(shown, count);
+            }
+        }
+        rows = count < shown.length ? Arrays.copyOf(shown, count) : shown;
+        viewRows = new int[table.getMaximumRow() + 1];
+        Arrays.fill(viewRows, -1);
+        for (int i = 0; i < rows.length; i++) {
+            viewRows[rows[i]] = i;
+        }
+    }
+
+    private IntIterator sortedRows() {
+        Index index = table.getIndex(sortField);
+        if (index == null) {
+            try {
+                index = table.index(sortField);
+            } catch (RuntimeException ex) {
+                // Values not comparable, e.g. arrays
+                return null;
+            }
+            sortIndexCreated = true;
+        }
+        return index.allRows(ascending ? Index.TYPE_ASCENDING : Index.TYPE_DESCENDING);
+    }
+
+    private void sortByStrings(int[] shown, int count) {
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = shown[i];
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer r1, Integer r2) {
+                int c = String.valueOf(table.get(r1, sortField)).compareTo(String.valueOf(table.get(r2, sortField)));
+                return ascending ? c : -c;
+            }
+        });
+        for (int i = 0; i < count; i++) {
+            shown[i] = sorted[i];
+        }
+    }
+
+    private void removeSortIndex() {
+        if (sortIndexCreated) {
+            if (table.getColumnNumber(sortField) >= 0) {
+                table.removeIndex(sortField);
+            }
+            sortIndexCreated = false;
+        }
+    }
+
+    @Override
+    public void tableChanged(Table t, int start, int end, int col, int type) {
+        NetworkDisplay d = (NetworkDisplay) t.getClientProperty(NetworkDisplay.PROP_KEY);
+        if (d != null && d.isLoading()) {
+            return;
+        }
+        if (col == EventConstants.ALL_COLUMNS) {
+            // Tuples inserted, deleted or updated all at once
+            refreshLater(d, false);
+        } else if (type != EventConstants.UPDATE) {
+            // Column inserted or deleted
+            refreshLater(d, true);
+        } else if (t.getColumnName(col).equals(sortField)) {
+            refreshLater(d, false);
+        } else {
+            updateLater(start, end);
+        }
+    }
+
+    @Override
+    public void expressionChanged(Expression expr) { // Filters changed
+        refreshLater(null, false);
+    }
+
+    private void refreshLater(NetworkDisplay d, final boolean structure) {
+        Runnable refresh = new Runnable() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                });
+            }
+        };
+        synchronized (this) {
+            structurePending |= structure;
+            if (refreshPending) {
+                return;
+            }
+            refreshPending = true;
+        }
+        if (d != null) {
+            d.getVisualization().invokeAfterDataProcessing(this, refresh);
+        } else {
+            refresh.run();
+        }
+    }
+
+    private void updateLater(int start, int end) {
+        synchronized (this) {
+            if (updateStart >= 0) {
+                // Merged into the update already pending
+                updateStart = Math.min(updateStart, start);
+                updateEnd = Math.max(updateEnd, end);
+                return;
+            }
+            updateStart = start;
+            updateEnd = end;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                int start, end;
+                synchronized (DataTableModel.this) {
+                    start = updateStart;
+                    end = updateEnd;
+                    updateStart = updateEnd = -1;
+                }
+                if (refreshPending || table == null) {
+                    return;
+                }
+                if (viewSupport.isFiltered()) {
+                    // The values updated may change the rows passing the filters
+                    int[] shown = rows;
+                    refreshRows();
+                    if (!Arrays.equals(shown, rows)) {
+                        fireTableDataChanged();
+                        return;
+                    }
+                }
+                if (end - start > 100) {
+                    // Repaints all without clearing the selection
+                    if (rows.length > 0) {
+                        fireTableRowsUpdated(0, rows.length - 1);
+                    }
+                    return;
+                }
+                for (int row = start; row <= end; row++) {
+                    int viewRow = getViewRow(row);
+                    if (viewRow >= 0) {
+                        fireTableRowsUpdated(viewRow, viewRow);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.datatable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import kobic.prefuse.display.DataViewSupport;
+import prefuse.data.Schema;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+import prefuse.data.expression.AbstractPredicate;
+import prefuse.data.expression.Predicate;
+import prefuse.data.expression.parser.ExpressionParser;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class DataTableModelTest {
+
+    public DataTableModelTest() {
+    }
+
+    /**
+     * Values not comparable, shown by their names.
+     */
+    private static class Label {
+
+        final String name;
+
+        Label(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static Table createTable(Random random) {
+        final Table table = new Table();
+        table.addColumn("score", int.class);
+        table.addColumn("name", String.class);
+        table.addColumn("label", Object.class);
+        for (int i = 0; i < 1000; i++) {
+            int row = table.addRow();
+            table.setInt(row, "score", random.nextInt(100));
+            table.setString(row, "name", "n" + random.nextInt(50));
+            table.set(row, "label", new Label("l" + random.nextInt(50)));
+        }
+        table.putClientProperty(DataViewSupport.PROP_KEY, new DataViewSupport(table) {
+            @Override
+            public Schema getOutlineSchema() {
+                return table.getSchema();
+            }
+        });
+        return table;
+    }
+
+    private static DataViewSupport getViewSupport(Table table) {
+        return (DataViewSupport) table.getClientProperty(DataViewSupport.PROP_KEY);
+    }
+
+    /**
+     * Waits for the changes of the table to be applied in the event
+     * dispatching thread.
+     */
+    private static void waitForRefresh() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+    /**
+     * Checks the rows shown are the rows of the table not filtered, and the
+     * view rows map back to them.
+     */
+    private static void assertRows(DataTableModel model, Predicate filter) {
+        Table table = model.getTable();
+        int count = 0;
+        for (int row = 0; row <= table.getMaximumRow(); row++) {
+            int viewRow = model.getViewRow(row);
+            if (table.isValidRow(row) && (filter == null || filter.getBoolean(table.getTuple(row)))) {
+                assertTrue(viewRow >= 0);
+                assertEquals(row, model.getRow(viewRow));
+                count++;
+            } else {
+                assertEquals(-1, viewRow);
+            }
+        }
+        assertEquals(count, model.getRowCount());
+        for (int viewRow = 0; viewRow < model.getRowCount(); viewRow++) {
+            int row = model.getRow(viewRow);
+            assertEquals(viewRow, model.getViewRow(row));
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                assertEquals(table.get(row, model.getField(column)), model.getValueAt(viewRow, column));
+            }
+        }
+    }
+
+    private static void assertSorted(DataTableModel model, boolean ascending) {
+        Table table = model.getTable();
+        for (int viewRow = 1; viewRow < model.getRowCount(); viewRow++) {
+            int c = table.getInt(model.getRow(viewRow - 1), "score") - table.getInt(model.getRow(viewRow), "score");
+            assertTrue(ascending ? c <= 0 : c >= 0);
+        }
+    }
+
+    @Test
+    public void testRows() throws Exception {
+        Table table = createTable(new Random(3));
+        DataTableModel model = new DataTableModel(table);
+        assertEquals(3, model.getColumnCount());
+        assertEquals("label", model.getField(2));
+        assertEquals(Integer.class, model.getColumnClass(0));
+        assertEquals(1000, model.getRowCount());
+        for (int row = 0; row < 1000; row++) {
+            assertEquals(row, model.getRow(row));
+        }
+        assertRows(model, null);
+        assertEquals(-1, model.getViewRow(-1));
+        assertEquals(-1, model.getViewRow(1000));
+
+        // deleted rows are not shown
+        for (int row = 0; row < 1000; row += 7) {
+            table.removeRow(row);
+        }
+        waitForRefresh();
+        assertEquals(-1, model.getViewRow(0));
+        assertRows(model, null);
+
+        // added rows are shown after a flush
+        final DataTableModel m = model;
+        final Table t = table;
+        final int[] added = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                added[0] = t.addRow();
+                m.flush();
+                assertEquals(added[0], m.getRow(m.getViewRow(added[0])));
+            }
+        });
+        waitForRefresh();
+        assertRows(model, null);
+
+        model.setTable(null);
+        assertEquals(0, model.getRowCount());
+        assertEquals(0, model.getColumnCount());
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        Table table = createTable(new Random(5));
+        DataTableModel model = new DataTableModel(table);
+        Predicate filter = ExpressionParser.predicate("score < 30");
+        getViewSupport(table).addFilter(filter);
+        waitForRefresh();
+        assertTrue(model.getRowCount() < 1000);
+        assertRows(model, filter);
+
+        // the rows passing are updated as the values change
+        for (int row = 0; row < 1000; row += 3) {
+            table.setInt(row, "score", table.getInt(row, "score") < 30 ? 50 : 10);
+        }
+        waitForRefresh();
+        assertRows(model, filter);
+
+        getViewSupport(table).removeFilter(filter);
+        waitForRefresh();
+        assertEquals(1000, model.getRowCount());
+        assertRows(model, null);
+    }
+
+    /**
+     * Sets the scores of all rows one by one in the event dispatching thread,
+     * so that the model is notified of the updates before applying any.
+     */
+    private static void updateScores(final Table table, final int delta) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    table.setInt(row, "score", table.getInt(row, "score") + delta);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testUpdatesCoalesced() throws Exception {
+        Table table = createTable(new Random(13));
+        DataTableModel model = new DataTableModel(table);
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+
+        // not filtered, repainted at once
+        updateScores(table, 1);
+        waitForRefresh();
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertEquals(999, events.get(0).getLastRow());
+
+        final int[] evaluated = new int[1];
+        Predicate filter = new AbstractPredicate() {
+            @Override
+            public boolean getBoolean(Tuple t) {
+                evaluated[0]++;
+                return t.getInt("score") < 50;
+            }
+        };
+        getViewSupport(table).addFilter(filter);
+        waitForRefresh();
+        assertRows(model, filter);
+
+        // the rows passing the filter recomputed once for all the updates
+        events.clear();
+        evaluated[0] = 0;
+        updateScores(table, 10);
+        waitForRefresh();
+        assertEquals(1000, evaluated[0]);
+        assertEquals(1, events.size());
+        assertRows(model, filter);
+    }
+
+    @Test
+    public void testSort() throws Exception {
+        Table table = createTable(new Random(7));
+        DataTableModel model = new DataTableModel(table);
+        model.sort("score", true);
+        assertEquals("score", model.getSortField());
+        // sorted through an index created for the model
+        assertNotNull(table.getIndex("score"));
+        assertRows(model, null);
+        assertSorted(model, true);
+        model.sort("score", false);
+        assertRows(model, null);
+        assertSorted(model, false);
+
+        // sorted again as the values change
+        for (int row = 0; row < 1000; row += 5) {
+            table.setInt(row, "score", 100 - table.getInt(row, "score"));
+        }
+        waitForRefresh();
+        assertRows(model, null);
+        assertSorted(model, false);
+
+        // and only the rows not filtered
+        Predicate filter = ExpressionParser.predicate("score >= 50");
+        getViewSupport(table).addFilter(filter);
+        waitForRefresh();
+        assertRows(model, filter);
+        assertSorted(model, false);
+
+        // the index is removed with the sort
+        model.sort(null, true);
+        assertNull(table.getIndex("score"));
+        assertRows(model, filter);
+        int last = -1;
+        for (int viewRow = 0; viewRow < model.getRowCount(); viewRow++) {
+            assertTrue(model.getRow(viewRow) > last);
+            last = model.getRow(viewRow);
+        }
+
+        // but not an index of the table
+        table.index("name");
+        model.sort("name", true);
+        model.sort(null, true);
+        assertNotNull(table.getIndex("name"));
+    }
+
+    @Test
+    public void testSortByStrings() {
+        Table table = createTable(new Random(9));
+        DataTableModel model = new DataTableModel(table);
+        model.sort("label", true);
+        assertNull(table.getIndex("label"));
+        assertRows(model, null);
+        for (int viewRow = 1; viewRow < model.getRowCount(); viewRow++) {
+            assertTrue(String.valueOf(model.getValueAt(viewRow - 1, 2)).compareTo(String.valueOf(model.getValueAt(viewRow, 2))) <= 0);
+        }
+        model.sort("label", false);
+        assertRows(model, null);
+        for (int viewRow = 1; viewRow < model.getRowCount(); viewRow++) {
+            assertTrue(String.valueOf(model.getValueAt(viewRow - 1, 2)).compareTo(String.valueOf(model.getValueAt(viewRow, 2))) >= 0);
+        }
+    }
+}
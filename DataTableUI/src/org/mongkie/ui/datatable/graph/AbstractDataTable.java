@@ -22,6 +22,7 @@ import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyVetoException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.List;
 import javax.swing.*;
@@ -32,6 +33,7 @@ import kobic.prefuse.display.DataViewSupport;
 import org.mongkie.datatable.DataChildFactory;
 import org.mongkie.datatable.DataNode;
 import org.mongkie.datatable.DataTableControllerUI;
+import org.mongkie.datatable.DataTableModel;
 import org.mongkie.datatable.spi.GraphDataTable;
 import org.mongkie.util.AccumulativeEventsProcessor;
 import org.mongkie.util.lang.StringUtilities;
@@ -46,6 +48,7 @@ import org.openide.nodes.Children;
 import org.openide.nodes.Node;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
+import org.openide.util.NbPreferences;
 import prefuse.Visualization;
 import prefuse.data.Graph;
 import prefuse.data.Schema;
@@ -166,9 +169,32 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
     @Override
     public JComponent getView() {
         MongkieDisplay d = model.getDisplay();
-        return (d != null && d.isFired()) ? this : null;
+        return (d != null && d.isFired()) ? (virtualized ? virtualView : this) : null;
     }
 
+    /**
+     * Returns whether the table is shown in the virtualized mode, reading the
+     * cells from the columns for the rows shown only, instead of creating a
+     * node per tuple. Tables of {@link #getVirtualizedRowCount()} rows or more
+     * are virtualized.
+     *
+     * @return true if virtualized
+     */
+    public boolean isVirtualized() {
+        return virtualized;
+    }
+    private boolean virtualized = false;
+    private VirtualDataView virtualView;
+
+    VirtualDataView getVirtualView() {
+        return virtualView;
+    }
+
+    protected int getVirtualizedRowCount() {
+        return NbPreferences.forModule(AbstractDataTable.class).getInt(VIRTUALIZED_ROW_COUNT, 20000);
+    }
+    public static final String VIRTUALIZED_ROW_COUNT = "virtualizedRowCount";
+
     @Override
     public Tool[] getTools() {
         if (tools == null) {
@@ -191,6 +217,9 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
         if (childFactory != null) {
             childFactory.setTable(null, null);
         }
+        if (virtualView != null) {
+            virtualView.getModel().setTable(null);
+        }
     }
 
     @Override
@@ -214,12 +243,26 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
                 String col = outline.getColumnName(i);
                 addPropertyColumn(col, viewSupport.getColumnTitle(col), outline.getColumnType(i).getSimpleName());
             }
+            virtualized = table.getRowCount() >= getVirtualizedRowCount();
+            if (virtualized) {
+                if (childFactory != null) {
+                    childFactory.setTable(null, null); // Releases the nodes
+                }
+                if (virtualView == null) {
+                    virtualView = new VirtualDataView(this);
+                }
+                virtualView.getModel().setTable(table);
+            } else if (virtualView != null) {
+                virtualView.getModel().setTable(null);
+            }
             model.reset(table, showing); // Must reset the model *BEFORE* refreshing child nodes
             if (tools != null) {
                 // Also filter tool must be refreshed before filter actions called in the child factory performed
                 ((FilterToolsPanel) tools[0]).refresh(false);
             }
-            if (childFactory == null) {
+            if (virtualized) {
+                // No child nodes
+            } else if (childFactory == null) {
                 em.setRootContext(new AbstractNode(
                         Children.create(childFactory = new DataChildFactory(table, labelColumn), false)) {
                     @Override
@@ -322,7 +365,13 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
 
     @Override
     public void setSelectedNodes(final Node[] nodes) {
-        if (showing && model != null) {
+        if (virtualized) {
+            Tuple[] tuples = new Tuple[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                tuples[i] = ((DataNode) nodes[i]).getTuple();
+            }
+            setSelectedTuples(tuples);
+        } else if (showing && model != null) {
             final Node[] olds = em.getSelectedNodes();
             model.setSelectedNodesInternal(nodes);
             SwingUtilities.invokeLater(new Runnable() {
@@ -334,6 +383,55 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
         }
     }
 
+    /**
+     * Selects the given tuples in the table and then in the display.
+     *
+     * @param tuples tuples of the table
+     * @return false if any of the tuples is filtered, or not shown yet
+     */
+    public boolean setSelectedTuples(final Tuple... tuples) {
+        if (!virtualized) {
+            Node[] nodes = new Node[tuples.length];
+            for (int i = 0; i < tuples.length; i++) {
+                if ((nodes[i] = childFactory.getNodeOf(tuples[i])) == null) {
+                    return false;
+                }
+            }
+            setSelectedNodes(nodes);
+            return true;
+        }
+        final boolean[] shown = {true};
+        Runnable select = new Runnable() {
+            @Override
+            public void run() {
+                DataTableModel rows = virtualView.getModel();
+                rows.flush();
+                int[] viewRows = new int[tuples.length];
+                for (int i = 0; i < tuples.length; i++) {
+                    if ((viewRows[i] = rows.getViewRow(tuples[i].getRow())) < 0) {
+                        shown[0] = false;
+                        return;
+                    }
+                }
+                if (showing && model != null) {
+                    virtualView.selectViewRows(viewRows);
+                }
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            select.run();
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(select);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException ex) {
+                Exceptions.printStackTrace(ex);
+            }
+        }
+        return shown[0];
+    }
+
     public static class AbstractModel<T extends AbstractDataTable> implements Model<T>, TupleSetListener, PropertyChangeListener {
 
         private final T dataTable;
@@ -372,6 +470,7 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
         }
 
         protected void setSelctionSyncEnabled(boolean enabled) {
+            selectionSyncEnabled = enabled;
             if (enabled) {
                 dataTable.getExplorerManager().removePropertyChangeListener(this);
                 dataTable.getExplorerManager().addPropertyChangeListener(this);
@@ -385,6 +484,59 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
             }
         }
 
+        boolean isSelectionSyncEnabled() {
+            return selectionSyncEnabled;
+        }
+        private volatile boolean selectionSyncEnabled = false;
+
+        /**
+         * Synchronize selections in the virtualized table with selections in
+         * the display, like {@link #propertyChange(PropertyChangeEvent)} of
+         * the selected nodes.
+         *
+         * @param rows selected rows of the table
+         */
+        void setFocusedRows(final int[] rows) {
+            final Visualization v = display.getVisualization();
+            final TupleSet focusedTupleSet = v.getFocusGroup(Visualization.FOCUS_ITEMS);
+            final String group = dataTable.getDataGroup();
+            centerItem = null;
+            v.process(new Runnable() {
+                @Override
+                public void run() {
+                    Set<VisualItem> items = new LinkedHashSet<VisualItem>();
+                    for (int row : rows) {
+                        items.add(v.getVisualItem(group, table.getTuple(row)));
+                    }
+                    internalDisplaySelection = true;
+                    // Firstly, remove unselected items
+                    List<VisualItem> unselected = new ArrayList<VisualItem>();
+                    for (Iterator<VisualItem> focused = focusedTupleSet.tuples(new InGroupPredicate(group)); focused.hasNext();) {
+                        VisualItem item = focused.next();
+                        if (!items.contains(item)) {
+                            unselected.add(item);
+                        }
+                    }
+                    for (VisualItem item : unselected) {
+                        focusedTupleSet.removeTuple(item);
+                    }
+                    // Then, add newly selected items
+                    for (VisualItem item : items) {
+                        if (items.size() == 1) {
+                            focusedTupleSet.setTuple(item);
+                            centerItem = item;
+                        } else if (!focusedTupleSet.containsTuple(item)) {
+                            focusedTupleSet.addTuple(item);
+                        }
+                    }
+                    internalDisplaySelection = false;
+                }
+            }, Visualization.DRAW);
+            if (centerItem != null && !Lookup.getDefault().lookup(DataTableControllerUI.class).isRefreshing(dataTable)) {
+                panDisplayCenterTo(centerItem);
+            }
+        }
+
         /**
          * Synchronize selections in the data table with selections in the
          * display. It will pan the display to place a last selected *ONE* item
@@ -488,6 +640,18 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
             if (!dataTable.isSelected()) {
                 return;
             }
+            if (dataTable.isVirtualized()) {
+                List<Integer> rows = new ArrayList<Integer>();
+                for (Iterator<VisualItem> items = selectedItems.tuples(new InGroupPredicate(dataTable.getDataGroup())); items.hasNext();) {
+                    rows.add(items.next().getSourceTuple().getRow());
+                }
+                int[] selectedRows = new int[rows.size()];
+                for (int i = 0; i < selectedRows.length; i++) {
+                    selectedRows[i] = rows.get(i);
+                }
+                dataTable.getVirtualView().setSelectedRows(selectedRows);
+                return;
+            }
             selectedNodes.clear();
             for (Iterator<VisualItem> items = selectedItems.tuples(new InGroupPredicate(dataTable.getDataGroup())); items.hasNext();) {
                 Tuple tuple = items.next().getSourceTuple();
@@ -503,6 +667,9 @@ public abstract class AbstractDataTable extends OutlineView implements GraphData
         }
 
         protected void clearSelection() {
+            if (dataTable.isVirtualized()) {
+                dataTable.getVirtualView().setSelectedRows(new int[]{});
+            }
             selectedNodes.clear();
             setSelectedNodesInternal(new Node[]{});
         }
@@ -29,6 +29,7 @@ import org.jdesktop.swingx.JXSearchField;
 import org.mongkie.datatable.spi.DataTable;
 import org.mongkie.filter.FilterController;
 import org.mongkie.filter.spi.Filter;
+import org.mongkie.filter.spi.RangeFilter;
 import org.mongkie.visualization.search.SearchController;
 import org.mongkie.visualization.search.SearchOption;
 import org.openide.util.Lookup;
@@ -45,6 +46,8 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
     private static final String NONE = "---None";
     private static final String ALL_COLUMNS = "---All columns";
     private RegexFilter filter;
+    // the filter of a range typed for a numeric column, e.g. "10..20"
+    private RangeFilter range;
 
     /**
      * Creates new form FilterToolsPanel
@@ -81,18 +84,99 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
 
     private void clearFilter(boolean reapply) {
         filterInputTextField.setText(null);
-        if (!filter.setText(null) && reapply) {
+        boolean applied = setRange(null, null, null);
+        if (!filter.setText(null) && !applied && reapply) {
             filter.reapply();
         }
     }
 
     private void applyFilter(boolean reapply) {
         String text = filterInputTextField.getText();
-        if (!filter.setText(text.isEmpty() ? null : text) && reapply) {
-            filter.reapply();
+        text = text.isEmpty() ? null : text;
+        Object[] bounds = parseRange(filter.getColumn(), text);
+        if (bounds != null) {
+            filter.text = null; // Passes all, applied with the range
+            if (!setRange(filter.getColumn(), bounds[0], bounds[1]) && reapply) {
+                range.reapply();
+            }
+        } else {
+            boolean applied = setRange(null, null, null);
+            if (!filter.setText(text) && !applied && reapply) {
+                filter.reapply();
+            }
         }
     }
 
+    /**
+     * Filters the values of the given column within the given range, or
+     * removes the range filter if the column is <tt>null</tt>.
+     *
+     * @return true if the filters are applied again
+     */
+    private boolean setRange(String column, Object low, Object high) {
+        FilterController controller = Lookup.getDefault().lookup(FilterController.class);
+        boolean applied = false;
+        if (range != null && !range.getColumn().equals(column)) {
+            controller.removeFilter(range);
+            range = null;
+            applied = true;
+        }
+        if (column == null) {
+            return applied;
+        }
+        if (range == null) {
+            controller.addFilter(range = new RangeFilter(getRangeFilterName(), table.getDataGroup(), column, low, high), true);
+            return true;
+        }
+        Object oldLow = range.getLow(), oldHigh = range.getHigh();
+        range.setRange(low, high);
+        return oldLow != range.getLow() || oldHigh != range.getHigh();
+    }
+
+    /**
+     * Returns the bounds of a range typed as <tt>low..high</tt> for a numeric
+     * column, where either bound may be omitted.
+     *
+     * @return the bounds, or <tt>null</tt> if the text is not a range of the
+     * column
+     */
+    private Object[] parseRange(String column, String text) {
+        int dots = text == null ? -1 : text.indexOf("..");
+        if (dots < 0 || column.equals(ALL_COLUMNS) || table.getModel().getTable().getColumnNumber(column) < 0) {
+            return null;
+        }
+        Class<?> type = table.getModel().getTable().getColumnType(column);
+        try {
+            Object low = parseBound(type, text.substring(0, dots).trim());
+            Object high = parseBound(type, text.substring(dots + 2).trim());
+            return type == int.class || type == long.class || type == float.class || type == double.class
+                    ? new Object[]{low, high} : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static Object parseBound(Class<?> type, String text) {
+        if (text.isEmpty()) {
+            return null;
+        } else if (type == int.class) {
+            return Integer.valueOf(text);
+        } else if (type == long.class) {
+            return Long.valueOf(text);
+        } else if (type == float.class) {
+            return Float.valueOf(text);
+        } else {
+            return Double.valueOf(text);
+        }
+    }
+
+    private String getFilterText() {
+        if (range != null) {
+            return (range.getLow() == null ? "" : range.getLow()) + ".." + (range.getHigh() == null ? "" : range.getHigh());
+        }
+        return filter.getText();
+    }
+
     /**
      * This method is called from within the constructor to
      * initialize the form.
@@ -170,6 +254,10 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
         return RegexFilter.class.getName() + "_" + table.getDataGroup();
     }
 
+    private String getRangeFilterName() {
+        return RangeFilter.class.getName() + "_" + table.getDataGroup();
+    }
+
     @Override
     public void refresh(boolean disabled) {
         if (disabled
@@ -181,6 +269,7 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
             filterInputTextField.setText(null);
             filterInputTextField.setEnabled(false);
             filter = null;
+            range = null;
         } else {
             AbstractDataTable.AbstractModel model = table.getModel();
             Schema s = model.getDisplay().getDataViewSupport(table.getDataGroup()).getOutlineSchema();
@@ -194,6 +283,7 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
                 }
             }
             filter = (RegexFilter) Lookup.getDefault().lookup(FilterController.class).getModel(model.getDisplay()).getFilter(table.getDataGroup(), getFilterName());
+            range = (RangeFilter) Lookup.getDefault().lookup(FilterController.class).getModel(model.getDisplay()).getFilter(table.getDataGroup(), getRangeFilterName());
             if (filter == null) {
                 Lookup.getDefault().lookup(FilterController.class).addFilter(filter = new RegexFilter(table, getFilterName()), true);
             }
@@ -208,11 +298,11 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
                     filter.column = col;
                     clearFilter(true); // Apply the filter only once
                 } else {
-                    filterInputTextField.setText(filter.getText());
+                    filterInputTextField.setText(getFilterText());
                     applyFilter(true);
                 }
             } else {
-                filterInputTextField.setText(filter.getText());
+                filterInputTextField.setText(getFilterText());
             }
             filterColumnComboBox.addItemListener(this);
             filterColumnComboBox.setEnabled(true);
@@ -223,7 +313,15 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
     @Override
     public void itemStateChanged(ItemEvent e) {
         if (e.getStateChange() == ItemEvent.SELECTED) {
-            filter.setColumn((String) e.getItem());
+            String column = (String) e.getItem();
+            if (range != null || parseRange(column, filter.getText()) != null) {
+                // The typed range applies to the new column, or the text to
+                // the regular expression filter
+                filter.column = column;
+                applyFilter(true);
+            } else {
+                filter.setColumn(column);
+            }
         }
     }
 
@@ -283,7 +381,7 @@ class FilterToolsPanel extends javax.swing.JPanel implements DataTable.Tool<Abst
                 return true;
             }
             SearchController searcher = Lookup.getDefault().lookup(SearchController.class);
-            return searcher.match(data, searcher.makeRegexPattern(text, SearchOption.getDefault()), getFilterColumns());
+            return searcher.match(data, text, SearchOption.getDefault(), getFilterColumns());
         }
 
         private String[] getFilterColumns() {
@@ -0,0 +1,223 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.ui.datatable.graph;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import javax.swing.*;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import kobic.prefuse.display.DataViewSupport;
+import org.mongkie.datatable.DataTableModel;
+import org.mongkie.util.lang.StringUtilities;
+import prefuse.Visualization;
+
+/**
+ * The view of a data table in the virtualized mode, a plain table of the
+ * {@link DataTableModel} rendering the rows shown only. Clicking a column
+ * header sorts the rows by the column, in ascending, descending and then the
+ * original order.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+class VirtualDataView extends JScrollPane implements ListSelectionListener, TableModelListener {
+
+    private final AbstractDataTable dataTable;
+    private final DataTableModel model = new DataTableModel(null);
+    private final JTable table;
+    private boolean internalSelection = false;
+
+    VirtualDataView(AbstractDataTable dataTable) {
+        this.dataTable = dataTable;
+        setBorder(BorderFactory.createEmptyBorder());
+        table = new JTable(model);
+        // Registered after the table, so notified before the table clears the selection
+        model.addTableModelListener(this);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setPreferredSize(new Dimension(0, 24));
+        TableCellRenderer renderer = new DataCellRenderer(table.getDefaultRenderer(Boolean.class));
+        table.setDefaultRenderer(Object.class, renderer);
+        table.setDefaultRenderer(Number.class, renderer);
+        table.setDefaultRenderer(Boolean.class, renderer);
+        table.getSelectionModel().addListSelectionListener(this);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (e.getButton() != MouseEvent.BUTTON1 || column < 0) {
+                    return;
+                }
+                String field = model.getField(table.convertColumnIndexToModel(column));
+                if (!field.equals(model.getSortField())) {
+                    model.sort(field, true);
+                } else if (model.isAscending()) {
+                    model.sort(field, false);
+                } else {
+                    model.sort(null, true);
+                }
+            }
+        });
+        setViewportView(table);
+    }
+
+    DataTableModel getModel() {
+        return model;
+    }
+
+    /**
+     * Selects the given rows of the table, following the selections in the
+     * display.
+     *
+     * @param rows the rows of the table
+     */
+    void setSelectedRows(final int[] rows) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    setSelectedRows(rows);
+                }
+            });
+            return;
+        }
+        int[] viewRows = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            int viewRow = model.getViewRow(row);
+            if (viewRow >= 0) {
+                viewRows[count++] = viewRow;
+            }
+        }
+        Arrays.sort(viewRows, 0, count);
+        ListSelectionModel selection = table.getSelectionModel();
+        internalSelection = true;
+        try {
+            selection.setValueIsAdjusting(true);
+            selection.clearSelection();
+            for (int i = 0, start = 0; i < count; i++) {
+                if (i == count - 1 || viewRows[i + 1] != viewRows[i] + 1) {
+                    selection.addSelectionInterval(viewRows[start], viewRows[i]);
+                    start = i + 1;
+                }
+            }
+            selection.setValueIsAdjusting(false);
+        } finally {
+            internalSelection = false;
+        }
+        if (count > 0) {
+            table.scrollRectToVisible(table.getCellRect(viewRows[0], 0, true));
+        }
+    }
+
+    /**
+     * Selects the given view rows as if selected by the user, so that the
+     * display follows.
+     */
+    void selectViewRows(int[] viewRows) {
+        ListSelectionModel selection = table.getSelectionModel();
+        selection.setValueIsAdjusting(true);
+        selection.clearSelection();
+        for (int viewRow : viewRows) {
+            selection.addSelectionInterval(viewRow, viewRow);
+        }
+        selection.setValueIsAdjusting(false);
+        if (viewRows.length > 0) {
+            table.scrollRectToVisible(table.getCellRect(viewRows[0], 0, true));
+        }
+    }
+
+    /**
+     * Synchronize selections in the display with selections in the table.
+     */
+    @Override
+    public void valueChanged(ListSelectionEvent e) {
+        AbstractDataTable.AbstractModel dataModel = dataTable.getModel();
+        if (internalSelection || e.getValueIsAdjusting() || dataModel == null || !dataModel.isSelectionSyncEnabled()) {
+            return;
+        }
+        int[] viewRows = table.getSelectedRows();
+        int[] rows = new int[viewRows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = model.getRow(viewRows[i]);
+        }
+        dataModel.setFocusedRows(rows);
+    }
+
+    /**
+     * The table clears the selection when the rows are refreshed or sorted, so
+     * selects the rows of the items selected in the display again.
+     */
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e.getType() != TableModelEvent.UPDATE || e.getFirstRow() == TableModelEvent.HEADER_ROW
+                || e.getLastRow() == Integer.MAX_VALUE) {
+            internalSelection = true;
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    internalSelection = false;
+                    AbstractDataTable.AbstractModel dataModel = dataTable.getModel();
+                    if (dataModel != null && dataModel.isSelectionSyncEnabled()) {
+                        dataModel.setSelectedNodesOf(dataModel.getDisplay().getVisualization().getFocusGroup(Visualization.FOCUS_ITEMS));
+                    }
+                }
+            });
+        }
+    }
+
+    private class DataCellRenderer extends DefaultTableCellRenderer {
+
+        /**
+         * Gray color for the even lines in the view.
+         */
+        private final Color VERY_LIGHT_GRAY = new Color(236, 236, 236);
+        private final TableCellRenderer booleanRenderer;
+
+        DataCellRenderer(TableCellRenderer booleanRenderer) {
+            this.booleanRenderer = booleanRenderer;
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component cell;
+            if (value instanceof Boolean) {
+                cell = booleanRenderer.getTableCellRendererComponent(table, value, isSelected, false, row, column);
+            } else {
+                String field = model.getField(table.convertColumnIndexToModel(column));
+                DataViewSupport viewSupport = (DataViewSupport) model.getTable().getClientProperty(DataViewSupport.PROP_KEY);
+                String string = value == null ? "" : viewSupport.getStringAt(model.getRow(row), field);
+                cell = super.getTableCellRendererComponent(table, string, isSelected, false, row, column);
+                setToolTipText("".equals(string) ? null : StringUtilities.createHtmlTooltip(
+                        viewSupport.getColumnTitle(field), StringUtilities.escapeHTML(string), 4));
+            }
+            if (!isSelected) {
+                cell.setBackground(row % 2 == 1 ? VERY_LIGHT_GRAY : table.getBackground());
+            }
+            return cell;
+        }
+    }
+}
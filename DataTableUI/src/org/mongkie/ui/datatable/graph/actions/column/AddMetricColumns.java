@@ -0,0 +1,91 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.ui.datatable.graph.actions.column;
+
+import java.awt.Image;
+import org.mongkie.datatable.DataTableControllerUI;
+import org.mongkie.datatable.spi.GraphAddColumnAction;
+import org.mongkie.datatable.spi.GraphDataTable;
+import org.mongkie.metrics.MetricsController;
+import org.mongkie.metrics.spi.Metric;
+import org.mongkie.visualization.MongkieDisplay;
+import org.openide.util.Lookup;
+import org.openide.util.lookup.ServiceProvider;
+import static kobic.prefuse.Constants.NODES;
+
+/**
+ * Creates node columns of graph metrics, e.g. degree, PageRank or k-core, which
+ * are then ranked and filtered like any other numeric column.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@ServiceProvider(service = GraphAddColumnAction.class, position = 3)
+public class AddMetricColumns extends GraphAddColumnAction {
+
+    private Metric[] metrics;
+    private String weightField;
+
+    void setMetrics(Metric[] metrics) {
+        this.metrics = metrics;
+    }
+
+    void setWeightField(String weightField) {
+        this.weightField = weightField;
+    }
+
+    @Override
+    public String getName() {
+        return "Metrics...";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Create columns of node metrics, such as degree, PageRank or k-core";
+    }
+
+    @Override
+    public Image getIcon() {
+        return null;
+    }
+
+    @Override
+    public void execute(final GraphDataTable table) {
+        if (metrics == null || metrics.length == 0) {
+            return;
+        }
+        MongkieDisplay d = table.getModel().getDisplay();
+        Lookup.getDefault().lookup(MetricsController.class).compute(d, weightField, new Runnable() {
+            @Override
+            public void run() {
+                Lookup.getDefault().lookup(DataTableControllerUI.class).refreshModel(table, false);
+            }
+        }, metrics);
+    }
+
+    @Override
+    public boolean isEnabled(GraphDataTable table) {
+        return NODES.equals(table.getDataGroup())
+                && !Lookup.getDefault().lookup(MetricsController.class).isRunning();
+    }
+
+    @Override
+    public UI getUI() {
+        return AddMetricColumnsUI.getInstance();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.ui.datatable.graph.actions.column;
+
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import org.mongkie.datatable.spi.DataAction;
+import org.mongkie.datatable.spi.GraphDataTable;
+import org.mongkie.metrics.MetricsController;
+import org.mongkie.metrics.spi.Metric;
+import org.openide.NotifyDescriptor;
+import org.openide.util.Lookup;
+import org.openide.util.NbBundle;
+import prefuse.data.Schema;
+import prefuse.util.TypeLib;
+import static kobic.prefuse.Constants.EDGES;
+
+/**
+ * Chooses the metrics to compute and the edge column weighting them.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class AddMetricColumnsUI extends JPanel implements DataAction.UI<GraphDataTable, AddMetricColumns> {
+
+    private static final String NONE = "---None";
+    private final JPanel metricsPanel;
+    private final JComboBox weightComboBox;
+    private final List<JCheckBox> metricCheckBoxes = new ArrayList<JCheckBox>();
+    private Metric[] metrics;
+    private AddMetricColumns action;
+
+    private AddMetricColumnsUI() {
+        super(new BorderLayout(0, 12));
+        setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        JLabel actionTitleLabel = new JLabel(NbBundle.getMessage(AddMetricColumnsUI.class, "AddMetricColumnsUI.actionTitleLabel.text"));
+        actionTitleLabel.setFont(actionTitleLabel.getFont().deriveFont(actionTitleLabel.getFont().getStyle() | java.awt.Font.BOLD));
+        actionTitleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        add(actionTitleLabel, BorderLayout.NORTH);
+        metricsPanel = new JPanel(new GridLayout(0, 2, 6, 2));
+        add(metricsPanel, BorderLayout.CENTER);
+        JPanel weightPanel = new JPanel(new BorderLayout(6, 0));
+        weightPanel.add(new JLabel(NbBundle.getMessage(AddMetricColumnsUI.class, "AddMetricColumnsUI.weightLabel.text")), BorderLayout.WEST);
+        weightComboBox = new JComboBox();
+        weightComboBox.setToolTipText(NbBundle.getMessage(AddMetricColumnsUI.class, "AddMetricColumnsUI.weightComboBox.toolTipText"));
+        weightPanel.add(weightComboBox, BorderLayout.CENTER);
+        add(weightPanel, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void load(GraphDataTable table, AddMetricColumns action) {
+        this.action = action;
+        metrics = Lookup.getDefault().lookup(MetricsController.class).getMetrics();
+        for (Metric m : metrics) {
+            JCheckBox metricCheckBox = new JCheckBox(m.getBuilder().getName());
+            metricCheckBox.setToolTipText(m.getColumn());
+            metricCheckBoxes.add(metricCheckBox);
+            metricsPanel.add(metricCheckBox);
+        }
+        weightComboBox.addItem(NONE);
+        Schema s = table.getModel().getDisplay().getDataViewSupport(EDGES).getOutlineSchema();
+        for (int i = 0; i < s.getColumnCount(); i++) {
+            if (TypeLib.isNumericType(s.getColumnType(i))) { // only for numeric types
+                weightComboBox.addItem(s.getColumnName(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean close(Object option) {
+        boolean ok = option.equals(NotifyDescriptor.OK_OPTION);
+        if (ok) {
+            List<Metric> selected = new ArrayList<Metric>();
+            for (int i = 0; i < metrics.length; i++) {
+                if (metricCheckBoxes.get(i).isSelected()) {
+                    selected.add(metrics[i]);
+                }
+            }
+            action.setMetrics(selected.toArray(new Metric[selected.size()]));
+            Object weight = weightComboBox.getSelectedItem();
+            action.setWeightField(weight == null || weight.equals(NONE) ? null : (String) weight);
+        }
+        metricsPanel.removeAll();
+        metricCheckBoxes.clear();
+        weightComboBox.removeAllItems();
+        this.metrics = null;
+        this.action = null;
+        return ok;
+    }
+
+    @Override
+    public Object[] getDialogOptions() {
+        return null;
+    }
+
+    @Override
+    public JPanel getPanel() {
+        return this;
+    }
+
+    static AddMetricColumnsUI getInstance() {
+        return Holder.UI;
+    }
+
+    private static class Holder {
+
+        private static final AddMetricColumnsUI UI = new AddMetricColumnsUI();
+    }
+}
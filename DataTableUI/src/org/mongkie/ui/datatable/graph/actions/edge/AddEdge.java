@@ -84,7 +84,7 @@ public class AddEdge extends AbstractEdgeAction {
             }
         });
         if (edge >= 0) {
-            table.setSelectedNodes(new org.openide.nodes.Node[]{table.getDataChildFactory().getNodeOf(edge)});
+            table.setSelectedTuples(model.getTable().getTuple(edge));
         }
     }
 
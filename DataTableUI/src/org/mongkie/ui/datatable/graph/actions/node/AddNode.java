@@ -22,7 +22,6 @@ import java.awt.geom.Point2D;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import kobic.prefuse.Constants;
-import org.mongkie.datatable.DataNode;
 import org.mongkie.datatable.spi.DataAction;
 import org.mongkie.ui.datatable.graph.AbstractDataTable;
 import org.mongkie.ui.datatable.graph.AbstractDataTable.AbstractModel;
@@ -91,11 +90,8 @@ public class AddNode extends AbstractNodeAction {
             Point2D c = DisplayLib.getDisplayCenter(model.getDisplay());
             PrefuseLib.setX(n, null, c.getX());
             PrefuseLib.setY(n, null, c.getY());
-            DataNode added = table.getDataChildFactory().getNodeOf(node.getRow());
-            if (added == null) { // Data node for the added node does not exist because it is filtered
+            if (!table.setSelectedTuples(node)) { // The added node is not shown because it is filtered
                 StatusDisplayer.getDefault().setStatusText("A node is added newly but it is filtered, clear filters to display it.");
-            } else {
-                table.setSelectedNodes(new org.openide.nodes.Node[]{added});
             }
             // When the first node added, fire graph change event
             if (!model.getDisplay().isFired()) {
@@ -19,9 +19,11 @@ package org.mongkie.exporter;
 
 import java.io.File;
 import java.io.IOException;
+import org.mongkie.exporter.spi.AbstractGraphExporter;
 import org.mongkie.exporter.spi.Exporter;
 import org.mongkie.exporter.spi.ExporterBuilder;
 import org.mongkie.exporter.spi.FileExporter;
+import prefuse.data.Graph;
 
 /**
  *
@@ -31,6 +33,18 @@ public interface ExportController {
 
     public void exportFile(File file, FileExporter exporter) throws IOException;
 
+    /**
+     * Exports a graph to a file without a display, e.g. in a batch.
+     *
+     * @param file the file to write
+     * @param g the graph to export
+     * @param exporter an exporter {@link AbstractGraphExporter#supportsGraph() supporting}
+     * graphs without a display
+     * @throws IOException if the file could not be written
+     * @throws IllegalArgumentException if the exporter needs a display
+     */
+    public void exportFile(File file, Graph g, AbstractGraphExporter exporter) throws IOException;
+
     public Exporter.OptionUI getOptionUI(Exporter exporter);
 
     public Exporter.SettingUI getSettingUI(Exporter exporter);
@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import org.mongkie.exporter.ExportController;
+import org.mongkie.exporter.spi.AbstractGraphExporter;
 import org.mongkie.exporter.spi.Exporter;
 import org.mongkie.exporter.spi.Exporter.OptionUI;
 import org.mongkie.exporter.spi.Exporter.SettingUI;
@@ -33,6 +34,7 @@ import org.mongkie.exporter.spi.FileExporter;
 import org.mongkie.visualization.VisualizationController;
 import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
+import prefuse.data.Graph;
 
 /**
  *
@@ -74,7 +76,20 @@ public class ExportControllerImpl implements ExportController {
     @Override
     public void exportFile(File file, FileExporter exporter) throws IOException {
         exporter.setDisplay(Lookup.getDefault().lookup(VisualizationController.class).getDisplay());
+        write(file, exporter);
+    }
+
+    @Override
+    public void exportFile(File file, Graph g, AbstractGraphExporter exporter) throws IOException {
+        if (!exporter.supportsGraph()) {
+            throw new IllegalArgumentException("The exporter needs a display: " + exporter.getClass().getName());
+        }
+        exporter.setDisplay(null);
+        exporter.setGraph(g);
+        write(file, exporter);
+    }
 
+    private void write(File file, FileExporter exporter) throws IOException {
         OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
         try {
             exporter.setOutputStream(out);
@@ -19,6 +19,7 @@ package org.mongkie.exporter.spi;
 
 import java.io.OutputStream;
 import org.mongkie.visualization.MongkieDisplay;
+import prefuse.data.Graph;
 
 /**
  *
@@ -29,6 +30,7 @@ public abstract class AbstractGraphExporter implements GraphExporter {
     protected boolean selectionOnly;
     protected OutputStream out;
     protected MongkieDisplay display;
+    private Graph graph;
 
     @Override
     public void setExportSelectionOnly(boolean selectionOnly) {
@@ -49,4 +51,35 @@ public abstract class AbstractGraphExporter implements GraphExporter {
     public void setDisplay(MongkieDisplay display) {
         this.display = display;
     }
+
+    /**
+     * Sets the graph to export without a display, in which case all of its
+     * nodes and edges are exported regardless of the selection.
+     *
+     * @param graph the graph to export, or <tt>null</tt> to export the graph of
+     * the display
+     */
+    public void setGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the graph to export, the graph of the display if one is set.
+     *
+     * @return the graph to export
+     */
+    public Graph getGraph() {
+        return display != null ? display.getGraph() : graph;
+    }
+
+    /**
+     * Returns whether this exporter can write a graph set by
+     * {@link #setGraph(Graph)} without a display. Exporters of visual
+     * attributes need a display and return <tt>false</tt>.
+     *
+     * @return true if a display is not needed
+     */
+    public boolean supportsGraph() {
+        return true;
+    }
 }
@@ -17,6 +17,7 @@
  */
 package org.mongkie.exporter.plugins.graph;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -87,10 +88,10 @@ public class ExporterCSV extends AbstractGraphExporter {
     public boolean execute() {
         try {
             Schema outline;
-            Graph g = display.getGraph();
             switch (tableToExport) {
                 case NODE:
-                    outline = display.getNodeDataViewSupport().getOutlineSchema();
+                    outline = display != null ? display.getNodeDataViewSupport().getOutlineSchema()
+                            : getOutlineSchema(getGraph().getNodeTable(), Graph.INTERNAL_NODE_ID);
                     if (exportInternalIdColumns) {
                         prefuse.data.Table table = new prefuse.data.Table();
                         table.addColumn(Graph.INTERNAL_NODE_ID, int.class);
@@ -111,7 +112,8 @@ public class ExporterCSV extends AbstractGraphExporter {
                     }
                     break;
                 case EDGE:
-                    outline = display.getEdgeDataViewSupport().getOutlineSchema();
+                    outline = display != null ? display.getEdgeDataViewSupport().getOutlineSchema()
+                            : getOutlineSchema(getGraph().getEdgeTable(), Graph.DEFAULT_SOURCE_KEY, Graph.DEFAULT_TARGET_KEY);
                     if (exportInternalIdColumns) {
                         prefuse.data.Table table = new prefuse.data.Table();
                         table.addColumn(Graph.DEFAULT_SOURCE_KEY, int.class);
@@ -143,6 +145,18 @@ public class ExporterCSV extends AbstractGraphExporter {
         return true;
     }
 
+    private static Schema getOutlineSchema(prefuse.data.Table table, String... internalColumns) {
+        Schema ts = table.getSchema();
+        Schema s = new Schema(ts.getColumnCount());
+        for (int i = 0; i < ts.getColumnCount(); i++) {
+            String col = ts.getColumnName(i);
+            if (!Arrays.asList(internalColumns).contains(col)) {
+                s.addColumn(col, ts.getColumnType(i), ts.getDefault(i));
+            }
+        }
+        return s;
+    }
+
     private void addOutlineColumns(prefuse.data.Table table, Schema outline) {
         for (int i = 0; i < outline.getColumnCount(); i++) {
             table.addColumn(outline.getColumnName(i), outline.getColumnType(i), outline.getDefault(i));
@@ -159,7 +173,7 @@ public class ExporterCSV extends AbstractGraphExporter {
     }
 
     private Iterator<Node> getNodes() {
-        return isExportSelectionOnly() ? new Iterator<Node>() {
+        return isExportSelectionOnly() && display != null ? new Iterator<Node>() {
             Iterator<NodeItem> items =
                     Lookup.getDefault().lookup(VisualizationController.class).getSelectionManager().getSelectedNodes(display.getVisualization());
 
@@ -177,11 +191,11 @@ public class ExporterCSV extends AbstractGraphExporter {
             public void remove() {
                 throw new UnsupportedOperationException("Not supported.");
             }
-        } : display.getGraph().nodes();
+        } : getGraph().nodes();
     }
 
     private Iterator<Edge> getEdges() {
-        return isExportSelectionOnly() ? new Iterator<Edge>() {
+        return isExportSelectionOnly() && display != null ? new Iterator<Edge>() {
             Iterator<EdgeItem> items =
                     Lookup.getDefault().lookup(VisualizationController.class).getSelectionManager().getSelectedEdges(display.getVisualization());
 
@@ -199,7 +213,7 @@ public class ExporterCSV extends AbstractGraphExporter {
             public void remove() {
                 throw new UnsupportedOperationException("Not supported.");
             }
-        } : display.getGraph().edges();
+        } : getGraph().edges();
     }
 
     MongkieDisplay getDisplay() {
@@ -31,7 +31,7 @@ public class ExporterGraphML extends AbstractGraphExporter {
     @Override
     public boolean execute() {
         try {
-            writer.writeGraph(display.getGraph(), out);
+            writer.writeGraph(getGraph(), out);
         } catch (Exception ex) {
             throw new RuntimeException("An error happened when writing to the GraphML file", ex);
         }
@@ -26,6 +26,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import static kobic.prefuse.Constants.EDGES;
 import static kobic.prefuse.Constants.NODES;
+import kobic.prefuse.data.io.ColumnarGraphIO;
 import kobic.prefuse.data.io.SerializableTable;
 import org.mongkie.exporter.spi.AbstractGraphExporter;
 import org.mongkie.visualization.color.ColorController;
@@ -46,62 +47,91 @@ import static prefuse.visual.VisualItem.*;
  */
 public class ExporterVizGraph extends AbstractGraphExporter {
 
+    private final boolean columnar;
+
+    public ExporterVizGraph() {
+        this(false);
+    }
+
+    /**
+     * @param columnar if true, the visual graph is written in the columnar
+     * binary format of {@link ColumnarGraphIO} instead of Java serialization
+     */
+    public ExporterVizGraph(boolean columnar) {
+        this.columnar = columnar;
+    }
+
     @Override
     public boolean execute() {
+        Graph g = display.getGraph();
+        // Node and Edge table
+        SerializableTable serializableNodeTable = new SerializableTable(g.getNodeTable());
+        SerializableTable serializableEdgeTable = new SerializableTable(g.getEdgeTable());
+        String nodeKey = g.getNodeKeyField();
+        String sourceKey = g.getEdgeSourceField();
+        String targetKey = g.getEdgeTargetField();
+        //// Rows of source and target nodes must be reassigned to serialized values
+        if (nodeKey == null) {
+            for (Iterator<Tuple> edgesIter = serializableEdgeTable.getTable().tuples(); edgesIter.hasNext();) {
+                Tuple edge = edgesIter.next();
+                edge.setInt(sourceKey, serializableNodeTable.getRow(edge.getInt(sourceKey)));
+                edge.setInt(targetKey, serializableNodeTable.getRow(edge.getInt(targetKey)));
+            }
+        }
+        // Visual table for nodes and edges
+        SerializableTable serializableNodeItemTable = new SerializableTable((VisualTable) display.getVisualization().getVisualGroup(NODES));
+        reassignVisualFields(serializableNodeItemTable);
+        SerializableTable serializableEdgeItemTable = new SerializableTable((VisualTable) display.getVisualization().getVisualGroup(EDGES));
+        reassignVisualFields(serializableEdgeItemTable);
+        // Aggregate table for groups
+        AggregateTable aggregateTable = (AggregateTable) display.getVisualization().getVisualGroup(AGGR_ITEMS);
+        SerializableTable serializableAggrTable = new SerializableTable(aggregateTable);
+        reassignVisualFields(serializableAggrTable);
+        //// Aggregate(group) id and its member(node) rows need to be serialized
+        Map<Integer, List<Integer>> aggregateId2NodeItemRows = new HashMap<Integer, List<Integer>>();
+        for (Iterator<AggregateItem> aggregates = aggregateTable.tuples(); aggregates.hasNext();) {
+            AggregateItem aggr = aggregates.next();
+            List<Integer> nodeItemRows = new ArrayList<Integer>();
+            for (Iterator<NodeItem> nodeItemsIter = aggr.items(); nodeItemsIter.hasNext();) {
+                nodeItemRows.add(serializableNodeItemTable.getRow(nodeItemsIter.next().getRow()));
+            }
+            if (!nodeItemRows.isEmpty()) {
+                aggregateId2NodeItemRows.put(aggr.getInt(AggregateItem.AGGR_ID), nodeItemRows);
+            }
+        }
+        boolean written = columnar
+                ? writeColumnar(g, serializableNodeTable, serializableEdgeTable,
+                serializableNodeItemTable, serializableEdgeItemTable, serializableAggrTable, aggregateId2NodeItemRows)
+                : writeSerializable(g, serializableNodeTable, serializableEdgeTable,
+                serializableNodeItemTable, serializableEdgeItemTable, serializableAggrTable, aggregateId2NodeItemRows);
+        if (written) {
+            Logger.getLogger(getClass().getName()).log(Level.INFO, "Visual graph is exported successfully");
+        }
+        return written;
+    }
+
+    private boolean writeSerializable(Graph g, SerializableTable nodeTable, SerializableTable edgeTable,
+            SerializableTable nodeItemTable, SerializableTable edgeItemTable, SerializableTable aggrTable,
+            Map<Integer, List<Integer>> aggregateId2NodeItemRows) {
         ObjectOutputStream oos = null;
         try {
             oos = new ObjectOutputStream(out);
-            Graph g = display.getGraph();
-            // Node and Edge table
-            SerializableTable serializableNodeTable = new SerializableTable(g.getNodeTable());
-            oos.writeObject(serializableNodeTable);
-            SerializableTable serializableEdgeTable = new SerializableTable(g.getEdgeTable());
-            String nodeKey = g.getNodeKeyField();
-            String sourceKey = g.getEdgeSourceField();
-            String targetKey = g.getEdgeTargetField();
-            //// Rows of source and target nodes must be reassigned to serialized values
-            if (nodeKey == null) {
-                for (Iterator<Tuple> edgesIter = serializableEdgeTable.getTable().tuples(); edgesIter.hasNext();) {
-                    Tuple edge = edgesIter.next();
-                    edge.setInt(sourceKey, serializableNodeTable.getRow(edge.getInt(sourceKey)));
-                    edge.setInt(targetKey, serializableNodeTable.getRow(edge.getInt(targetKey)));
-                }
-            }
-            oos.writeObject(serializableEdgeTable);
+            oos.writeObject(nodeTable);
+            oos.writeObject(edgeTable);
             // Direction
             oos.writeBoolean(g.isDirected());
             // Node key field
-            oos.writeObject(nodeKey);
+            oos.writeObject(g.getNodeKeyField());
             // Edge source and target field
-            oos.writeObject(sourceKey);
-            oos.writeObject(targetKey);
+            oos.writeObject(g.getEdgeSourceField());
+            oos.writeObject(g.getEdgeTargetField());
             // Label field for nodes and edges
             oos.writeObject(g.getNodeLabelField());
             oos.writeObject(g.getEdgeLabelField());
-            // Visual table for nodes and edges
-            SerializableTable serializableNodeItemTable = new SerializableTable((VisualTable) display.getVisualization().getVisualGroup(NODES));
-            reassignVisualFields(serializableNodeItemTable);
-            oos.writeObject(serializableNodeItemTable);
-            SerializableTable serializableEdgeItemTable = new SerializableTable((VisualTable) display.getVisualization().getVisualGroup(EDGES));
-            reassignVisualFields(serializableEdgeItemTable);
-            oos.writeObject(serializableEdgeItemTable);
-            // Aggregate table for groups
-            AggregateTable aggregateTable = (AggregateTable) display.getVisualization().getVisualGroup(AGGR_ITEMS);
-            SerializableTable serializableAggrTable = new SerializableTable(aggregateTable);
-            reassignVisualFields(serializableAggrTable);
-            oos.writeObject(serializableAggrTable);
-            //// Aggregate(group) id and its member(node) rows need to be serialized
-            Map<Integer, List<Integer>> aggregateId2NodeItemRows = new HashMap<Integer, List<Integer>>();
-            for (Iterator<AggregateItem> aggregates = aggregateTable.tuples(); aggregates.hasNext();) {
-                AggregateItem aggr = aggregates.next();
-                List<Integer> nodeItemRows = new ArrayList<Integer>();
-                for (Iterator<NodeItem> nodeItemsIter = aggr.items(); nodeItemsIter.hasNext();) {
-                    nodeItemRows.add(serializableNodeItemTable.getRow(nodeItemsIter.next().getRow()));
-                }
-                if (!nodeItemRows.isEmpty()) {
-                    aggregateId2NodeItemRows.put(aggr.getInt(AggregateItem.AGGR_ID), nodeItemRows);
-                }
-            }
+            // Visual table for nodes, edges and groups
+            oos.writeObject(nodeItemTable);
+            oos.writeObject(edgeItemTable);
+            oos.writeObject(aggrTable);
             oos.writeObject(aggregateId2NodeItemRows);
         } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
@@ -117,7 +147,35 @@ public class ExporterVizGraph extends AbstractGraphExporter {
                 }
             }
         }
-        Logger.getLogger(getClass().getName()).log(Level.INFO, "Visual graph is exported successfully");
+        return true;
+    }
+
+    private boolean writeColumnar(Graph g, SerializableTable nodeTable, SerializableTable edgeTable,
+            SerializableTable nodeItemTable, SerializableTable edgeItemTable, SerializableTable aggrTable,
+            Map<Integer, List<Integer>> aggregateId2NodeItemRows) {
+        ColumnarGraphIO.Writer writer = null;
+        try {
+            writer = new ColumnarGraphIO.Writer(out);
+            writer.writeGraph(nodeTable.getTable(), edgeTable.getTable(), g.isDirected(),
+                    g.getNodeKeyField(), g.getEdgeSourceField(), g.getEdgeTargetField(),
+                    g.getNodeLabelField(), g.getEdgeLabelField());
+            writer.writeTable(ColumnarGraphIO.NODE_VISUAL_PROPERTIES, nodeItemTable.getTable());
+            writer.writeTable(ColumnarGraphIO.EDGE_VISUAL_PROPERTIES, edgeItemTable.getTable());
+            writer.writeTable(ColumnarGraphIO.AGGREGATE_VISUAL_PROPERTIES, aggrTable.getTable());
+            writer.writeAggregateMembers(aggregateId2NodeItemRows);
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+            throw new RuntimeException("An error occured while exporting a visual graph", ex);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ex) {
+                    Exceptions.printStackTrace(ex);
+                    return false;
+                }
+            }
+        }
         return true;
     }
 
@@ -167,4 +225,9 @@ public class ExporterVizGraph extends AbstractGraphExporter {
     public boolean supportsSelectionOnly() {
         return false;
     }
+
+    @Override
+    public boolean supportsGraph() {
+        return false;
+    }
 }
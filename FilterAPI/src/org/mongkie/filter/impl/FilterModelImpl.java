@@ -19,6 +19,7 @@
 package org.mongkie.filter.impl;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +29,7 @@ import java.util.Map;
 import static kobic.prefuse.Constants.*;
 import org.mongkie.filter.FilterModel;
 import org.mongkie.filter.FilterModelListener;
+import org.mongkie.filter.spi.ColumnFilter;
 import org.mongkie.filter.spi.Filter;
 import org.mongkie.visualization.MongkieDisplay;
 import org.openide.util.Exceptions;
@@ -38,6 +40,7 @@ import prefuse.action.RepaintAction;
 import prefuse.action.filter.VisibilityFilter;
 import prefuse.activity.Activity;
 import prefuse.activity.ActivityAdapter;
+import prefuse.data.CascadedTable;
 import prefuse.data.Table;
 import prefuse.data.Tuple;
 import prefuse.data.event.EventConstants;
@@ -98,6 +101,8 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
     void putFilterAction() {
         display.getGraph().getNodeTable().addTableListener(this);
         display.getGraph().getEdgeTable().addTableListener(this);
+        nodeVisiblePredicates.setTable(display.getGraph().getNodeTable());
+        edgeVisiblePredicates.setTable(display.getGraph().getEdgeTable());
         display.getNodeDataViewSupport().addFilter(nodeVisiblePredicates);
         display.getEdgeDataViewSupport().addFilter(edgeVisiblePredicates);
         display.getVisualization().removeAction(FILTER);
@@ -199,6 +204,8 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
 
     @Override
     public void tableChanged(Table t, int start, int end, int col, int type) {
+        nodeVisiblePredicates.tableChanged(t, col, type);
+        edgeVisiblePredicates.tableChanged(t, col, type);
         // Nodes or edges ared added newly
         if (!display.isLoading()
                 && col == EventConstants.ALL_COLUMNS && type == EventConstants.INSERT) {
@@ -211,10 +218,22 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
         }
     }
 
+    /**
+     * Filters of a data group, combined by a connective. Column filters are
+     * planned on the data table of the group: the rows passing each of them
+     * are read from the index of its column and kept in a bitset, until the
+     * filter or the column changes, and the bitsets are combined before the
+     * other filters are evaluated a tuple at a time.
+     */
     static class VisiblePredicates extends CompositePredicate {
 
         private final Map<String, Filter> filters = new HashMap<String, Filter>();
         private Connective connective = Connective.AND;
+        private Table table;
+        private final Map<ColumnFilter, FilteredRows> filteredRows = new HashMap<ColumnFilter, FilteredRows>();
+        // the combined rows of the column filters, if planned
+        private BitSet rows;
+        private boolean planned = false;
 
         Connective getConnective() {
             return connective;
@@ -222,6 +241,89 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
 
         void setConnective(Connective connective) {
             this.connective = connective;
+            invalidate();
+        }
+
+        synchronized void setTable(Table table) {
+            this.table = table;
+            filteredRows.clear();
+            planned = false;
+        }
+
+        private synchronized void invalidate() {
+            planned = false;
+        }
+
+        /**
+         * Forget the rows of column filters which depend on the changed
+         * column, or of all of them if rows are added or removed.
+         */
+        synchronized void tableChanged(Table t, int col, int type) {
+            if (t != table || filteredRows.isEmpty()) {
+                return;
+            }
+            if (col == EventConstants.ALL_COLUMNS || type != EventConstants.UPDATE) {
+                filteredRows.clear();
+            } else {
+                String name = t.getColumnName(col);
+                for (Iterator<ColumnFilter> iter = filteredRows.keySet().iterator(); iter.hasNext();) {
+                    if (name.equals(iter.next().getColumn())) {
+                        iter.remove();
+                    }
+                }
+            }
+            planned = false;
+        }
+
+        @Override
+        public void expressionChanged(Expression expr) {
+            synchronized (this) {
+                FilteredRows filtered = filteredRows.get(expr);
+                if (filtered != null) {
+                    filtered.invalidate();
+                }
+                planned = false;
+            }
+            super.expressionChanged(expr);
+        }
+
+        private synchronized BitSet getFilteredRows() {
+            if (planned) {
+                return rows;
+            }
+            rows = null;
+            for (Predicate p : m_clauses) {
+                if (p instanceof ColumnFilter && table != null) {
+                    FilteredRows rowsOfFilter = filteredRows.get(p);
+                    if (rowsOfFilter == null) {
+                        filteredRows.put((ColumnFilter) p, rowsOfFilter = new FilteredRows((ColumnFilter) p));
+                    }
+                    BitSet filtered = rowsOfFilter.get(table);
+                    if (rows == null) {
+                        rows = (BitSet) filtered.clone();
+                    } else if (connective == Connective.AND) {
+                        rows.and(filtered);
+                    } else {
+                        rows.or(filtered);
+                    }
+                }
+            }
+            planned = true;
+            return rows;
+        }
+
+        /**
+         * Returns the row of the data table of the given item, or -1 if the
+         * item is not of the data table.
+         */
+        private int getDataRow(Tuple data) {
+            Table t = data.getTable();
+            if (t == table) {
+                return data.getRow();
+            } else if (t instanceof CascadedTable && ((CascadedTable) t).getParentTable() == table) {
+                return ((CascadedTable) t).getParentRow(data.getRow());
+            }
+            return -1;
         }
 
         @Override
@@ -229,17 +331,25 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
             if (size() == 0) {
                 return true;
             }
+            int row = getDataRow(data);
+            BitSet filtered = row < 0 ? null : getFilteredRows();
             switch (connective) {
                 case AND:
+                    if (filtered != null && !filtered.get(row)) {
+                        return false;
+                    }
                     for (Predicate p : m_clauses) {
-                        if (!p.getBoolean(data)) {
+                        if ((filtered == null || !(p instanceof ColumnFilter)) && !p.getBoolean(data)) {
                             return false;
                         }
                     }
                     return true;
                 case OR:
+                    if (filtered != null && filtered.get(row)) {
+                        return true;
+                    }
                     for (Predicate p : m_clauses) {
-                        if (p.getBoolean(data)) {
+                        if ((filtered == null || !(p instanceof ColumnFilter)) && p.getBoolean(data)) {
                             return true;
                         }
                     }
@@ -259,11 +369,17 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
                 filters.remove(filter.getName());
                 return false;
             }
+            invalidate();
             return true;
         }
 
         boolean removeFilter(Filter filter) {
-            return filters.remove(filter.getName()) == filter & super.remove(filter);
+            boolean removed = filters.remove(filter.getName()) == filter & super.remove(filter);
+            synchronized (this) {
+                filteredRows.remove(filter);
+                planned = false;
+            }
+            return removed;
         }
 
         Filter getFilter(String name) {
@@ -274,6 +390,10 @@ final class FilterModelImpl implements FilterModel, ExpressionListener, TableLis
         public void clear() {
             super.clear();
             filters.clear();
+            synchronized (this) {
+                filteredRows.clear();
+                planned = false;
+            }
         }
 
         boolean isEmpty() {
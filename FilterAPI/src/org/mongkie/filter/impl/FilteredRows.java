@@ -0,0 +1,114 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.filter.impl;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import org.mongkie.filter.spi.ColumnFilter;
+import org.mongkie.filter.spi.RangeFilter;
+import prefuse.data.Table;
+import prefuse.data.expression.Predicate;
+import prefuse.data.expression.RangePredicate;
+import prefuse.data.util.FilterIteratorFactory;
+import prefuse.util.collections.DefaultLiteralComparator;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * The rows of a data table passing a column filter, read from the index of
+ * the column. When a range filter moves its bounds, only the rows between the
+ * old and the new bounds are read, e.g. while a range slider is dragged.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class FilteredRows {
+
+    private final ColumnFilter filter;
+    private BitSet rows;
+    // the range of the rows, if of a range filter
+    private Object low, high;
+    private boolean stale = true;
+
+    FilteredRows(ColumnFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Marks the rows to be updated, as the filter has changed.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    BitSet get(Table table) {
+        if (!stale) {
+            return rows;
+        }
+        String column = filter.getColumn();
+        if (table.getColumnNumber(column) >= 0 && table.getIndex(column) == null) {
+            table.index(column);
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter range = (RangeFilter) filter;
+            if (rows == null || !moveRange(table, range)) {
+                rows = new BitSet(table.getMaximumRow() + 1);
+                set(table, filter.getPredicate(), true);
+            }
+            low = range.getLow();
+            high = range.getHigh();
+        } else {
+            rows = new BitSet(table.getMaximumRow() + 1);
+            set(table, filter.getPredicate(), true);
+        }
+        stale = false;
+        return rows;
+    }
+
+    /**
+     * Update the rows of the current range to the given overlapping range.
+     *
+     * @return false if the ranges do not overlap, or either is open
+     */
+    @SuppressWarnings("unchecked")
+    private boolean moveRange(Table table, RangeFilter range) {
+        Object lo = range.getLow(), hi = range.getHigh();
+        Comparator<Object> cmp = DefaultLiteralComparator.getInstance();
+        if (low == null || high == null || lo == null || hi == null
+                || cmp.compare(low, high) > 0 || cmp.compare(lo, hi) > 0
+                || cmp.compare(lo, high) > 0 || cmp.compare(hi, low) < 0) {
+            return false;
+        }
+        if (cmp.compare(lo, low) > 0) {
+            set(table, range.getPredicate(RangePredicate.IN_EX, low, lo), false);
+        } else if (cmp.compare(lo, low) < 0) {
+            set(table, range.getPredicate(RangePredicate.IN_EX, lo, low), true);
+        }
+        if (cmp.compare(hi, high) < 0) {
+            set(table, range.getPredicate(RangePredicate.EX_IN, hi, high), false);
+        } else if (cmp.compare(hi, high) > 0) {
+            set(table, range.getPredicate(RangePredicate.EX_IN, high, hi), true);
+        }
+        return true;
+    }
+
+    private void set(Table table, Predicate p, boolean value) {
+        for (IntIterator iter = FilterIteratorFactory.rows(table, p); iter.hasNext();) {
+            rows.set(iter.nextInt(), value);
+        }
+    }
+}
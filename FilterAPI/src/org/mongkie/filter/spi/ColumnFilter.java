@@ -0,0 +1,70 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.filter.spi;
+
+import prefuse.data.Tuple;
+import prefuse.data.expression.Predicate;
+
+/**
+ * A filter testing a single data column with an indexable predicate, e.g. a
+ * range of values. The filter model answers such filters from an index of the
+ * column on the data table, and only evaluates them again when the filter or
+ * the column changes.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public abstract class ColumnFilter extends Filter {
+
+    private final String name, group, column;
+
+    protected ColumnFilter(String name, String group, String column) {
+        this.name = name;
+        this.group = group;
+        this.column = column;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDataGroup() {
+        return group;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the predicate on the data column which this filter evaluates.
+     * Predicates built of a column expression and literals, like a
+     * {@link prefuse.data.expression.RangePredicate}, are answered from the
+     * index of the column.
+     *
+     * @return the predicate of this filter
+     */
+    public abstract Predicate getPredicate();
+
+    @Override
+    public boolean getBoolean(Tuple data) {
+        return getPredicate().getBoolean(data);
+    }
+}
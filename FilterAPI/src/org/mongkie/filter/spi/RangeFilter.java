@@ -0,0 +1,110 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.filter.spi;
+
+import prefuse.data.expression.BooleanLiteral;
+import prefuse.data.expression.ColumnExpression;
+import prefuse.data.expression.ComparisonPredicate;
+import prefuse.data.expression.Literal;
+import prefuse.data.expression.Predicate;
+import prefuse.data.expression.RangePredicate;
+import prefuse.util.TypeLib;
+
+/**
+ * A filter passing the items whose value of a column lies within a range,
+ * both bounds inclusive, or equals a value. The bounds must be of the type of
+ * the column, e.g. <code>Integer</code> for an <code>int</code> column. A
+ * <code>null</code> bound leaves the range open on its side, and a range open
+ * on both sides passes all the items.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class RangeFilter extends ColumnFilter {
+
+    private Object low, high;
+    private Predicate predicate;
+
+    public RangeFilter(String name, String group, String column, Object low, Object high) {
+        super(name, group, column);
+        update(low, high);
+    }
+
+    public Object getLow() {
+        return low;
+    }
+
+    public Object getHigh() {
+        return high;
+    }
+
+    public void setRange(Object low, Object high) {
+        if (equals(low, this.low) && equals(high, this.high)) {
+            return;
+        }
+        update(low, high);
+        reapply();
+    }
+
+    public void setValue(Object value) {
+        setRange(value, value);
+    }
+
+    private void update(Object low, Object high) {
+        this.low = low;
+        this.high = high;
+        if (low == null && high == null) {
+            predicate = BooleanLiteral.TRUE;
+        } else if (low == null) {
+            predicate = new ComparisonPredicate(ComparisonPredicate.LTEQ, new ColumnExpression(getColumn()), literal(high));
+        } else if (high == null) {
+            predicate = new ComparisonPredicate(ComparisonPredicate.GTEQ, new ColumnExpression(getColumn()), literal(low));
+        } else {
+            predicate = getPredicate(RangePredicate.IN_IN, low, high);
+        }
+    }
+
+    /**
+     * Returns a predicate testing if the value of the column of this filter
+     * lies within the given bounds.
+     *
+     * @param operation the inclusion of the bounds, one of the operations of
+     * {@link RangePredicate}, e.g. {@link RangePredicate#IN_EX}
+     * @param low the lower bound
+     * @param high the upper bound
+     * @return the predicate of the range
+     */
+    public Predicate getPredicate(int operation, Object low, Object high) {
+        return new RangePredicate(operation, new ColumnExpression(getColumn()), literal(low), literal(high));
+    }
+
+    private static Literal literal(Object value) {
+        return value instanceof Number || value instanceof Boolean
+                ? Literal.getLiteral(value, TypeLib.getPrimitiveType(value.getClass()))
+                : Literal.getLiteral(value);
+    }
+
+    private static boolean equals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    @Override
+    public Predicate getPredicate() {
+        return predicate;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.filter.impl;
+
+import java.util.BitSet;
+import java.util.Random;
+import static kobic.prefuse.Constants.NODES;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.mongkie.filter.impl.FilterModelImpl.VisiblePredicates;
+import org.mongkie.filter.impl.FilterModelImpl.VisiblePredicates.Connective;
+import org.mongkie.filter.spi.Filter;
+import org.mongkie.filter.spi.RangeFilter;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+import prefuse.data.event.EventConstants;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class FilteredRowsTest {
+
+    public FilteredRowsTest() {
+    }
+
+    private static Table createTable(Random random) {
+        Table table = new Table();
+        table.addColumn("score", int.class);
+        table.addColumn("weight", double.class);
+        table.addColumn("name", String.class);
+        for (int i = 0; i < 1000; i++) {
+            int row = table.addRow();
+            table.setInt(row, "score", random.nextInt(100));
+            table.setDouble(row, "weight", random.nextDouble());
+            table.setString(row, "name", "n" + random.nextInt(50));
+        }
+        return table;
+    }
+
+    private static BitSet scan(Table table, Filter filter) {
+        BitSet rows = new BitSet();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            if (filter.getBoolean(table.getTuple(row))) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testMoveRange() {
+        Random random = new Random(11);
+        Table table = createTable(random);
+        RangeFilter filter = new RangeFilter("score", NODES, "score", 20, 40);
+        FilteredRows filtered = new FilteredRows(filter);
+        BitSet rows = filtered.get(table);
+        assertEquals(scan(table, filter), rows);
+        for (int i = 0; i < 200; i++) {
+            int low = random.nextInt(110) - 5, high = low + random.nextInt(30);
+            boolean overlapping = low <= (Integer) filter.getHigh() && high >= (Integer) filter.getLow();
+            filter.setRange(low, high);
+            filtered.invalidate();
+            BitSet moved = filtered.get(table);
+            // overlapping ranges are updated in place
+            if (overlapping) {
+                assertSame(rows, moved);
+            }
+            assertEquals(scan(table, filter), moved);
+            rows = moved;
+        }
+        // open ranges
+        filter.setRange(null, 30);
+        filtered.invalidate();
+        assertEquals(scan(table, filter), filtered.get(table));
+        filter.setRange(70, null);
+        filtered.invalidate();
+        assertEquals(scan(table, filter), filtered.get(table));
+        filter.setRange(null, null);
+        filtered.invalidate();
+        assertEquals(table.getRowCount(), filtered.get(table).cardinality());
+    }
+
+    @Test
+    public void testPlannedFilters() {
+        Random random = new Random(5);
+        Table table = createTable(random);
+        RangeFilter score = new RangeFilter("score", NODES, "score", 10, 60);
+        RangeFilter weight = new RangeFilter("weight", NODES, "weight", 0.2, 0.7);
+        Filter name = new Filter() {
+            @Override
+            public String getName() {
+                return "name";
+            }
+
+            @Override
+            public String getDataGroup() {
+                return NODES;
+            }
+
+            @Override
+            public boolean getBoolean(Tuple data) {
+                return data.getString("name").endsWith("1");
+            }
+        };
+        Filter[] filters = {score, weight, name};
+        VisiblePredicates predicates = new VisiblePredicates();
+        predicates.setTable(table);
+        for (Filter filter : filters) {
+            predicates.addFilter(filter);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (Connective connective : Connective.values()) {
+                predicates.setConnective(connective);
+                // the planned filters pass the same rows as each filter evaluated a row at a time
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    Tuple t = table.getTuple(row);
+                    boolean expected = connective == Connective.AND;
+                    for (Filter filter : filters) {
+                        expected = connective == Connective.AND
+                                ? expected && filter.getBoolean(t) : expected || filter.getBoolean(t);
+                    }
+                    assertEquals(expected, predicates.getBoolean(t));
+                }
+            }
+            // move the ranges, and update the filtered columns
+            int low = random.nextInt(100);
+            score.setRange(low, low + random.nextInt(50));
+            weight.setRange(random.nextDouble() / 2, 0.5 + random.nextDouble() / 2);
+            for (int i = 0; i < 10; i++) {
+                int row = random.nextInt(table.getRowCount());
+                table.setInt(row, "score", random.nextInt(100));
+                predicates.tableChanged(table, table.getColumnNumber("score"), EventConstants.UPDATE);
+            }
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.mongkie.enrichment.spi.EnrichedResultUI;
 import org.mongkie.enrichment.spi.Enrichment;
 import org.mongkie.enrichment.spi.EnrichmentBuilder;
 import org.mongkie.gobean.EnrichedResult;
+import org.mongkie.gobean.GoEnrichmentService;
+import org.mongkie.gobean.local.LocalGoBeanService;
 import org.mongkie.gobean.rest.GoBeanService;
 import org.mongkie.ui.enrichment.go.EnrichedResultView;
 
@@ -37,6 +39,7 @@ public class GoEnrichment implements Enrichment {
     private EnrichmentMethod strategy = EnrichmentMethod.Classic;
     private MultipleTestCorrectionMethod correction = MultipleTestCorrectionMethod.None;
     private double pmax = 0.01D;
+    private boolean local = true;
 
     public GoEnrichment(GoEnrichmentBuilder builder) {
         this.builder = builder;
@@ -46,7 +49,12 @@ public class GoEnrichment implements Enrichment {
     public EnrichedResultUI execute(String... genes) {
         canceled = false;
 
-        EnrichedResult result = GoBeanService.getDefault().getEnrichedResult(strategy, correction, pmax, genes);
+        // the local annotation files if configured, the remote GoBean service otherwise
+        GoEnrichmentService service = local ? LocalGoBeanService.getDefault() : null;
+        if (service == null) {
+            service = GoBeanService.getDefault();
+        }
+        EnrichedResult result = service.getEnrichedResult(strategy, correction, pmax, genes);
 
         if (result == null || canceled) {
             return null;
@@ -81,6 +89,14 @@ public class GoEnrichment implements Enrichment {
         this.strategy = strategy;
     }
 
+    public boolean isLocal() {
+        return local;
+    }
+
+    public void setLocal(boolean local) {
+        this.local = local;
+    }
+
     public double getMaxP() {
         return pmax;
     }
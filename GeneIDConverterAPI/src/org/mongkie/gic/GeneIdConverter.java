@@ -0,0 +1,37 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gic;
+
+/**
+ * Converts gene identifiers from one {@link GeneIdType} to another.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface GeneIdConverter {
+
+    /**
+     * Converts a batch of identifiers.
+     *
+     * @param from the type of the given identifiers
+     * @param to the type to convert to
+     * @param ids the identifiers to convert
+     * @return the identifiers each of the given ones maps to, in the same
+     * order, an empty array for the ones without any mapping
+     */
+    public String[][] convert(GeneIdType from, GeneIdType to, String... ids);
+}
@@ -0,0 +1,398 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gic.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.mongkie.gic.GeneIdConverter;
+import org.mongkie.gic.GeneIdType;
+
+/**
+ * Local gene identifier mappings, written by {@link GeneIdStoreWriter} and
+ * memory mapped from the file, so that opening a store does not read it and
+ * the operating system pages in the parts used by the conversions.
+ * <p>
+ * The identifiers of every type are dictionary encoded: numbered, their
+ * characters concatenated into one array and found through an open addressing
+ * hash table of their numbers. The mappings are kept in both directions
+ * between the identifiers and the genes, as compressed sparse rows, so an
+ * identifier is converted to any other type through its genes.
+ * <p>
+ * Identifiers are numbered in the order of their hash slots. A bulk conversion
+ * probes the given identifiers in that order, then follows their genes and
+ * the resulting identifiers each in order of their numbers, so the arrays of
+ * the store are read forward instead of at random, and every resulting
+ * identifier is decoded once.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class GeneIdStore implements GeneIdConverter {
+
+    static final int MAGIC = 0x47494453;
+    static final int VERSION = 1;
+    private static final String[] NONE = new String[0];
+    private static final int RADIX_BITS = 11;
+    private final int geneCount;
+    private final Dictionary[] dictionaries = new Dictionary[GeneIdType.values().length];
+
+    private GeneIdStore(ByteBuffer buf) throws IOException {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            throw new IOException("Not a gene ID store");
+        }
+        geneCount = buf.getInt();
+        for (int t = buf.getInt(); t > 0; t--) {
+            int length = buf.getInt();
+            ByteBuffer name = bytes(buf, length);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) (name.get(i) & 0xFF);
+            }
+            Dictionary dict = new Dictionary(buf, geneCount);
+            try {
+                dictionaries[GeneIdType.valueOf(new String(chars)).ordinal()] = dict;
+            } catch (IllegalArgumentException ex) {
+                // a type no longer known
+            }
+        }
+    }
+
+    /**
+     * Opens a store written by {@link GeneIdStoreWriter#write(File)}.
+     *
+     * @param file the file of the store
+     * @return the store
+     * @throws IOException if failed to map the file, or it is not a store
+     */
+    public static GeneIdStore open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // the mapping stays valid after closing the file
+            return new GeneIdStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    static int hash(String id) {
+        int h = id.hashCode();
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the size of the hash table of a number of identifiers, a power
+     * of two filled at most to three quarters.
+     */
+    static int hashSize(int count) {
+        int size = 2;
+        while (size * 3 < count * 4) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int bytes) {
+        ByteBuffer slice = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+        slice.limit(bytes);
+        buf.position(buf.position() + (bytes + 3) / 4 * 4);
+        return slice;
+    }
+
+    private static IntBuffer ints(ByteBuffer buf, int length) {
+        return slice(buf, 4 * length).asIntBuffer();
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buf, int length) {
+        return slice(buf, length);
+    }
+
+    public int getGeneCount() {
+        return geneCount;
+    }
+
+    /**
+     * Indicates if the store has identifiers of a type.
+     *
+     * @param type the identifier type
+     * @return true if mapped
+     */
+    public boolean contains(GeneIdType type) {
+        return dictionaries[type.ordinal()] != null;
+    }
+
+    /**
+     * Returns the number of distinct identifiers of a type.
+     *
+     * @param type the identifier type
+     * @return the number of identifiers
+     */
+    public int size(GeneIdType type) {
+        Dictionary dict = dictionaries[type.ordinal()];
+        return dict == null ? 0 : dict.count;
+    }
+
+    /**
+     * Returns all identifiers of a type.
+     *
+     * @param type the identifier type
+     * @return the identifiers
+     */
+    public List<String> getIds(GeneIdType type) {
+        Dictionary dict = dictionaries[type.ordinal()];
+        List<String> ids = new ArrayList<String>(dict == null ? 0 : dict.count);
+        for (int i = 0; dict != null && i < dict.count; i++) {
+            ids.add(dict.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Converts a single identifier.
+     *
+     * @param from the type of the identifier
+     * @param to the type to convert to
+     * @param id the identifier
+     * @return the identifiers it maps to, an empty array if none
+     */
+    public String[] convert(GeneIdType from, GeneIdType to, String id) {
+        Dictionary source = dictionaries[from.ordinal()], target = dictionaries[to.ordinal()];
+        int code = source == null || target == null || id == null ? -1 : source.find(id, hash(id) & source.mask);
+        if (code < 0) {
+            return NONE;
+        }
+        List<String> ids = new ArrayList<String>();
+        for (int k = source.idGeneOffsets.get(code); k < source.idGeneOffsets.get(code + 1); k++) {
+            int gene = source.idGenes.get(k);
+            for (int l = target.geneIdOffsets.get(gene); l < target.geneIdOffsets.get(gene + 1); l++) {
+                String converted = target.get(target.geneIds.get(l));
+                if (!ids.contains(converted)) {
+                    ids.add(converted);
+                }
+            }
+        }
+        return ids.toArray(new String[ids.size()]);
+    }
+
+    @Override
+    public String[][] convert(GeneIdType from, GeneIdType to, String... ids) {
+        int n = ids.length;
+        String[][] results = new String[n][];
+        Arrays.fill(results, NONE);
+        Dictionary source = dictionaries[from.ordinal()], target = dictionaries[to.ordinal()];
+        if (source == null || target == null) {
+            return results;
+        }
+
+        // probe the identifiers in the order of their hash slots, their
+        // characters first copied in that order, so neither the strings nor
+        // the store are read at random
+        int[] queries = new int[n], slots = new int[n], lengths = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (ids[i] != null) {
+                queries[size] = i;
+                lengths[size] = ids[i].length();
+                slots[size++] = hash(ids[i]) & source.mask;
+            }
+        }
+        int[] order = sort(slots, size, source.mask);
+        int[] starts = new int[size + 1], ranks = new int[size];
+        for (int o = 0; o < size; o++) {
+            ranks[order[o]] = o;
+            starts[o + 1] = starts[o] + lengths[order[o]];
+        }
+        char[] chars = new char[starts[size]];
+        for (int i = 0; i < size; i++) {
+            ids[queries[i]].getChars(0, lengths[i], chars, starts[ranks[i]]);
+        }
+        int[] pairQueries = new int[size], pairKeys = new int[size];
+        int pairs = 0;
+        for (int o = 0; o < size; o++) {
+            int code = source.find(chars, starts[o], starts[o + 1], slots[order[o]]);
+            if (code < 0) {
+                continue;
+            }
+            for (int k = source.idGeneOffsets.get(code); k < source.idGeneOffsets.get(code + 1); k++) {
+                if (pairs == pairKeys.length) {
+                    pairKeys = Arrays.copyOf(pairKeys, 2 * pairs);
+                    pairQueries = Arrays.copyOf(pairQueries, 2 * pairs);
+                }
+                pairQueries[pairs] = queries[order[o]];
+                pairKeys[pairs++] = source.idGenes.get(k);
+            }
+        }
+
+        // the identifiers of their genes, in the order of the genes
+        order = sort(pairKeys, pairs, geneCount - 1);
+        int[] resultQueries = new int[pairs], resultCodes = new int[pairs];
+        int resultCount = 0;
+        for (int o = 0; o < pairs; o++) {
+            int gene = pairKeys[order[o]];
+            for (int l = target.geneIdOffsets.get(gene); l < target.geneIdOffsets.get(gene + 1); l++) {
+                if (resultCount == resultCodes.length) {
+                    resultCodes = Arrays.copyOf(resultCodes, Math.max(16, 2 * resultCount));
+                    resultQueries = Arrays.copyOf(resultQueries, resultCodes.length);
+                }
+                resultQueries[resultCount] = pairQueries[order[o]];
+                resultCodes[resultCount++] = target.geneIds.get(l);
+            }
+        }
+
+        // decode them once each in their order, skipping the ones a query
+        // already reached by another gene
+        order = sort(resultCodes, resultCount, target.count - 1);
+        int[] counts = new int[n], last = new int[n];
+        Arrays.fill(last, -1);
+        for (int o = 0; o < resultCount; o++) {
+            int q = resultQueries[order[o]], code = resultCodes[order[o]];
+            if (last[q] != code) {
+                last[q] = code;
+                counts[q]++;
+            }
+        }
+        for (int q = 0; q < n; q++) {
+            if (counts[q] > 0) {
+                results[q] = new String[counts[q]];
+                counts[q] = 0;
+            }
+        }
+        Arrays.fill(last, -1);
+        String converted = null;
+        for (int o = 0, code = -1; o < resultCount; o++) {
+            int q = resultQueries[order[o]];
+            if (resultCodes[order[o]] != code) {
+                code = resultCodes[order[o]];
+                converted = target.get(code);
+            }
+            if (last[q] != code) {
+                last[q] = code;
+                results[q][counts[q]++] = converted;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the order of the first <tt>size</tt> keys by a stable least
+     * significant digit radix sort, whose passes of few buckets each stay in
+     * the caches.
+     */
+    private static int[] sort(int[] keys, int size, int maxKey) {
+        int[] order = new int[size], next = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[1 << RADIX_BITS];
+        for (int shift = 0; shift == 0 || (shift < 32 && (maxKey >>> shift) > 0); shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(keys[i] >>> shift) & (counts.length - 1)]++;
+            }
+            for (int b = 0, at = 0; b < counts.length; b++) {
+                int c = counts[b];
+                counts[b] = at;
+                at += c;
+            }
+            for (int i = 0; i < size; i++) {
+                int o = order[i];
+                next[counts[(keys[o] >>> shift) & (counts.length - 1)]++] = o;
+            }
+            int[] swap = order;
+            order = next;
+            next = swap;
+        }
+        return order;
+    }
+
+    private static class Dictionary {
+
+        final int count;
+        final int mask;
+        final boolean wide;
+        final IntBuffer offsets;
+        final ByteBuffer chars;
+        final IntBuffer hash;
+        final IntBuffer idGeneOffsets, idGenes;
+        final IntBuffer geneIdOffsets, geneIds;
+
+        Dictionary(ByteBuffer buf, int geneCount) {
+            count = buf.getInt();
+            int hashSize = buf.getInt();
+            int pairs = buf.getInt();
+            wide = buf.getInt() != 0;
+            mask = hashSize - 1;
+            offsets = ints(buf, count + 1);
+            int length = buf.getInt();
+            chars = bytes(buf, wide ? 2 * length : length);
+            hash = ints(buf, hashSize);
+            idGeneOffsets = ints(buf, count + 1);
+            idGenes = ints(buf, pairs);
+            geneIdOffsets = ints(buf, geneCount + 1);
+            geneIds = ints(buf, pairs);
+        }
+
+        char charAt(int i) {
+            return wide ? chars.getChar(2 * i) : (char) (chars.get(i) & 0xFF);
+        }
+
+        int find(String id, int slot) {
+            char[] chars = id.toCharArray();
+            return find(chars, 0, chars.length, slot);
+        }
+
+        int find(char[] id, int from, int to, int slot) {
+            for (int h = slot;; h = (h + 1) & mask) {
+                int code = hash.get(h) - 1;
+                if (code < 0) {
+                    return -1;
+                }
+                int start = offsets.get(code);
+                if (offsets.get(code + 1) - start != to - from) {
+                    continue;
+                }
+                int i = from;
+                while (i < to && charAt(start + i - from) == id[i]) {
+                    i++;
+                }
+                if (i == to) {
+                    return code;
+                }
+            }
+        }
+
+        String get(int code) {
+            int start = offsets.get(code);
+            char[] id = new char[offsets.get(code + 1) - start];
+            for (int i = 0; i < id.length; i++) {
+                id[i] = charAt(start + i);
+            }
+            return new String(id);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gic.local;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.mongkie.gic.GeneIdType;
+
+/**
+ * Imports gene identifier mapping tables and writes them as a
+ * {@link GeneIdStore}.
+ * <p>
+ * Tables are tab separated with a header line, like the NCBI
+ * <tt>gene_info</tt> files and the HGNC downloads. The identifiers in a row
+ * all belong to the gene of its key identifier, {@link GeneIdType#Entrez} by
+ * default, so the rows of different tables sharing a key identifier are
+ * merged into the same gene. Columns are recognized by name, see
+ * {@link #COLUMNS}; multiple identifiers in a field are separated by
+ * <tt>|</tt>, and the <tt>dbXrefs</tt> field of <tt>gene_info</tt> is split
+ * by the database prefix of each reference.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class GeneIdStoreWriter {
+
+    /**
+     * Identifier types of the columns known by name.
+     */
+    public static final Map<String, GeneIdType> COLUMNS;
+    private static final Map<String, GeneIdType> XREFS;
+    private static final String XREF_COLUMN = "dbXrefs";
+
+    static {
+        Map<String, GeneIdType> columns = new HashMap<String, GeneIdType>();
+        columns.put("GeneID", GeneIdType.Entrez);
+        columns.put("entrez_id", GeneIdType.Entrez);
+        columns.put("Symbol", GeneIdType.HGNCSymbol);
+        columns.put("symbol", GeneIdType.HGNCSymbol);
+        columns.put("hgnc_id", GeneIdType.HGNCID);
+        columns.put("ensembl_gene_id", GeneIdType.Ensembl);
+        columns.put("refseq_accession", GeneIdType.RefSeqDNA);
+        columns.put("uniprot_ids", GeneIdType.UniProtKB);
+        columns.put("unigene_ids", GeneIdType.UniGene);
+        COLUMNS = Collections.unmodifiableMap(columns);
+        Map<String, GeneIdType> xrefs = new HashMap<String, GeneIdType>();
+        xrefs.put("HGNC", GeneIdType.HGNCID);
+        xrefs.put("Ensembl", GeneIdType.Ensembl);
+        XREFS = Collections.unmodifiableMap(xrefs);
+    }
+    private final GeneIdType key;
+    private final Map<String, Integer> genes = new HashMap<String, Integer>();
+    private final Dictionary[] dictionaries = new Dictionary[GeneIdType.values().length];
+    private int geneCount = 0;
+
+    public GeneIdStoreWriter() {
+        this(GeneIdType.Entrez);
+    }
+
+    /**
+     * @param key the type of the identifiers keying the genes
+     */
+    public GeneIdStoreWriter(GeneIdType key) {
+        this.key = key;
+    }
+
+    /**
+     * Imports a table whose columns are recognized by the names of
+     * {@link #COLUMNS}.
+     *
+     * @param in the table
+     * @return the number of rows imported
+     * @throws IOException if failed to read
+     */
+    public int read(Reader in) throws IOException {
+        return read(in, COLUMNS);
+    }
+
+    /**
+     * Imports a table whose columns are recognized by the given names. Other
+     * columns are ignored.
+     *
+     * @param in the table
+     * @param columns the identifier types of the columns by name
+     * @return the number of rows imported
+     * @throws IOException if failed to read
+     */
+    public int read(Reader in, Map<String, GeneIdType> columns) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null && line.trim().isEmpty());
+        if (line == null) {
+            return 0;
+        }
+        String[] header = line.replaceFirst("^#", "").split("\t");
+        GeneIdType[] types = new GeneIdType[header.length];
+        boolean[] xrefs = new boolean[header.length];
+        for (int c = 0; c < header.length; c++) {
+            types[c] = columns.get(header[c].trim());
+            xrefs[c] = header[c].trim().equals(XREF_COLUMN);
+        }
+        List<GeneIdType> rowTypes = new ArrayList<GeneIdType>();
+        List<String> rowIds = new ArrayList<String>();
+        int rows = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            rowTypes.clear();
+            rowIds.clear();
+            String keyId = null;
+            for (int c = 0; c < fields.length && c < header.length; c++) {
+                if (types[c] == null && !xrefs[c]) {
+                    continue;
+                }
+                for (String value : fields[c].split("\\|")) {
+                    value = value.trim();
+                    GeneIdType type = types[c];
+                    if (xrefs[c]) {
+                        int colon = value.indexOf(':');
+                        type = colon < 0 ? null : XREFS.get(value.substring(0, colon));
+                        value = colon < 0 ? value : value.substring(colon + 1);
+                    }
+                    if (type == null || value.isEmpty() || value.equals("-")) {
+                        continue;
+                    }
+                    if (type == key && keyId == null) {
+                        keyId = value;
+                    }
+                    rowTypes.add(type);
+                    rowIds.add(value);
+                }
+            }
+            if (rowIds.isEmpty()) {
+                continue;
+            }
+            int gene;
+            if (keyId == null) {
+                gene = geneCount++;
+            } else {
+                Integer g = genes.get(keyId);
+                if (g == null) {
+                    genes.put(keyId, g = geneCount++);
+                }
+                gene = g;
+            }
+            for (int i = 0; i < rowIds.size(); i++) {
+                add(rowTypes.get(i), rowIds.get(i), gene);
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Maps an identifier to the gene keyed by another.
+     *
+     * @param keyId the identifier keying the gene
+     * @param type the type of the identifier
+     * @param id the identifier
+     */
+    public void put(String keyId, GeneIdType type, String id) {
+        Integer g = genes.get(keyId);
+        if (g == null) {
+            genes.put(keyId, g = geneCount++);
+            add(key, keyId, g);
+        }
+        add(type, id, g);
+    }
+
+    private void add(GeneIdType type, String id, int gene) {
+        Dictionary dict = dictionaries[type.ordinal()];
+        if (dict == null) {
+            dict = dictionaries[type.ordinal()] = new Dictionary();
+        }
+        dict.add(id, gene);
+    }
+
+    public int getGeneCount() {
+        return geneCount;
+    }
+
+    /**
+     * Writes the imported mappings to a file to be opened by
+     * {@link GeneIdStore#open(File)}.
+     *
+     * @param file the file to write
+     * @throws IOException if failed to write
+     */
+    public void write(File file) throws IOException {
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            Output out = new Output(stream.getChannel());
+            out.putInt(GeneIdStore.MAGIC);
+            out.putInt(GeneIdStore.VERSION);
+            out.putInt(geneCount);
+            int typeCount = 0;
+            for (Dictionary dict : dictionaries) {
+                typeCount += dict != null ? 1 : 0;
+            }
+            out.putInt(typeCount);
+            for (GeneIdType type : GeneIdType.values()) {
+                if (dictionaries[type.ordinal()] != null) {
+                    out.putString(type.name(), false);
+                    dictionaries[type.ordinal()].write(out, geneCount);
+                }
+            }
+            out.flush();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Buffered output of the little endian file, padding the strings to whole
+     * ints.
+     */
+    private static class Output {
+
+        final FileChannel channel;
+        final ByteBuffer buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buf.remaining() < 4) {
+                flush();
+            }
+            buf.putInt(value);
+        }
+
+        void putInts(int[] values, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                putInt(values[i]);
+            }
+        }
+
+        void putString(CharSequence chars, boolean wide) throws IOException {
+            putInt(chars.length());
+            int bytes = 0;
+            for (int i = 0; i < chars.length(); i++) {
+                if (buf.remaining() < 2) {
+                    flush();
+                }
+                if (wide) {
+                    buf.putChar(chars.charAt(i));
+                    bytes += 2;
+                } else {
+                    buf.put((byte) chars.charAt(i));
+                    bytes++;
+                }
+            }
+            for (; bytes % 4 != 0; bytes++) {
+                if (buf.remaining() < 1) {
+                    flush();
+                }
+                buf.put((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+    }
+
+    /**
+     * Identifiers of a type, numbered in the order they are added, and the
+     * pairs of identifier and gene numbers.
+     */
+    private static class Dictionary {
+
+        final Map<String, Integer> codes = new HashMap<String, Integer>();
+        final List<String> ids = new ArrayList<String>();
+        long[] pairs = new long[16];
+        int size = 0;
+        boolean wide = false;
+
+        void add(String id, int gene) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                codes.put(id, code = ids.size());
+                ids.add(id);
+                for (int i = 0; i < id.length() && !wide; i++) {
+                    wide = id.charAt(i) > 0xFF;
+                }
+            }
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, 2 * size);
+            }
+            pairs[size++] = ((long) code << 32) | gene;
+        }
+
+        void write(Output out, int geneCount) throws IOException {
+            // renumber the identifiers in the order of their hash slots, so
+            // that bulk conversions probing in that order read all arrays of
+            // the identifiers forward
+            int count = ids.size();
+            int[] hash = new int[GeneIdStore.hashSize(count)];
+            for (int i = 0; i < count; i++) {
+                int h = GeneIdStore.hash(ids.get(i)) & (hash.length - 1);
+                while (hash[h] != 0) {
+                    h = (h + 1) & (hash.length - 1);
+                }
+                hash[h] = i + 1;
+            }
+            int[] renumbered = new int[count];
+            String[] sorted = new String[count];
+            for (int h = 0, code = 0; h < hash.length; h++) {
+                if (hash[h] != 0) {
+                    renumbered[hash[h] - 1] = code;
+                    sorted[code] = ids.get(hash[h] - 1);
+                    hash[h] = ++code;
+                }
+            }
+            int[] offsets = new int[count + 1];
+            StringBuilder chars = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                chars.append(sorted[i]);
+                offsets[i + 1] = chars.length();
+            }
+
+            // identifier to genes, and gene to identifiers, without duplicates
+            for (int i = 0; i < size; i++) {
+                pairs[i] = ((long) renumbered[(int) (pairs[i] >>> 32)] << 32) | (int) pairs[i];
+            }
+            Arrays.sort(pairs, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || pairs[i] != pairs[i - 1]) {
+                    pairs[distinct++] = pairs[i];
+                }
+            }
+            size = distinct;
+            int[] idGeneOffsets = new int[count + 1], idGenes = new int[size];
+            int[] geneIdOffsets = new int[geneCount + 1], geneIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                idGeneOffsets[(int) (pairs[i] >>> 32) + 1]++;
+                geneIdOffsets[(int) pairs[i] + 1]++;
+            }
+            for (int i = 0; i < count; i++) {
+                idGeneOffsets[i + 1] += idGeneOffsets[i];
+            }
+            for (int g = 0; g < geneCount; g++) {
+                geneIdOffsets[g + 1] += geneIdOffsets[g];
+            }
+            int[] next = Arrays.copyOf(geneIdOffsets, geneCount);
+            for (int i = 0; i < size; i++) {
+                idGenes[i] = (int) pairs[i];
+                geneIds[next[(int) pairs[i]]++] = (int) (pairs[i] >>> 32);
+            }
+
+            out.putInt(count);
+            out.putInt(hash.length);
+            out.putInt(size);
+            out.putInt(wide ? 1 : 0);
+            out.putInts(offsets, count + 1);
+            out.putString(chars, wide);
+            out.putInts(hash, hash.length);
+            out.putInts(idGeneOffsets, count + 1);
+            out.putInts(idGenes, size);
+            out.putInts(geneIdOffsets, geneCount + 1);
+            out.putInts(geneIds, size);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gic.local;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.mongkie.gic.GeneIdConverter;
+import org.mongkie.gic.GeneIdType;
+
+/**
+ * Converts identifiers by a local {@link GeneIdStore} first, and only the
+ * identifiers without any local mapping by a remote converter, in a single
+ * batch.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class LocalGeneIdConverter implements GeneIdConverter {
+
+    private final GeneIdStore store;
+    private final GeneIdConverter remote;
+
+    /**
+     * @param store the local mappings
+     * @param remote the converter of the identifiers not mapped locally, or
+     * <tt>null</tt> to convert offline only
+     */
+    public LocalGeneIdConverter(GeneIdStore store, GeneIdConverter remote) {
+        this.store = store;
+        this.remote = remote;
+    }
+
+    public GeneIdStore getStore() {
+        return store;
+    }
+
+    @Override
+    public String[][] convert(GeneIdType from, GeneIdType to, String... ids) {
+        long start = System.currentTimeMillis();
+        String[][] results = store.convert(from, to, ids);
+        int[] missing = new int[ids.length];
+        int missingCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (results[i].length == 0 && ids[i] != null) {
+                missing[missingCount++] = i;
+            }
+        }
+        Logger.getLogger(LocalGeneIdConverter.class.getName()).log(Level.INFO,
+                "Converted {0} of {1} IDs locally from {2} to {3} in {4}ms",
+                new Object[]{ids.length - missingCount, ids.length, from, to, System.currentTimeMillis() - start});
+        if (remote == null || missingCount == 0) {
+            return results;
+        }
+        String[] remoteIds = new String[missingCount];
+        for (int i = 0; i < missingCount; i++) {
+            remoteIds[i] = ids[missing[i]];
+        }
+        String[][] remoteResults = remote.convert(from, to, remoteIds);
+        for (int i = 0; i < missingCount; i++) {
+            if (remoteResults[i] != null) {
+                results[missing[i]] = remoteResults[i];
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ * 
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gic.local;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mongkie.gic.GeneIdConverter;
+import org.mongkie.gic.GeneIdType;
+import static org.mongkie.gic.GeneIdType.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class GeneIdStoreTest {
+
+    private static final String GENE_INFO =
+            "#tax_id\tGeneID\tSymbol\tLocusTag\tSynonyms\tdbXrefs\n"
+            + "9606\t1\tA1BG\t-\tA1B|ABG\tMIM:138670|HGNC:HGNC:5|Ensembl:ENSG00000121410\n"
+            + "9606\t2\tA2M\t-\tA2MD\tMIM:103950|HGNC:HGNC:7|Ensembl:ENSG00000175899\n"
+            + "9606\t7157\tTP53\t-\tP53\tHGNC:HGNC:11998|Ensembl:ENSG00000141510\n";
+    private static final String HGNC =
+            "hgnc_id\tsymbol\tname\tentrez_id\trefseq_accession\tuniprot_ids\n"
+            + "HGNC:5\tA1BG\talpha-1-B glycoprotein\t1\tNM_130786\tP04217\n"
+            + "HGNC:11998\tTP53\ttumor protein p53\t7157\tNM_000546\tP04637|Q53GA5\n"
+            + "HGNC:40000\tNOVEL1\tnot yet in NCBI\t\tNM_999999\t\n";
+
+    public GeneIdStoreTest() {
+    }
+
+    private static GeneIdStore write(GeneIdStoreWriter writer) throws Exception {
+        File file = File.createTempFile("genes", ".gids");
+        file.deleteOnExit();
+        writer.write(file);
+        return GeneIdStore.open(file);
+    }
+
+    private static void assertIds(String[] actual, String... expected) {
+        Arrays.sort(actual);
+        Arrays.sort(expected);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testImportedTables() throws Exception {
+        GeneIdStoreWriter writer = new GeneIdStoreWriter();
+        assertEquals(3, writer.read(new StringReader(GENE_INFO)));
+        assertEquals(3, writer.read(new StringReader(HGNC)));
+        GeneIdStore store = write(writer);
+        assertEquals(4, store.getGeneCount());
+        assertEquals(4, store.size(HGNCSymbol));
+        assertFalse(store.contains(AffyProbeID));
+
+        // both tables merged by the Entrez gene ID, in either direction
+        assertIds(store.convert(HGNCSymbol, UniProtKB, "TP53"), "P04637", "Q53GA5");
+        assertIds(store.convert(UniProtKB, Ensembl, "Q53GA5"), "ENSG00000141510");
+        assertIds(store.convert(Ensembl, HGNCID, "ENSG00000175899"), "HGNC:7");
+        assertIds(store.convert(RefSeqDNA, HGNCSymbol, "NM_999999"), "NOVEL1");
+        assertIds(store.convert(HGNCSymbol, Entrez, "NOVEL1"));
+        assertIds(store.convert(HGNCSymbol, Entrez, "P53"));
+        assertIds(store.convert(AffyProbeID, Entrez, "1_at"));
+
+        String[][] bulk = store.convert(HGNCSymbol, Entrez, "A1BG", null, "TP53", "unknown");
+        assertIds(bulk[0], "1");
+        assertIds(bulk[1]);
+        assertIds(bulk[2], "7157");
+        assertIds(bulk[3]);
+    }
+
+    @Test
+    public void testRemoteFallback() throws Exception {
+        GeneIdStoreWriter writer = new GeneIdStoreWriter();
+        writer.read(new StringReader(GENE_INFO));
+        final int[] calls = new int[1];
+        GeneIdConverter remote = new GeneIdConverter() {
+            @Override
+            public String[][] convert(GeneIdType from, GeneIdType to, String... ids) {
+                calls[0]++;
+                assertArrayEquals(new String[]{"BRCA1", "NONE"}, ids);
+                return new String[][]{{"672"}, {}};
+            }
+        };
+        LocalGeneIdConverter converter = new LocalGeneIdConverter(write(writer), remote);
+        String[][] results = converter.convert(HGNCSymbol, Entrez, "A2M", "BRCA1", "TP53", "NONE");
+        assertEquals(1, calls[0]);
+        assertIds(results[0], "2");
+        assertIds(results[1], "672");
+        assertIds(results[2], "7157");
+        assertIds(results[3]);
+        converter.convert(HGNCSymbol, Entrez, "A2M");
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void testManyIds() throws Exception {
+        GeneIdStoreWriter writer = new GeneIdStoreWriter();
+        int n = 50000;
+        for (int g = 0; g < n; g++) {
+            writer.put(String.valueOf(g), HGNCSymbol, "SYM" + g);
+            writer.put(String.valueOf(g), Ensembl, String.format("ENSG%011d", g));
+        }
+        GeneIdStore store = write(writer);
+        assertEquals(n, store.size(Entrez));
+        Random random = new Random(20);
+        String[] ids = new String[4 * n];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "SYM" + random.nextInt(2 * n);
+        }
+        String[][] results = store.convert(HGNCSymbol, Ensembl, ids);
+        for (int i = 0; i < ids.length; i++) {
+            int g = Integer.parseInt(ids[i].substring(3));
+            if (g < n) {
+                assertIds(results[i], String.format("ENSG%011d", g));
+            } else {
+                assertIds(results[i]);
+            }
+        }
+    }
+}
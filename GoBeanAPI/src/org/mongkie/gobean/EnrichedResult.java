@@ -95,6 +95,17 @@ public class EnrichedResult {
         return result;
     }
 
+    /**
+     * Create an empty result whose maps are to be filled in by the caller, for
+     * the results which are not computed by the GoBean library.
+     */
+    public static EnrichedResult create(int totalStudyCount, int totalPopCount) {
+        EnrichedResult result = new EnrichedResult();
+        result.totalStudyCount = totalStudyCount;
+        result.totalPopCount = totalPopCount;
+        return result;
+    }
+
     private static String[] toAccessKeys(Set<Dbxref> xrefs) {
         String[] acessKeys = new String[xrefs.size()];
         int i = 0;
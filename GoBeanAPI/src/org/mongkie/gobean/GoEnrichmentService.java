@@ -0,0 +1,44 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean;
+
+import gobean.calculation.EnrichmentMethod;
+import gobean.statistics.MultipleTestCorrectionMethod;
+
+/**
+ * Service which tests a set of genes for the enrichment of GO terms. The
+ * {@link org.mongkie.gobean.rest.GoBeanService remote} implementation queries
+ * the GoBean web service, the
+ * {@link org.mongkie.gobean.local.LocalGoBeanService local} one computes the
+ * result from the ontology and annotation files on the local disk.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface GoEnrichmentService {
+
+    /**
+     * Test the given genes for the enrichment of GO terms.
+     *
+     * @param strategy the enrichment method
+     * @param correction the multiple testing correction of p-values
+     * @param pCutoff the maximum adjusted p-value of the selected GO terms
+     * @param genes the symbols of the study genes
+     * @return the enriched GO terms and their hierarchy
+     */
+    public EnrichedResult getEnrichedResult(EnrichmentMethod strategy, MultipleTestCorrectionMethod correction, double pCutoff, String... genes);
+}
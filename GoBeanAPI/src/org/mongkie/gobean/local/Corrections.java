@@ -0,0 +1,105 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+import gobean.statistics.MultipleTestCorrectionMethod;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Multiple testing corrections of the p-values of all tested terms.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class Corrections {
+
+    private Corrections() {
+    }
+
+    /**
+     * Adjust the given p-values with one of the
+     * {@link MultipleTestCorrectionMethod#getSupportedMethods() supported}
+     * correction methods.
+     *
+     * @return the adjusted p-values in the order of the given ones
+     */
+    public static double[] adjust(MultipleTestCorrectionMethod method, double[] p) {
+        if (method == MultipleTestCorrectionMethod.None) {
+            return p.clone();
+        } else if (method == MultipleTestCorrectionMethod.Bonferroni) {
+            return bonferroni(p);
+        } else if (method == MultipleTestCorrectionMethod.BonferroniHolm) {
+            return holm(p);
+        } else if (method == MultipleTestCorrectionMethod.BenjaminiHochberg) {
+            return benjaminiHochberg(p, 1);
+        } else if (method == MultipleTestCorrectionMethod.BenjaminiYekutieli) {
+            double c = 0;
+            for (int i = 1; i <= p.length; i++) {
+                c += 1.0 / i;
+            }
+            return benjaminiHochberg(p, c);
+        }
+        throw new IllegalArgumentException("Unsupported correction method: " + method);
+    }
+
+    private static double[] bonferroni(double[] p) {
+        double[] adjusted = new double[p.length];
+        for (int i = 0; i < p.length; i++) {
+            adjusted[i] = Math.min(1, p[i] * p.length);
+        }
+        return adjusted;
+    }
+
+    private static double[] holm(double[] p) {
+        int m = p.length;
+        Integer[] order = ascending(p);
+        double[] adjusted = new double[m];
+        double max = 0;
+        for (int i = 0; i < m; i++) {
+            max = Math.max(max, Math.min(1, (m - i) * p[order[i]]));
+            adjusted[order[i]] = max;
+        }
+        return adjusted;
+    }
+
+    private static double[] benjaminiHochberg(double[] p, double c) {
+        int m = p.length;
+        Integer[] order = ascending(p);
+        double[] adjusted = new double[m];
+        double min = 1;
+        for (int i = m - 1; i >= 0; i--) {
+            min = Math.min(min, c * m / (i + 1) * p[order[i]]);
+            adjusted[order[i]] = min;
+        }
+        return adjusted;
+    }
+
+    private static Integer[] ascending(final double[] p) {
+        Integer[] order = new Integer[p.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+                return Double.compare(p[i], p[j]);
+            }
+        });
+        return order;
+    }
+}
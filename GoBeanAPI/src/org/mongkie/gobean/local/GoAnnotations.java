@@ -0,0 +1,215 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gene associations read from a GAF file, with the annotations of each gene
+ * propagated to all ancestors of the annotated terms. The genes annotated to
+ * each term are kept as sorted gene indexes in compressed rows, so the
+ * population count of a term is the length of its row.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class GoAnnotations {
+
+    private static final int DB_OBJECT_ID = 1, DB_OBJECT_SYMBOL = 2, QUALIFIER = 3, GO_ID = 4, SYNONYM = 10;
+    private final GoOntology ontology;
+    private final String[] symbols;
+    private final Map<String, Integer> geneIndexes;
+    private final int[] termStart, termGenes;
+
+    private GoAnnotations(GoOntology ontology, String[] symbols, Map<String, Integer> geneIndexes,
+            int[] termStart, int[] termGenes) {
+        this.ontology = ontology;
+        this.symbols = symbols;
+        this.geneIndexes = geneIndexes;
+        this.termStart = termStart;
+        this.termGenes = termGenes;
+    }
+
+    /**
+     * Read the associations of genes to the terms of the given ontology from
+     * the GAF formatted reader. The annotations qualified with
+     * <code>NOT</code> and those to unknown terms are skipped, and a gene is
+     * found by its symbol, its database object id or one of its synonyms.
+     */
+    public static GoAnnotations read(Reader reader, GoOntology ontology) throws IOException {
+        List<String> symbols = new ArrayList<String>();
+        Map<String, Integer> geneIndexes = new HashMap<String, Integer>();
+        Map<String, Integer> symbolIndexes = new HashMap<String, Integer>();
+        List<int[]> direct = new ArrayList<int[]>();
+        int[] directSize = new int[16];
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.length() == 0 || line.charAt(0) == '!') {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length <= GO_ID || columns[QUALIFIER].contains("NOT")) {
+                continue;
+            }
+            int term;
+            try {
+                term = ontology.indexOf(GoOntology.parseId(columns[GO_ID]));
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+            String symbol = columns[DB_OBJECT_SYMBOL].trim();
+            if (term < 0 || symbol.length() == 0) {
+                continue;
+            }
+            Integer gene = symbolIndexes.get(symbol);
+            if (gene == null) {
+                gene = symbols.size();
+                symbols.add(symbol);
+                symbolIndexes.put(symbol, gene);
+                direct.add(new int[4]);
+                if (gene == directSize.length) {
+                    directSize = Arrays.copyOf(directSize, gene * 2);
+                }
+            }
+            addKey(geneIndexes, columns[DB_OBJECT_ID].trim(), gene);
+            if (columns.length > SYNONYM) {
+                for (String synonym : columns[SYNONYM].split("\\|")) {
+                    addKey(geneIndexes, synonym.trim(), gene);
+                }
+            }
+            int[] terms = direct.get(gene);
+            if (directSize[gene] == terms.length) {
+                terms = Arrays.copyOf(terms, terms.length * 2);
+                direct.set(gene, terms);
+            }
+            terms[directSize[gene]++] = term;
+        }
+        // symbols take precedence over the other keys of genes
+        geneIndexes.putAll(symbolIndexes);
+
+        // propagate to the ancestors, counting the genes of each term
+        int n = ontology.size(), geneCount = symbols.size();
+        int[] stamp = new int[n];
+        Arrays.fill(stamp, -1);
+        int[] stack = new int[n];
+        int[][] ancestors = new int[geneCount][];
+        int[] termCount = new int[n + 1];
+        for (int g = 0; g < geneCount; g++) {
+            int[] terms = direct.get(g);
+            int size = 0, top = 0;
+            for (int i = 0; i < directSize[g]; i++) {
+                if (stamp[terms[i]] != g) {
+                    stamp[terms[i]] = g;
+                    stack[top++] = terms[i];
+                }
+            }
+            int[] found = new int[Math.max(8, top * 4)];
+            while (top > 0) {
+                int t = stack[--top];
+                if (size == found.length) {
+                    found = Arrays.copyOf(found, size * 2);
+                }
+                found[size++] = t;
+                termCount[t + 1]++;
+                for (int e = ontology.parentStart(t); e < ontology.parentEnd(t); e++) {
+                    int p = ontology.parent(e);
+                    if (stamp[p] != g) {
+                        stamp[p] = g;
+                        stack[top++] = p;
+                    }
+                }
+            }
+            ancestors[g] = Arrays.copyOf(found, size);
+            direct.set(g, null);
+        }
+        for (int t = 0; t < n; t++) {
+            termCount[t + 1] += termCount[t];
+        }
+        int[] termGenes = new int[termCount[n]];
+        int[] fill = Arrays.copyOf(termCount, n);
+        // genes are visited in order, so each row comes out sorted
+        for (int g = 0; g < geneCount; g++) {
+            for (int t : ancestors[g]) {
+                termGenes[fill[t]++] = g;
+            }
+            ancestors[g] = null;
+        }
+        return new GoAnnotations(ontology, symbols.toArray(new String[geneCount]), geneIndexes, termCount, termGenes);
+    }
+
+    private static void addKey(Map<String, Integer> keys, String key, Integer gene) {
+        if (key.length() > 0 && !keys.containsKey(key)) {
+            keys.put(key, gene);
+        }
+    }
+
+    public GoOntology getOntology() {
+        return ontology;
+    }
+
+    /**
+     * @return the number of annotated genes, which are the population of the
+     * enrichment tests
+     */
+    public int getGeneCount() {
+        return symbols.length;
+    }
+
+    /**
+     * Get the index of the gene of the given symbol or identifier.
+     *
+     * @return the index, or <code>-1</code> if the gene is not annotated
+     */
+    public int indexOf(String key) {
+        Integer gene = geneIndexes.get(key);
+        if (gene == null) {
+            gene = geneIndexes.get(key.toUpperCase());
+        }
+        return gene != null ? gene : -1;
+    }
+
+    public String getSymbol(int gene) {
+        return symbols[gene];
+    }
+
+    int geneStart(int term) {
+        return termStart[term];
+    }
+
+    int geneEnd(int term) {
+        return termStart[term + 1];
+    }
+
+    int gene(int e) {
+        return termGenes[e];
+    }
+
+    /**
+     * @return the number of genes annotated to the term or its descendants
+     */
+    public int getGeneCount(int term) {
+        return termStart[term + 1] - termStart[term];
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+import gobean.GoBranch;
+import gobean.GoId;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gene ontology read from an OBO file into arrays indexed by term. The
+ * {@link GoBranch#GENE_ONTOLOGY root} of the three branches is always the term
+ * of the index <code>0</code>, and the <code>is_a</code> and
+ * <code>part_of</code> relations are kept as the parents and the children of
+ * each term in compressed rows.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class GoOntology {
+
+    static final int ROOT = 0;
+    private final int[] ids;
+    private final int[] sortedIds, sortedIndexes;
+    private final String[] names, definitions;
+    private final GoBranch[] branches;
+    private final int[] parentStart, parents;
+    private final int[] childStart, children;
+    private final Map<Integer, Integer> altIds;
+
+    private GoOntology(List<Term> terms, Map<Integer, Integer> altIds) {
+        int n = terms.size();
+        ids = new int[n];
+        names = new String[n];
+        definitions = new String[n];
+        branches = new GoBranch[n];
+        for (int i = 0; i < n; i++) {
+            Term t = terms.get(i);
+            ids[i] = t.id;
+            names[i] = t.name;
+            definitions[i] = t.definition;
+            branches[i] = t.branch;
+        }
+        sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        sortedIndexes = new int[n];
+        Map<Integer, Integer> indexes = new HashMap<Integer, Integer>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indexes.put(ids[i], i);
+        }
+        for (int i = 0; i < n; i++) {
+            sortedIndexes[i] = indexes.get(sortedIds[i]);
+        }
+        this.altIds = altIds;
+
+        // parents, dropping the relations to unknown or obsolete terms
+        parentStart = new int[n + 1];
+        int[] buffer = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            parentStart[i] = m;
+            for (int id : terms.get(i).parents) {
+                int p = indexOf(id);
+                if (p >= 0 && p != i && !contains(buffer, parentStart[i], m, p)) {
+                    if (m == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, m * 2);
+                    }
+                    buffer[m++] = p;
+                }
+            }
+        }
+        parentStart[n] = m;
+        parents = Arrays.copyOf(buffer, m);
+
+        // children by transposing the parents
+        childStart = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            childStart[parents[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        children = new int[m];
+        int[] fill = Arrays.copyOf(childStart, n);
+        for (int i = 0; i < n; i++) {
+            for (int e = parentStart[i]; e < parentStart[i + 1]; e++) {
+                children[fill[parents[e]]++] = i;
+            }
+        }
+    }
+
+    private static boolean contains(int[] a, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (a[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the terms of the ontology from the given OBO formatted reader.
+     * Obsolete terms and the stanzas other than <code>[Term]</code> are
+     * skipped.
+     */
+    public static GoOntology read(Reader reader) throws IOException {
+        List<Term> terms = new ArrayList<Term>();
+        Map<Integer, Integer> altIds = new HashMap<Integer, Integer>();
+        Term root = new Term(GoBranch.GENE_ONTOLOGY.getGoId().getValue());
+        root.name = GoBranch.GENE_ONTOLOGY.toString();
+        root.branch = GoBranch.GENE_ONTOLOGY;
+        terms.add(root);
+        BufferedReader in = new BufferedReader(reader);
+        Term term = null;
+        boolean inTerm = false;
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("[")) {
+                if (term != null) {
+                    terms.add(term);
+                }
+                term = null;
+                inTerm = line.equals("[Term]");
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (!inTerm || colon < 0) {
+                continue;
+            }
+            String tag = line.substring(0, colon);
+            String value = stripComment(line.substring(colon + 1)).trim();
+            if (tag.equals("id")) {
+                term = new Term(parseId(value));
+            } else if (term == null) {
+                continue;
+            } else if (tag.equals("name")) {
+                term.name = value;
+            } else if (tag.equals("namespace")) {
+                term.branch = toBranch(value);
+            } else if (tag.equals("def")) {
+                term.definition = unquote(value);
+            } else if (tag.equals("alt_id")) {
+                altIds.put(parseId(value), term.id);
+            } else if (tag.equals("is_a")) {
+                term.parents.add(parseId(value));
+            } else if (tag.equals("relationship")) {
+                String[] relation = value.split("\\s+");
+                if (relation.length >= 2 && relation[0].equals("part_of")) {
+                    term.parents.add(parseId(relation[1]));
+                }
+            } else if (tag.equals("is_obsolete") && value.equals("true")) {
+                term.obsolete = true;
+            }
+        }
+        if (term != null) {
+            terms.add(term);
+        }
+        List<Term> valid = new ArrayList<Term>(terms.size());
+        for (Term t : terms) {
+            if (t.obsolete) {
+                continue;
+            }
+            if (t.id == GoBranch.BIOLOGICAL_PROCESS.getGoId().getValue()
+                    || t.id == GoBranch.MOLECULAR_FUNCTION.getGoId().getValue()
+                    || t.id == GoBranch.CELLULAR_COMPONENT.getGoId().getValue()) {
+                t.parents.add(root.id);
+            }
+            valid.add(t);
+        }
+        return new GoOntology(valid, altIds);
+    }
+
+    private static String stripComment(String value) {
+        int bang = value.indexOf(" !");
+        return bang < 0 ? value : value.substring(0, bang);
+    }
+
+    private static String unquote(String value) {
+        if (value.startsWith("\"")) {
+            int end = value.indexOf('"', 1);
+            while (end > 0 && value.charAt(end - 1) == '\\') {
+                end = value.indexOf('"', end + 1);
+            }
+            return value.substring(1, end < 0 ? value.length() : end).replace("\\\"", "\"");
+        }
+        return value;
+    }
+
+    private static GoBranch toBranch(String namespace) {
+        if (namespace.equals("biological_process")) {
+            return GoBranch.BIOLOGICAL_PROCESS;
+        } else if (namespace.equals("molecular_function")) {
+            return GoBranch.MOLECULAR_FUNCTION;
+        } else if (namespace.equals("cellular_component")) {
+            return GoBranch.CELLULAR_COMPONENT;
+        }
+        return null;
+    }
+
+    /**
+     * Parse a GO identifier such as <code>GO:0008150</code> to its number.
+     */
+    static int parseId(String id) {
+        int colon = id.indexOf(':');
+        return Integer.parseInt(id.substring(colon + 1).trim());
+    }
+
+    /**
+     * @return the number of terms, including the root
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Get the index of the term of the given GO number, resolving the
+     * alternative identifiers of the terms.
+     *
+     * @return the index, or <code>-1</code> if the term is not in the ontology
+     */
+    public int indexOf(int id) {
+        int i = Arrays.binarySearch(sortedIds, id);
+        if (i >= 0) {
+            return sortedIndexes[i];
+        }
+        Integer primary = altIds.get(id);
+        if (primary != null) {
+            i = Arrays.binarySearch(sortedIds, primary);
+            return i >= 0 ? sortedIndexes[i] : -1;
+        }
+        return -1;
+    }
+
+    public GoId getGoId(int term) {
+        return GoId.valueOf(ids[term]);
+    }
+
+    public String getName(int term) {
+        return names[term];
+    }
+
+    public String getDefinition(int term) {
+        return definitions[term];
+    }
+
+    /**
+     * @return the branch of the term, or null if the namespace of the term is
+     * not one of the three branches
+     */
+    public GoBranch getBranch(int term) {
+        return branches[term];
+    }
+
+    int parentStart(int term) {
+        return parentStart[term];
+    }
+
+    int parentEnd(int term) {
+        return parentStart[term + 1];
+    }
+
+    int parent(int e) {
+        return parents[e];
+    }
+
+    int childStart(int term) {
+        return childStart[term];
+    }
+
+    int childEnd(int term) {
+        return childStart[term + 1];
+    }
+
+    int child(int e) {
+        return children[e];
+    }
+
+    /**
+     * Get the terms ordered so that every term comes before all of its
+     * ancestors, the root being the last one. Terms on a cycle of relations,
+     * if any, are left out.
+     */
+    int[] bottomUpOrder() {
+        int n = size();
+        int[] pending = new int[n];
+        int[] order = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            pending[i] = childEnd(i) - childStart(i);
+            if (pending[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int t = order[head];
+            for (int e = parentStart(t); e < parentEnd(t); e++) {
+                if (--pending[parents[e]] == 0) {
+                    order[tail++] = parents[e];
+                }
+            }
+        }
+        return tail == n ? order : Arrays.copyOf(order, tail);
+    }
+
+    private static class Term {
+
+        final int id;
+        String name, definition;
+        GoBranch branch;
+        boolean obsolete;
+        final List<Integer> parents = new ArrayList<Integer>(2);
+
+        Term(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+/**
+ * Hypergeometric distribution over a table of log-factorials, which is shared
+ * by the tests of all terms and grows to the largest population seen.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class Hypergeometric {
+
+    private static volatile double[] logFactorials = {0};
+
+    private Hypergeometric() {
+    }
+
+    private static double[] logFactorials(int n) {
+        double[] table = logFactorials;
+        if (table.length > n) {
+            return table;
+        }
+        synchronized (Hypergeometric.class) {
+            table = logFactorials;
+            if (table.length <= n) {
+                double[] grown = new double[Math.max(n + 1, table.length * 2)];
+                System.arraycopy(table, 0, grown, 0, table.length);
+                for (int i = table.length; i < grown.length; i++) {
+                    grown[i] = grown[i - 1] + Math.log(i);
+                }
+                logFactorials = table = grown;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * @return the natural logarithm of <code>n!</code>
+     */
+    public static double logFactorial(int n) {
+        return logFactorials(n)[n];
+    }
+
+    /**
+     * Get the probability to draw exactly <code>k</code> annotated genes when
+     * <code>n</code> genes are drawn from a population of <code>N</code>
+     * genes of which <code>K</code> are annotated.
+     */
+    public static double probability(int k, int n, int K, int N) {
+        if (k < Math.max(0, n + K - N) || k > Math.min(n, K)) {
+            return 0;
+        }
+        double[] lf = logFactorials(N);
+        return Math.exp(logProbability(lf, k, n, K, N));
+    }
+
+    private static double logProbability(double[] lf, int k, int n, int K, int N) {
+        return lf[K] - lf[k] - lf[K - k]
+                + lf[N - K] - lf[n - k] - lf[N - K - n + k]
+                - lf[N] + lf[n] + lf[N - n];
+    }
+
+    /**
+     * Get the probability to draw <code>k</code> or more annotated genes, the
+     * p-value of the one-sided Fisher's exact test for over-representation.
+     *
+     * @see #probability(int, int, int, int)
+     */
+    public static double upperTail(int k, int n, int K, int N) {
+        int max = Math.min(n, K);
+        k = Math.max(k, Math.max(0, n + K - N));
+        if (k > max) {
+            return 0;
+        }
+        double[] lf = logFactorials(N);
+        // the terms past the mode fall off geometrically, stop when they no longer count
+        double p = 0;
+        for (int i = k; i <= max; i++) {
+            double term = Math.exp(logProbability(lf, i, n, K, N));
+            p += term;
+            if (term < p * 1e-16 && i > (double) (n + 1) * (K + 1) / (N + 2)) {
+                break;
+            }
+        }
+        return Math.min(1, p);
+    }
+}
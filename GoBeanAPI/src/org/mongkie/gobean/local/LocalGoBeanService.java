@@ -0,0 +1,370 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+import gobean.GoBranch;
+import gobean.GoId;
+import gobean.calculation.EnrichmentMethod;
+import gobean.statistics.MultipleTestCorrectionMethod;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import org.mongkie.gobean.EnrichedResult;
+import org.mongkie.gobean.GoEnrichmentService;
+
+/**
+ * GO enrichment computed in memory from a local ontology and annotation file,
+ * as an alternative to the {@link org.mongkie.gobean.rest.GoBeanService remote}
+ * service which returns the same {@link EnrichedResult}.
+ * <p>
+ * The p-value of a term is the upper tail of the hypergeometric distribution
+ * of the study genes annotated to the term, computed for each
+ * {@link EnrichmentMethod} as follows:
+ * <ul>
+ * <li><b>Classic</b> tests each term against the whole population.</li>
+ * <li><b>Union</b> and <b>Intersection</b> test each term against the genes
+ * annotated to any or all of its parents, respectively.</li>
+ * <li><b>Elim</b> tests the terms bottom-up, removing the genes of the terms
+ * significant at {@value #ELIM_CUTOFF} from all of their ancestors.</li>
+ * </ul>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class LocalGoBeanService implements GoEnrichmentService {
+
+    public static final double ELIM_CUTOFF = 0.01D;
+    private final GoAnnotations annotations;
+
+    public LocalGoBeanService(GoAnnotations annotations) {
+        this.annotations = annotations;
+    }
+
+    /**
+     * Load the ontology and the annotations from the given OBO and GAF files,
+     * either of which may be compressed with gzip.
+     */
+    public static LocalGoBeanService load(File oboFile, File annotationFile) throws IOException {
+        Reader obo = open(oboFile);
+        GoOntology ontology;
+        try {
+            ontology = GoOntology.read(obo);
+        } finally {
+            obo.close();
+        }
+        Reader gaf = open(annotationFile);
+        try {
+            return new LocalGoBeanService(GoAnnotations.read(gaf, ontology));
+        } finally {
+            gaf.close();
+        }
+    }
+
+    private static Reader open(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            in = new GZIPInputStream(in);
+        }
+        return new InputStreamReader(in, "UTF-8");
+    }
+
+    public GoAnnotations getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    public EnrichedResult getEnrichedResult(EnrichmentMethod strategy, MultipleTestCorrectionMethod correction, double pCutoff, String... genes) {
+        Logger.getLogger(LocalGoBeanService.class.getName()).log(Level.INFO,
+                "Local GO enrichment testing... [{0}, {1}, Max-p:{2}]", new Object[]{strategy, correction, pCutoff});
+        long start = System.currentTimeMillis();
+
+        GoOntology ontology = annotations.getOntology();
+        int popCount = annotations.getGeneCount();
+        BitSet study = new BitSet(popCount);
+        for (String gene : genes) {
+            int g = annotations.indexOf(gene.trim());
+            if (g >= 0) {
+                study.set(g);
+            }
+        }
+        int studyCount = study.cardinality();
+
+        int n = ontology.size();
+        int[] fullStudy = new int[n];
+        for (int t = 0; t < n; t++) {
+            for (int e = annotations.geneStart(t); e < annotations.geneEnd(t); e++) {
+                if (study.get(annotations.gene(e))) {
+                    fullStudy[t]++;
+                }
+            }
+        }
+        double[] rawP = new double[n];
+        BitSet[] removed = new BitSet[n];
+        switch (strategy) {
+            case Union:
+            case Intersection:
+                parentChild(strategy == EnrichmentMethod.Intersection, study, fullStudy, rawP);
+                break;
+            case Elim:
+                elim(study, studyCount, removed, rawP);
+                break;
+            default:
+                for (int t = 0; t < n; t++) {
+                    rawP[t] = Hypergeometric.upperTail(fullStudy[t], studyCount, annotations.getGeneCount(t), popCount);
+                }
+        }
+
+        // correct over the terms with any study gene
+        List<Integer> tested = new ArrayList<Integer>();
+        for (int t = 0; t < n; t++) {
+            if (t != GoOntology.ROOT && fullStudy[t] > 0) {
+                tested.add(t);
+            }
+        }
+        double[] testedP = new double[tested.size()];
+        for (int i = 0; i < testedP.length; i++) {
+            testedP[i] = rawP[tested.get(i)];
+        }
+        double[] adjustedP = Corrections.adjust(correction, testedP);
+
+        // the selected terms and all of their ancestors
+        boolean[] inSubgraph = new boolean[n];
+        inSubgraph[GoOntology.ROOT] = true;
+        int[] stack = new int[n];
+        EnrichedResult result = EnrichedResult.create(studyCount, popCount);
+        for (int i = 0; i < testedP.length; i++) {
+            if (adjustedP[i] > pCutoff) {
+                continue;
+            }
+            int t = tested.get(i);
+            result.getSelectedGoIds().add(ontology.getGoId(t));
+            if (inSubgraph[t]) {
+                continue;
+            }
+            inSubgraph[t] = true;
+            int top = 0;
+            stack[top++] = t;
+            while (top > 0) {
+                int s = stack[--top];
+                for (int e = ontology.parentStart(s); e < ontology.parentEnd(s); e++) {
+                    int p = ontology.parent(e);
+                    if (!inSubgraph[p]) {
+                        inSubgraph[p] = true;
+                        stack[top++] = p;
+                    }
+                }
+            }
+        }
+        Collections.sort(result.getSelectedGoIds());
+        for (int i = 0; i < testedP.length; i++) {
+            int t = tested.get(i);
+            if (inSubgraph[t]) {
+                result.getRawP().put(ontology.getGoId(t), rawP[t]);
+                result.getAdjustedP().put(ontology.getGoId(t), adjustedP[i]);
+            }
+        }
+        for (int t = 0; t < n; t++) {
+            if (inSubgraph[t]) {
+                putTerm(result, t, study, removed[t], inSubgraph);
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        Logger.getLogger(LocalGoBeanService.class.getName()).log(Level.INFO,
+                "Local GO enrichment completed: {0}.{1} seconds. Number of selected GO terms: {2}", new Object[]{elapsed / 1000, elapsed % 1000, result.getSelectedGoIds().size()});
+
+        return result;
+    }
+
+    private void parentChild(boolean intersection, BitSet study, int[] fullStudy, double[] rawP) {
+        GoOntology ontology = annotations.getOntology();
+        int[] hits = new int[annotations.getGeneCount()];
+        int[] touched = new int[annotations.getGeneCount()];
+        for (int t = 0; t < ontology.size(); t++) {
+            int parentCount = ontology.parentEnd(t) - ontology.parentStart(t);
+            if (parentCount == 0) {
+                rawP[t] = 1;
+                continue;
+            }
+            int touchedCount = 0;
+            for (int e = ontology.parentStart(t); e < ontology.parentEnd(t); e++) {
+                int p = ontology.parent(e);
+                for (int ge = annotations.geneStart(p); ge < annotations.geneEnd(p); ge++) {
+                    int g = annotations.gene(ge);
+                    if (hits[g]++ == 0) {
+                        touched[touchedCount++] = g;
+                    }
+                }
+            }
+            int parentPop = 0, parentStudy = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int g = touched[i];
+                if (!intersection || hits[g] == parentCount) {
+                    parentPop++;
+                    if (study.get(g)) {
+                        parentStudy++;
+                    }
+                }
+                hits[g] = 0;
+            }
+            rawP[t] = Hypergeometric.upperTail(fullStudy[t], parentStudy, annotations.getGeneCount(t), parentPop);
+        }
+    }
+
+    private void elim(BitSet study, int studyCount, BitSet[] removed, double[] rawP) {
+        GoOntology ontology = annotations.getOntology();
+        int popCount = annotations.getGeneCount();
+        int[] stamp = new int[ontology.size()];
+        int[] stack = new int[ontology.size()];
+        int[] order = ontology.bottomUpOrder();
+        Arrays.fill(rawP, 1);
+        for (int t : order) {
+            int currentPop = 0, currentStudy = 0;
+            for (int e = annotations.geneStart(t); e < annotations.geneEnd(t); e++) {
+                int g = annotations.gene(e);
+                if (removed[t] == null || !removed[t].get(g)) {
+                    currentPop++;
+                    if (study.get(g)) {
+                        currentStudy++;
+                    }
+                }
+            }
+            rawP[t] = Hypergeometric.upperTail(currentStudy, studyCount, currentPop, popCount);
+            if (currentStudy == 0 || rawP[t] >= ELIM_CUTOFF) {
+                continue;
+            }
+            // mark the genes of the significant term in all of its ancestors
+            int top = 0;
+            for (int e = ontology.parentStart(t); e < ontology.parentEnd(t); e++) {
+                stack[top++] = ontology.parent(e);
+                stamp[ontology.parent(e)] = t + 1;
+            }
+            while (top > 0) {
+                int a = stack[--top];
+                if (removed[a] == null) {
+                    removed[a] = new BitSet(popCount);
+                }
+                for (int e = annotations.geneStart(t); e < annotations.geneEnd(t); e++) {
+                    removed[a].set(annotations.gene(e));
+                }
+                for (int e = ontology.parentStart(a); e < ontology.parentEnd(a); e++) {
+                    int p = ontology.parent(e);
+                    if (stamp[p] != t + 1) {
+                        stamp[p] = t + 1;
+                        stack[top++] = p;
+                    }
+                }
+            }
+        }
+    }
+
+    private void putTerm(EnrichedResult result, int t, BitSet study, BitSet removed, boolean[] inSubgraph) {
+        GoOntology ontology = annotations.getOntology();
+        GoId goId = ontology.getGoId(t);
+        List<String> fullStudy = new ArrayList<String>();
+        List<String> currentStudy = new ArrayList<String>();
+        int currentPop = 0;
+        for (int e = annotations.geneStart(t); e < annotations.geneEnd(t); e++) {
+            int g = annotations.gene(e);
+            boolean current = removed == null || !removed.get(g);
+            if (current) {
+                currentPop++;
+            }
+            if (study.get(g)) {
+                fullStudy.add(annotations.getSymbol(g));
+                if (current) {
+                    currentStudy.add(annotations.getSymbol(g));
+                }
+            }
+        }
+        result.getCoverageMap().put(goId, new int[]{
+                    fullStudy.size(), currentStudy.size(), annotations.getGeneCount(t), currentPop});
+        GoBranch branch = ontology.getBranch(t);
+        result.getBranchMap().put(goId, (branch != null ? branch : GoBranch.GENE_ONTOLOGY).name());
+        result.getNameMap().put(goId, ontology.getName(t));
+        result.getDescriptionMap().put(goId, ontology.getDefinition(t));
+        result.getFullStudyMap().put(goId, fullStudy.toArray(new String[fullStudy.size()]));
+        result.getCurrentStudyMap().put(goId, currentStudy.toArray(new String[currentStudy.size()]));
+        List<GoId> children = new ArrayList<GoId>();
+        for (int e = ontology.childStart(t); e < ontology.childEnd(t); e++) {
+            if (inSubgraph[ontology.child(e)]) {
+                children.add(ontology.getGoId(ontology.child(e)));
+            }
+        }
+        result.getChildCountMap().put(goId, children.size());
+        if (!children.isEmpty()) {
+            Collections.sort(children);
+            result.getChildMap().put(goId, children.toArray(new GoId[children.size()]));
+        }
+    }
+
+    /**
+     * Get the service over the ontology and annotation files configured by the
+     * <code>oboFile</code> and <code>annotationFile</code> properties of the
+     * <code>LocalGoBeanService.properties</code> file, or by the system
+     * properties of the same names prefixed with <code>gobean.</code>.
+     *
+     * @return the default service, or null if the files are not configured or
+     * could not be read
+     */
+    public static LocalGoBeanService getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    private static class DefaultHolder {
+
+        private static final String PROP_FILE = LocalGoBeanService.class.getSimpleName() + ".properties";
+        private static final LocalGoBeanService DEFAULT = load();
+
+        private static LocalGoBeanService load() {
+            try {
+                Properties props = new Properties();
+                InputStream in = LocalGoBeanService.class.getResourceAsStream(PROP_FILE);
+                if (in != null) {
+                    try {
+                        props.load(in);
+                    } finally {
+                        in.close();
+                    }
+                }
+                String obo = System.getProperty("gobean.oboFile", props.getProperty("oboFile", ""));
+                String gaf = System.getProperty("gobean.annotationFile", props.getProperty("annotationFile", ""));
+                if (obo.length() == 0 || gaf.length() == 0) {
+                    return null;
+                }
+                Logger.getLogger(LocalGoBeanService.class.getName()).log(Level.INFO,
+                        "Loading GO annotations from {0} and {1}", new Object[]{obo, gaf});
+                return LocalGoBeanService.load(new File(obo), new File(gaf));
+            } catch (IOException ex) {
+                Logger.getLogger(LocalGoBeanService.class.getName()).log(Level.SEVERE, null, ex);
+                return null;
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.logging.Logger;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import org.mongkie.gobean.EnrichedResult;
+import org.mongkie.gobean.GoEnrichmentService;
 import static org.mongkie.gobean.rest.QueryParam.*;
 
 /**
@@ -46,7 +47,7 @@ import static org.mongkie.gobean.rest.QueryParam.*;
  *
  * @author Yeongjun Jang <yjjang@kribb.re.kr>
  */
-public class GoBeanService {
+public class GoBeanService implements GoEnrichmentService {
 
     private final WebResource resource;
     private final Client client;
@@ -60,6 +61,7 @@ public class GoBeanService {
         return getEnrichedResult(strategy, correction, 1.0D, genes);
     }
 
+    @Override
     public EnrichedResult getEnrichedResult(EnrichmentMethod strategy, MultipleTestCorrectionMethod correction, double pCutoff, String... genes) {
         Logger.getLogger(GoBeanService.class.getName()).log(Level.INFO,
                 "GO enrichment testing... [{0}, {1}, Max-p:{2}]", new Object[]{strategy, correction, pCutoff});
@@ -0,0 +1,120 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.gobean.local;
+
+import gobean.GoBranch;
+import gobean.GoId;
+import gobean.calculation.EnrichmentMethod;
+import gobean.statistics.MultipleTestCorrectionMethod;
+import java.io.StringReader;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mongkie.gobean.EnrichedResult;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class LocalGoBeanServiceTest {
+
+    private static final String OBO =
+            "format-version: 1.2\n"
+            + "\n[Term]\nid: GO:0008150\nname: biological_process\nnamespace: biological_process\n"
+            + "\n[Term]\nid: GO:0000001\nname: parent\nnamespace: biological_process\n"
+            + "def: \"The parent term.\" [GOC:test]\nis_a: GO:0008150 ! biological_process\n"
+            + "\n[Term]\nid: GO:0000002\nname: child\nnamespace: biological_process\nalt_id: GO:0000009\n"
+            + "is_a: GO:0000001 ! parent\n"
+            + "\n[Term]\nid: GO:0000003\nname: other\nnamespace: biological_process\n"
+            + "relationship: part_of GO:0008150 ! biological_process\n"
+            + "\n[Term]\nid: GO:0000004\nname: obsolete\nis_obsolete: true\n"
+            + "\n[Typedef]\nid: part_of\nname: part of\n";
+    private LocalGoBeanService service;
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder gaf = new StringBuilder("!gaf-version: 2.0\n");
+        // A..D annotated to the child, E..J to the other term, K with NOT only
+        for (char g = 'A'; g <= 'D'; g++) {
+            gaf.append(line(g, "", "GO:0000009"));
+        }
+        for (char g = 'E'; g <= 'J'; g++) {
+            gaf.append(line(g, "", "GO:0000003"));
+        }
+        gaf.append(line('K', "NOT", "GO:0000003"));
+        gaf.append(line('A', "", "GO:0000004"));
+        GoOntology ontology = GoOntology.read(new StringReader(OBO));
+        service = new LocalGoBeanService(GoAnnotations.read(new StringReader(gaf.toString()), ontology));
+    }
+
+    private static String line(char gene, String qualifier, String goId) {
+        return "UniProtKB\tP" + gene + "\tG" + gene + "\t" + qualifier + "\t" + goId + "\tPMID:1\tIDA\t\tP\t\tS" + gene + "\tprotein\ttaxon:9606\t20120101\tTest\n";
+    }
+
+    @Test
+    public void testHypergeometric() {
+        // dhyper(2, 4, 6, 3) and phyper(0, 4, 6, 3, lower.tail = FALSE) in R
+        assertEquals(0.3, Hypergeometric.probability(2, 3, 4, 10), 1e-12);
+        assertEquals(5.0 / 6, Hypergeometric.upperTail(1, 3, 4, 10), 1e-12);
+        assertEquals(1.0, Hypergeometric.upperTail(0, 3, 4, 10), 1e-12);
+        assertEquals(0.0, Hypergeometric.upperTail(4, 3, 4, 10), 0);
+        assertEquals(Math.log(3628800), Hypergeometric.logFactorial(10), 1e-9);
+    }
+
+    @Test
+    public void testCorrections() {
+        double[] p = {0.01, 0.04, 0.03, 0.5};
+        assertArrayEquals(new double[]{0.04, 0.16, 0.12, 1}, Corrections.adjust(MultipleTestCorrectionMethod.Bonferroni, p), 1e-12);
+        assertArrayEquals(new double[]{0.04, 0.09, 0.09, 0.5}, Corrections.adjust(MultipleTestCorrectionMethod.BonferroniHolm, p), 1e-12);
+        assertArrayEquals(new double[]{0.04, 0.04 * 4 / 3, 0.04 * 4 / 3, 0.5}, Corrections.adjust(MultipleTestCorrectionMethod.BenjaminiHochberg, p), 1e-12);
+    }
+
+    @Test
+    public void testClassic() {
+        assertEquals(10, service.getAnnotations().getGeneCount());
+        EnrichedResult result = service.getEnrichedResult(EnrichmentMethod.Classic, MultipleTestCorrectionMethod.None, 0.05,
+                "GA", "PB", "SC", "GD", "unknown");
+        GoId child = GoId.valueOf(2), parent = GoId.valueOf(1), other = GoId.valueOf(3);
+        assertEquals(4, result.getTotalStudyCount());
+        assertEquals(10, result.getTotalPopCount());
+        // 1 / choose(10, 4)
+        assertEquals(1.0 / 210, result.getRawP(child), 1e-12);
+        assertTrue(result.getSelectedGoIds().contains(child));
+        assertTrue(result.getSelectedGoIds().contains(parent));
+        assertFalse(result.getSelectedGoIds().contains(other));
+        assertArrayEquals(new int[]{4, 4, 4, 4}, result.getCoverage(child));
+        assertEquals("The parent term.", result.getDescriptionMap().get(parent));
+        assertEquals(GoBranch.BIOLOGICAL_PROCESS, result.getGoBranch(child));
+        assertEquals(1, result.childCount(GoBranch.GENE_ONTOLOGY.getGoId()));
+        assertEquals(GoBranch.BIOLOGICAL_PROCESS.getGoId(), result.getDownId(GoBranch.GENE_ONTOLOGY.getGoId(), 0));
+        assertEquals(1, result.childCount(GoBranch.BIOLOGICAL_PROCESS.getGoId()));
+        assertEquals(0, result.childCount(child));
+    }
+
+    @Test
+    public void testElim() {
+        EnrichedResult result = service.getEnrichedResult(EnrichmentMethod.Elim, MultipleTestCorrectionMethod.None, 0.05,
+                "GA", "GB", "GC", "GD");
+        GoId child = GoId.valueOf(2), parent = GoId.valueOf(1);
+        assertTrue(result.getSelectedGoIds().contains(child));
+        assertFalse(result.getSelectedGoIds().contains(parent));
+        // the genes of the child are removed from the parent
+        assertArrayEquals(new int[]{4, 0, 4, 0}, result.getCoverage(parent));
+        assertEquals(0, result.getCurrentStudyMap().get(parent).length);
+    }
+}
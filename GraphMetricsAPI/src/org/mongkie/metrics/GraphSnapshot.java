@@ -0,0 +1,370 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics;
+
+import java.util.Arrays;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Immutable snapshot of the adjacency of a graph in primitive arrays, on
+ * which the metrics are computed without touching the tables of the graph.
+ * Nodes are numbered from <tt>0</tt> to <tt>getNodeCount() - 1</tt> in the
+ * order of their rows, and the adjacency is kept in compressed sparse rows.
+ * <p>
+ * A snapshot is safe to be read by many threads at once, the simple views
+ * are built lazily on their first use.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class GraphSnapshot {
+
+    private final int[] rows;
+    private final int[] indices;
+    private final boolean directed;
+    private final int edgeCount;
+    private final Adjacency out, in;
+    private Adjacency successors, neighbors;
+
+    /**
+     * Takes a snapshot of a graph, with all edges weighted <tt>1</tt>.
+     *
+     * @param g the graph
+     */
+    public GraphSnapshot(Graph g) {
+        this(g, null);
+    }
+
+    /**
+     * Takes a snapshot of a graph.
+     *
+     * @param g the graph
+     * @param weightField the numeric edge column holding the weights, or
+     * <tt>null</tt> to weight all edges <tt>1</tt>
+     */
+    public GraphSnapshot(Graph g, String weightField) {
+        Table nodeTable = g.getNodeTable();
+        Table edgeTable = g.getEdgeTable();
+        directed = g.isDirected();
+
+        rows = new int[g.getNodeCount()];
+        indices = new int[nodeTable.getMaximumRow() + 1];
+        Arrays.fill(indices, -1);
+        int n = 0;
+        for (IntIterator iter = g.nodeRows(); iter.hasNext();) {
+            int row = iter.nextInt();
+            rows[n] = row;
+            indices[row] = n++;
+        }
+
+        int m = g.getEdgeCount();
+        int[] sources = new int[m], targets = new int[m];
+        double[] weights = new double[m];
+        int col = weightField == null ? -1 : edgeTable.getColumnNumber(weightField);
+        if (weightField != null && col < 0) {
+            throw new IllegalArgumentException("Unknown edge column: " + weightField);
+        }
+        m = 0;
+        for (IntIterator iter = g.edgeRows(); iter.hasNext();) {
+            int edge = iter.nextInt();
+            sources[m] = indices[g.getSourceNode(edge)];
+            targets[m] = indices[g.getTargetNode(edge)];
+            weights[m++] = col < 0 ? 1 : edgeTable.getDouble(edge, col);
+        }
+        edgeCount = m;
+
+        if (directed) {
+            out = Adjacency.build(n, sources, targets, weights, m, false);
+            in = Adjacency.build(n, targets, sources, weights, m, false);
+        } else {
+            out = in = Adjacency.build(n, sources, targets, weights, m, true);
+        }
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of edges, multiple edges and self-loops included.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Indicates if the edges of the snapshot are directed.
+     *
+     * @return true if directed
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Returns the node table row of a node.
+     *
+     * @param node the index of the node
+     * @return the row of the node
+     */
+    public int getRow(int node) {
+        return rows[node];
+    }
+
+    /**
+     * Returns the index of the node at a node table row.
+     *
+     * @param row the row of the node
+     * @return the index of the node, or <tt>-1</tt> if the row was not a node
+     * of the graph when the snapshot was taken
+     */
+    public int getNode(int row) {
+        return row >= 0 && row < indices.length ? indices[row] : -1;
+    }
+
+    /**
+     * Returns the number of edges incident to a node. A self-loop counts twice,
+     * as in {@link prefuse.data.Node#getDegree()}.
+     *
+     * @param node the index of the node
+     * @return the degree of the node
+     */
+    public int getDegree(int node) {
+        return directed ? out.degree(node) + in.degree(node) : out.degree(node);
+    }
+
+    /**
+     * Returns the sum of the weights of the edges incident to a node.
+     *
+     * @param node the index of the node
+     * @return the weighted degree of the node
+     */
+    public double getWeightedDegree(int node) {
+        return directed ? out.strength(node) + in.strength(node) : out.strength(node);
+    }
+
+    /**
+     * Returns the outgoing edges of all nodes, multiple edges and self-loops
+     * included. In an undirected graph, every edge goes out of both its ends.
+     *
+     * @return the outgoing adjacency
+     */
+    public Adjacency getOutEdges() {
+        return out;
+    }
+
+    /**
+     * Returns the incoming edges of all nodes, multiple edges and self-loops
+     * included. In an undirected graph, this is the outgoing adjacency.
+     *
+     * @return the incoming adjacency
+     */
+    public Adjacency getInEdges() {
+        return in;
+    }
+
+    /**
+     * Returns the distinct nodes each node has an edge to, sorted and without
+     * the node itself. In an undirected graph, these are the neighbors.
+     *
+     * @return the simple outgoing adjacency, without weights
+     */
+    public synchronized Adjacency getSuccessors() {
+        if (successors == null) {
+            successors = directed ? out.simplify(null) : getNeighbors();
+        }
+        return successors;
+    }
+
+    /**
+     * Returns the distinct neighbors of each node, sorted and without the node
+     * itself, ignoring the direction of the edges.
+     *
+     * @return the simple undirected adjacency, without weights
+     */
+    public synchronized Adjacency getNeighbors() {
+        if (neighbors == null) {
+            neighbors = out.simplify(directed ? in : null);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Adjacency lists of all nodes in compressed sparse rows: the edges of a
+     * node <tt>i</tt> are at the positions from <tt>start(i)</tt> inclusive to
+     * <tt>end(i)</tt> exclusive.
+     */
+    public static final class Adjacency {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final double[] sums;
+
+        private Adjacency(int[] offsets, int[] targets, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            if (weights != null) {
+                sums = new double[offsets.length - 1];
+                for (int i = 0; i < sums.length; i++) {
+                    for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                        sums[i] += weights[k];
+                    }
+                }
+            } else {
+                sums = null;
+            }
+        }
+
+        static Adjacency build(int n, int[] sources, int[] targets, double[] weights, int m, boolean both) {
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                offsets[sources[e] + 1]++;
+                if (both) {
+                    offsets[targets[e] + 1]++;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] adj = new int[offsets[n]];
+            double[] w = new double[offsets[n]];
+            for (int e = 0; e < m; e++) {
+                int k = next[sources[e]]++;
+                adj[k] = targets[e];
+                w[k] = weights[e];
+                if (both) {
+                    k = next[targets[e]]++;
+                    adj[k] = sources[e];
+                    w[k] = weights[e];
+                }
+            }
+            return new Adjacency(offsets, adj, w);
+        }
+
+        Adjacency simplify(Adjacency other) {
+            int n = offsets.length - 1;
+            int[] simpleOffsets = new int[n + 1];
+            int[] simple = new int[other == null ? targets.length : targets.length + other.targets.length];
+            int[] row = new int[16];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                int len = degree(i) + (other == null ? 0 : other.degree(i));
+                if (row.length < len) {
+                    row = new int[Math.max(len, 2 * row.length)];
+                }
+                System.arraycopy(targets, offsets[i], row, 0, degree(i));
+                if (other != null) {
+                    System.arraycopy(other.targets, other.offsets[i], row, degree(i), other.degree(i));
+                }
+                Arrays.sort(row, 0, len);
+                int last = -1;
+                for (int k = 0; k < len; k++) {
+                    if (row[k] != last && row[k] != i) {
+                        simple[size++] = last = row[k];
+                    }
+                }
+                simpleOffsets[i + 1] = size;
+            }
+            return new Adjacency(simpleOffsets, Arrays.copyOf(simple, size), null);
+        }
+
+        /**
+         * Returns the first position of the edges of a node.
+         *
+         * @param node the index of the node
+         * @return the first position
+         */
+        public int start(int node) {
+            return offsets[node];
+        }
+
+        /**
+         * Returns the position after the last edge of a node.
+         *
+         * @param node the index of the node
+         * @return the end position
+         */
+        public int end(int node) {
+            return offsets[node + 1];
+        }
+
+        /**
+         * Returns the number of edges of a node.
+         *
+         * @param node the index of the node
+         * @return the number of edges
+         */
+        public int degree(int node) {
+            return offsets[node + 1] - offsets[node];
+        }
+
+        /**
+         * Returns the node at the other end of the edge at a position.
+         *
+         * @param k the position of the edge
+         * @return the index of the adjacent node
+         */
+        public int target(int k) {
+            return targets[k];
+        }
+
+        /**
+         * Returns the weight of the edge at a position.
+         *
+         * @param k the position of the edge
+         * @return the weight of the edge, <tt>1</tt> in the simple views
+         */
+        public double weight(int k) {
+            return weights == null ? 1 : weights[k];
+        }
+
+        /**
+         * Returns the sum of the weights of the edges of a node.
+         *
+         * @param node the index of the node
+         * @return the sum of the weights
+         */
+        public double strength(int node) {
+            return sums == null ? degree(node) : sums[node];
+        }
+
+        /**
+         * Indicates if there is an edge between two nodes. Only valid for the
+         * simple views, whose adjacency lists are sorted.
+         *
+         * @param node the index of the node
+         * @param target the index of the other node
+         * @return true if adjacent
+         */
+        public boolean contains(int node, int target) {
+            return Arrays.binarySearch(targets, offsets[node], offsets[node + 1], target) >= 0;
+        }
+    }
+}
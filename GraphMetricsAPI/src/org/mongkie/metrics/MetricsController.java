@@ -0,0 +1,87 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics;
+
+import org.mongkie.metrics.spi.Metric;
+import org.mongkie.visualization.MongkieDisplay;
+import prefuse.data.Graph;
+
+/**
+ * Computes node metrics over a {@link GraphSnapshot} of a graph, every metric
+ * in parallel, and writes the values into node columns named by
+ * {@link Metric#getColumn()} in a single batch of updates. Once written, the
+ * columns are ranked and filtered like any other numeric attribute.
+ * <p>
+ * This controller is a service and can therefore be found in Lookup:
+ * <pre>MetricsController mc = Lookup.getDefault().lookup(MetricsController.class);</pre>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface MetricsController {
+
+    /**
+     * Returns the metrics of all registered
+     * {@link org.mongkie.metrics.spi.MetricBuilder}s.
+     *
+     * @return the available metrics
+     */
+    public Metric[] getMetrics();
+
+    /**
+     * Computes metrics of a graph in the calling thread and writes them into
+     * the node table of the graph.
+     *
+     * @param g the graph
+     * @param weightField the numeric edge column holding the weights, or
+     * <tt>null</tt> to weight all edges <tt>1</tt>
+     * @param metrics the metrics to compute
+     * @return true if written, false if cancelled
+     */
+    public boolean compute(Graph g, String weightField, Metric... metrics);
+
+    /**
+     * Computes metrics of the graph of a display in the background and writes
+     * them into its node table while processing its visualization.
+     *
+     * @param d the display
+     * @param weightField the numeric edge column holding the weights, or
+     * <tt>null</tt> to weight all edges <tt>1</tt>
+     * @param metrics the metrics to compute
+     */
+    public void compute(MongkieDisplay d, String weightField, Metric... metrics);
+
+    /**
+     * Computes metrics of the graph of a display in the background like
+     * {@link #compute(MongkieDisplay, String, Metric[])}, then runs the given
+     * action in the background thread once the values are written, e.g. to
+     * refresh the views listing the node columns. The action is not run if
+     * cancelled.
+     *
+     * @param d the display
+     * @param weightField the numeric edge column holding the weights, or
+     * <tt>null</tt> to weight all edges <tt>1</tt>
+     * @param whenWritten the action to run once written, or <tt>null</tt>
+     * @param metrics the metrics to compute
+     */
+    public void compute(MongkieDisplay d, String weightField, Runnable whenWritten, Metric... metrics);
+
+    public void cancel();
+
+    public boolean isRunning();
+}
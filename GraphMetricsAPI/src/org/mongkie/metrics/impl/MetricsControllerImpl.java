@@ -0,0 +1,223 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.mongkie.longtask.LongTaskErrorHandler;
+import org.mongkie.longtask.LongTaskExecutor;
+import org.mongkie.longtask.progress.Progress;
+import org.mongkie.longtask.progress.ProgressTask;
+import org.mongkie.longtask.progress.ProgressTicket;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.MetricsController;
+import org.mongkie.metrics.spi.Metric;
+import org.mongkie.metrics.spi.MetricBuilder;
+import org.mongkie.visualization.MongkieDisplay;
+import org.openide.util.Lookup;
+import org.openide.util.lookup.ServiceProvider;
+import prefuse.Visualization;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+import prefuse.util.TypeLib;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@ServiceProvider(service = MetricsController.class)
+public class MetricsControllerImpl implements MetricsController {
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "GraphMetrics-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private final LongTaskExecutor executor;
+
+    public MetricsControllerImpl() {
+        executor = new LongTaskExecutor(true, "Graph Metrics");
+        executor.setDefaultErrorHandler(new LongTaskErrorHandler() {
+            @Override
+            public void fatalError(Throwable t) {
+                Logger.getLogger("").log(Level.SEVERE, "", t.getCause() != null ? t.getCause() : t);
+            }
+        });
+    }
+
+    @Override
+    public Metric[] getMetrics() {
+        List<Metric> metrics = new ArrayList<Metric>();
+        for (MetricBuilder builder : Lookup.getDefault().lookupAll(MetricBuilder.class)) {
+            metrics.add(builder.getMetric());
+        }
+        return metrics.toArray(new Metric[metrics.size()]);
+    }
+
+    @Override
+    public boolean compute(Graph g, String weightField, Metric... metrics) {
+        GraphSnapshot snapshot = new GraphSnapshot(g, weightField);
+        double[][] values = compute(snapshot, metrics, null);
+        if (values == null) {
+            return false;
+        }
+        write(g.getNodeTable(), snapshot, metrics, values);
+        return true;
+    }
+
+    @Override
+    public void compute(MongkieDisplay d, String weightField, Metric... metrics) {
+        compute(d, weightField, null, metrics);
+    }
+
+    @Override
+    public void compute(final MongkieDisplay d, final String weightField, final Runnable whenWritten, final Metric... metrics) {
+        final MetricsTask task = new MetricsTask(metrics);
+        executor.execute(task, new Runnable() {
+            @Override
+            public void run() {
+                ProgressTicket ticket = task.getProgressTicket();
+                Progress.setDisplayName(ticket, "Graph Metrics");
+                Progress.start(ticket, metrics.length);
+                try {
+                    final Visualization v = d.getVisualization();
+                    final Graph g = d.getGraph();
+                    final GraphSnapshot[] snapshot = new GraphSnapshot[1];
+                    v.process(new Runnable() {
+                        @Override
+                        public void run() {
+                            snapshot[0] = new GraphSnapshot(g, weightField);
+                        }
+                    });
+                    final double[][] values = compute(snapshot[0], metrics, ticket);
+                    if (values == null) {
+                        return;
+                    }
+                    v.process(new Runnable() {
+                        @Override
+                        public void run() {
+                            write(g.getNodeTable(), snapshot[0], metrics, values);
+                        }
+                    });
+                    if (whenWritten != null) {
+                        whenWritten.run();
+                    }
+                } finally {
+                    Progress.finish(ticket);
+                }
+            }
+        }, "Graph Metrics");
+    }
+
+    private double[][] compute(GraphSnapshot snapshot, Metric[] metrics, ProgressTicket ticket) {
+        double[][] values = new double[metrics.length][];
+        for (int i = 0; i < metrics.length; i++) {
+            Progress.progress(ticket, metrics[i].getBuilder().getName());
+            values[i] = metrics[i].compute(snapshot, workers);
+            if (values[i] == null) {
+                return null;
+            }
+            Progress.progress(ticket, i + 1);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the values of the metrics into their node columns, adding the
+     * missing ones first, within a single batch so that the listeners of the
+     * node table are notified once per column. An existing column is kept and
+     * written in its own numeric type.
+     */
+    static void write(Table nodeTable, GraphSnapshot snapshot, Metric[] metrics, double[][] values) {
+        int[] cols = new int[metrics.length];
+        for (int m = 0; m < metrics.length; m++) {
+            String column = metrics[m].getColumn();
+            if (nodeTable.getColumnNumber(column) < 0) {
+                nodeTable.addColumn(column, metrics[m].getColumnType());
+            }
+            cols[m] = nodeTable.getColumnNumber(column);
+            if (!TypeLib.isNumericType(nodeTable.getColumnType(cols[m]))) {
+                throw new IllegalStateException("Node column " + column + " is not numeric");
+            }
+        }
+        nodeTable.beginBatch();
+        try {
+            for (int m = 0; m < metrics.length; m++) {
+                Class type = nodeTable.getColumnType(cols[m]);
+                for (int i = 0; i < snapshot.getNodeCount(); i++) {
+                    int row = snapshot.getRow(i);
+                    if (!nodeTable.isValidRow(row)) {
+                        continue;
+                    }
+                    double value = values[m][i];
+                    if (type == int.class) {
+                        nodeTable.setInt(row, cols[m], (int) value);
+                    } else if (type == long.class) {
+                        nodeTable.setLong(row, cols[m], (long) value);
+                    } else if (type == float.class) {
+                        nodeTable.setFloat(row, cols[m], (float) value);
+                    } else {
+                        nodeTable.setDouble(row, cols[m], value);
+                    }
+                }
+            }
+        } finally {
+            nodeTable.commitBatch();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        executor.cancel();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor.isRunning();
+    }
+
+    private static class MetricsTask extends ProgressTask {
+
+        private final Metric[] metrics;
+
+        MetricsTask(Metric[] metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean cancel() {
+            for (Metric m : metrics) {
+                m.cancel();
+            }
+            return true;
+        }
+    }
+}
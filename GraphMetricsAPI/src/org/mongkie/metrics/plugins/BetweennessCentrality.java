@@ -0,0 +1,164 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Betweenness centrality of a node, the number of shortest paths between
+ * other nodes passing through it, each weighted by the inverse of the number
+ * of shortest paths between its ends. Edge weights are ignored, and the
+ * values are not normalized.
+ * <p>
+ * The shortest paths from every source are accumulated as in Brandes' algorithm,
+ * the sources being split between the threads. With a number of samples
+ * smaller than the number of nodes, the paths are only accumulated from as
+ * many random sources and scaled up, which estimates the centralities of large
+ * graphs in a fraction of the time.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class BetweennessCentrality extends AbstractMetric {
+
+    public static final String COLUMN = "Betweenness Centrality";
+    private int samples = 0;
+    private long seed = 0;
+
+    BetweennessCentrality(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    /**
+     * Returns the number of sources the paths are accumulated from.
+     *
+     * @return the number of sampled sources, or <tt>0</tt> for all nodes
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Sets the number of random sources the paths are accumulated from.
+     *
+     * @param samples the number of sampled sources, or <tt>0</tt> for the exact
+     * centralities over all nodes
+     */
+    public void setSamples(int samples) {
+        if (samples < 0) {
+            throw new IllegalArgumentException("Negative samples: " + samples);
+        }
+        this.samples = samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final int n = g.getNodeCount();
+        final Adjacency adj = g.getSuccessors();
+        final int[] sources = new int[n];
+        for (int i = 0; i < n; i++) {
+            sources[i] = i;
+        }
+        int count = n;
+        if (samples > 0 && samples < n) {
+            Random random = new Random(seed);
+            for (int i = 0; i < samples; i++) {
+                int j = i + random.nextInt(n - i);
+                int s = sources[i];
+                sources[i] = sources[j];
+                sources[j] = s;
+            }
+            count = samples;
+        }
+        double[] centralities = parallelSum(executor, count, n, new SumRange() {
+            @Override
+            public void run(int from, int to, double[] sum) {
+                int[] order = new int[n];
+                int[] distances = new int[n];
+                double[] paths = new double[n];
+                double[] dependencies = new double[n];
+                for (int i = from; i < to && !isCancelled(); i++) {
+                    accumulate(adj, sources[i], order, distances, paths, dependencies, sum);
+                }
+            }
+        });
+        double scale = (g.isDirected() ? 1.0 : 0.5) * n / count;
+        for (int i = 0; i < n; i++) {
+            centralities[i] *= scale;
+        }
+        return centralities;
+    }
+
+    private static void accumulate(Adjacency adj, int source, int[] order, int[] distances,
+            double[] paths, double[] dependencies, double[] centralities) {
+        // breadth first search, the visited nodes in order
+        Arrays.fill(distances, -1);
+        Arrays.fill(paths, 0);
+        distances[source] = 0;
+        paths[source] = 1;
+        order[0] = source;
+        int visited = 1;
+        for (int head = 0; head < visited; head++) {
+            int v = order[head];
+            for (int e = adj.start(v); e < adj.end(v); e++) {
+                int w = adj.target(e);
+                if (distances[w] < 0) {
+                    distances[w] = distances[v] + 1;
+                    order[visited++] = w;
+                }
+                if (distances[w] == distances[v] + 1) {
+                    paths[w] += paths[v];
+                }
+            }
+        }
+        // back propagation of the dependencies over the successors on paths
+        for (int k = visited - 1; k >= 0; k--) {
+            int v = order[k];
+            double dependency = 0;
+            for (int e = adj.start(v); e < adj.end(v); e++) {
+                int w = adj.target(e);
+                if (distances[w] == distances[v] + 1) {
+                    dependency += paths[v] / paths[w] * (1 + dependencies[w]);
+                }
+            }
+            dependencies[v] = dependency;
+            if (v != source) {
+                centralities[v] += dependency;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import org.mongkie.metrics.spi.MetricBuilder;
+import org.openide.util.NbBundle;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@ServiceProvider(service = MetricBuilder.class)
+public class BetweennessCentralityBuilder implements MetricBuilder<BetweennessCentrality> {
+
+    private final BetweennessCentrality metric = new BetweennessCentrality(this);
+
+    @Override
+    public BetweennessCentrality getMetric() {
+        return metric;
+    }
+
+    @Override
+    public String getName() {
+        return NbBundle.getMessage(BetweennessCentralityBuilder.class, "BetweennessCentralityBuilder.name");
+    }
+
+    @Override
+    public String getDescription() {
+        return NbBundle.getMessage(BetweennessCentralityBuilder.class, "BetweennessCentralityBuilder.description");
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Closeness centrality of a node, the inverse of the average distance to the
+ * nodes it reaches, scaled by the fraction of the other nodes it reaches so
+ * that nodes of small components do not rank first. Edge weights are ignored.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ClosenessCentrality extends AbstractMetric {
+
+    public static final String COLUMN = "Closeness Centrality";
+
+    ClosenessCentrality(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final int n = g.getNodeCount();
+        final Adjacency adj = g.getSuccessors();
+        final double[] centralities = new double[n];
+        parallel(executor, n, new Range() {
+            @Override
+            public void run(int from, int to) {
+                int[] queue = new int[n];
+                int[] distances = new int[n];
+                for (int s = from; s < to && !isCancelled(); s++) {
+                    Arrays.fill(distances, -1);
+                    distances[s] = 0;
+                    queue[0] = s;
+                    int visited = 1;
+                    long total = 0;
+                    for (int head = 0; head < visited; head++) {
+                        int v = queue[head];
+                        for (int e = adj.start(v); e < adj.end(v); e++) {
+                            int w = adj.target(e);
+                            if (distances[w] < 0) {
+                                distances[w] = distances[v] + 1;
+                                total += distances[w];
+                                queue[visited++] = w;
+                            }
+                        }
+                    }
+                    int reached = visited - 1;
+                    centralities[s] = reached == 0 ? 0 : ((double) reached / total) * ((double) reached / (n - 1));
+                }
+            }
+        });
+        return centralities;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Local clustering coefficient of a node, the fraction of the pairs of its
+ * neighbors which are adjacent, ignoring the direction of the edges.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ClusteringCoefficient extends AbstractMetric {
+
+    public static final String COLUMN = "Clustering Coefficient";
+
+    ClusteringCoefficient(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final Adjacency adj = g.getNeighbors();
+        final double[] coefficients = new double[g.getNodeCount()];
+        parallel(executor, coefficients.length, new Range() {
+            @Override
+            public void run(int from, int to) {
+                // neighbors of the current node are marked with its index + 1
+                int[] marks = new int[coefficients.length];
+                for (int i = from; i < to && !isCancelled(); i++) {
+                    int k = adj.degree(i);
+                    if (k < 2) {
+                        continue;
+                    }
+                    for (int e = adj.start(i); e < adj.end(i); e++) {
+                        marks[adj.target(e)] = i + 1;
+                    }
+                    long links = 0;
+                    for (int e = adj.start(i); e < adj.end(i); e++) {
+                        int j = adj.target(e);
+                        for (int f = adj.start(j); f < adj.end(j); f++) {
+                            if (marks[adj.target(f)] == i + 1) {
+                                links++;
+                            }
+                        }
+                    }
+                    coefficients[i] = (double) links / ((long) k * (k - 1));
+                }
+            }
+        });
+        return coefficients;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Number of edges incident to a node.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class Degree extends AbstractMetric {
+
+    public static final String COLUMN = "Degree";
+
+    Degree(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    @Override
+    public Class<?> getColumnType() {
+        return int.class;
+    }
+
+    @Override
+    protected double[] execute(final GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final double[] degrees = new double[g.getNodeCount()];
+        parallel(executor, degrees.length, new Range() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    degrees[i] = g.getDegree(i);
+                }
+            }
+        });
+        return degrees;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Eigenvector centrality of a node, its component of the principal
+ * eigenvector of the weighted adjacency matrix, following the incoming edges
+ * in a directed graph. Computed by the power iteration on <tt>A + I</tt>,
+ * which converges on bipartite graphs too, and scaled to a maximum of
+ * <tt>1</tt>.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class EigenvectorCentrality extends AbstractMetric {
+
+    public static final String COLUMN = "Eigenvector Centrality";
+    private double epsilon = 1e-6;
+    private int maxIterations = 100;
+
+    EigenvectorCentrality(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final int n = g.getNodeCount();
+        final Adjacency in = g.getInEdges();
+        double[] centralities = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(centralities, 1);
+        for (int iteration = 0; iteration < maxIterations && !isCancelled(); iteration++) {
+            final double[] current = centralities, updated = next;
+            parallel(executor, n, new Range() {
+                @Override
+                public void run(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        double c = current[i];
+                        for (int e = in.start(i); e < in.end(i); e++) {
+                            c += in.weight(e) * current[in.target(e)];
+                        }
+                        updated[i] = c;
+                    }
+                }
+            });
+            double max = 0;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, Math.abs(updated[i]));
+            }
+            double diff = 0;
+            for (int i = 0; i < n; i++) {
+                updated[i] = max > 0 ? updated[i] / max : 0;
+                diff = Math.max(diff, Math.abs(updated[i] - current[i]));
+            }
+            centralities = updated;
+            next = current;
+            if (diff < epsilon) {
+                break;
+            }
+        }
+        return centralities;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * Core number of a node, the largest <tt>k</tt> such that the node belongs to
+ * a subgraph whose nodes all have at least <tt>k</tt> neighbors in it,
+ * ignoring the direction of the edges.
+ * <p>
+ * Instead of peeling the nodes one by one, the core numbers are computed in
+ * parallel as the fixed point of the h-index of the neighbors, starting from
+ * the degrees: every round, a node takes the largest <tt>h</tt> such that at
+ * least <tt>h</tt> neighbors have a value of at least <tt>h</tt>.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class KCore extends AbstractMetric {
+
+    public static final String COLUMN = "K-Core";
+
+    KCore(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    @Override
+    public Class<?> getColumnType() {
+        return int.class;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final Adjacency adj = g.getNeighbors();
+        final int n = g.getNodeCount();
+        int[] cores = new int[n];
+        for (int i = 0; i < n; i++) {
+            cores[i] = adj.degree(i);
+        }
+        int[] next = new int[n];
+        while (!isCancelled()) {
+            final int[] current = cores, updated = next;
+            double[] changes = parallelSum(executor, n, 1, new SumRange() {
+                @Override
+                public void run(int from, int to, double[] sum) {
+                    int[] counts = new int[16];
+                    for (int i = from; i < to; i++) {
+                        int h = current[i];
+                        if (counts.length <= h) {
+                            counts = new int[Math.max(h + 1, 2 * counts.length)];
+                        }
+                        for (int e = adj.start(i); e < adj.end(i); e++) {
+                            counts[Math.min(h, current[adj.target(e)])]++;
+                        }
+                        for (int at = 0; h > 0; h--) {
+                            at += counts[h];
+                            if (at >= h) {
+                                break;
+                            }
+                        }
+                        for (int c = 0; c <= current[i]; c++) {
+                            counts[c] = 0;
+                        }
+                        updated[i] = h;
+                        if (h != current[i]) {
+                            sum[0]++;
+                        }
+                    }
+                }
+            });
+            cores = updated;
+            next = current;
+            if (changes[0] == 0) {
+                break;
+            }
+        }
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = cores[i];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.plugins;
+
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+import org.mongkie.metrics.GraphSnapshot.Adjacency;
+import org.mongkie.metrics.spi.AbstractMetric;
+import org.mongkie.metrics.spi.MetricBuilder;
+
+/**
+ * PageRank of a node, the probability of a random surfer following the
+ * weighted edges to be at the node. The rank of the nodes without outgoing
+ * edges is spread over all nodes.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class PageRank extends AbstractMetric {
+
+    public static final String COLUMN = "PageRank";
+    private double damping = 0.85;
+    private double epsilon = 1e-6;
+    private int maxIterations = 100;
+
+    PageRank(MetricBuilder builder) {
+        super(builder);
+    }
+
+    @Override
+    public String getColumn() {
+        return COLUMN;
+    }
+
+    public double getDamping() {
+        return damping;
+    }
+
+    public void setDamping(double damping) {
+        if (damping < 0 || damping > 1) {
+            throw new IllegalArgumentException("Damping must be in [0, 1]: " + damping);
+        }
+        this.damping = damping;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    protected double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException {
+        final int n = g.getNodeCount();
+        final Adjacency out = g.getOutEdges(), in = g.getInEdges();
+        final double d = damping;
+        double[] ranks = new double[n];
+        double[] next = new double[n];
+        for (int i = 0; i < n; i++) {
+            ranks[i] = 1.0 / n;
+        }
+        for (int iteration = 0; iteration < maxIterations && !isCancelled(); iteration++) {
+            double dangling = 0;
+            for (int i = 0; i < n; i++) {
+                if (out.strength(i) <= 0) {
+                    dangling += ranks[i];
+                }
+            }
+            final double base = (1 - d) / n + d * dangling / n;
+            final double[] current = ranks, updated = next;
+            double[] diff = parallelSum(executor, n, 1, new SumRange() {
+                @Override
+                public void run(int from, int to, double[] sum) {
+                    for (int i = from; i < to; i++) {
+                        double rank = 0;
+                        for (int e = in.start(i); e < in.end(i); e++) {
+                            int j = in.target(e);
+                            rank += current[j] * in.weight(e) / out.strength(j);
+                        }
+                        updated[i] = base + d * rank;
+                        sum[0] += Math.abs(updated[i] - current[i]);
+                    }
+                }
+            });
+            ranks = updated;
+            next = current;
+            if (diff[0] < epsilon) {
+                break;
+            }
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.mongkie.metrics.GraphSnapshot;
+
+/**
+ * Base class of metrics, which splits the nodes of a graph into ranges run in
+ * parallel and handles the cancellation.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public abstract class AbstractMetric implements Metric {
+
+    private static final int RANGES_PER_THREAD = 4;
+    private final MetricBuilder builder;
+    private volatile boolean cancelled;
+
+    protected AbstractMetric(MetricBuilder builder) {
+        this.builder = builder;
+    }
+
+    @Override
+    public Class<?> getColumnType() {
+        return double.class;
+    }
+
+    @Override
+    public final double[] compute(GraphSnapshot g, ExecutorService executor) {
+        cancelled = false;
+        try {
+            double[] values = execute(g, executor);
+            return cancelled ? null : values;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Computes the values of all nodes, see {@link #compute(GraphSnapshot, ExecutorService)}.
+     *
+     * @param g the snapshot of the graph
+     * @param executor the executor running the parallel parts
+     * @return the values indexed by the nodes of the snapshot
+     * @throws InterruptedException if interrupted while waiting for the ranges
+     */
+    protected abstract double[] execute(GraphSnapshot g, ExecutorService executor) throws InterruptedException;
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    protected boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public MetricBuilder getBuilder() {
+        return builder;
+    }
+
+    /**
+     * Runs a range over the indices from <tt>0</tt> to <tt>n - 1</tt>, split
+     * into subranges run in parallel, and waits for all of them.
+     *
+     * @param executor the executor running the subranges
+     * @param n the number of indices
+     * @param range the range to run
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected void parallel(ExecutorService executor, int n, final Range range) throws InterruptedException {
+        List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+        int step = step(n);
+        for (int from = 0; from < n; from += step) {
+            final int start = from, end = Math.min(n, from + step);
+            tasks.add(new Callable<double[]>() {
+                @Override
+                public double[] call() {
+                    if (!cancelled) {
+                        range.run(start, end);
+                    }
+                    return null;
+                }
+            });
+        }
+        invokeAll(executor, tasks);
+    }
+
+    /**
+     * Runs a range over the indices from <tt>0</tt> to <tt>n - 1</tt> like
+     * {@link #parallel(ExecutorService, int, Range)}, every subrange adding
+     * into its own array, and returns the sum of the arrays.
+     *
+     * @param executor the executor running the subranges
+     * @param n the number of indices
+     * @param length the length of the arrays
+     * @param range the range to run
+     * @return the sum of the arrays of all subranges
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected double[] parallelSum(ExecutorService executor, int n, final int length, final SumRange range) throws InterruptedException {
+        List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+        int step = step(n);
+        for (int from = 0; from < n; from += step) {
+            final int start = from, end = Math.min(n, from + step);
+            tasks.add(new Callable<double[]>() {
+                @Override
+                public double[] call() {
+                    double[] sum = new double[length];
+                    if (!cancelled) {
+                        range.run(start, end, sum);
+                    }
+                    return sum;
+                }
+            });
+        }
+        double[] total = new double[length];
+        for (double[] sum : invokeAll(executor, tasks)) {
+            for (int i = 0; i < length; i++) {
+                total[i] += sum[i];
+            }
+        }
+        return total;
+    }
+
+    private static int step(int n) {
+        int ranges = Runtime.getRuntime().availableProcessors() * RANGES_PER_THREAD;
+        return Math.max(1, (n + ranges - 1) / ranges);
+    }
+
+    private static List<double[]> invokeAll(ExecutorService executor, List<Callable<double[]>> tasks) throws InterruptedException {
+        List<double[]> results = new ArrayList<double[]>(tasks.size());
+        for (Future<double[]> f : executor.invokeAll(tasks)) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * A range of indices run by one thread.
+     */
+    protected static interface Range {
+
+        public void run(int from, int to);
+    }
+
+    /**
+     * A range of indices run by one thread, adding into its own array.
+     */
+    protected static interface SumRange {
+
+        public void run(int from, int to, double[] sum);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.spi;
+
+import java.util.concurrent.ExecutorService;
+import org.mongkie.metrics.GraphSnapshot;
+
+/**
+ * A node metric, computed over a {@link GraphSnapshot} and written to a node
+ * column by the {@link org.mongkie.metrics.MetricsController}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface Metric {
+
+    /**
+     * Returns the name of the node column the values are written to.
+     *
+     * @return the column name
+     */
+    public String getColumn();
+
+    /**
+     * Returns the type of the node column, <tt>int.class</tt> or
+     * <tt>double.class</tt>.
+     *
+     * @return the column type
+     */
+    public Class<?> getColumnType();
+
+    /**
+     * Computes the values of all nodes, running the parallel parts on the given
+     * executor.
+     *
+     * @param g the snapshot of the graph
+     * @param executor the executor running the parallel parts
+     * @return the values indexed by the nodes of the snapshot, or
+     * <tt>null</tt> if cancelled
+     */
+    public double[] compute(GraphSnapshot g, ExecutorService executor);
+
+    public boolean cancel();
+
+    public MetricBuilder getBuilder();
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.metrics.impl;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.mongkie.metrics.plugins.BetweennessCentrality;
+import org.mongkie.metrics.plugins.BetweennessCentralityBuilder;
+import org.mongkie.metrics.plugins.ClosenessCentralityBuilder;
+import org.mongkie.metrics.plugins.ClusteringCoefficientBuilder;
+import org.mongkie.metrics.plugins.DegreeBuilder;
+import org.mongkie.metrics.plugins.EigenvectorCentralityBuilder;
+import org.mongkie.metrics.plugins.KCoreBuilder;
+import org.mongkie.metrics.plugins.PageRankBuilder;
+import org.mongkie.metrics.plugins.WeightedDegreeBuilder;
+import org.mongkie.metrics.spi.Metric;
+import prefuse.data.Graph;
+import prefuse.data.Node;
+import prefuse.data.Table;
+import prefuse.data.event.TableListener;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class MetricsControllerImplTest {
+
+    public MetricsControllerImplTest() {
+    }
+
+    private static Graph randomGraph(Random random, int n, int m) {
+        Graph g = new Graph();
+        g.getEdgeTable().addColumn("weight", double.class);
+        for (int i = 0; i < n; i++) {
+            g.addNode();
+        }
+        for (int i = 0; i < m; i++) {
+            g.getEdgeTable().setDouble(g.addEdge(random.nextInt(n), random.nextInt(n)), "weight", 1 + random.nextInt(3));
+        }
+        return g;
+    }
+
+    private static boolean adjacent(Graph g, int a, int b) {
+        return g.getEdge(g.getNode(a), g.getNode(b)) != null || g.getEdge(g.getNode(b), g.getNode(a)) != null;
+    }
+
+    private static int[] peelCores(Graph g) {
+        int n = g.getNodeCount();
+        int[] degrees = new int[n], cores = new int[n];
+        boolean[] removed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                degrees[i] += i != j && adjacent(g, i, j) ? 1 : 0;
+            }
+        }
+        for (int k = 0, left = n; left > 0; k++) {
+            for (boolean peeled = true; peeled;) {
+                peeled = false;
+                for (int i = 0; i < n; i++) {
+                    if (!removed[i] && degrees[i] <= k) {
+                        removed[i] = peeled = true;
+                        cores[i] = k;
+                        left--;
+                        for (int j = 0; j < n; j++) {
+                            degrees[j] -= i != j && adjacent(g, i, j) ? 1 : 0;
+                        }
+                    }
+                }
+            }
+        }
+        return cores;
+    }
+
+    @Test
+    public void testLocalMetrics() {
+        Graph g = randomGraph(new Random(19), 120, 400);
+        final int[] updates = new int[1];
+        g.getNodeTable().addTableListener(new TableListener() {
+            @Override
+            public void tableChanged(Table t, int start, int end, int col, int type) {
+                updates[0]++;
+            }
+        });
+        Metric[] metrics = {new DegreeBuilder().getMetric(), new WeightedDegreeBuilder().getMetric(),
+            new ClusteringCoefficientBuilder().getMetric(), new KCoreBuilder().getMetric()};
+        assertTrue(new MetricsControllerImpl().compute(g, "weight", metrics));
+        // added columns, then a single update of every column
+        assertEquals(2 * metrics.length, updates[0]);
+
+        int[] cores = peelCores(g);
+        for (int i = 0; i < g.getNodeCount(); i++) {
+            Node node = g.getNode(i);
+            assertEquals(node.getDegree(), node.getInt(metrics[0].getColumn()));
+            double weighted = 0;
+            for (int e = 0; e < g.getEdgeCount(); e++) {
+                weighted += g.getSourceNode(e) == i ? g.getEdge(e).getDouble("weight") : 0;
+                weighted += g.getTargetNode(e) == i ? g.getEdge(e).getDouble("weight") : 0;
+            }
+            assertEquals(weighted, node.getDouble(metrics[1].getColumn()), 1e-9);
+
+            int k = 0, links = 0;
+            for (int a = 0; a < g.getNodeCount(); a++) {
+                if (a == i || !adjacent(g, i, a)) {
+                    continue;
+                }
+                k++;
+                for (int b = a + 1; b < g.getNodeCount(); b++) {
+                    links += b != i && adjacent(g, i, b) && adjacent(g, a, b) ? 1 : 0;
+                }
+            }
+            assertEquals(k < 2 ? 0 : 2.0 * links / (k * (k - 1)), node.getDouble(metrics[2].getColumn()), 1e-9);
+            assertEquals(cores[i], node.getInt(metrics[3].getColumn()));
+        }
+    }
+
+    @Test
+    public void testPathCentralities() {
+        // a star of 4 leaves, one of which continues into a path of 2 nodes
+        Graph g = new Graph();
+        for (int i = 0; i < 7; i++) {
+            g.addNode();
+        }
+        for (int i = 1; i <= 4; i++) {
+            g.addEdge(0, i);
+        }
+        g.addEdge(4, 5);
+        g.addEdge(5, 6);
+        Metric betweenness = new BetweennessCentralityBuilder().getMetric();
+        Metric closeness = new ClosenessCentralityBuilder().getMetric();
+        assertTrue(new MetricsControllerImpl().compute(g, null, betweenness, closeness));
+        double[] expected = {12, 0, 0, 0, 8, 5, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], g.getNode(i).getDouble(betweenness.getColumn()), 1e-9);
+        }
+        assertEquals(6.0 / 9, g.getNode(0).getDouble(closeness.getColumn()), 1e-9);
+        assertEquals(6.0 / 18, g.getNode(6).getDouble(closeness.getColumn()), 1e-9);
+    }
+
+    @Test
+    public void testSampledBetweenness() {
+        Graph g = randomGraph(new Random(23), 300, 900);
+        BetweennessCentrality exact = (BetweennessCentrality) new BetweennessCentralityBuilder().getMetric();
+        MetricsControllerImpl controller = new MetricsControllerImpl();
+        assertTrue(controller.compute(g, null, exact));
+        double[] values = new double[g.getNodeCount()];
+        double total = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = g.getNode(i).getDouble(exact.getColumn());
+            total += values[i];
+        }
+        exact.setSamples(100);
+        try {
+            assertTrue(controller.compute(g, null, exact));
+        } finally {
+            exact.setSamples(0);
+        }
+        double estimated = 0, error = 0;
+        for (int i = 0; i < values.length; i++) {
+            double value = g.getNode(i).getDouble(exact.getColumn());
+            estimated += value;
+            error += Math.abs(value - values[i]);
+        }
+        assertEquals(1, estimated / total, 0.1);
+        assertTrue("error " + error / total, error / total < 0.3);
+    }
+
+    @Test
+    public void testSpectralCentralities() {
+        Graph g = new Graph(true);
+        for (int i = 0; i < 9; i++) {
+            g.addNode();
+        }
+        for (int i = 1; i < 9; i++) {
+            g.addEdge(i, 0);
+            g.addEdge(0, i);
+        }
+        g.addEdge(1, 2);
+        Metric pagerank = new PageRankBuilder().getMetric();
+        Metric eigenvector = new EigenvectorCentralityBuilder().getMetric();
+        assertTrue(new MetricsControllerImpl().compute(g, null, pagerank, eigenvector));
+        double sum = 0;
+        for (int i = 0; i < g.getNodeCount(); i++) {
+            sum += g.getNode(i).getDouble(pagerank.getColumn());
+        }
+        assertEquals(1, sum, 1e-6);
+        assertEquals(1, g.getNode(0).getDouble(eigenvector.getColumn()), 1e-9);
+        for (int i = 3; i < g.getNodeCount(); i++) {
+            assertTrue(g.getNode(0).getDouble(pagerank.getColumn()) > g.getNode(i).getDouble(pagerank.getColumn()));
+            assertEquals(g.getNode(3).getDouble(eigenvector.getColumn()), g.getNode(i).getDouble(eigenvector.getColumn()), 1e-9);
+        }
+        // node 2 has one more incoming edge than the other leaves
+        assertTrue(g.getNode(2).getDouble(eigenvector.getColumn()) > g.getNode(3).getDouble(eigenvector.getColumn()));
+        assertTrue(g.getNode(2).getDouble(pagerank.getColumn()) > g.getNode(3).getDouble(pagerank.getColumn()));
+    }
+}
@@ -180,23 +180,28 @@ public class ImportControllerImpl implements ImportController {
                 to.addColumn(attrName, attrTable.getColumnType(attrName), null);
             }
         }
-        for (Iterator<Tuple> tupleIter = to.tuples(); tupleIter.hasNext();) {
-            Tuple ntuple = tupleIter.next();
-            Object akey = ntuple.get(networkKey);
-            if (akey == null) {
-                continue;
-            }
-            for (Iterator<Integer> rowIter = DataLib.rows(attrTable, attributeKey, akey); rowIter.hasNext();) {
-                Tuple atuple = attrTable.getTuple(rowIter.next());
-                for (String attrName : attrNames) {
-                    String str = null;
-                    if (multipleValue && to.getColumnType(attrName) == String.class && (str = ntuple.getString(attrName)) != null && !str.isEmpty()) {
-                        ntuple.set(attrName, str + Column.MULTI_VAL_SEPARATOR + atuple.get(attrName));
-                    } else {
-                        ntuple.set(attrName, atuple.get(attrName));
+        to.beginBatch();
+        try {
+            for (Iterator<Tuple> tupleIter = to.tuples(); tupleIter.hasNext();) {
+                Tuple ntuple = tupleIter.next();
+                Object akey = ntuple.get(networkKey);
+                if (akey == null) {
+                    continue;
+                }
+                for (Iterator<Integer> rowIter = DataLib.rows(attrTable, attributeKey, akey); rowIter.hasNext();) {
+                    Tuple atuple = attrTable.getTuple(rowIter.next());
+                    for (String attrName : attrNames) {
+                        String str = null;
+                        if (multipleValue && to.getColumnType(attrName) == String.class && (str = ntuple.getString(attrName)) != null && !str.isEmpty()) {
+                            ntuple.set(attrName, str + Column.MULTI_VAL_SEPARATOR + atuple.get(attrName));
+                        } else {
+                            ntuple.set(attrName, atuple.get(attrName));
+                        }
                     }
                 }
             }
+        } finally {
+            to.commitBatch();
         }
     }
 
@@ -308,6 +313,8 @@ public class ImportControllerImpl implements ImportController {
         }
         CSVTableReader reader = ReaderFactory.createCSVTableReader();
         reader.setHasHeader(hasHeader);
+        // Read in a single pass, inferring types from the leading rows
+        reader.setSampleRows(CSVTableReader.DEFAULT_SAMPLE_ROWS);
         if (headerNames != null) {
             reader.setHeaderNames(Arrays.asList(headerNames));
         }
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import kobic.prefuse.data.io.ColumnarGraphIO;
 import kobic.prefuse.data.io.SerializableTable;
 import org.mongkie.importer.ContainerFactory;
 import org.mongkie.importer.Report;
@@ -40,6 +41,19 @@ import prefuse.data.Graph;
 public class ImporterVizGraph implements FileImporter<VizGraphContainer> {
 
     protected InputStream in;
+    private final boolean columnar;
+
+    public ImporterVizGraph() {
+        this(false);
+    }
+
+    /**
+     * @param columnar if true, the visual graph is read from the columnar
+     * binary format of {@link ColumnarGraphIO} instead of Java serialization
+     */
+    public ImporterVizGraph(boolean columnar) {
+        this.columnar = columnar;
+    }
 
     @Override
     public void setInputStream(InputStream in) {
@@ -53,11 +67,15 @@ public class ImporterVizGraph implements FileImporter<VizGraphContainer> {
 
     @Override
     public boolean execute(VizGraphContainer container) {
+        if (columnar) {
+            return executeColumnar(container);
+        }
         ObjectInputStream ois = null;
         try {
             ois = new ObjectInputStream(in);
             Graph g = new Graph(((SerializableTable) ois.readObject()).getTable(), ((SerializableTable) ois.readObject()).getTable(),
                     ois.readBoolean(), (String) ois.readObject(), (String) ois.readObject(), (String) ois.readObject());
+            g.compactLinks();
             g.setNodeLabelField((String) ois.readObject());
             g.setEdgeLabelField((String) ois.readObject());
             container.setResult(g);
@@ -82,6 +100,30 @@ public class ImporterVizGraph implements FileImporter<VizGraphContainer> {
         return true;
     }
 
+    private boolean executeColumnar(VizGraphContainer container) {
+        try {
+            // Mapped directly if the input is a file
+            ColumnarGraphIO.Reader reader = new ColumnarGraphIO.Reader(ColumnarGraphIO.map(in));
+            container.setResult(reader.readGraph());
+            container.setNodeVisualProperties(reader.readTable(ColumnarGraphIO.NODE_VISUAL_PROPERTIES));
+            container.setEdgeVisualProperties(reader.readTable(ColumnarGraphIO.EDGE_VISUAL_PROPERTIES));
+            container.setAggregateVisualProperties(reader.readTable(ColumnarGraphIO.AGGREGATE_VISUAL_PROPERTIES));
+            container.setAggregateId2NodeItemRows(reader.readAggregateMembers());
+        } catch (Exception ex) {
+            Exceptions.printStackTrace(ex);
+            throw new RuntimeException("An error occured while importing a visual graph", ex);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                Exceptions.printStackTrace(ex);
+                return false;
+            }
+        }
+        Logger.getLogger(getClass().getName()).log(Level.INFO, "Visual graph is imported successfully");
+        return true;
+    }
+
     @Override
     public boolean cancel() {
         return false;
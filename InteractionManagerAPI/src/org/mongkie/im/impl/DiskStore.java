@@ -0,0 +1,334 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.im.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.Lookup;
+
+/**
+ * Serialized query results in a directory, one file per key. A file holds the
+ * key, the time when the result was stored and the result itself, so that a
+ * result is found again after a restart and expires as in memory. Results
+ * which are not serializable are silently not stored.
+ * <p>
+ * Keys of the same hash are stored in the next free of a few slots, and the
+ * key in a file is checked before its result is read. When the files exceed
+ * the maximum size, the least recently used ones are deleted.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class DiskStore {
+
+    private static final int SLOTS = 4;
+    private static final FileFilter RESULTS = new FileFilter() {
+        @Override
+        public boolean accept(File f) {
+            return f.isFile() && f.getName().endsWith(".ser");
+        }
+    };
+    private final File dir;
+    private final long maxSize;
+    // the size of all files, or -1 if not yet read
+    private long size = -1;
+
+    DiskStore(File dir) {
+        this(dir, 0);
+    }
+
+    /**
+     * @param dir the directory of the files
+     * @param maxSize the maximum size of all files in bytes, or 0 if unbounded
+     */
+    DiskStore(File dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+    }
+
+    File getDirectory() {
+        return dir;
+    }
+
+    private File getFile(Object key, int slot) {
+        String name = key.getClass().getName() + ":" + key;
+        return new File(dir, Integer.toHexString(name.hashCode()) + "-" + Integer.toHexString(key.hashCode()) + "-" + slot + ".ser");
+    }
+
+    /**
+     * @return the file of the given key, or null if none is stored
+     */
+    private File find(Object key) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            File f = getFile(key, slot);
+            if (f.isFile() && key.equals(readKey(f))) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    private static Object readKey(File f) {
+        ObjectInputStream in = null;
+        try {
+            in = new ModuleObjectInputStream(new BufferedInputStream(new FileInputStream(f)));
+            return in.readObject();
+        } catch (Exception ex) {
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Read the result of the given key stored at or after the given time.
+     *
+     * @return the result and its time, or null if none is stored or the
+     * stored one has expired
+     */
+    synchronized Record read(Object key, long notBefore) {
+        File f = find(key);
+        if (f == null) {
+            return null;
+        }
+        ObjectInputStream in = null;
+        Record record = null;
+        boolean drop = false;
+        try {
+            in = new ModuleObjectInputStream(new BufferedInputStream(new FileInputStream(f)));
+            if (!key.equals(in.readObject())) {
+                return null;
+            }
+            long time = in.readLong();
+            if (time < notBefore) {
+                drop = true;
+            } else {
+                record = new Record(in.readObject(), time);
+            }
+        } catch (Exception ex) {
+            // A result of old classes or a broken file, just query again
+            Logger.getLogger(DiskStore.class.getName()).log(Level.FINE, "Dropping " + f, ex);
+            drop = true;
+        } finally {
+            close(in);
+        }
+        if (drop) {
+            delete(f);
+        } else if (record != null) {
+            f.setLastModified(System.currentTimeMillis());
+        }
+        return record;
+    }
+
+    /**
+     * Store the result of the given key with the given time.
+     *
+     * @return true if the result is stored
+     */
+    synchronized boolean write(Object key, Object value, long time) {
+        if (!isSerializable(value) || (!dir.isDirectory() && !dir.mkdirs())) {
+            return false;
+        }
+        File f = find(key);
+        for (int slot = 0; f == null && slot < SLOTS; slot++) {
+            if (!getFile(key, slot).isFile()) {
+                f = getFile(key, slot);
+            }
+        }
+        if (f == null) {
+            // all slots are taken by other keys of the same hash
+            f = getFile(key, 0);
+        }
+        File tmp = new File(dir, f.getName() + ".tmp");
+        size();
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeObject(key);
+            out.writeLong(time);
+            out.writeObject(value);
+            out.close();
+            out = null;
+            delete(f);
+            if (!tmp.renameTo(f)) {
+                return false;
+            }
+            size += f.length();
+            if (maxSize > 0 && size > maxSize) {
+                evict(f);
+            }
+            return true;
+        } catch (NotSerializableException ex) {
+            return false;
+        } catch (IOException ex) {
+            Logger.getLogger(DiskStore.class.getName()).log(Level.WARNING, "Failed to store " + f, ex);
+            return false;
+        } finally {
+            close(out);
+            tmp.delete();
+        }
+    }
+
+    private static boolean isSerializable(Object value) {
+        if (!(value instanceof Serializable)) {
+            return false;
+        }
+        if (value instanceof Collection) {
+            for (Object o : (Collection) value) {
+                if (!(o instanceof Serializable)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    synchronized void delete(Object key) {
+        File f = find(key);
+        if (f != null) {
+            delete(f);
+        }
+    }
+
+    private void delete(File f) {
+        long length = f.length();
+        if (f.delete() && size >= 0) {
+            size -= length;
+        }
+    }
+
+    /**
+     * @return the size of all files in bytes
+     */
+    synchronized long size() {
+        if (size < 0) {
+            size = 0;
+            File[] files = dir.listFiles(RESULTS);
+            if (files != null) {
+                for (File f : files) {
+                    size += f.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Delete the least recently used files down to three quarters of the
+     * maximum size, so that not every following write has to list them.
+     *
+     * @param keep the file just written
+     */
+    private void evict(File keep) {
+        File[] files = dir.listFiles(RESULTS);
+        if (files == null) {
+            return;
+        }
+        final long[] used = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            used[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+                return used[i] < used[j] ? -1 : (used[i] > used[j] ? 1 : 0);
+            }
+        });
+        for (int i = 0; i < order.length && size > maxSize * 3 / 4; i++) {
+            File f = files[order[i]];
+            if (f.equals(keep)) {
+                continue;
+            }
+            Logger.getLogger(DiskStore.class.getName()).log(Level.FINE, "Evicting {0}", f);
+            delete(f);
+        }
+    }
+
+    synchronized void clear() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+        size = -1;
+    }
+
+    private static void close(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    static final class Record {
+
+        final Object value;
+        final long time;
+
+        Record(Object value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Resolves the classes of results with the class loader of all modules,
+     * since the results are instances of the interaction source modules.
+     */
+    private static class ModuleObjectInputStream extends ObjectInputStream {
+
+        ModuleObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader loader = Lookup.getDefault().lookup(ClassLoader.class);
+            if (loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, loader);
+                } catch (ClassNotFoundException ex) {
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -20,7 +20,7 @@ package org.mongkie.im.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.lang.reflect.Array;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -33,6 +33,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -61,6 +64,7 @@ import org.mongkie.visualization.util.VisualStyle;
 import org.mongkie.visualization.workspace.WorkspaceListener;
 import org.openide.ErrorManager;
 import org.openide.util.Lookup;
+import org.openide.util.NbPreferences;
 import org.openide.util.lookup.ServiceProvider;
 import prefuse.Visualization;
 import static prefuse.Visualization.*;
@@ -163,7 +167,7 @@ public class InteractionControllerImpl implements InteractionController {
             d.add(m);
             models.put(is, m);
             // Initialize cache per source
-            caches.put(is, new Cache());
+            caches.put(is, new Cache(is));
         }
         sourcesByCategory = new LinkedHashMap<String, List<InteractionSource>>();
         for (InteractionSource is : Lookup.getDefault().lookupAll(InteractionSource.class)) {
@@ -181,7 +185,7 @@ public class InteractionControllerImpl implements InteractionController {
             SourceModelImpl m = new SourceModelImpl(d, is);
             d.add(m);
             models.put(is, m);
-            caches.put(is, new Cache());
+            caches.put(is, new Cache(is));
         }
     }
 
@@ -334,38 +338,62 @@ public class InteractionControllerImpl implements InteractionController {
         }
 
         @Override
-        protected Set<Interaction<K>> query(InteractionSource<K> is, Set<K> keys) throws Exception {
-            Set<Interaction<K>> interactions = super.query(is, keys);
-            Set<K> _expandedKeys = new HashSet<K>();
-            if (is.isDirected()) {
-                for (Interaction<K> i : interactions) {
-                    K sourceKey = i.getSourceKey();
-                    if (!keys.contains(sourceKey)) {
-                        _expandedKeys.add(sourceKey);
-                    }
-                    K targetKey = i.getTargetKey();
-                    if (!keys.contains(targetKey)) {
-                        _expandedKeys.add(targetKey);
-                    }
-                }
-            } else {
-                for (Interaction<K> i : interactions) {
-                    K targetKey = i.getTargetKey();
-                    if (!keys.contains(targetKey)) {
-                        _expandedKeys.add(targetKey);
+        protected boolean query(InteractionSource<K> is, final Set<K> keys) throws Exception {
+            final Set<K> existingKeys = getAllNodeKeys();
+            final Set<K> _expandedKeys = new HashSet<K>();
+            // Interactions with an end which may be expanded by the results not arrived yet
+            final List<Interaction<K>> pending = new ArrayList<Interaction<K>>();
+            final boolean directed = is.isDirected();
+            boolean completed = query(is, keys, new Results<K>() {
+                @Override
+                public void add(Set<Interaction<K>> interactions) {
+                    for (Interaction<K> i : interactions) {
+                        K sourceKey = i.getSourceKey();
+                        if (directed && !keys.contains(sourceKey)) {
+                            _expandedKeys.add(sourceKey);
+                        }
+                        K targetKey = i.getTargetKey();
+                        if (!keys.contains(targetKey)) {
+                            _expandedKeys.add(targetKey);
+                        }
                     }
+                    publish(select(interactions, existingKeys, _expandedKeys, pending));
                 }
+            });
+            if (!completed) {
+                return false;
             }
-            interactions.addAll(super.query(is, _expandedKeys));
-            Set<K> existingKeys = getAllNodeKeys();
-            for (Iterator<Interaction<K>> interactionIter = interactions.iterator(); interactionIter.hasNext();) {
-                Interaction<K> i = interactionIter.next();
+            publish(select(pending, existingKeys, _expandedKeys, null));
+            return query(is, _expandedKeys, new Results<K>() {
+                @Override
+                public void add(Set<Interaction<K>> interactions) {
+                    publish(select(interactions, existingKeys, _expandedKeys, null));
+                }
+            });
+        }
+
+        /**
+         * Select the interactions between existing or expanded nodes, and keep
+         * the expanded nodes of each existing node for the layout.
+         *
+         * @param pending where to add the interactions with an end neither
+         * existing nor expanded, or null to drop them
+         */
+        private Set<Interaction<K>> select(Collection<Interaction<K>> interactions,
+                Set<K> existingKeys, Set<K> _expandedKeys, List<Interaction<K>> pending) {
+            Set<Interaction<K>> selected = new HashSet<Interaction<K>>();
+            for (Interaction<K> i : interactions) {
                 K sourceKey = i.getSourceKey();
                 K targetKey = i.getTargetKey();
                 if ((!existingKeys.contains(sourceKey) && !_expandedKeys.contains(sourceKey))
                         || (!existingKeys.contains(targetKey) && !_expandedKeys.contains(targetKey))) {
-                    interactionIter.remove();
-                } else if (existingKeys.contains(sourceKey) && !existingKeys.contains(targetKey)) {
+                    if (pending != null) {
+                        pending.add(i);
+                    }
+                    continue;
+                }
+                selected.add(i);
+                if (existingKeys.contains(sourceKey) && !existingKeys.contains(targetKey)) {
                     List<K> _keys = expandedKeys.get(sourceKey);
                     if (_keys == null) {
                         expandedKeys.put(sourceKey, _keys = new ArrayList<K>());
@@ -379,7 +407,7 @@ public class InteractionControllerImpl implements InteractionController {
                     _keys.add(sourceKey);
                 }
             }
-            return interactions;
+            return selected;
         }
         private final Map<K, List<K>> expandedKeys = new HashMap<K, List<K>>();
 
@@ -399,9 +427,9 @@ public class InteractionControllerImpl implements InteractionController {
 
         @Override
         protected void queryFinished(boolean success) {
-            super.queryFinished(success);
             m.setLinked(success && linked);
-            if (success && !expandedKeys.isEmpty()) {
+            // Layout also the nodes expanded before canceled
+            if (!expandedKeys.isEmpty()) {
                 Lookup.getDefault().lookup(ExpandingLayout.class).layout(m.getDisplay(), getLayoutReferers());
             }
             expandedKeys.clear();
@@ -435,21 +463,24 @@ public class InteractionControllerImpl implements InteractionController {
         }
 
         @Override
-        protected Set<Interaction<K>> query(InteractionSource<K> is, Set<K> keys) throws Exception {
-            Set<Interaction<K>> interactions = super.query(is, keys);
-            for (Iterator<Interaction<K>> interactionIter = interactions.iterator(); interactionIter.hasNext();) {
-                Interaction<K> i = interactionIter.next();
-                // Keys are keys of all nodes
-                if (!keys.contains(i.getSourceKey()) || !keys.contains(i.getTargetKey())) {
-                    interactionIter.remove();
+        protected boolean query(InteractionSource<K> is, final Set<K> keys) throws Exception {
+            return query(is, keys, new Results<K>() {
+                @Override
+                public void add(Set<Interaction<K>> interactions) {
+                    for (Iterator<Interaction<K>> interactionIter = interactions.iterator(); interactionIter.hasNext();) {
+                        Interaction<K> i = interactionIter.next();
+                        // Keys are keys of all nodes
+                        if (!keys.contains(i.getSourceKey()) || !keys.contains(i.getTargetKey())) {
+                            interactionIter.remove();
+                        }
+                    }
+                    publish(interactions);
                 }
-            }
-            return interactions;
+            });
         }
 
         @Override
         protected void queryFinished(boolean success) {
-            super.queryFinished(success);
             m.setLinked(success);
         }
 
@@ -463,16 +494,21 @@ public class InteractionControllerImpl implements InteractionController {
 
         protected final SourceModelImpl m;
         protected final String keyField;
+        private final QueryScheduler scheduler;
         private ProgressTicket progressTicket;
 
         Query(SourceModelImpl m, String keyField) {
             this.m = m;
             this.keyField = keyField;
+            Preferences prefs = NbPreferences.forModule(InteractionController.class);
+            scheduler = new QueryScheduler(QUERY_EXECUTOR,
+                    prefs.getInt(QUERY_PARALLELISM, 4), prefs.getInt(QUERY_BATCH_SIZE, 100));
         }
 
         @Override
         public boolean cancel() {
-            return false;
+            scheduler.cancel();
+            return true;
         }
 
         @Override
@@ -480,51 +516,74 @@ public class InteractionControllerImpl implements InteractionController {
             this.progressTicket = progressTicket;
         }
 
-        private void annotateNodes(Set<K> keys) throws Exception {
-            final Graph g = m.getDisplay().getGraph();
+        private boolean annotateNodes(Set<K> keys) throws Exception {
+            Graph g = m.getDisplay().getGraph();
             final InteractionSource<K> is = m.getInteractionSource();
+            final Cache<K> cache = caches.get(is);
             addAttributeColumns(g.getNodeTable(), is.getAnnotationSchema(), is.getName());
-            final Map<K, Attribute.Set> results = caches.get(is).annotate(keys);
+            Map<K, Attribute.Set> results = cache.annotate(keys);
+            applyAnnotations(results);
             keys.removeAll(results.keySet());
-            Map<K, Attribute.Set> qResults = is.annotate(keys.toArray((K[]) Array.newInstance(is.getKeyType(), 0)));
-            for (K k : qResults.keySet()) {
-                Attribute.Set attributes = qResults.get(k);
-                results.put(k, attributes);
-                caches.get(is).put(k, attributes);
-                keys.remove(k);
-            }
-            // Caching keys with no attributes
-            for (K k : keys) {
-                caches.get(is).put(k, NO_ATTRIBUTES);
-            }
+            return scheduler.execute(keys, is.getKeyType(), new QueryScheduler.Batch<K, Attribute.Set>() {
+                @Override
+                public Map<K, Attribute.Set> query(K[] batch) throws Exception {
+                    Map<K, Attribute.Set> qResults = is.annotate(batch);
+                    for (K k : qResults.keySet()) {
+                        cache.put(k, qResults.get(k));
+                    }
+                    // Caching keys with no attributes
+                    for (K k : batch) {
+                        if (!qResults.containsKey(k)) {
+                            cache.put(k, NO_ATTRIBUTES);
+                        }
+                    }
+                    return qResults;
+                }
+            }, new QueryScheduler.Consumer<K, Attribute.Set>() {
+                @Override
+                public void consume(Map<K, Attribute.Set> results, int remaining) {
+                    Progress.progress(progressTicket, "Annotating nodes, " + remaining + " batches remaining");
+                    applyAnnotations(results);
+                }
+            });
+        }
+
+        private void applyAnnotations(final Map<K, Attribute.Set> results) {
+            final Graph g = m.getDisplay().getGraph();
+            final InteractionSource<K> is = m.getInteractionSource();
             m.getDisplay().getVisualization().process(new Runnable() {
                 @Override
                 public void run() {
-                    for (K k : results.keySet()) {
-                        for (Iterator<Integer> nodeIter =
-                                DataLib.rows(g.getNodeTable(), keyField, k); nodeIter.hasNext();) {
-                            Node n = g.getNode(nodeIter.next());
-                            Attribute.Set attributes = results.get(k);
-                            for (Attribute a : attributes) {
-                                String name = getAttributeName(a.getName(), is.getName());
-                                if (n.getColumnIndex(name) < 0) {
-                                    Logger.getLogger(getClass().getName()).log(Level.WARNING,
-                                            "Annotation schema of {0} does not contain the attribute name: {1}", new String[]{is.getName(), a.getName()});
-                                    continue;
+                    g.getNodeTable().beginBatch();
+                    try {
+                        for (K k : results.keySet()) {
+                            for (Iterator<Integer> nodeIter =
+                                    DataLib.rows(g.getNodeTable(), keyField, k); nodeIter.hasNext();) {
+                                Node n = g.getNode(nodeIter.next());
+                                Attribute.Set attributes = results.get(k);
+                                for (Attribute a : attributes) {
+                                    String name = getAttributeName(a.getName(), is.getName());
+                                    if (n.getColumnIndex(name) < 0) {
+                                        Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                                                "Annotation schema of {0} does not contain the attribute name: {1}", new String[]{is.getName(), a.getName()});
+                                        continue;
+                                    }
+                                    n.set(name, a.getValue());
                                 }
-                                n.set(name, a.getValue());
-                            }
-                            // Update label fields of expanded nodes
-                            String graphLabel = g.getNodeLabelField();
-                            String sourceLabel = is.getAnnotationSchema().getLabelField();
-                            if (sourceLabel != null && graphLabel != null && n.getString(graphLabel) == null) {
-                                if (g.getNodeTable().getColumnType(graphLabel) == String.class) {
-                                    n.setString(graphLabel, attributes.getValue(sourceLabel).toString());
-                                } else if (g.getNodeTable().getColumnType(graphLabel) == is.getAnnotationSchema().getColumnType(sourceLabel)) {
-                                    n.set(graphLabel, attributes.getValue(sourceLabel));
+                                // Update label fields of expanded nodes
+                                String graphLabel = g.getNodeLabelField();
+                                String sourceLabel = is.getAnnotationSchema().getLabelField();
+                                if (sourceLabel != null && graphLabel != null && n.getString(graphLabel) == null) {
+                                    if (g.getNodeTable().getColumnType(graphLabel) == String.class) {
+                                        n.setString(graphLabel, attributes.getValue(sourceLabel).toString());
+                                    } else if (g.getNodeTable().getColumnType(graphLabel) == is.getAnnotationSchema().getColumnType(sourceLabel)) {
+                                        n.set(graphLabel, attributes.getValue(sourceLabel));
+                                    }
                                 }
                             }
                         }
+                    } finally {
+                        g.getNodeTable().commitBatch();
                     }
                 }
             });
@@ -568,60 +627,104 @@ public class InteractionControllerImpl implements InteractionController {
             return null;
         }
 
-        protected Set<Interaction<K>> query(InteractionSource<K> is, Set<K> keys) throws Exception {
-            Map<K, Set<Interaction<K>>> results = caches.get(is).query(keys);
-            List<K> _keys = new ArrayList<K>(keys);
-            _keys.removeAll(results.keySet());
-            Map<K, Set<Interaction<K>>> qResults = is.query(_keys.toArray((K[]) Array.newInstance(is.getKeyType(), _keys.size())));
-            for (K k : qResults.keySet()) {
-                Set<Interaction<K>> result = qResults.get(k);
-                results.put(k, Collections.unmodifiableSet(result));
-                caches.get(is).put(k, result);
-                _keys.remove(k);
-            }
-            // Caching keys with no interactions
-            for (K k : _keys) {
-                results.put(k, NO_INTERACTIONS);
-                caches.get(is).put(k, NO_INTERACTIONS);
+        /**
+         * Query interactions of the given keys and add them into the graph.
+         *
+         * @return false if the query has been canceled
+         */
+        protected abstract boolean query(InteractionSource<K> is, Set<K> keys) throws Exception;
+
+        /**
+         * Query interactions of the given keys in concurrent batches, and hand
+         * the new interactions of each batch to the results as it arrives,
+         * beginning with the cached ones.
+         *
+         * @return false if the query has been canceled
+         */
+        protected final boolean query(final InteractionSource<K> is, Set<K> keys, final Results<K> results) throws Exception {
+            final Cache<K> cache = caches.get(is);
+            Map<K, Set<Interaction<K>>> cached = cache.query(keys);
+            Set<Interaction<K>> interactions = collect(cached.values());
+            if (!interactions.isEmpty()) {
+                results.add(interactions);
             }
+            List<K> _keys = new ArrayList<K>(keys);
+            _keys.removeAll(cached.keySet());
+            boolean completed = scheduler.execute(_keys, is.getKeyType(), new QueryScheduler.Batch<K, Set<Interaction<K>>>() {
+                @Override
+                public Map<K, Set<Interaction<K>>> query(K[] batch) throws Exception {
+                    Map<K, Set<Interaction<K>>> qResults = is.query(batch);
+                    for (K k : qResults.keySet()) {
+                        cache.put(k, qResults.get(k));
+                    }
+                    // Caching keys with no interactions
+                    for (K k : batch) {
+                        if (!qResults.containsKey(k)) {
+                            cache.put(k, NO_INTERACTIONS);
+                        }
+                    }
+                    return qResults;
+                }
+            }, new QueryScheduler.Consumer<K, Set<Interaction<K>>>() {
+                @Override
+                public void consume(Map<K, Set<Interaction<K>>> qResults, int remaining) {
+                    Progress.progress(progressTicket, remaining + " batches remaining");
+                    Set<Interaction<K>> interactions = collect(qResults.values());
+                    if (!interactions.isEmpty()) {
+                        results.add(interactions);
+                    }
+                }
+            });
+            Logger.getLogger(InteractionControllerImpl.class.getName()).log(Level.FINE,
+                    "Cache of {0}: {1}", new Object[]{is.getName(), cache});
+            return completed;
+        }
+        protected final Set<Interaction<K>> NO_INTERACTIONS = Collections.unmodifiableSet(new HashSet<Interaction<K>>());
+
+        private Set<Interaction<K>> collect(Collection<Set<Interaction<K>>> results) {
             // Remove duplicated interactions using equals() and hash()
             Set<Interaction<K>> interactions = new HashSet<Interaction<K>>();
-            for (K k : results.keySet()) {
-                interactions.addAll(results.get(k));
+            for (Set<Interaction<K>> result : results) {
+                interactions.addAll(result);
             }
-            // Remove already added interactions
+            // Remove already added or handed interactions
             interactions.removeAll(m.getInteractions());
+            interactions.removeAll(handed);
+            handed.addAll(interactions);
             return interactions;
         }
-        protected final Set<Interaction<K>> NO_INTERACTIONS = Collections.unmodifiableSet(new HashSet<Interaction<K>>());
+        private final Set<Interaction<K>> handed = new HashSet<Interaction<K>>();
 
         protected abstract void addNodes(Set<Interaction<K>> interactions, Graph g);
 
-        @Override
-        public void run() {
-            Progress.setDisplayName(progressTicket, "Querying interactions from " + m.getInteractionSource().getName());
-            Progress.start(progressTicket);
-            try {
-                final InteractionSource<K> is = m.getInteractionSource();
-                final Set<Interaction<K>> interactions = query(is, getQueryKeys());
-                final Visualization v = m.getDisplay().getVisualization();
-                v.process(new Runnable() {
-                    @Override
-                    public void run() {
-                        Graph g = m.getDisplay().getGraph();
-                        addNodes(interactions, g);
-                        // Add columns for attributes of the interaction
-                        if (g.getEdgeTable().getColumn(InteractionSource.FIELD) == null) {
-                            g.getEdgeTable().addColumn(InteractionSource.FIELD, String.class, null);
-                        }
-                        addAttributeColumns(g.getEdgeTable(), is.getInteractionSchema(), null);
-                        for (Interaction<K> i : interactions) {
-                            for (Iterator<Integer> sourceIter =
-                                    DataLib.rows(g.getNodeTable(), keyField, i.getSourceKey()); sourceIter.hasNext();) {
-                                Node source = g.getNode(sourceIter.next());
-                                for (Iterator<Integer> targetIter =
-                                        DataLib.rows(g.getNodeTable(), keyField, i.getTargetKey()); targetIter.hasNext();) {
-                                    Node target = g.getNode(targetIter.next());
+        /**
+         * Add the given interactions into the graph and draw them, while the
+         * remaining batches are still being queried.
+         */
+        protected final void publish(final Set<Interaction<K>> interactions) {
+            if (interactions.isEmpty()) {
+                return;
+            }
+            final InteractionSource<K> is = m.getInteractionSource();
+            final Visualization v = m.getDisplay().getVisualization();
+            final List<EdgeItem> addedEdgeItems = new ArrayList<EdgeItem>();
+            v.process(new Runnable() {
+                @Override
+                public void run() {
+                    Graph g = m.getDisplay().getGraph();
+                    addNodes(interactions, g);
+                    // Add columns for attributes of the interaction
+                    if (g.getEdgeTable().getColumn(InteractionSource.FIELD) == null) {
+                        g.getEdgeTable().addColumn(InteractionSource.FIELD, String.class, null);
+                    }
+                    addAttributeColumns(g.getEdgeTable(), is.getInteractionSchema(), null);
+                    for (Interaction<K> i : interactions) {
+                        for (Iterator<Integer> sourceIter =
+                                DataLib.rows(g.getNodeTable(), keyField, i.getSourceKey()); sourceIter.hasNext();) {
+                            Node source = g.getNode(sourceIter.next());
+                            for (Iterator<Integer> targetIter =
+                                    DataLib.rows(g.getNodeTable(), keyField, i.getTargetKey()); targetIter.hasNext();) {
+                                Node target = g.getNode(targetIter.next());
 //                                    if (interactor.hasAttributes()) {
 //                                        for (Attribute a : interactor.getAttributes()) {
 //                                            String name = getAttributeName(a.getName(), is.getName());
@@ -633,57 +736,69 @@ public class InteractionControllerImpl implements InteractionController {
 //                                            target.set(name, a.getValue());
 //                                        }
 //                                    }
-                                    Edge e = getExistingEdge(g, i, source, target);
-                                    if (e == null) {
-                                        e = g.addEdge(source, target);
-                                        addedEdgeItems.add((EdgeItem) v.getVisualItem(Constants.EDGES, e));
+                                Edge e = getExistingEdge(g, i, source, target);
+                                if (e == null) {
+                                    e = g.addEdge(source, target);
+                                    addedEdgeItems.add((EdgeItem) v.getVisualItem(Constants.EDGES, e));
+                                }
+                                m.addInteraction(i, e);
+                                for (Attribute a : i.getAttributeSet().getList()) {
+                                    String name = getAttributeName(a.getName(), null);
+                                    if (e.getColumnIndex(name) < 0) {
+                                        Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                                                "Interaction schema of {0} does not contain the attribute name: {1}", new String[]{is.getName(), name});
+                                        continue;
                                     }
-                                    m.addInteraction(i, e);
-                                    for (Attribute a : i.getAttributeSet().getList()) {
-                                        String name = getAttributeName(a.getName(), null);
-                                        if (e.getColumnIndex(name) < 0) {
-                                            Logger.getLogger(getClass().getName()).log(Level.WARNING,
-                                                    "Interaction schema of {0} does not contain the attribute name: {1}", new String[]{is.getName(), name});
-                                            continue;
-                                        }
-                                        if (a.getType() == String[].class) {
-                                            //Multi-valued column
-                                            e.setString(getAttributeName(a.getName(), null),
-                                                    StringLib.concatStringArray((String[]) a.getValue(), Column.MULTI_VAL_SEPARATOR));
-                                        } else {
-                                            e.set(getAttributeName(a.getName(), null), a.getValue());
-                                        }
+                                    if (a.getType() == String[].class) {
+                                        //Multi-valued column
+                                        e.setString(getAttributeName(a.getName(), null),
+                                                StringLib.concatStringArray((String[]) a.getValue(), Column.MULTI_VAL_SEPARATOR));
+                                    } else {
+                                        e.set(getAttributeName(a.getName(), null), a.getValue());
                                     }
-                                    e.setString(InteractionSource.FIELD, is.getName());
                                 }
+                                e.setString(InteractionSource.FIELD, is.getName());
                             }
                         }
                     }
-                });
-                annotateNodes(getAllNodeKeys());
-                m.getDisplay().fireGraphChangedEvent();
-                queryFinished(true);
-            } catch (Exception ex) {
-                Logger.getLogger(Link.class.getName()).log(Level.SEVERE, null, ex);
-                ErrorManager.getDefault().notify(ex);
-                queryFinished(false);
-            } finally {
-                Progress.finish(progressTicket);
-            }
-        }
-
-        protected void queryFinished(boolean success) {
-            VisualStyle<EdgeItem> edgeStyle = getEdgeVisualStyle(m.getInteractionSource());
+                }
+            });
+            VisualStyle<EdgeItem> edgeStyle = getEdgeVisualStyle(is);
             for (EdgeItem e : addedEdgeItems) {
                 for (String field : VisualStyle.FIELDS) {
                     // Just assign the value without repainting
                     edgeStyle.assign(field, e);
                 }
             }
-            addedEdgeItems.clear();
-            m.getDisplay().getVisualization().rerun(DRAW);
+            v.rerun(DRAW);
+        }
+
+        @Override
+        public void run() {
+            Progress.setDisplayName(progressTicket, "Querying interactions from " + m.getInteractionSource().getName());
+            Progress.start(progressTicket);
+            boolean completed = false;
+            try {
+                completed = query(m.getInteractionSource(), getQueryKeys()) && annotateNodes(getAllNodeKeys());
+            } catch (Exception ex) {
+                if (!scheduler.isCanceled()) {
+                    Logger.getLogger(Link.class.getName()).log(Level.SEVERE, null, ex);
+                    ErrorManager.getDefault().notify(ex);
+                }
+            } finally {
+                // Results of the finished batches are in the graph even if not completed
+                m.getDisplay().fireGraphChangedEvent();
+                queryFinished(completed);
+                Progress.finish(progressTicket);
+            }
         }
-        private final List<EdgeItem> addedEdgeItems = new ArrayList<EdgeItem>();
+
+        protected abstract void queryFinished(boolean success);
+    }
+
+    private interface Results<K> {
+
+        void add(Set<Interaction<K>> interactions);
     }
 
     private void addAttributeColumns(Table into, Schema s, String prefix) {
@@ -712,53 +827,95 @@ public class InteractionControllerImpl implements InteractionController {
         return (prefix == null || prefix.length() == 0) ? name : prefix + "_" + name;
     }
 
-    private class Cache<K> {
+    private static final String QUERY_PARALLELISM = "queryParallelism";
+    private static final String QUERY_BATCH_SIZE = "queryBatchSize";
+    /**
+     * Runs the batches of all queries, each query limiting its own batches in
+     * flight to <code>queryParallelism</code> of the module preferences.
+     */
+    private static final ExecutorService QUERY_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Interaction Query");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private static final String CACHE_MAX_WEIGHT = "cacheMaxWeight";
+    private static final String CACHE_TIME_TO_LIVE = "cacheTimeToLive";
+    private static final String CACHE_ON_DISK = "cacheOnDisk";
+    private static final String CACHE_MAX_DISK_SIZE = "cacheMaxDiskSize";
+
+    /**
+     * Results of queries to an interaction source, bounded in memory by the
+     * number of interactions and attributes, and kept on disk across sessions
+     * for the sources other than graphs. The limits are read from the module
+     * preferences: <code>cacheMaxWeight</code>, <code>cacheTimeToLive</code>
+     * in hours, <code>cacheOnDisk</code> and <code>cacheMaxDiskSize</code> in
+     * megabytes for each kind of results of a source.
+     */
+    private static class Cache<K> {
+
+        final QueryCache<K, Set<Interaction<K>>> interactionLookup;
+        final QueryCache<K, Attribute.Set> attributeLookup;
+
+        Cache(InteractionSource<K> is) {
+            Preferences prefs = NbPreferences.forModule(InteractionController.class);
+            long maxWeight = prefs.getLong(CACHE_MAX_WEIGHT, 500000);
+            long timeToLive = prefs.getLong(CACHE_TIME_TO_LIVE, 24 * 7) * 60 * 60 * 1000;
+            boolean onDisk = prefs.getBoolean(CACHE_ON_DISK, true) && !(is instanceof GraphSource);
+            long maxDiskSize = prefs.getLong(CACHE_MAX_DISK_SIZE, 64) * 1024 * 1024;
+            interactionLookup = new QueryCache<K, Set<Interaction<K>>>(
+                    new QueryCache.Weigher<Set<Interaction<K>>>() {
+                        @Override
+                        public int weigh(Set<Interaction<K>> interactions) {
+                            return 1 + interactions.size();
+                        }
+                    }, maxWeight, timeToLive, onDisk ? getDiskStore(is, "interactions", maxDiskSize) : null);
+            attributeLookup = new QueryCache<K, Attribute.Set>(
+                    new QueryCache.Weigher<Attribute.Set>() {
+                        @Override
+                        public int weigh(Attribute.Set attributes) {
+                            return 1 + attributes.getList().size();
+                        }
+                    }, maxWeight, timeToLive, onDisk ? getDiskStore(is, "annotations", maxDiskSize) : null);
+        }
 
-        Map<K, Set<Interaction<K>>> interactionLookup = new HashMap<K, Set<Interaction<K>>>();
-        Map<K, Attribute.Set> attributeLookup = new HashMap<K, Attribute.Set>();
+        private static DiskStore getDiskStore(InteractionSource is, String kind, long maxSize) {
+            String userDir = System.getProperty("netbeans.user");
+            if (userDir == null) {
+                return null;
+            }
+            File dir = new File(userDir, "var" + File.separator + "cache" + File.separator + "interactions");
+            dir = new File(dir, is.getName().replaceAll("[^A-Za-z0-9._-]", "_"));
+            return new DiskStore(new File(dir, kind), maxSize);
+        }
 
         public boolean put(K k, Set<Interaction<K>> interactions) {
-            if (interactionLookup.containsKey(k)) {
-                return false;
-            }
-            interactionLookup.put(k, interactions);
-            return true;
+            return interactionLookup.put(k, interactions);
         }
 
         public boolean put(K k, Attribute.Set attributes) {
-            if (attributeLookup.containsKey(k)) {
-                return false;
-            }
-            attributeLookup.put(k, attributes);
-            return true;
+            return attributeLookup.put(k, attributes);
         }
 
         public Map<K, Set<Interaction<K>>> query(Set<K> keys) {
-            Map<K, Set<Interaction<K>>> results = new HashMap<K, Set<Interaction<K>>>();
-            for (Iterator<K> keyIter = keys.iterator(); keyIter.hasNext();) {
-                K key = keyIter.next();
-                if (interactionLookup.containsKey(key)) {
-                    results.put(key, interactionLookup.get(key));
-                }
-            }
-            return results;
+            return interactionLookup.getAll(keys);
         }
 
         public Map<K, Attribute.Set> annotate(Set<K> keys) {
-            Map<K, Attribute.Set> results = new HashMap<K, Attribute.Set>();
-            for (Iterator<K> keyIter = keys.iterator(); keyIter.hasNext();) {
-                K key = keyIter.next();
-                if (attributeLookup.containsKey(key)) {
-                    results.put(key, attributeLookup.get(key));
-                }
-            }
-            return results;
+            return attributeLookup.getAll(keys);
         }
 
         public void clear() {
             interactionLookup.clear();
             attributeLookup.clear();
         }
+
+        @Override
+        public String toString() {
+            return "interactions: " + interactionLookup + ", annotations: " + attributeLookup;
+        }
     }
 
     @Override
@@ -778,7 +935,7 @@ public class InteractionControllerImpl implements InteractionController {
         SourceModelImpl m = new SourceModelImpl(d, gs);
         d.add(m);
         models.put(gs, m);
-        caches.put(gs, new Cache());
+        caches.put(gs, new Cache(gs));
         sourcesByCategory.get(CATEGORY_OTHERS).add(gs);
         GraphSource.getPersistence().save(gs);
         if (listeners.containsKey(d)) {
@@ -0,0 +1,224 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.im.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Least recently used cache of query results bounded by the total weight of
+ * the results in memory, for example the number of interactions, rather than
+ * by the number of keys. Results expire after a time to live, and are written
+ * through to an optional {@link DiskStore} from which they are read back when
+ * missed in memory, also after a restart.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class QueryCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+    private final Weigher<V> weigher;
+    private final long maxWeight;
+    private final long timeToLive;
+    private final DiskStore store;
+    private long weight;
+    private long hitCount, diskHitCount, missCount, evictionCount;
+
+    /**
+     * @param weigher the weight of a result, at least 1
+     * @param maxWeight the maximum total weight of the results in memory
+     * @param timeToLive the time in milliseconds after which a result expires,
+     * or 0 to keep results until they are evicted
+     * @param store the store to write results through, or null to keep them
+     * only in memory
+     */
+    QueryCache(Weigher<V> weigher, long maxWeight, long timeToLive, DiskStore store) {
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+        this.timeToLive = timeToLive;
+        this.store = store;
+    }
+
+    private long now() {
+        return System.currentTimeMillis();
+    }
+
+    private long notBefore() {
+        return timeToLive > 0 ? now() - timeToLive : Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the result of the key, or null if it is not cached or has
+     * expired
+     */
+    V get(K key) {
+        long notBefore = notBefore();
+        synchronized (this) {
+            Entry<V> e = entries.get(key);
+            if (e != null) {
+                if (e.time >= notBefore) {
+                    hitCount++;
+                    return e.value;
+                }
+                remove(key);
+            }
+        }
+        if (store != null) {
+            DiskStore.Record record = store.read(key, notBefore);
+            if (record != null) {
+                V value = (V) record.value;
+                synchronized (this) {
+                    diskHitCount++;
+                    add(key, new Entry<V>(value, record.time, weigher.weigh(value)));
+                }
+                return value;
+            }
+        }
+        synchronized (this) {
+            missCount++;
+        }
+        return null;
+    }
+
+    /**
+     * @return the cached results of the given keys
+     */
+    Map<K, V> getAll(Set<K> keys) {
+        Map<K, V> results = new HashMap<K, V>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                results.put(key, value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Cache the result of the key, replacing an expired one.
+     *
+     * @return false if a result of the key is already cached
+     */
+    boolean put(K key, V value) {
+        long time = now();
+        synchronized (this) {
+            Entry<V> e = entries.get(key);
+            if (e != null && e.time >= notBefore()) {
+                return false;
+            }
+            add(key, new Entry<V>(value, time, weigher.weigh(value)));
+        }
+        if (store != null) {
+            store.write(key, value, time);
+        }
+        return true;
+    }
+
+    private void add(K key, Entry<V> e) {
+        Entry<V> old = entries.put(key, e);
+        if (old != null) {
+            weight -= old.weight;
+        }
+        weight += e.weight;
+        for (Iterator<Map.Entry<K, Entry<V>>> iter = entries.entrySet().iterator();
+                weight > maxWeight && iter.hasNext();) {
+            Map.Entry<K, Entry<V>> eldest = iter.next();
+            if (eldest.getKey().equals(key)) {
+                // a single result heavier than the cache is still kept
+                continue;
+            }
+            weight -= eldest.getValue().weight;
+            iter.remove();
+            evictionCount++;
+        }
+    }
+
+    private void remove(K key) {
+        Entry<V> e = entries.remove(key);
+        if (e != null) {
+            weight -= e.weight;
+        }
+    }
+
+    /**
+     * Remove all results from memory and from the disk store.
+     */
+    void clear() {
+        synchronized (this) {
+            entries.clear();
+            weight = 0;
+        }
+        if (store != null) {
+            store.clear();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long requests = hitCount + diskHitCount + missCount;
+        return String.format("%d results, weight %d/%d, hits %d (disk %d) of %d requests (%.1f%%), %d evicted",
+                entries.size(), weight, maxWeight, hitCount + diskHitCount, diskHitCount, requests,
+                requests > 0 ? 100.0 * (hitCount + diskHitCount) / requests : 0.0, evictionCount);
+    }
+
+    interface Weigher<V> {
+
+        int weigh(V value);
+    }
+
+    private static class Entry<V> {
+
+        final V value;
+        final long time;
+        final int weight;
+
+        Entry(V value, long time, int weight) {
+            this.value = value;
+            this.time = time;
+            this.weight = weight;
+        }
+    }
+}
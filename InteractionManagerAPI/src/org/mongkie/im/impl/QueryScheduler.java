@@ -0,0 +1,166 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.im.impl;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the keys of a query into batches and runs them concurrently, handing
+ * the result of each batch to the calling thread as soon as it arrives.
+ * <p>
+ * At most <code>parallelism</code> batches are queried at a time, and no new
+ * batch is started until the result of a finished one has been consumed, so a
+ * slow consumer such as the graph update holds back the queries instead of
+ * piling up results in memory.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class QueryScheduler {
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int batchSize;
+    private final List<Future<?>> running = new ArrayList<Future<?>>();
+    private volatile boolean canceled = false;
+
+    /**
+     * @param executor the executor which runs the batches
+     * @param parallelism the maximum number of batches queried at a time
+     * @param batchSize the maximum number of keys in a batch
+     */
+    QueryScheduler(Executor executor, int parallelism, int batchSize) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Query the given keys in batches, blocking until all batches are
+     * consumed, the scheduler is canceled or a batch fails.
+     *
+     * @param keys the keys to query
+     * @param keyType the type of keys for the arrays passed to the batches
+     * @param batch the query of a batch of keys
+     * @param consumer called in the calling thread with the result of each
+     * batch in the order of arrival
+     * @return false if canceled before all results were consumed
+     * @throws Exception the exception of the first failed batch or of the
+     * consumer, after the other running batches are canceled
+     */
+    <K, R> boolean execute(Collection<K> keys, Class<K> keyType, final Batch<K, R> batch, Consumer<K, R> consumer)
+            throws Exception {
+        List<K[]> batches = new ArrayList<K[]>();
+        List<K> all = new ArrayList<K>(keys);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<K> sub = all.subList(from, Math.min(from + batchSize, all.size()));
+            batches.add(sub.toArray((K[]) Array.newInstance(keyType, sub.size())));
+        }
+        CompletionService<Map<K, R>> completion = new ExecutorCompletionService<Map<K, R>>(executor);
+        int next = 0, inFlight = 0;
+        try {
+            while (!canceled && (next < batches.size() || inFlight > 0)) {
+                while (!canceled && next < batches.size() && inFlight < parallelism) {
+                    final K[] batchKeys = batches.get(next++);
+                    Future<Map<K, R>> f = completion.submit(new Callable<Map<K, R>>() {
+                        @Override
+                        public Map<K, R> call() throws Exception {
+                            return batch.query(batchKeys);
+                        }
+                    });
+                    synchronized (running) {
+                        running.add(f);
+                    }
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                Future<Map<K, R>> done = completion.take();
+                inFlight--;
+                synchronized (running) {
+                    running.remove(done);
+                }
+                if (done.isCancelled()) {
+                    continue;
+                }
+                Map<K, R> results;
+                try {
+                    results = done.get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof Exception) {
+                        throw (Exception) ex.getCause();
+                    }
+                    throw ex;
+                }
+                if (!canceled) {
+                    consumer.consume(results, batches.size() - next + inFlight);
+                }
+            }
+        } finally {
+            cancelRunning();
+        }
+        return !canceled;
+    }
+
+    /**
+     * Stop starting batches and interrupt the running ones. The thread
+     * blocked in {@link #execute} returns without consuming more results.
+     */
+    void cancel() {
+        canceled = true;
+        cancelRunning();
+    }
+
+    boolean isCanceled() {
+        return canceled;
+    }
+
+    private void cancelRunning() {
+        synchronized (running) {
+            for (Future<?> f : running) {
+                f.cancel(true);
+            }
+            running.clear();
+        }
+    }
+
+    interface Batch<K, R> {
+
+        Map<K, R> query(K[] keys) throws Exception;
+    }
+
+    interface Consumer<K, R> {
+
+        /**
+         * @param results the results of a batch
+         * @param remaining the number of batches not consumed yet
+         */
+        void consume(Map<K, R> results, int remaining) throws Exception;
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.mongkie.im.spi;
 
+import java.io.Serializable;
 import java.util.List;
 import kobic.prefuse.data.Attribute;
 import prefuse.data.Edge;
@@ -49,7 +50,7 @@ public interface Interaction<K> {
      */
     public boolean identicalWith(Edge e);
 
-    public static class Interactor<K> {
+    public static class Interactor<K> implements Serializable {
 
         private final K key;
         private final Attribute.Set attributes;
@@ -0,0 +1,392 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.im.impl;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import kobic.prefuse.data.Attribute;
+import kobic.prefuse.data.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mongkie.im.spi.Interaction;
+import org.mongkie.im.spi.InteractionAction;
+import org.mongkie.im.spi.InteractionSource;
+import org.mongkie.mimi.MiMI;
+import org.mongkie.mimi.MiMI.InteractionElement;
+import org.mongkie.mimi.MiMI.PPI;
+import prefuse.data.Edge;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class QueryCacheTest {
+
+    private static final QueryCache.Weigher<Set<Interaction<String>>> WEIGHER =
+            new QueryCache.Weigher<Set<Interaction<String>>>() {
+                @Override
+                public int weigh(Set<Interaction<String>> interactions) {
+                    return 1 + interactions.size();
+                }
+            };
+    private File dir;
+
+    @Before
+    public void setUp() {
+        dir = new File(System.getProperty("java.io.tmpdir"), "QueryCacheTest-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        new DiskStore(dir).clear();
+    }
+
+    @Test
+    public void testEviction() {
+        QueryCache<String, Set<Interaction<String>>> cache =
+                new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 10, 0, null);
+        LocalSource source = new LocalSource(100, 0);
+        for (int i = 0; i < 3; i++) {
+            // weighs 4 each
+            assertTrue(cache.put("g" + i, source.interactions("g" + i)));
+        }
+        assertFalse(cache.put("g2", source.interactions("g2")));
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getWeight());
+        assertNull(cache.get("g0"));
+        assertNotNull(cache.get("g1"));
+        // g1 is now more recently used than g2
+        cache.put("g3", source.interactions("g3"));
+        assertNull(cache.get("g2"));
+        assertNotNull(cache.get("g1"));
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testTimeToLive() throws InterruptedException {
+        QueryCache<String, Set<Interaction<String>>> cache =
+                new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 100, 50, null);
+        cache.put("g0", Collections.<Interaction<String>>emptySet());
+        assertNotNull(cache.get("g0"));
+        Thread.sleep(100);
+        assertNull(cache.get("g0"));
+        assertEquals(0, cache.getWeight());
+        assertTrue(cache.put("g0", Collections.<Interaction<String>>emptySet()));
+    }
+
+    @Test
+    public void testDiskStore() {
+        LocalSource source = new LocalSource(100, 0);
+        QueryCache<String, Set<Interaction<String>>> cache =
+                new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 100, 0, new DiskStore(dir));
+        cache.put("g1", source.interactions("g1"));
+        // a new session
+        cache = new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 100, 0, new DiskStore(dir));
+        assertEquals(source.interactions("g1"), cache.get("g1"));
+        assertEquals(1, cache.getDiskHitCount());
+        assertNull(cache.get("g2"));
+        // expired on disk
+        cache = new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 100, 1, new DiskStore(dir));
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException ex) {
+        }
+        assertNull(cache.get("g1"));
+    }
+
+    @Test
+    public void testDiskStoreCollision() {
+        // the same hash codes of the names and the keys
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        DiskStore store = new DiskStore(dir);
+        assertTrue(store.write("Aa", "a", 1));
+        assertTrue(store.write("BB", "b", 2));
+        assertEquals("a", store.read("Aa", 0).value);
+        assertEquals("b", store.read("BB", 0).value);
+        assertNull(store.read("C#", 0));
+        assertTrue(store.write("Aa", "c", 3));
+        assertEquals("c", store.read("Aa", 0).value);
+        assertEquals(2, dir.listFiles().length);
+        store.delete("Aa");
+        assertNull(store.read("Aa", 0));
+        assertEquals("b", store.read("BB", 0).value);
+    }
+
+    @Test
+    public void testDiskStoreSize() {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        DiskStore store = new DiskStore(dir, 10000);
+        for (int i = 0; i < 5; i++) {
+            store.write("g" + i, value, i);
+            // g0 used first, g4 last, long ago
+            for (File f : dir.listFiles()) {
+                if (f.lastModified() > 100000) {
+                    f.setLastModified(1000 * (i + 1));
+                }
+            }
+        }
+        long size = store.size();
+        assertTrue(size > 5000 && size <= 10000);
+        assertNotNull(store.read("g1", 0));
+        for (int i = 5; i < 20; i++) {
+            store.write("g" + i, value, i);
+            assertTrue(store.size() <= 10000);
+            assertNotNull(store.read("g" + i, 0));
+            if (i == 9) {
+                // down to three quarters, least recently used first
+                assertNull(store.read("g0", 0));
+                assertNull(store.read("g2", 0));
+                assertNotNull(store.read("g1", 0));
+                assertNotNull(store.read("g4", 0));
+            }
+        }
+        // the size is read again in a new session
+        assertEquals(store.size(), new DiskStore(dir, 10000).size());
+    }
+
+    @Test
+    public void testAnnotationsOnDisk() {
+        QueryCache.Weigher<Attribute.Set> weigher = new QueryCache.Weigher<Attribute.Set>() {
+            @Override
+            public int weigh(Attribute.Set attributes) {
+                return 1 + attributes.getList().size();
+            }
+        };
+        QueryCache<String, Attribute.Set> cache = new QueryCache<String, Attribute.Set>(weigher, 100, 0, new DiskStore(dir));
+        Attribute.Set attributes = new Attribute.Set();
+        attributes.add(new Attribute<String>("symbol", "G1"));
+        cache.put("g1", attributes);
+        cache = new QueryCache<String, Attribute.Set>(weigher, 100, 0, new DiskStore(dir));
+        assertEquals("G1", cache.get("g1").getValue("symbol"));
+        assertEquals(2, cache.getWeight());
+    }
+
+    @Test
+    public void testInteractionsOnDisk() {
+        QueryCache.Weigher<Set<PPI>> weigher = new QueryCache.Weigher<Set<PPI>>() {
+            @Override
+            public int weigh(Set<PPI> interactions) {
+                return 1 + interactions.size();
+            }
+        };
+        MiMI mimi = new MiMI();
+        Set<PPI> interactions = new LinkedHashSet<PPI>();
+        for (int target = 2; target <= 4; target++) {
+            org.mongkie.mimi.jaxb.interaction.Interaction i = new org.mongkie.mimi.jaxb.interaction.Interaction();
+            i.setID(target * 10);
+            i.setSource(1);
+            i.setTarget(target);
+            i.getPubMed().add("1000" + target);
+            interactions.add(new PPI(mimi, i));
+        }
+        QueryCache<Integer, Set<PPI>> cache = new QueryCache<Integer, Set<PPI>>(weigher, 100, 0, new DiskStore(dir));
+        cache.put(1, interactions);
+        // a new session
+        cache = new QueryCache<Integer, Set<PPI>>(weigher, 100, 0, new DiskStore(dir));
+        Set<PPI> read = cache.get(1);
+        assertEquals(1, cache.getDiskHitCount());
+        assertEquals(interactions, read);
+        for (PPI ppi : read) {
+            assertEquals(ppi.getTargetGeneId() * 10, ppi.getInteractionId());
+            assertEquals(ppi.getTargetKey(), ppi.getInteractor().getKey());
+            assertArrayEquals(new String[]{"1000" + ppi.getTargetGeneId()},
+                    (String[]) ppi.getAttributeSet().getValue(InteractionElement.Attribute.PubMed.name()));
+            // bound to the source again
+            assertEquals("MiMI", ppi.getInteractionSource().getName());
+        }
+    }
+
+    /**
+     * Repeated expansions around a few hub genes against a source with a
+     * latency per query, with and without the cache in front.
+     */
+    @Test
+    public void testHitRate() throws Exception {
+        int queries = 200;
+        long latency = 2;
+        LocalSource source = new LocalSource(1000, latency);
+        QueryCache<String, Set<Interaction<String>>> cache =
+                new QueryCache<String, Set<Interaction<String>>>(WEIGHER, 2000, 0, null);
+        Random random = new Random(7);
+        for (int q = 0; q < queries; q++) {
+            // skewed to the small ids as in real expansions
+            String key = "g" + (int) (source.size * Math.pow(random.nextDouble(), 8));
+            if (cache.get(key) == null) {
+                Map<String, Set<Interaction<String>>> results = source.query(key);
+                cache.put(key, results.containsKey(key) ? results.get(key) : Collections.<Interaction<String>>emptySet());
+            }
+        }
+        assertEquals(queries, cache.getHitCount() + cache.getMissCount());
+        assertEquals(cache.getMissCount(), source.queryCount);
+        assertTrue(cache.getHitCount() > queries / 2);
+    }
+
+    /**
+     * Stand-in for a remote interaction source, linking each gene to the genes
+     * of the next few ids after a fixed latency per query.
+     */
+    static class LocalSource implements InteractionSource<String> {
+
+        final int size;
+        final long latency;
+        int queryCount;
+
+        LocalSource(int size, long latency) {
+            this.size = size;
+            this.latency = latency;
+        }
+
+        Set<Interaction<String>> interactions(String key) {
+            int id = Integer.parseInt(key.substring(1));
+            Set<Interaction<String>> interactions = new LinkedHashSet<Interaction<String>>();
+            for (int i = 1; i <= 3; i++) {
+                interactions.add(new LocalInteraction(key, "g" + ((id + i) % size)));
+            }
+            return interactions;
+        }
+
+        @Override
+        public String getName() {
+            return "Local";
+        }
+
+        @Override
+        public String getCategory() {
+            return "Test";
+        }
+
+        @Override
+        public Schema getInteractionSchema() {
+            return null;
+        }
+
+        @Override
+        public Schema getAnnotationSchema() {
+            return null;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return false;
+        }
+
+        @Override
+        public Map<String, Set<Interaction<String>>> query(String... keys) throws Exception {
+            queryCount++;
+            Thread.sleep(latency);
+            Map<String, Set<Interaction<String>>> results = new HashMap<String, Set<Interaction<String>>>();
+            for (String key : keys) {
+                results.put(key, interactions(key));
+            }
+            return results;
+        }
+
+        @Override
+        public Map<String, Attribute.Set> annotate(String... keys) throws Exception {
+            return new HashMap<String, Attribute.Set>();
+        }
+
+        @Override
+        public Class<String> getKeyType() {
+            return String.class;
+        }
+
+        @Override
+        public SettingUI getSettingUI() {
+            return null;
+        }
+
+        @Override
+        public InteractionAction[] getActions() {
+            return new InteractionAction[0];
+        }
+
+        @Override
+        public RichDescription getRichDescription() {
+            return null;
+        }
+    }
+
+    static class LocalInteraction implements Interaction<String>, Serializable {
+
+        private final String source, target;
+
+        LocalInteraction(String source, String target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public String getSourceKey() {
+            return source;
+        }
+
+        @Override
+        public String getTargetKey() {
+            return target;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return false;
+        }
+
+        @Override
+        public Interactor<String> getInteractor() {
+            return new Interactor<String>(target);
+        }
+
+        @Override
+        public Attribute.Set getAttributeSet() {
+            return new Attribute.Set();
+        }
+
+        @Override
+        public InteractionSource<String> getInteractionSource() {
+            return null;
+        }
+
+        @Override
+        public boolean identicalWith(Edge e) {
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LocalInteraction
+                    && source.equals(((LocalInteraction) obj).source) && target.equals(((LocalInteraction) obj).target);
+        }
+
+        @Override
+        public int hashCode() {
+            return source.hashCode() * 31 + target.hashCode();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.im.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.mongkie.im.spi.Interaction;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class QuerySchedulerTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static List<String> genes(int count) {
+        List<String> genes = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            genes.add("g" + i);
+        }
+        return genes;
+    }
+
+    /**
+     * Expanding 2,000 genes in 20 batches of 100 queries all batches at once.
+     * Each batch waits until all others have started, so a scheduler running
+     * fewer batches at a time would time out here.
+     */
+    @Test
+    public void testParallelBatches() throws Exception {
+        final QueryCacheTest.LocalSource source = new QueryCacheTest.LocalSource(5000, 0);
+        QueryScheduler scheduler = new QueryScheduler(executor, 20, 100);
+        final CountDownLatch started = new CountDownLatch(20);
+        final AtomicInteger inFlight = new AtomicInteger(), maxInFlight = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger(), results = new AtomicInteger();
+        assertTrue(scheduler.execute(genes(2000), String.class, new QueryScheduler.Batch<String, Set<Interaction<String>>>() {
+            @Override
+            public Map<String, Set<Interaction<String>>> query(String[] keys) throws Exception {
+                assertTrue(keys.length <= 100);
+                int n = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), n));
+                }
+                started.countDown();
+                started.await(10, TimeUnit.SECONDS);
+                inFlight.decrementAndGet();
+                return source.query(keys);
+            }
+        }, new QueryScheduler.Consumer<String, Set<Interaction<String>>>() {
+            @Override
+            public void consume(Map<String, Set<Interaction<String>>> batch, int remaining) {
+                assertEquals(20 - batches.incrementAndGet(), remaining);
+                results.addAndGet(batch.size());
+            }
+        }));
+        assertEquals(20, maxInFlight.get());
+        assertEquals(2000, results.get());
+    }
+
+    /**
+     * No more batches than the parallelism are queried at a time, and no new
+     * batch is started while the consumer is still busy.
+     */
+    @Test
+    public void testBackPressure() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger(), maxInFlight = new AtomicInteger(), queried = new AtomicInteger();
+        QueryScheduler scheduler = new QueryScheduler(executor, 3, 10);
+        scheduler.execute(genes(200), String.class, new QueryScheduler.Batch<String, String>() {
+            @Override
+            public Map<String, String> query(String[] keys) throws Exception {
+                int n = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), n));
+                }
+                Thread.sleep(5);
+                queried.incrementAndGet();
+                inFlight.decrementAndGet();
+                return new HashMap<String, String>();
+            }
+        }, new QueryScheduler.Consumer<String, String>() {
+            int consumed;
+
+            @Override
+            public void consume(Map<String, String> results, int remaining) throws Exception {
+                consumed++;
+                Thread.sleep(20);
+                assertTrue(queried.get() <= consumed + 3);
+            }
+        });
+        assertTrue(maxInFlight.get() <= 3);
+        assertEquals(20, queried.get());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final QueryScheduler scheduler = new QueryScheduler(executor, 2, 1);
+        final AtomicInteger queried = new AtomicInteger();
+        boolean completed = scheduler.execute(genes(100), String.class, new QueryScheduler.Batch<String, String>() {
+            @Override
+            public Map<String, String> query(String[] keys) throws Exception {
+                queried.incrementAndGet();
+                Thread.sleep(10);
+                return new HashMap<String, String>();
+            }
+        }, new QueryScheduler.Consumer<String, String>() {
+            @Override
+            public void consume(Map<String, String> results, int remaining) {
+                if (remaining == 95) {
+                    scheduler.cancel();
+                }
+            }
+        });
+        assertFalse(completed);
+        assertTrue(queried.get() < 10);
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.mongkie.kopath.is;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -92,7 +93,7 @@ public class hiPathDB implements InteractionSource<Integer> {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
-    public static class BinaryInteraction implements Interaction<Integer> {
+    public static class BinaryInteraction implements Interaction<Integer>, Serializable {
 
         @Override
         public Integer getSourceKey() {
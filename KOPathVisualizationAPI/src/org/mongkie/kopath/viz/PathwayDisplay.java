@@ -452,7 +452,16 @@ public class PathwayDisplay extends MongkieDisplay implements GraphListener {
             private Ellipse2D m_ellipse = new Ellipse2D.Float();
             private Rectangle2D m_intersect = new Rectangle2D.Float();
             private Arc2D m_arc = new Arc2D.Float();
-            private final Polygon m_inhibitArrow = new Polygon();
+            private Polygon m_inhibitArrow = new Polygon();
+
+            @Override
+            protected void copyTemporaries() {
+                super.copyTemporaries();
+                m_ellipse = new Ellipse2D.Float();
+                m_intersect = new Rectangle2D.Float();
+                m_arc = new Arc2D.Float();
+                m_inhibitArrow = new Polygon();
+            }
 
             @Override
             protected Shape getRawShape(VisualItem item) {
@@ -1494,12 +1503,12 @@ public class PathwayDisplay extends MongkieDisplay implements GraphListener {
             }
 
             @Override
-            public String getStringAt(Tuple edge, String field) {
+            public String getStringAt(int row, String field) {
                 ControlType controlType = null;
-                if (field.equals(FIELD_MOLECULAREVENT) && (controlType = ControlType.fromSymbol(edge.getString(field))) != null) {
+                if (field.equals(FIELD_MOLECULAREVENT) && (controlType = ControlType.fromSymbol(getTable().getString(row, field))) != null) {
                     return controlType.getName();
                 }
-                return super.getStringAt(edge, field);
+                return super.getStringAt(row, field);
             }
         };
     }
@@ -1536,12 +1545,12 @@ public class PathwayDisplay extends MongkieDisplay implements GraphListener {
             }
 
             @Override
-            public String getStringAt(Tuple node, String field) {
+            public String getStringAt(int row, String field) {
                 int[] suids;
-                if (field.equals(FIELD_SUBNODES) && (suids = (int[]) node.get(field)) != null) {
+                if (field.equals(FIELD_SUBNODES) && (suids = (int[]) getTable().get(row, field)) != null) {
                     return Utilities.getEntitiesAsStringFromUIDs(getGraph(), suids);
                 }
-                return super.getStringAt(node, field);
+                return super.getStringAt(row, field);
             }
         };
     }
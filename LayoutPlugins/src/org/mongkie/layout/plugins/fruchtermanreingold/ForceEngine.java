@@ -0,0 +1,205 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.layout.plugins.fruchtermanreingold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Fruchterman-Reingold force model over primitive position and force arrays.
+ * The repulsion is approximated with a Barnes-Hut {@link QuadTree} and
+ * computed in parallel chunks of nodes when an executor is given, the
+ * attraction along edges, the gravity and the displacement are computed as in
+ * the original algorithm.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class ForceEngine {
+
+    public static final float SPEED_DIVISOR = 600; // Originally 800
+    public static final float AREA_MULTIPLICATOR = 10000;
+    private static final int MIN_CHUNK_SIZE = 500;
+    private final int nodeCount;
+    private final double[] x, y;
+    private final boolean[] fixed;
+    private final double[] dx, dy;
+    private final int[] sources, targets;
+    private final QuadTree tree;
+
+    /**
+     * @param nodeCount the number of nodes
+     * @param sources the source node index of each edge
+     * @param targets the target node index of each edge
+     */
+    public ForceEngine(int nodeCount, int[] sources, int[] targets) {
+        this.nodeCount = nodeCount;
+        this.sources = sources;
+        this.targets = targets;
+        x = new double[nodeCount];
+        y = new double[nodeCount];
+        fixed = new boolean[nodeCount];
+        dx = new double[nodeCount];
+        dy = new double[nodeCount];
+        tree = new QuadTree(nodeCount * 2);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the x-coordinates of the nodes, to be read and written in place
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * @return the y-coordinates of the nodes, to be read and written in place
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * @return the flags of the nodes which are not moved, to be read and
+     * written in place
+     */
+    public boolean[] getFixed() {
+        return fixed;
+    }
+
+    /**
+     * Get the natural edge length of the Fruchterman-Reingold model for the
+     * given area.
+     */
+    public double getK(float area) {
+        return Math.sqrt((AREA_MULTIPLICATOR * area) / (1f + nodeCount));
+    }
+
+    /**
+     * Run one step of the layout with the parameters of the
+     * Fruchterman-Reingold layout, moving the nodes that are not fixed.
+     *
+     * @param pool the executor for the repulsion pass, or null to compute it
+     * in the calling thread
+     * @param threads the number of chunks the repulsion pass is split into
+     */
+    public void step(float area, double gravity, double speed, double theta, ExecutorService pool, int threads)
+            throws InterruptedException {
+        double _speed = speed + nodeCount / 50;
+        double maxDisplace = Math.sqrt(AREA_MULTIPLICATOR * area) / 10f;
+        step(getK(area), gravity, _speed / SPEED_DIVISOR, maxDisplace * (_speed / SPEED_DIVISOR), theta, pool, threads);
+    }
+
+    /**
+     * Run one step of the layout, moving the nodes that are not fixed.
+     *
+     * @param k the natural edge length
+     * @param gravity the strength of the attraction to the origin
+     * @param forceScale the factor from the total force to the displacement
+     * @param maxDisplacement the limit of the displacement of a node
+     * @param theta the Barnes-Hut approximation parameter, 0 for the exact
+     * repulsion
+     * @param pool the executor for the repulsion pass, or null to compute it
+     * in the calling thread
+     * @param threads the number of chunks the repulsion pass is split into
+     */
+    public void step(double k, double gravity, double forceScale, double maxDisplacement, final double theta,
+            ExecutorService pool, int threads) throws InterruptedException {
+        final double k2 = k * k;
+
+        // repulsion
+        tree.build(x, y, nodeCount);
+        int chunks = pool == null ? 1 : Math.min(threads, nodeCount / MIN_CHUNK_SIZE);
+        if (chunks > 1) {
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(chunks);
+            int chunkSize = (nodeCount + chunks - 1) / chunks;
+            for (int start = 0; start < nodeCount; start += chunkSize) {
+                final int from = start, to = Math.min(start + chunkSize, nodeCount);
+                tasks.add(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        repulsion(from, to, k2, theta);
+                        return null;
+                    }
+                });
+            }
+            for (Future<Object> f : pool.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+        } else {
+            repulsion(0, nodeCount, k2, theta);
+        }
+
+        // attraction
+        for (int e = 0; e < sources.length; e++) {
+            int s = sources[e], t = targets[e];
+            if (s != t) {
+                double xDist = x[s] - x[t];
+                double yDist = y[s] - y[t];
+                double dist = Math.sqrt(xDist * xDist + yDist * yDist);
+                if (dist > 0) {
+                    // dist * dist / k along the unit vector
+                    double f = dist / k;
+                    dx[s] -= xDist * f;
+                    dy[s] -= yDist * f;
+                    dx[t] += xDist * f;
+                    dy[t] += yDist * f;
+                }
+            }
+        }
+
+        // gravity and displacement
+        double gf = 0.01 * k * gravity;
+        for (int i = 0; i < nodeCount; i++) {
+            dx[i] -= gf * x[i];
+            dy[i] -= gf * y[i];
+            if (fixed[i]) {
+                continue;
+            }
+            double fx = dx[i] * forceScale;
+            double fy = dy[i] * forceScale;
+            double dist = Math.sqrt(fx * fx + fy * fy);
+            if (dist > 0) {
+                double limitedDist = Math.min(maxDisplacement, dist);
+                x[i] += fx / dist * limitedDist;
+                y[i] += fy / dist * limitedDist;
+            }
+        }
+    }
+
+    private void repulsion(int from, int to, double k2, double theta) {
+        double[] force = new double[2];
+        for (int i = from; i < to; i++) {
+            force[0] = force[1] = 0;
+            tree.repulsion(i, x[i], y[i], k2, theta, force);
+            dx[i] = force[0];
+            dy[i] = force[1];
+        }
+    }
+}
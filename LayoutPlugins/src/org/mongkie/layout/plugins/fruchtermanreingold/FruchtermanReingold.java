@@ -21,6 +21,9 @@ package org.mongkie.layout.plugins.fruchtermanreingold;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import org.mongkie.layout.LayoutProperty;
 import org.mongkie.layout.spi.AbstractLayout;
 import org.mongkie.layout.spi.LayoutBuilder;
@@ -28,11 +31,9 @@ import org.mongkie.lib.widgets.pe.JSliderInplaceEditor;
 import org.openide.explorer.propertysheet.PropertyModel;
 import org.openide.util.Exceptions;
 import org.openide.util.NbBundle;
-import prefuse.data.Schema;
-import prefuse.data.tuple.TupleSet;
 import prefuse.visual.EdgeItem;
 import prefuse.visual.NodeItem;
-import prefuse.visual.VisualItem;
+import prefuse.visual.VisualGraph;
 
 /**
  *
@@ -40,12 +41,18 @@ import prefuse.visual.VisualItem;
  */
 public class FruchtermanReingold extends AbstractLayout {
 
-    private static final float SPEED_DIVISOR = 600; // Originally 800
-    private static final float AREA_MULTIPLICATOR = 10000;
+    // Minimum interval in milliseconds between writes of positions to visual items
+    private static final long UPDATE_INTERVAL = 40;
     //Properties
     private float area;
     private double gravity;
     private double speed;
+    private double theta;
+    private NodeItem[] items;
+    private ForceEngine engine;
+    private ExecutorService pool;
+    private int threads;
+    private long lastUpdate;
 
     FruchtermanReingold(LayoutBuilder<FruchtermanReingold> builder) {
         super(builder);
@@ -75,6 +82,14 @@ public class FruchtermanReingold extends AbstractLayout {
         this.speed = speed;
     }
 
+    public float getTheta() {
+        return (float) theta;
+    }
+
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
     @Override
     protected LayoutProperty[] createProperties() {
         List<LayoutProperty> properties = new ArrayList<LayoutProperty>();
@@ -119,6 +134,19 @@ public class FruchtermanReingold extends AbstractLayout {
                         }
                     }));
             properties.add(p);
+            p = new LayoutProperty(
+                    NbBundle.getMessage(FruchtermanReingold.class, "param.theta.name"),
+                    NbBundle.getMessage(FruchtermanReingold.class, "param.theta.description"),
+                    "Parameters",
+                    this, float.class, "getTheta", "setTheta");
+            p.setValue("inplaceEditor", new JSliderInplaceEditor.Float(0, 2, "%- 1.1f",
+                    new JSliderInplaceEditor.SliderListener<Float>() {
+                        @Override
+                        public void valueChanged(PropertyModel model, Float value) {
+                            setTheta(value);
+                        }
+                    }));
+            properties.add(p);
         } catch (NoSuchMethodException ex) {
             Exceptions.printStackTrace(ex);
         }
@@ -130,96 +158,80 @@ public class FruchtermanReingold extends AbstractLayout {
         speed = 4;
         area = 4000;
         gravity = 10;
+        theta = 0.8;
     }
 
     @Override
     public void prepare() {
-        display.getVisualGraph().getNodeTable().addColumns(ForceVector.SCHEMA);
-    }
-
-    @Override
-    public void run(int step) {
-        TupleSet nodes = display.getVisualGraph().getNodes();
-        TupleSet edges = display.getVisualGraph().getEdges();
-
-        for (Iterator<NodeItem> iter = nodes.tuples(); iter.hasNext();) {
-            ForceVector force = ForceVector.get(iter.next());
-            force.dx = 0;
-            force.dy = 0;
+        VisualGraph g = display.getVisualGraph();
+        items = new NodeItem[g.getNodeCount()];
+        int[] nodeIndex = new int[g.getNodeTable().getMaximumRow() + 1];
+        int n = 0;
+        for (Iterator<NodeItem> iter = g.getNodes().tuples(); iter.hasNext();) {
+            NodeItem N = iter.next();
+            nodeIndex[N.getRow()] = n;
+            items[n++] = N;
         }
-
-        float maxDisplace = (float) (Math.sqrt(AREA_MULTIPLICATOR * area) / 10f);
-        float k = (float) Math.sqrt((AREA_MULTIPLICATOR * area) / (1f + nodes.getTupleCount()));
-
-        for (Iterator<NodeItem> iter1 = nodes.tuples(); iter1.hasNext();) {
-            NodeItem N1 = iter1.next();
-            for (Iterator<NodeItem> iter2 = nodes.tuples(); iter2.hasNext();) {
-                NodeItem N2 = iter2.next();
-                if (N1 != N2) {
-                    float xDist = (float) (N1.getX() - N2.getX());
-                    float yDist = (float) (N1.getY() - N2.getY());
-                    float dist = (float) Math.sqrt(xDist * xDist + yDist * yDist);
-                    if (dist > 0) {
-                        float repulsiveF = k * k / dist;
-                        ForceVector force = ForceVector.get(N1);
-                        force.dx += xDist / dist * repulsiveF;
-                        force.dy += yDist / dist * repulsiveF;
-                    }
+        int[] sources = new int[g.getEdgeCount()];
+        int[] targets = new int[sources.length];
+        int m = 0;
+        for (Iterator<EdgeItem> iter = g.getEdges().tuples(); iter.hasNext();) {
+            EdgeItem E = iter.next();
+            sources[m] = nodeIndex[E.getSourceItem().getRow()];
+            targets[m++] = nodeIndex[E.getTargetItem().getRow()];
+        }
+        engine = new ForceEngine(n, sources, targets);
+        for (int i = 0; i < n; i++) {
+            engine.getX()[i] = items[i].getX();
+            engine.getY()[i] = items[i].getY();
+        }
+        threads = Runtime.getRuntime().availableProcessors();
+        if (threads > 1) {
+            pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "Fruchterman-Reingold Force Pass");
+                    t.setDaemon(true);
+                    return t;
                 }
-            }
+            });
         }
+        lastUpdate = 0;
+    }
 
-        for (Iterator<EdgeItem> iter = edges.tuples(); iter.hasNext();) {
-            EdgeItem E = iter.next();
-            NodeItem source = E.getSourceItem();
-            NodeItem target = E.getTargetItem();
-            if (source != target) {
-                float xDist = (float) (source.getX() - target.getX());
-                float yDist = (float) (source.getY() - target.getY());
-                float dist = (float) Math.sqrt(xDist * xDist + yDist * yDist);
-                float attractiveF = dist * dist / k;
-                if (dist > 0) {
-                    ForceVector sourceForce = ForceVector.get(source);
-                    ForceVector targetForce = ForceVector.get(target);
-                    sourceForce.dx -= xDist / dist * attractiveF;
-                    sourceForce.dy -= yDist / dist * attractiveF;
-                    targetForce.dx += xDist / dist * attractiveF;
-                    targetForce.dy += yDist / dist * attractiveF;
-                }
+    @Override
+    public void run(int step) {
+        // Fixed nodes may be dragged while the layout is running
+        for (int i = 0; i < items.length; i++) {
+            NodeItem N = items[i];
+            engine.getFixed()[i] = !N.isValid() || !isEnabled(N);
+            if (engine.getFixed()[i] && N.isValid()) {
+                engine.getX()[i] = N.getX();
+                engine.getY()[i] = N.getY();
             }
         }
-
-        // gravity
-        for (Iterator<NodeItem> iter = nodes.tuples(); iter.hasNext();) {
-            NodeItem N = iter.next();
-            ForceVector force = ForceVector.get(N);
-            float d = (float) Math.sqrt(N.getX() * N.getX() + N.getY() * N.getY());
-            float gf = 0.01f * k * (float) gravity * d;
-            force.dx -= gf * N.getX() / d;
-            force.dy -= gf * N.getY() / d;
+        try {
+            engine.step(area, gravity, speed, theta, pool, threads);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
         }
-
-        // speed
-        double _speed = speed + nodes.getTupleCount() / 50;
-        for (Iterator<NodeItem> iter = nodes.tuples(); iter.hasNext();) {
-            ForceVector force = ForceVector.get(iter.next());
-            force.dx *= _speed / SPEED_DIVISOR;
-            force.dy *= _speed / SPEED_DIVISOR;
+        long now = System.currentTimeMillis();
+        if (now - lastUpdate >= UPDATE_INTERVAL) {
+            lastUpdate = now;
+            updateItems();
         }
+    }
 
-        for (Iterator<NodeItem> iter = nodes.tuples(); iter.hasNext();) {
-            NodeItem N = iter.next();
-            if (!isEnabled(N)) {
-                continue;
-            }
-            ForceVector force = ForceVector.get(N);
-            float xDist = force.dx;
-            float yDist = force.dy;
-            float dist = (float) Math.sqrt(force.dx * force.dx + force.dy * force.dy);
-            if (dist > 0) {
-                float limitedDist = Math.min(maxDisplace * ((float) _speed / SPEED_DIVISOR), dist);
-                setX(N, N.getX() + xDist / dist * limitedDist);
-                setY(N, N.getY() + yDist / dist * limitedDist);
+    /**
+     * Write the positions of the layout back to the visual items.
+     */
+    private void updateItems() {
+        for (int i = 0; i < items.length; i++) {
+            NodeItem N = items[i];
+            if (!engine.getFixed()[i] && N.isValid()) {
+                setX(N, engine.getX()[i]);
+                setY(N, engine.getY()[i]);
             }
         }
         display.getVisualization().repaint();
@@ -231,6 +243,15 @@ public class FruchtermanReingold extends AbstractLayout {
 
     @Override
     protected void finish(boolean canceled) {
+        if (engine != null) {
+            updateItems();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = null;
+        engine = null;
+        items = null;
     }
 
     @Override
@@ -242,28 +263,4 @@ public class FruchtermanReingold extends AbstractLayout {
     public boolean supportsSelectionOnly() {
         return false;
     }
-
-    private static class ForceVector implements Cloneable {
-
-        float dx = 0f;
-        float dy = 0f;
-        float old_dx = 0f;
-        float old_dy = 0f;
-        float freeze = 0f;
-        private static final String COLUMN = "_fruchtermanReingoldForceVector";
-        static final Schema SCHEMA = new Schema();
-
-        static {
-            SCHEMA.addColumn(COLUMN, ForceVector.class);
-        }
-
-        static ForceVector get(VisualItem item) {
-            ForceVector force = (ForceVector) item.get(COLUMN);
-            if (force == null) {
-                force = new ForceVector();
-                item.set(COLUMN, force);
-            }
-            return force;
-        }
-    }
 }
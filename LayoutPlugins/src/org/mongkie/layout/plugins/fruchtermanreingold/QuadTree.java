@@ -0,0 +1,208 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.layout.plugins.fruchtermanreingold;
+
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut quadtree over node positions held in primitive arrays. Each cell
+ * keeps the number of nodes and the center of mass of the nodes inside it, so
+ * the repulsion of a far cell can be approximated by a single node at its
+ * center of mass. Once built, the tree is only read, so the repulsion of
+ * different nodes can be computed concurrently.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class QuadTree {
+
+    private static final int MAX_DEPTH = 48;
+    private double[] cellX, cellY, cellSize;
+    private double[] comX, comY;
+    private int[] mass, body, children;
+    private int cellCount;
+
+    QuadTree(int capacity) {
+        allocate(Math.max(capacity, 16));
+    }
+
+    private void allocate(int capacity) {
+        cellX = new double[capacity];
+        cellY = new double[capacity];
+        cellSize = new double[capacity];
+        comX = new double[capacity];
+        comY = new double[capacity];
+        mass = new int[capacity];
+        body = new int[capacity];
+        children = new int[capacity * 4];
+    }
+
+    private void grow() {
+        int capacity = cellX.length * 2;
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        cellSize = Arrays.copyOf(cellSize, capacity);
+        comX = Arrays.copyOf(comX, capacity);
+        comY = Arrays.copyOf(comY, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        body = Arrays.copyOf(body, capacity);
+        children = Arrays.copyOf(children, capacity * 4);
+    }
+
+    private int newCell(double x, double y, double size) {
+        if (cellCount == cellX.length) {
+            grow();
+        }
+        int c = cellCount++;
+        cellX[c] = x;
+        cellY[c] = y;
+        cellSize[c] = size;
+        comX[c] = comY[c] = 0;
+        mass[c] = 0;
+        body[c] = -1;
+        Arrays.fill(children, c * 4, c * 4 + 4, -1);
+        return c;
+    }
+
+    /**
+     * Rebuild the tree over the given positions.
+     */
+    void build(double[] x, double[] y, int n) {
+        cellCount = 0;
+        if (n == 0) {
+            return;
+        }
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        newCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1e-6) * 1.0001);
+        for (int i = 0; i < n; i++) {
+            insert(i, x[i], y[i]);
+        }
+        for (int c = 0; c < cellCount; c++) {
+            comX[c] /= mass[c];
+            comY[c] /= mass[c];
+        }
+    }
+
+    private void insert(int i, double x, double y) {
+        int c = 0;
+        for (int depth = 0;; depth++) {
+            if (isLeaf(c)) {
+                if (mass[c] == 0) {
+                    body[c] = i;
+                    add(c, x, y);
+                    return;
+                }
+                int b = body[c];
+                double bx = comX[c] / mass[c], by = comY[c] / mass[c];
+                if (depth >= MAX_DEPTH || (bx == x && by == y)) {
+                    // coincident nodes are kept together in a single leaf
+                    add(c, x, y);
+                    return;
+                }
+                // move the nodes of this leaf down to a child cell
+                int child = getChild(c, bx, by);
+                body[child] = b;
+                mass[child] = mass[c];
+                comX[child] = comX[c];
+                comY[child] = comY[c];
+                body[c] = -1;
+            }
+            add(c, x, y);
+            int q = quadrant(c, x, y);
+            int child = children[c * 4 + q];
+            if (child < 0) {
+                child = getChild(c, x, y);
+                body[child] = i;
+                add(child, x, y);
+                return;
+            }
+            c = child;
+        }
+    }
+
+    private void add(int c, double x, double y) {
+        mass[c]++;
+        comX[c] += x;
+        comY[c] += y;
+    }
+
+    private boolean isLeaf(int c) {
+        int i = c * 4;
+        return children[i] < 0 && children[i + 1] < 0 && children[i + 2] < 0 && children[i + 3] < 0;
+    }
+
+    private int quadrant(int c, double x, double y) {
+        double half = cellSize[c] / 2;
+        return (x < cellX[c] + half ? 0 : 1) + (y < cellY[c] + half ? 0 : 2);
+    }
+
+    private int getChild(int c, double x, double y) {
+        int q = quadrant(c, x, y);
+        int child = children[c * 4 + q];
+        if (child < 0) {
+            double half = cellSize[c] / 2;
+            child = newCell(cellX[c] + ((q & 1) == 0 ? 0 : half), cellY[c] + ((q & 2) == 0 ? 0 : half), half);
+            children[c * 4 + q] = child;
+        }
+        return child;
+    }
+
+    /**
+     * Accumulate the repulsion <tt>k2 / dist</tt> of all other nodes on the
+     * node <tt>i</tt> at <tt>(x, y)</tt> into <tt>force[0]</tt> and
+     * <tt>force[1]</tt>. A cell is approximated by its center of mass if its
+     * size divided by its distance is less than <tt>theta</tt>, so a theta of
+     * 0 gives the exact repulsion.
+     */
+    void repulsion(int i, double x, double y, double k2, double theta, double[] force) {
+        if (cellCount > 0) {
+            repulsion(0, i, x, y, k2, theta * theta, force);
+        }
+    }
+
+    private void repulsion(int c, int i, double x, double y, double k2, double theta2, double[] force) {
+        double dx = x - comX[c];
+        double dy = y - comY[c];
+        double dist2 = dx * dx + dy * dy;
+        boolean leaf = isLeaf(c);
+        if (leaf || cellSize[c] * cellSize[c] < theta2 * dist2) {
+            if (leaf && mass[c] == 1 && body[c] == i) {
+                return;
+            }
+            if (dist2 > 0) {
+                // direction (dx, dy) / dist times mass * k2 / dist
+                double f = mass[c] * k2 / dist2;
+                force[0] += dx * f;
+                force[1] += dy * f;
+            }
+            return;
+        }
+        for (int q = c * 4, end = q + 4; q < end; q++) {
+            if (children[q] >= 0) {
+                repulsion(children[q], i, x, y, k2, theta2, force);
+            }
+        }
+    }
+}
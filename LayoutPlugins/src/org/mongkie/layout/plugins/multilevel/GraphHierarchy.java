@@ -0,0 +1,219 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.layout.plugins.multilevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hierarchy of successively coarser graphs, built by collapsing the edges of a
+ * maximal matching and then merging the remaining leaves into their
+ * neighbors. The level 0 is the original graph, and every node of a level is
+ * mapped to the node of the next coarser level it is merged into.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class GraphHierarchy {
+
+    // Coarsening stops at this number of nodes
+    static final int MIN_NODES = 50;
+    // or when a level does not shrink the graph below this ratio
+    static final double MAX_REDUCTION = 0.9;
+    private final List<Level> levels = new ArrayList<Level>();
+
+    private static final class Level {
+
+        final int nodeCount;
+        final int[] sources, targets;
+        int[] parents;
+
+        Level(int nodeCount, int[] sources, int[] targets) {
+            this.nodeCount = nodeCount;
+            this.sources = sources;
+            this.targets = targets;
+        }
+    }
+
+    GraphHierarchy(int nodeCount, int[] sources, int[] targets, Random random) {
+        Level level = new Level(nodeCount, sources, targets);
+        levels.add(level);
+        while (level.nodeCount > MIN_NODES) {
+            Level coarser = coarsen(level, random);
+            if (coarser.nodeCount > level.nodeCount * MAX_REDUCTION) {
+                level.parents = null;
+                break;
+            }
+            levels.add(coarser);
+            level = coarser;
+        }
+    }
+
+    /**
+     * @return the number of levels, including the original graph
+     */
+    int getLevelCount() {
+        return levels.size();
+    }
+
+    int getNodeCount(int level) {
+        return levels.get(level).nodeCount;
+    }
+
+    int[] getSources(int level) {
+        return levels.get(level).sources;
+    }
+
+    int[] getTargets(int level) {
+        return levels.get(level).targets;
+    }
+
+    /**
+     * @return the node of the level <tt>level + 1</tt> each node of the given
+     * level is merged into
+     */
+    int[] getParents(int level) {
+        return levels.get(level).parents;
+    }
+
+    /**
+     * @return the node of the given level each node of the original graph is
+     * merged into
+     */
+    int[] getAncestors(int level) {
+        int[] ancestors = new int[getNodeCount(0)];
+        for (int i = 0; i < ancestors.length; i++) {
+            ancestors[i] = i;
+        }
+        for (int l = 0; l < level; l++) {
+            int[] parents = levels.get(l).parents;
+            for (int i = 0; i < ancestors.length; i++) {
+                ancestors[i] = parents[ancestors[i]];
+            }
+        }
+        return ancestors;
+    }
+
+    private static Level coarsen(Level level, Random random) {
+        int n = level.nodeCount;
+        int[] sources = level.sources, targets = level.targets;
+
+        // undirected adjacency lists in compressed sparse-row form
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < sources.length; e++) {
+            if (sources[e] != targets[e]) {
+                offsets[sources[e] + 1]++;
+                offsets[targets[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] neighbors = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < sources.length; e++) {
+            int s = sources[e], t = targets[e];
+            if (s != t) {
+                neighbors[fill[s]++] = t;
+                neighbors[fill[t]++] = s;
+            }
+        }
+
+        // maximal matching in random order, preferring neighbors of low degree
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        int[] parents = new int[n];
+        Arrays.fill(parents, -1);
+        int coarseCount = 0;
+        for (int u : order) {
+            if (parents[u] >= 0) {
+                continue;
+            }
+            int mate = -1, mateDegree = Integer.MAX_VALUE;
+            for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                int v = neighbors[p];
+                int degree = offsets[v + 1] - offsets[v];
+                if (parents[v] < 0 && v != u && degree < mateDegree) {
+                    mate = v;
+                    mateDegree = degree;
+                }
+            }
+            if (mate >= 0) {
+                parents[u] = parents[mate] = coarseCount++;
+            }
+        }
+        // all neighbors of an unmatched node are matched, so a leaf can be
+        // merged into its neighbor, and any other node stays by itself
+        for (int u = 0; u < n; u++) {
+            if (parents[u] < 0 && offsets[u + 1] - offsets[u] > 0
+                    && isLeaf(u, offsets, neighbors)) {
+                parents[u] = parents[neighbors[offsets[u]]];
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            if (parents[u] < 0) {
+                parents[u] = coarseCount++;
+            }
+        }
+        level.parents = parents;
+
+        // edges between distinct coarse nodes without duplicates
+        long[] keys = new long[sources.length];
+        int m = 0;
+        for (int e = 0; e < sources.length; e++) {
+            int s = parents[sources[e]], t = parents[targets[e]];
+            if (s != t) {
+                keys[m++] = (long) Math.min(s, t) * coarseCount + Math.max(s, t);
+            }
+        }
+        Arrays.sort(keys, 0, m);
+        int unique = 0;
+        for (int e = 0; e < m; e++) {
+            if (unique == 0 || keys[e] != keys[unique - 1]) {
+                keys[unique++] = keys[e];
+            }
+        }
+        int[] coarseSources = new int[unique], coarseTargets = new int[unique];
+        for (int e = 0; e < unique; e++) {
+            coarseSources[e] = (int) (keys[e] / coarseCount);
+            coarseTargets[e] = (int) (keys[e] % coarseCount);
+        }
+        return new Level(coarseCount, coarseSources, coarseTargets);
+    }
+
+    // A node whose edges all lead to a single neighbor
+    private static boolean isLeaf(int u, int[] offsets, int[] neighbors) {
+        int first = neighbors[offsets[u]];
+        for (int p = offsets[u] + 1; p < offsets[u + 1]; p++) {
+            if (neighbors[p] != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
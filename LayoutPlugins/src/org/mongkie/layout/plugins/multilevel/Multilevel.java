@@ -0,0 +1,268 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.layout.plugins.multilevel;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.mongkie.layout.LayoutProperty;
+import org.mongkie.layout.plugins.fruchtermanreingold.ForceEngine;
+import org.mongkie.layout.spi.AbstractLayout;
+import org.mongkie.layout.spi.LayoutBuilder;
+import org.mongkie.lib.widgets.pe.JSliderInplaceEditor;
+import org.openide.explorer.propertysheet.PropertyModel;
+import org.openide.util.Exceptions;
+import org.openide.util.NbBundle;
+import prefuse.visual.EdgeItem;
+import prefuse.visual.NodeItem;
+import prefuse.visual.VisualGraph;
+
+/**
+ * Multilevel force-directed layout. The graph is coarsened into a hierarchy of
+ * smaller graphs, the smallest one is laid out with the Fruchterman-Reingold
+ * force model, and the layout is interpolated and refined level by level back
+ * to the original graph.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class Multilevel extends AbstractLayout {
+
+    // Minimum interval in milliseconds between writes of positions to visual items
+    private static final long UPDATE_INTERVAL = 40;
+    //Properties
+    private float area;
+    private double gravity;
+    private int iterations;
+    private double theta;
+    private NodeItem[] items;
+    private MultilevelEngine engine;
+    private ExecutorService pool;
+    private int threads;
+    private long lastUpdate;
+
+    Multilevel(LayoutBuilder<Multilevel> builder) {
+        super(builder);
+    }
+
+    public float getArea() {
+        return area;
+    }
+
+    public void setArea(float area) {
+        this.area = area;
+    }
+
+    public float getGravity() {
+        return (float) gravity;
+    }
+
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = Math.max(iterations, MultilevelEngine.MIN_ITERATIONS);
+    }
+
+    public float getTheta() {
+        return (float) theta;
+    }
+
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
+    @Override
+    protected LayoutProperty[] createProperties() {
+        List<LayoutProperty> properties = new ArrayList<LayoutProperty>();
+        LayoutProperty p;
+        try {
+            properties.add(new LayoutProperty(
+                    NbBundle.getMessage(Multilevel.class, "param.iterations.name"),
+                    NbBundle.getMessage(Multilevel.class, "param.iterations.description"),
+                    "Parameters",
+                    this, int.class, "getIterations", "setIterations"));
+            p = new LayoutProperty(
+                    NbBundle.getMessage(Multilevel.class, "param.gravity.name"),
+                    NbBundle.getMessage(Multilevel.class, "param.gravity.description"),
+                    "Parameters",
+                    this, float.class, "getGravity", "setGravity");
+            p.setValue("inplaceEditor", new JSliderInplaceEditor.Float(1, 30, "%- 1.0f",
+                    new JSliderInplaceEditor.SliderListener<Float>() {
+                        @Override
+                        public void valueChanged(PropertyModel model, Float value) {
+                            setGravity(value);
+                        }
+                    }));
+            properties.add(p);
+            p = new LayoutProperty(
+                    NbBundle.getMessage(Multilevel.class, "param.area.name"),
+                    NbBundle.getMessage(Multilevel.class, "param.area.description"),
+                    "Parameters",
+                    this, float.class, "getArea", "setArea");
+            p.setValue("inplaceEditor", new JSliderInplaceEditor.Float(100, 50000, "%- 1.0f",
+                    new JSliderInplaceEditor.SliderListener<Float>() {
+                        @Override
+                        public void valueChanged(PropertyModel model, Float value) {
+                            setArea(value);
+                        }
+                    }));
+            properties.add(p);
+            p = new LayoutProperty(
+                    NbBundle.getMessage(Multilevel.class, "param.theta.name"),
+                    NbBundle.getMessage(Multilevel.class, "param.theta.description"),
+                    "Parameters",
+                    this, float.class, "getTheta", "setTheta");
+            p.setValue("inplaceEditor", new JSliderInplaceEditor.Float(0, 2, "%- 1.1f",
+                    new JSliderInplaceEditor.SliderListener<Float>() {
+                        @Override
+                        public void valueChanged(PropertyModel model, Float value) {
+                            setTheta(value);
+                        }
+                    }));
+            properties.add(p);
+        } catch (NoSuchMethodException ex) {
+            Exceptions.printStackTrace(ex);
+        }
+        return properties.toArray(new LayoutProperty[0]);
+    }
+
+    @Override
+    protected void resetProperties() {
+        iterations = 300;
+        area = 4000;
+        gravity = 10;
+        theta = 0.8;
+    }
+
+    @Override
+    public void prepare() {
+        VisualGraph g = display.getVisualGraph();
+        items = new NodeItem[g.getNodeCount()];
+        int[] nodeIndex = new int[g.getNodeTable().getMaximumRow() + 1];
+        int n = 0;
+        for (Iterator<NodeItem> iter = g.getNodes().tuples(); iter.hasNext();) {
+            NodeItem N = iter.next();
+            nodeIndex[N.getRow()] = n;
+            items[n++] = N;
+        }
+        int[] sources = new int[g.getEdgeCount()];
+        int[] targets = new int[sources.length];
+        int m = 0;
+        for (Iterator<EdgeItem> iter = g.getEdges().tuples(); iter.hasNext();) {
+            EdgeItem E = iter.next();
+            sources[m] = nodeIndex[E.getSourceItem().getRow()];
+            targets[m++] = nodeIndex[E.getTargetItem().getRow()];
+        }
+        engine = new MultilevelEngine(n, sources, targets, area, gravity, iterations, theta, new Random());
+        threads = Runtime.getRuntime().availableProcessors();
+        if (threads > 1) {
+            pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "Multilevel Force Pass");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        lastUpdate = 0;
+    }
+
+    @Override
+    public void run(int step) {
+        int level = engine.getLevel();
+        if (level == 0) {
+            // Fixed nodes are respected while refining the original graph,
+            // and may be dragged while the layout is running
+            ForceEngine forces = engine.getForceEngine();
+            for (int i = 0; i < items.length; i++) {
+                NodeItem N = items[i];
+                forces.getFixed()[i] = !N.isValid() || !isEnabled(N);
+                if (forces.getFixed()[i] && N.isValid()) {
+                    forces.getX()[i] = N.getX();
+                    forces.getY()[i] = N.getY();
+                }
+            }
+        }
+        try {
+            engine.step(pool, threads);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (engine.getLevel() != level || now - lastUpdate >= UPDATE_INTERVAL) {
+            lastUpdate = now;
+            updateItems();
+        }
+    }
+
+    /**
+     * Write the positions of the current level back to the visual items, so
+     * the nodes merged into a coarse node are placed together.
+     */
+    private void updateItems() {
+        ForceEngine forces = engine.getForceEngine();
+        int[] ancestors = engine.getAncestors();
+        for (int i = 0; i < items.length; i++) {
+            NodeItem N = items[i];
+            if (N.isValid() && isEnabled(N)) {
+                setX(N, forces.getX()[ancestors[i]]);
+                setY(N, forces.getY()[ancestors[i]]);
+            }
+        }
+        display.getVisualization().repaint();
+    }
+
+    protected boolean isEnabled(NodeItem n) {
+        return !n.isFixed();
+    }
+
+    @Override
+    protected void finish(boolean canceled) {
+        if (engine != null) {
+            updateItems();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = null;
+        engine = null;
+        items = null;
+    }
+
+    @Override
+    protected boolean more() {
+        return engine != null && !engine.isDone();
+    }
+
+    @Override
+    public boolean supportsSelectionOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2012 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.layout.plugins.multilevel;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import org.mongkie.layout.plugins.fruchtermanreingold.ForceEngine;
+
+/**
+ * Multilevel schedule of the Fruchterman-Reingold force model over a
+ * {@link GraphHierarchy}. The coarsest graph is laid out from random positions,
+ * and then each finer graph starts from the positions of the nodes it was
+ * merged into and is refined with fewer iterations and a lower temperature,
+ * so most of the work is done on graphs much smaller than the original one.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class MultilevelEngine {
+
+    // Refinement iterations of the finer levels are not fewer than this
+    static final int MIN_ITERATIONS = 20;
+    // The temperature of a level cools down linearly to this fraction
+    private static final double MIN_TEMPERATURE = 0.05;
+    private final GraphHierarchy hierarchy;
+    private final float area;
+    private final double gravity, theta;
+    private final int iterations;
+    private final Random random;
+    private int level;
+    private int[] ancestors;
+    private ForceEngine engine;
+    private double k, temperature;
+    private int iteration, levelIterations;
+
+    MultilevelEngine(int nodeCount, int[] sources, int[] targets,
+            float area, double gravity, int iterations, double theta, Random random) {
+        this.area = area;
+        this.gravity = gravity;
+        this.iterations = iterations;
+        this.theta = theta;
+        this.random = random;
+        hierarchy = new GraphHierarchy(nodeCount, sources, targets, random);
+        level = hierarchy.getLevelCount() - 1;
+        engine = createEngine(level);
+        double side = Math.sqrt(ForceEngine.AREA_MULTIPLICATOR * area);
+        double[] x = engine.getX(), y = engine.getY();
+        for (int i = 0; i < engine.getNodeCount(); i++) {
+            x[i] = (random.nextDouble() - 0.5) * side;
+            y[i] = (random.nextDouble() - 0.5) * side;
+        }
+        startLevel(iterations, side / 10);
+    }
+
+    private ForceEngine createEngine(int level) {
+        ancestors = hierarchy.getAncestors(level);
+        return new ForceEngine(hierarchy.getNodeCount(level),
+                hierarchy.getSources(level), hierarchy.getTargets(level));
+    }
+
+    private void startLevel(int levelIterations, double temperature) {
+        this.levelIterations = levelIterations;
+        this.temperature = temperature;
+        k = engine.getK(area);
+        iteration = 0;
+    }
+
+    /**
+     * @return the current level, where 0 is the original graph
+     */
+    int getLevel() {
+        return level;
+    }
+
+    int getLevelCount() {
+        return hierarchy.getLevelCount();
+    }
+
+    /**
+     * @return the force model of the current level
+     */
+    ForceEngine getForceEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the node of the current level each node of the original graph
+     * is merged into
+     */
+    int[] getAncestors() {
+        return ancestors;
+    }
+
+    boolean isDone() {
+        return level == 0 && iteration >= levelIterations;
+    }
+
+    /**
+     * Run one iteration of the current level, moving on to the next finer
+     * level if the current one is done.
+     */
+    void step(ExecutorService pool, int threads) throws InterruptedException {
+        if (iteration >= levelIterations) {
+            if (level == 0) {
+                return;
+            }
+            refine();
+        }
+        double t = temperature * Math.max(MIN_TEMPERATURE, 1 - (double) iteration / levelIterations);
+        engine.step(k, gravity, 1, t, theta, pool, threads);
+        iteration++;
+    }
+
+    private void refine() {
+        ForceEngine coarser = engine;
+        int[] parents = hierarchy.getParents(--level);
+        engine = createEngine(level);
+        // At equilibrium with gravity the radius of a layout grows with the
+        // fourth root of the number of nodes
+        double scale = Math.pow((double) engine.getNodeCount() / coarser.getNodeCount(), 0.25);
+        double jitter = engine.getK(area) / 10;
+        double[] x = engine.getX(), y = engine.getY();
+        for (int i = 0; i < engine.getNodeCount(); i++) {
+            x[i] = coarser.getX()[parents[i]] * scale + (random.nextDouble() - 0.5) * jitter;
+            y[i] = coarser.getY()[parents[i]] * scale + (random.nextDouble() - 0.5) * jitter;
+        }
+        int depth = hierarchy.getLevelCount() - 1 - level;
+        startLevel(Math.max(MIN_ITERATIONS, iterations >> depth), 2 * engine.getK(area));
+    }
+}
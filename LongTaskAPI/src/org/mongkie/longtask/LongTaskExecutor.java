@@ -41,8 +41,16 @@ Portions Copyrighted 2011 Gephi Consortium.
  */
 package org.mongkie.longtask;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -53,30 +61,52 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.mongkie.longtask.progress.ProgressTicket;
 import org.mongkie.longtask.spi.ProgressTicketProvider;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.util.Cancellable;
 import org.openide.util.Lookup;
+import org.openide.util.NbBundle;
 
 /**
  * Portable long-task executor, that supports synchronous and asynchronous
  * execution, progress, cancellation and error management.
  * <p>
- * Note that only one task can be executed by the executor at one time.
+ * Note that only one task can be executed by the executor at one time, unless
+ * it is created with {@link #LongTaskExecutor(String, int, int)}. Such a
+ * concurrent executor runs up to a given number of tasks at once in the
+ * background, and queues the others by their {@link Priority} instead of
+ * rejecting them. Tasks sharing a serialization key, e.g. the tasks of a
+ * workspace, never run at the same time, and the progress of all tasks is
+ * aggregated in a progress of the executor.
  * 
  * @author Mathieu Bastian
  * @see LongTask
  */
 public final class LongTaskExecutor {
 
+    /**
+     * The priorities of the tasks waiting for a concurrent executor.
+     */
+    public static enum Priority {
+
+        HIGH, NORMAL, LOW
+    }
     private final boolean inBackground;
     private boolean interruptCancel;
     private final long interruptDelay;
     private final String name;
+    private final int maxTasks;
     private RunningLongTask runningTask;
     private ExecutorService executor;
     private Timer cancelTimer;
     private LongTaskListener listener;
-    private LongTaskErrorHandler errorHandler;
     private LongTaskErrorHandler defaultErrorHandler;
+    // the tasks of a concurrent executor
+    private final SortedSet<RunningLongTask> waitingTasks = new TreeSet<RunningLongTask>();
+    private final Set<RunningLongTask> runningTasks = new HashSet<RunningLongTask>();
+    private final Set<Object> runningKeys = new HashSet<Object>();
+    private long submitted;
+    private int finishedTasks;
+    private ProgressTicket progress;
 
     /**
      * Creates a new long task executor.
@@ -89,6 +119,7 @@ public final class LongTaskExecutor {
         this.name = name;
         this.interruptCancel = true;
         this.interruptDelay = interruptDelay * 1000;
+        this.maxTasks = 0;
     }
 
     /**
@@ -109,6 +140,34 @@ public final class LongTaskExecutor {
         this(doInBackground, "LongTaskExecutor");
     }
 
+    /**
+     * Creates a new concurrent long task executor, executing the tasks in a
+     * pool of background threads.
+     * @param name the name of the executor, used to recognize threads by names
+     * @param maxTasks the maximum number of tasks running at one time
+     * @param interruptDelay number of seconds to wait before interrupting a task after a cancel request,
+     * or a negative number never to interrupt the tasks
+     */
+    public LongTaskExecutor(String name, int maxTasks, int interruptDelay) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException("At least one task must be able to run: " + maxTasks);
+        }
+        this.inBackground = true;
+        this.name = name;
+        this.interruptCancel = interruptDelay >= 0;
+        this.interruptDelay = interruptDelay * 1000L;
+        this.maxTasks = maxTasks;
+    }
+
+    /**
+     * Creates a new concurrent long task executor, which never interrupts its tasks.
+     * @param name the name of the executor, used to recognize threads by names
+     * @param maxTasks the maximum number of tasks running at one time
+     */
+    public LongTaskExecutor(String name, int maxTasks) {
+        this(name, maxTasks, -1);
+    }
+
     /**
      * Execute a long task with cancel and progress support. Task can be <code>null</code>.
      * In this case <code>runnable</code> will be executed normally, but without
@@ -118,22 +177,46 @@ public final class LongTaskExecutor {
      * @param taskName the name of the task, is displayed in the status bar if available
      * @param errorHandler error handler for exception retrieval during execution
      * @throws NullPointerException if <code>runnable</code> or <code>taskName</code> is null
-     * @throws IllegalStateException if a task is still executing at this time
+     * @throws IllegalStateException if a task is still executing at this time, unless the executor is concurrent
      */
     public void execute(LongTask task, final Runnable runnable, String taskName, LongTaskErrorHandler errorHandler) {
-        if (runnable == null || taskName == null) {
+        execute(task, runnable, taskName, Priority.NORMAL, null, errorHandler);
+    }
+
+    /**
+     * Execute a long task with cancel and progress support. Task can be <code>null</code>.
+     * In this case <code>runnable</code> will be executed normally, but without
+     * cancel and progress support.
+     * <p>
+     * A concurrent executor runs the task as soon as it has a free thread and no
+     * task with the same key is running, before the waiting tasks of lower
+     * priorities. Other executors ignore the priority and the key.
+     * @param task the task to be executed, can be <code>null</code>.
+     * @param runnable the runnable to be executed
+     * @param taskName the name of the task, is displayed in the status bar if available
+     * @param priority the priority of the task while it waits
+     * @param key the serialization key of the task, e.g. its workspace, or <code>null</code>
+     * to let it run at the same time with any other task
+     * @param errorHandler error handler for exception retrieval during execution
+     * @throws NullPointerException if <code>runnable</code>, <code>taskName</code> or <code>priority</code> is null
+     * @throws IllegalStateException if a task is still executing at this time, unless the executor is concurrent
+     */
+    public void execute(LongTask task, Runnable runnable, String taskName, Priority priority, Object key,
+            LongTaskErrorHandler errorHandler) {
+        if (runnable == null || taskName == null || priority == null) {
             throw new NullPointerException();
         }
+        if (maxTasks > 0) {
+            submit(new RunningLongTask(task, runnable, taskName, priority, key, errorHandler));
+            return;
+        }
         if (runningTask != null) {
             throw new IllegalStateException("A task is still executing");
         }
         if (executor == null) {
             this.executor = new ThreadPoolExecutor(0, 1, 15, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory());
         }
-        if (errorHandler != null) {
-            this.errorHandler = errorHandler;
-        }
-        runningTask = new RunningLongTask(task, runnable, taskName);
+        runningTask = new RunningLongTask(task, runnable, taskName, priority, key, errorHandler);
         if (inBackground) {
             runningTask.future = executor.submit(runningTask);
             started();
@@ -150,7 +233,7 @@ public final class LongTaskExecutor {
      * @param task the task to be executed, can be <code>null</code>.
      * @param runnable the runnable to be executed
      * @throws NullPointerException if <code>runnable</code> is null
-     * @throws IllegalStateException if a task is still executing at this time
+     * @throws IllegalStateException if a task is still executing at this time, unless the executor is concurrent
      */
     public void execute(LongTask task, Runnable runnable) {
         execute(task, runnable, "", null);
@@ -164,28 +247,136 @@ public final class LongTaskExecutor {
      * Cancel the current task. If the task fails to cancel itself and if an <code>interruptDelay</code> has been specified,
      * the task will be <b>interrupted</b> after <code>interruptDelay</code>. Using <code>Thread.interrupt()</code> may cause
      * hazardous behaviours and should be avoided. Therefore any task should be cancellable.
+     * <p>
+     * A concurrent executor cancels all of its running tasks, and drops the waiting ones.
      */
-    public synchronized void cancel() {
-        if (runningTask != null) {
-            if (runningTask.isCancellable()) {
-                if (interruptCancel) {
-                    if (!runningTask.cancel()) {
-                        cancelTimer = new Timer(name + "_cancelTimer");
-                        cancelTimer.schedule(new InterruptTimerTask(), interruptDelay);
+    public void cancel() {
+        if (maxTasks > 0) {
+            cancel(getTasks(true, null));
+            return;
+        }
+        synchronized (this) {
+            if (runningTask != null) {
+                if (runningTask.isCancellable()) {
+                    if (interruptCancel) {
+                        if (!runningTask.cancel()) {
+                            cancelTimer = new Timer(name + "_cancelTimer");
+                            cancelTimer.schedule(new InterruptTimerTask(), interruptDelay);
+                        }
+                    } else {
+                        runningTask.cancel();
                     }
-                } else {
-                    runningTask.cancel();
                 }
             }
         }
     }
 
+    /**
+     * Cancel the tasks of a concurrent executor with the given serialization key, the same
+     * way as {@link #cancel()}.
+     * @param key the serialization key of the tasks
+     */
+    public void cancel(Object key) {
+        if (maxTasks > 0) {
+            cancel(getTasks(false, key));
+        } else {
+            cancel();
+        }
+    }
+
+    private synchronized List<RunningLongTask> getTasks(boolean all, Object key) {
+        List<RunningLongTask> tasks = new ArrayList<RunningLongTask>();
+        for (RunningLongTask t : waitingTasks) {
+            if (all || isKey(t, key)) {
+                tasks.add(t);
+            }
+        }
+        for (RunningLongTask t : runningTasks) {
+            if (all || isKey(t, key)) {
+                tasks.add(t);
+            }
+        }
+        return tasks;
+    }
+
+    private static boolean isKey(RunningLongTask t, Object key) {
+        return t.key == null ? key == null : t.key.equals(key);
+    }
+
+    /**
+     * Cancels the tasks outside of the lock of the executor, since a task may
+     * wait for its thread reporting the progress.
+     */
+    private void cancel(List<RunningLongTask> tasks) {
+        for (final RunningLongTask t : tasks) {
+            synchronized (this) {
+                if (waitingTasks.remove(t)) {
+                    finishedTasks++;
+                    t.finishProgress();
+                    continue;
+                } else if (!runningTasks.contains(t)) {
+                    continue;
+                }
+            }
+            if (!t.cancel() && interruptCancel) {
+                synchronized (this) {
+                    if (cancelTimer == null) {
+                        cancelTimer = new Timer(name + "_cancelTimer", true);
+                    }
+                    cancelTimer.schedule(new TimerTask() {
+                        @Override
+                        public void run() {
+                            t.future.cancel(true);
+                        }
+                    }, interruptDelay);
+                }
+            }
+        }
+        synchronized (this) {
+            progressChanged();
+        }
+    }
+
     /**
      * Returns <code>true</code> if the executor is executing a task.
-     * @return <code>true</code> if a task is running, <code>false</code> otherwise
+     * @return <code>true</code> if a task is running or waiting, <code>false</code> otherwise
+     */
+    public synchronized boolean isRunning() {
+        return runningTask != null || !runningTasks.isEmpty() || !waitingTasks.isEmpty();
+    }
+
+    /**
+     * Returns <code>true</code> if a concurrent executor is executing a task with the given
+     * serialization key.
+     * @param key the serialization key of the tasks
+     * @return <code>true</code> if a task with the key is running or waiting, <code>false</code> otherwise
+     */
+    public synchronized boolean isRunning(Object key) {
+        if (maxTasks == 0) {
+            return runningTask != null;
+        }
+        return !getTasks(false, key).isEmpty();
+    }
+
+    /**
+     * Returns the progress of the tasks executed since the executor was idle, from 0 to 1.
+     * Finished and cancelled tasks count as completed, running tasks as far as they have
+     * reported to their progress tickets, and waiting tasks as not started.
+     * @return the fraction of the tasks completed
      */
-    public boolean isRunning() {
-        return runningTask != null;
+    public synchronized double getProgress() {
+        int count = finishedTasks + runningTasks.size() + waitingTasks.size() + (runningTask != null ? 1 : 0);
+        if (count == 0) {
+            return 0;
+        }
+        double completed = finishedTasks;
+        for (RunningLongTask t : runningTasks) {
+            completed += t.getCompleted();
+        }
+        if (runningTask != null) {
+            completed += runningTask.getCompleted();
+        }
+        return completed / count;
     }
 
     /**
@@ -213,70 +404,163 @@ public final class LongTaskExecutor {
             listener.taskStarted(runningTask.task);
         }
     }
+
     private synchronized void finished() {
         if (cancelTimer != null) {
             cancelTimer.cancel();
         }
         LongTask task = runningTask.task;
         runningTask = null;
-        errorHandler = null;
         if (listener != null) {
             listener.taskFinished(task);
         }
     }
 
+    private synchronized void submit(RunningLongTask t) {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxTasks, maxTasks, 15, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        t.sequence = submitted++;
+        waitingTasks.add(t);
+        dispatch();
+        progressChanged();
+    }
+
+    /**
+     * Starts the waiting tasks of the highest priorities, as many as the free
+     * threads, skipping the tasks whose keys are running.
+     */
+    private void dispatch() {
+        for (Iterator<RunningLongTask> i = waitingTasks.iterator(); i.hasNext() && runningTasks.size() < maxTasks;) {
+            RunningLongTask t = i.next();
+            if (t.key == null || runningKeys.add(t.key)) {
+                i.remove();
+                runningTasks.add(t);
+                if (listener != null) {
+                    listener.taskStarted(t.task);
+                }
+                t.future = executor.submit(t);
+            }
+        }
+    }
+
+    private synchronized void finished(RunningLongTask t) {
+        runningTasks.remove(t);
+        if (t.key != null) {
+            runningKeys.remove(t.key);
+        }
+        finishedTasks++;
+        if (listener != null) {
+            listener.taskFinished(t.task);
+        }
+        dispatch();
+        progressChanged();
+    }
+
+    /**
+     * Reports the aggregated progress of a concurrent executor, and resets it
+     * when the executor gets idle.
+     */
+    private void progressChanged() {
+        if (maxTasks == 0) {
+            return;
+        }
+        if (runningTasks.isEmpty() && waitingTasks.isEmpty()) {
+            finishedTasks = 0;
+            if (progress != null) {
+                progress.finish();
+                progress = null;
+            }
+            return;
+        }
+        if (progress == null) {
+            ProgressTicketProvider progressProvider = Lookup.getDefault().lookup(ProgressTicketProvider.class);
+            if (progressProvider == null) {
+                return;
+            }
+            progress = progressProvider.createTicket(name, new Cancellable() {
+                @Override
+                public boolean cancel() {
+                    LongTaskExecutor.this.cancel();
+                    return true;
+                }
+            });
+            progress.start(100);
+        }
+        progress.progress(NbBundle.getMessage(LongTaskExecutor.class, "LongTaskExecutor.progress",
+                runningTasks.size(), waitingTasks.size()), (int) (100 * getProgress()));
+    }
+
     /**
      * Inner class for associating a task to its Future instance
      */
-    private class RunningLongTask implements Runnable {
+    private class RunningLongTask implements Runnable, Comparable<RunningLongTask> {
 
         private final LongTask task;
         private final Runnable runnable;
-        private Future future;
+        private final Priority priority;
+        private final Object key;
+        private final LongTaskErrorHandler errorHandler;
+        private long sequence;
+        private volatile Future future;
         private ProgressTicket progress;
 
-        public RunningLongTask(LongTask task, Runnable runnable, String taskName) {
+        public RunningLongTask(LongTask task, Runnable runnable, String taskName, Priority priority, Object key,
+                LongTaskErrorHandler errorHandler) {
             this.task = task;
             this.runnable = runnable;
+            this.priority = priority;
+            this.key = key;
+            this.errorHandler = errorHandler;
             ProgressTicketProvider progressProvider = Lookup.getDefault().lookup(ProgressTicketProvider.class);
             if (progressProvider != null) {
-                this.progress = progressProvider.createTicket(taskName, new Cancellable() {
+                this.progress = new TrackingProgressTicket(progressProvider.createTicket(taskName, new Cancellable() {
 
                     public boolean cancel() {
-                        LongTaskExecutor.this.cancel();
+                        if (maxTasks > 0) {
+                            LongTaskExecutor.this.cancel(Collections.singletonList(RunningLongTask.this));
+                        } else {
+                            LongTaskExecutor.this.cancel();
+                        }
                         return true;
                     }
-                });
+                }));
                 if (task != null) {
                     task.setProgressTicket(progress);
-                } else {
+                } else if (maxTasks == 0) {
                     progress.start();
                 }
             }
         }
 
         public void run() {
+            if (maxTasks > 0 && task == null && progress != null) {
+                progress.start();
+            }
+            Exception error = null;
             try {
                 runnable.run();
             } catch (Exception e) {
-                LongTaskErrorHandler err = errorHandler;
+                error = e;
+            }
+            if (maxTasks > 0) {
+                finished(this);
+            } else if (runningTask == this) {
                 finished();
-                if (progress != null) {
-                    progress.finish();
-                }
-                if (err != null) {
-                    err.fatalError(e);
+            }
+            finishProgress();
+            if (error != null) {
+                if (errorHandler != null) {
+                    errorHandler.fatalError(error);
                 } else if (defaultErrorHandler != null) {
-                    defaultErrorHandler.fatalError(e);
+                    defaultErrorHandler.fatalError(error);
                 } else {
-                    Logger.getLogger("").log(Level.SEVERE, "", e);
+                    Logger.getLogger("").log(Level.SEVERE, "", error);
                 }
             }
-
-            finished();
-            if (progress != null) {
-                progress.finish();
-            }
         }
 
         public boolean cancel() {
@@ -300,6 +584,121 @@ public final class LongTaskExecutor {
             }
             return true;
         }
+
+        private void finishProgress() {
+            if (progress != null) {
+                progress.finish();
+            }
+        }
+
+        private double getCompleted() {
+            return progress != null ? ((TrackingProgressTicket) progress).getCompleted() : 0;
+        }
+
+        @Override
+        public int compareTo(RunningLongTask t) {
+            int c = priority.compareTo(t.priority);
+            return c != 0 ? c : (sequence < t.sequence ? -1 : (sequence == t.sequence ? 0 : 1));
+        }
+    }
+
+    /**
+     * A progress ticket recording the work units reported by a task, from which
+     * the progress of the executor is aggregated.
+     */
+    private class TrackingProgressTicket implements ProgressTicket {
+
+        private final ProgressTicket ticket;
+        private volatile int workunits, completed;
+
+        TrackingProgressTicket(ProgressTicket ticket) {
+            this.ticket = ticket;
+        }
+
+        double getCompleted() {
+            int total = workunits;
+            return total > 0 ? Math.min(1, (double) completed / total) : 0;
+        }
+
+        private void completed(int workunit) {
+            completed = workunit;
+            if (maxTasks > 0) {
+                synchronized (LongTaskExecutor.this) {
+                    progressChanged();
+                }
+            }
+        }
+
+        @Override
+        public ProgressHandle getHandle() {
+            return ticket.getHandle();
+        }
+
+        @Override
+        public void finish() {
+            ticket.finish();
+        }
+
+        @Override
+        public void finish(String finishMessage) {
+            ticket.finish(finishMessage);
+        }
+
+        @Override
+        public void progress() {
+            ticket.progress();
+            completed(completed + 1);
+        }
+
+        @Override
+        public void progress(int workunit) {
+            ticket.progress(workunit);
+            completed(workunit);
+        }
+
+        @Override
+        public void progress(String message) {
+            ticket.progress(message);
+        }
+
+        @Override
+        public void progress(String message, int workunit) {
+            ticket.progress(message, workunit);
+            completed(workunit);
+        }
+
+        @Override
+        public void setDisplayName(String newDisplayName) {
+            ticket.setDisplayName(newDisplayName);
+        }
+
+        @Override
+        public String getDisplayName() {
+            return ticket.getDisplayName();
+        }
+
+        @Override
+        public void start() {
+            ticket.start();
+        }
+
+        @Override
+        public void start(int workunits) {
+            this.workunits = workunits;
+            ticket.start(workunits);
+        }
+
+        @Override
+        public void switchToDeterminate(int workunits) {
+            this.workunits = workunits;
+            ticket.switchToDeterminate(workunits);
+        }
+
+        @Override
+        public void switchToIndeterminate() {
+            workunits = 0;
+            ticket.switchToIndeterminate();
+        }
     }
 
     /**
@@ -307,8 +706,10 @@ public final class LongTaskExecutor {
      */
     private class NamedThreadFactory implements ThreadFactory {
 
+        private int count;
+
         public Thread newThread(Runnable r) {
-            return new Thread(r, name);
+            return new Thread(r, maxTasks > 1 ? name + "-" + (++count) : name);
         }
     }
 
@@ -0,0 +1,162 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.longtask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.mongkie.longtask.LongTaskExecutor.Priority;
+import org.mongkie.longtask.progress.ProgressTicket;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class LongTaskExecutorTest {
+
+    public LongTaskExecutorTest() {
+    }
+
+    private static Runnable await(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                }
+            }
+        };
+    }
+
+    private static Runnable record(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testPriorities() throws InterruptedException {
+        LongTaskExecutor executor = new LongTaskExecutor("test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        executor.execute(null, await(release), "blocking", Priority.NORMAL, null, null);
+        executor.execute(null, record(order, "low", done), "low", Priority.LOW, null, null);
+        executor.execute(null, record(order, "normal", done), "normal", Priority.NORMAL, null, null);
+        executor.execute(null, record(order, "high", done), "high", Priority.HIGH, null, null);
+        assertTrue(executor.isRunning());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // waiting tasks run by priority, not by submission
+        assertEquals(Arrays.asList("high", "normal", "low"), order);
+    }
+
+    @Test
+    public void testSerializationKeys() throws InterruptedException {
+        LongTaskExecutor executor = new LongTaskExecutor("test", 4);
+        final AtomicInteger running = new AtomicInteger(), overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(20);
+        Runnable exclusive = new Runnable() {
+            @Override
+            public void run() {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                }
+                running.decrementAndGet();
+                done.countDown();
+            }
+        };
+        Object workspace = new Object();
+        for (int i = 0; i < 20; i++) {
+            executor.execute(null, exclusive, "task" + i, Priority.NORMAL, workspace, null);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+
+        // tasks of other keys do not wait for a blocked one
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+        try {
+            executor.execute(null, await(release), "blocking", Priority.NORMAL, workspace, null);
+            executor.execute(null, record(new ArrayList<String>(), "other", other), "other", Priority.NORMAL, new Object(), null);
+            assertTrue(other.await(2, TimeUnit.SECONDS));
+            assertTrue(executor.isRunning(workspace));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        LongTaskExecutor executor = new LongTaskExecutor("test", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        LongTask task = new LongTask() {
+            @Override
+            public boolean cancel() {
+                release.countDown();
+                return true;
+            }
+
+            @Override
+            public void setProgressTicket(ProgressTicket progressTicket) {
+            }
+        };
+        executor.setLongTaskListener(new LongTaskListener() {
+            @Override
+            public void taskStarted(LongTask task) {
+            }
+
+            @Override
+            public void taskFinished(LongTask task) {
+                finished.countDown();
+            }
+        });
+        final AtomicInteger dropped = new AtomicInteger();
+        executor.execute(task, await(release), "cancellable", Priority.NORMAL, "a", null);
+        executor.execute(null, new Runnable() {
+            @Override
+            public void run() {
+                dropped.incrementAndGet();
+            }
+        }, "waiting", Priority.NORMAL, "b", null);
+        executor.cancel();
+        // the running task cancels itself, and the waiting one never runs
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(executor.isRunning());
+        assertEquals(0, dropped.get());
+        assertEquals(0, executor.getProgress(), 0);
+    }
+}
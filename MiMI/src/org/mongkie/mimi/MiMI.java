@@ -19,6 +19,7 @@
 package org.mongkie.mimi;
 
 import java.awt.Image;
+import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -41,6 +42,7 @@ import org.mongkie.mimi.jaxb.annotation.Annotation;
 import org.mongkie.mimi.jaxb.interaction.Interaction;
 import org.mongkie.mimi.jaxb.interaction.Result;
 import org.openide.util.ImageUtilities;
+import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
 import prefuse.data.Edge;
 
@@ -210,13 +212,34 @@ public class MiMI implements InteractionSource<Integer> {
     }
     private RichDescription richDescription;
 
-    public static class PPI implements org.mongkie.im.spi.Interaction<Integer> {
+    private static MiMI defaultInstance;
+
+    /**
+     * Returns the registered instance of this source, or a new one if not
+     * registered.
+     */
+    static synchronized MiMI getDefault() {
+        if (defaultInstance == null) {
+            for (InteractionSource<?> is : Lookup.getDefault().lookupAll(InteractionSource.class)) {
+                if (is.getClass() == MiMI.class) {
+                    defaultInstance = (MiMI) is;
+                    break;
+                }
+            }
+            if (defaultInstance == null) {
+                defaultInstance = new MiMI();
+            }
+        }
+        return defaultInstance;
+    }
+
+    public static class PPI implements org.mongkie.im.spi.Interaction<Integer>, Serializable {
 
         private final int sourceGeneId, targetGeneId;
         private final int interactionId;
         private final Interactor<Integer> interactor;
         private final Attribute.Set attributes;
-        private final MiMI mimi;
+        private transient MiMI mimi;
 
         public PPI(MiMI mimi, Interaction interaction) {
             this.mimi = mimi;
@@ -309,6 +332,15 @@ public class MiMI implements InteractionSource<Integer> {
         public boolean identicalWith(Edge e) {
             return mimi.getName().equals(e.getString(FIELD));
         }
+
+        /**
+         * The source is not serialized with the interaction, e.g. cached on
+         * disk, so binds the interaction to it again when read.
+         */
+        private Object readResolve() {
+            mimi = getDefault();
+            return this;
+        }
     }
 
     public enum AnnotationElement {
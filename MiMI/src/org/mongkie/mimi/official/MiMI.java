@@ -19,6 +19,7 @@
 package org.mongkie.mimi.official;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -48,6 +49,7 @@ import org.mongkie.mimi.jaxb.official.InteractingGene;
 import org.mongkie.mimi.jaxb.official.InteractionAttribute;
 import org.mongkie.mimi.jaxb.official.NCIBI;
 import org.mongkie.mimi.jaxb.official.Result;
+import org.openide.util.Lookup;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -179,13 +181,34 @@ public class MiMI implements InteractionSource<Integer> {
         return null;
     }
 
-    public static class PPI implements Interaction<Integer> {
+    private static MiMI defaultInstance;
+
+    /**
+     * Returns the registered instance of this source, or a new one if not
+     * registered.
+     */
+    static synchronized MiMI getDefault() {
+        if (defaultInstance == null) {
+            for (InteractionSource<?> is : Lookup.getDefault().lookupAll(InteractionSource.class)) {
+                if (is.getClass() == MiMI.class) {
+                    defaultInstance = (MiMI) is;
+                    break;
+                }
+            }
+            if (defaultInstance == null) {
+                defaultInstance = new MiMI();
+            }
+        }
+        return defaultInstance;
+    }
+
+    public static class PPI implements Interaction<Integer>, Serializable {
 
         private final int sourceGeneId, targetGeneId;
         private final int interactionId;
         private final Interactor<Integer> interactor;
         private final Attribute.Set attributes;
-        private final MiMI mimi;
+        private transient MiMI mimi;
 
         public PPI(MiMI mimi, Integer sourceGeneId, InteractingGene interactingGene) {
             this.mimi = mimi;
@@ -293,6 +316,15 @@ public class MiMI implements InteractionSource<Integer> {
         public boolean identicalWith(Edge e) {
             return mimi.getName().equals(e.getString(FIELD));
         }
+
+        /**
+         * The source is not serialized with the interaction, e.g. cached on
+         * disk, so binds the interaction to it again when read.
+         */
+        private Object readResolve() {
+            mimi = getDefault();
+            return this;
+        }
     }
 
     public enum AnnotationElement {
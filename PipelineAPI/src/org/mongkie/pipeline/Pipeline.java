@@ -0,0 +1,87 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.mongkie.pipeline.spi.Step;
+
+/**
+ * A named graph of steps, each taking the results of the steps it names as
+ * inputs. Steps are added after their inputs, so a pipeline never has cycles,
+ * and steps which do not depend on each other run in parallel.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class Pipeline {
+
+    private final String name;
+    private final Map<String, Step<?>> steps = new LinkedHashMap<String, Step<?>>();
+
+    public Pipeline(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds a step to this pipeline.
+     *
+     * @param step the step
+     * @return this pipeline
+     * @throws IllegalArgumentException if a step of the same name was added, or
+     * an input of the step was not
+     */
+    public Pipeline add(Step<?> step) {
+        if (steps.containsKey(step.getName())) {
+            throw new IllegalArgumentException("Duplicated step: " + step.getName());
+        }
+        for (String input : step.getInputs()) {
+            if (!steps.containsKey(input)) {
+                throw new IllegalArgumentException("Unknown input of " + step.getName() + ": " + input);
+            }
+        }
+        steps.put(step.getName(), step);
+        return this;
+    }
+
+    public Step<?> getStep(String name) {
+        return steps.get(name);
+    }
+
+    /**
+     * Returns the steps in the order they were added, inputs before the steps
+     * depending on them.
+     *
+     * @return the steps
+     */
+    public List<Step<?>> getSteps() {
+        return Collections.unmodifiableList(new ArrayList<Step<?>>(steps.values()));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
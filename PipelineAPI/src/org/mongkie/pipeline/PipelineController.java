@@ -0,0 +1,87 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline;
+
+import java.util.List;
+
+/**
+ * Runs pipelines without a display, in a pool of threads shared by all of
+ * them: steps start as soon as their inputs are computed, so independent steps
+ * of a pipeline, and the steps of different pipelines of a batch, run in
+ * parallel. Results of cacheable steps are kept in a bounded cache and shared
+ * by the runs computing the same step on the same inputs, e.g. the PPI network
+ * every gene list of a batch is mapped onto is read only once.
+ * <p>
+ * This controller is a service and can therefore be found in Lookup:
+ * <pre>PipelineController pc = Lookup.getDefault().lookup(PipelineController.class);</pre>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface PipelineController {
+
+    /**
+     * Runs a pipeline and waits for it to finish.
+     *
+     * @param pipeline the pipeline
+     * @return the results of its steps
+     * @throws InterruptedException if interrupted while waiting, in which case
+     * the pipeline keeps running
+     */
+    public PipelineResult execute(Pipeline pipeline) throws InterruptedException;
+
+    /**
+     * Runs a batch of pipelines and waits for all of them to finish.
+     *
+     * @param batch the pipelines
+     * @return the results of the pipelines, in the same order
+     * @throws InterruptedException if interrupted while waiting, in which case
+     * the pipelines keep running
+     */
+    public List<PipelineResult> execute(List<Pipeline> batch) throws InterruptedException;
+
+    /**
+     * Starts a pipeline in the background.
+     *
+     * @param pipeline the pipeline
+     * @return the results of its steps, filled in while it runs
+     */
+    public PipelineResult submit(Pipeline pipeline);
+
+    /**
+     * Cancels all running pipelines, whose remaining steps are marked
+     * {@link PipelineResult.Status#CANCELLED}.
+     */
+    public void cancel();
+
+    public boolean isRunning();
+
+    /**
+     * Sets the number of step results kept in the cache, <tt>64</tt> by
+     * default.
+     *
+     * @param size the maximum number of cached results
+     */
+    public void setCacheSize(int size);
+
+    public void clearCache();
+
+    public void addPipelineListener(PipelineListener listener);
+
+    public void removePipelineListener(PipelineListener listener);
+}
@@ -0,0 +1,32 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline;
+
+/**
+ * Listens to the steps and the pipelines run by the {@link PipelineController}.
+ * Events are fired in the threads of the steps.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface PipelineListener {
+
+    public void stepFinished(PipelineResult result, String step);
+
+    public void pipelineFinished(PipelineResult result);
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline;
+
+/**
+ * The results of the steps of a pipeline, filled in while it runs.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface PipelineResult {
+
+    public static enum Status {
+
+        /**
+         * Waiting for inputs or a free thread, or running.
+         */
+        WAITING,
+        /**
+         * Computed by this run.
+         */
+        DONE,
+        /**
+         * Taken from the cache, or from another run of the same step.
+         */
+        CACHED,
+        /**
+         * Thrown an exception.
+         */
+        FAILED,
+        /**
+         * Not run since an input failed or was skipped.
+         */
+        SKIPPED,
+        /**
+         * Not run or not finished since the run was cancelled.
+         */
+        CANCELLED
+    }
+
+    public Pipeline getPipeline();
+
+    /**
+     * Returns the result of a step.
+     *
+     * @param step the name of the step
+     * @return the result, or <tt>null</tt> if the step is not done or cached
+     */
+    public Object get(String step);
+
+    public Status getStatus(String step);
+
+    /**
+     * Returns the exception thrown by a failed step.
+     *
+     * @param step the name of the step
+     * @return the exception, or <tt>null</tt> if the step did not fail
+     */
+    public Throwable getError(String step);
+
+    /**
+     * Returns whether every step of the pipeline is done or cached.
+     *
+     * @return true if the pipeline succeeded
+     */
+    public boolean isSucceeded();
+
+    /**
+     * Returns whether no step of the pipeline is waiting any more.
+     *
+     * @return true if the pipeline finished
+     */
+    public boolean isFinished();
+
+    /**
+     * Returns the wall-clock time the pipeline took to run, so far if it is
+     * still running.
+     *
+     * @return the time in milliseconds
+     */
+    public long getTime();
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.batch;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.mongkie.pipeline.Pipeline;
+import org.mongkie.pipeline.PipelineController;
+import org.mongkie.pipeline.PipelineListener;
+import org.mongkie.pipeline.PipelineResult;
+import org.mongkie.pipeline.PipelineResult.Status;
+import org.mongkie.pipeline.impl.PipelineControllerImpl;
+import org.mongkie.pipeline.spi.Step;
+import org.mongkie.pipeline.steps.ClusteringStep;
+import org.mongkie.pipeline.steps.ExportStep;
+import org.mongkie.pipeline.steps.ExpressionOverlayStep;
+import org.mongkie.pipeline.steps.ExpressionReadStep;
+import org.mongkie.pipeline.steps.GeneListStep;
+import org.mongkie.pipeline.steps.InteractionQueryStep;
+import org.mongkie.pipeline.steps.NetworkImportStep;
+import org.mongkie.pipeline.steps.SubnetworkStep;
+import prefuse.data.Graph;
+
+/**
+ * Runs the pipeline of the Pipeline window on a batch of gene lists from the
+ * command line, without a display: for each list, the network of its genes is
+ * extracted from a PPI network read from CSV files, or queried from an
+ * interaction source, overlaid with expression profiles, clustered and
+ * exported. The PPI network and the expression profiles are read once for the
+ * whole batch.
+ * <p>
+ * Usage: <tt>BatchRunner [options] &lt;gene list file or directory&gt;...</tt>
+ * <pre>
+ * -ppi file          edge table of the PPI network
+ * -ppi-nodes file    node table of the PPI network
+ * -node-id column    node identifier column of the node table, default "id"
+ * -source-id column  source node identifier column of the edge table, default "source"
+ * -target-id column  target node identifier column of the edge table, default "target"
+ * -directed          whether the PPI network is directed
+ * -source name       queries the interaction source of the name instead of -ppi
+ * -neighbors         adds the neighbors of the genes to their networks
+ * -expression file   expression profiles keyed by the first column
+ * -clustering name   clustering algorithm, e.g. MCL
+ * -format format     export format, CSV (default) or GraphML
+ * -out directory     output directory, default the working directory
+ * -threads n         number of threads, default the number of processors
+ * </pre>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public final class BatchRunner {
+
+    static final String GENES = "genes", PPI = "ppi", NETWORK = "network",
+            EXPRESSION = "expression", OVERLAY = "overlay", CLUSTERS = "clusters", EXPORT = "export";
+    private File ppiNodes, ppiEdges, expression, out = new File(".");
+    private String nodeId = "id", sourceId = "source", targetId = "target";
+    private String source, clustering, format = "CSV";
+    private boolean directed, neighbors;
+
+    /**
+     * Creates the pipeline of a gene list.
+     *
+     * @param geneList the file of the gene list
+     * @return the pipeline named after the file
+     */
+    public Pipeline createPipeline(File geneList) {
+        String name = geneList.getName().replaceFirst("\\.[^.]*$", "");
+        Pipeline p = new Pipeline(name);
+        p.add(new GeneListStep(GENES, geneList));
+        String last;
+        if (source != null) {
+            p.add(new InteractionQueryStep(NETWORK, GENES, source, Graph.DEFAULT_NODE_LABEL, neighbors));
+        } else {
+            if (ppiEdges == null) {
+                throw new IllegalArgumentException("Neither a PPI network nor an interaction source is given");
+            }
+            p.add(new NetworkImportStep(PPI, ppiNodes, ppiEdges, nodeId, sourceId, targetId, directed));
+            p.add(new SubnetworkStep(NETWORK, GENES, PPI, ppiNodes != null ? nodeId : null, neighbors));
+        }
+        last = NETWORK;
+        if (expression != null) {
+            p.add(new ExpressionReadStep(EXPRESSION, expression, true));
+            p.add(new ExpressionOverlayStep(OVERLAY, last, EXPRESSION, null));
+            last = OVERLAY;
+        }
+        if (clustering != null) {
+            p.add(new ClusteringStep(CLUSTERS, last, clustering, "Cluster"));
+            last = CLUSTERS;
+        }
+        p.add(new ExportStep(EXPORT, last, out, name, format));
+        return p;
+    }
+
+    private static void addGeneLists(File file, List<File> geneLists) {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles(new FileFilter() {
+                @Override
+                public boolean accept(File f) {
+                    return f.isFile() && !f.isHidden();
+                }
+            });
+            Arrays.sort(files);
+            geneLists.addAll(Arrays.asList(files));
+        } else {
+            geneLists.add(file);
+        }
+    }
+
+    private static String describe(PipelineResult result) {
+        for (Step<?> step : result.getPipeline().getSteps()) {
+            if (result.getStatus(step.getName()) == Status.FAILED) {
+                return "FAILED at " + step.getName() + ": " + result.getError(step.getName());
+            }
+        }
+        if (!result.isSucceeded()) {
+            return result.getStatus(EXPORT).toString();
+        }
+        Graph g = null;
+        for (Step<?> step : result.getPipeline().getSteps()) {
+            if (result.get(step.getName()) instanceof Graph) {
+                g = (Graph) result.get(step.getName());
+            }
+        }
+        return "OK, " + g.getNodeCount() + " nodes, " + g.getEdgeCount() + " edges, " + result.getTime() + " ms";
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        BatchRunner runner = new BatchRunner();
+        List<File> geneLists = new ArrayList<File>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-ppi")) {
+                runner.ppiEdges = new File(args[++i]);
+            } else if (arg.equals("-ppi-nodes")) {
+                runner.ppiNodes = new File(args[++i]);
+            } else if (arg.equals("-node-id")) {
+                runner.nodeId = args[++i];
+            } else if (arg.equals("-source-id")) {
+                runner.sourceId = args[++i];
+            } else if (arg.equals("-target-id")) {
+                runner.targetId = args[++i];
+            } else if (arg.equals("-directed")) {
+                runner.directed = true;
+            } else if (arg.equals("-source")) {
+                runner.source = args[++i];
+            } else if (arg.equals("-neighbors")) {
+                runner.neighbors = true;
+            } else if (arg.equals("-expression")) {
+                runner.expression = new File(args[++i]);
+            } else if (arg.equals("-clustering")) {
+                runner.clustering = args[++i];
+            } else if (arg.equals("-format")) {
+                runner.format = args[++i];
+            } else if (arg.equals("-out")) {
+                runner.out = new File(args[++i]);
+            } else if (arg.equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.startsWith("-")) {
+                throw new IllegalArgumentException("Unknown option: " + arg + ", usage: BatchRunner [-ppi file] [-ppi-nodes file] "
+                        + "[-node-id column] [-source-id column] [-target-id column] [-directed] [-source name] [-neighbors] "
+                        + "[-expression file] [-clustering name] [-format CSV|GraphML] [-out directory] [-threads n] genelist...");
+            } else {
+                addGeneLists(new File(arg), geneLists);
+            }
+        }
+        List<Pipeline> batch = new ArrayList<Pipeline>();
+        for (File geneList : geneLists) {
+            batch.add(runner.createPipeline(geneList));
+        }
+        PipelineController controller = new PipelineControllerImpl(threads);
+        final long start = System.currentTimeMillis();
+        controller.addPipelineListener(new PipelineListener() {
+            @Override
+            public void stepFinished(PipelineResult result, String step) {
+            }
+
+            @Override
+            public void pipelineFinished(PipelineResult result) {
+                System.out.println(result.getPipeline().getName() + ": " + describe(result));
+            }
+        });
+        int failed = 0;
+        for (PipelineResult result : controller.execute(batch)) {
+            if (!result.isSucceeded()) {
+                failed++;
+            }
+        }
+        System.out.println(batch.size() + " pipelines, " + failed + " failed, " + (System.currentTimeMillis() - start) + " ms");
+        System.exit(failed > 0 ? 1 : 0);
+    }
+}
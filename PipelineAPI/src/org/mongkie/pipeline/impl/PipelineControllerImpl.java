@@ -0,0 +1,380 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.mongkie.longtask.LongTask;
+import org.mongkie.longtask.LongTaskExecutor;
+import org.mongkie.longtask.LongTaskExecutor.Priority;
+import org.mongkie.longtask.progress.ProgressTicket;
+import org.mongkie.pipeline.Pipeline;
+import org.mongkie.pipeline.PipelineController;
+import org.mongkie.pipeline.PipelineListener;
+import org.mongkie.pipeline.PipelineResult;
+import org.mongkie.pipeline.PipelineResult.Status;
+import org.mongkie.pipeline.spi.Step;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+@ServiceProvider(service = PipelineController.class)
+public class PipelineControllerImpl implements PipelineController {
+
+    private final LongTaskExecutor executor;
+    private final ResultCache cache = new ResultCache(64);
+    private final List<Run> runs = new ArrayList<Run>();
+    private final List<PipelineListener> listeners = new CopyOnWriteArrayList<PipelineListener>();
+
+    public PipelineControllerImpl() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a controller of its own running at most the given number of
+     * steps at a time, e.g. for a batch run outside of the platform.
+     */
+    public PipelineControllerImpl(int threads) {
+        executor = new LongTaskExecutor("Pipeline", threads);
+    }
+
+    @Override
+    public PipelineResult execute(Pipeline pipeline) throws InterruptedException {
+        Run run = (Run) submit(pipeline);
+        run.finished.await();
+        return run;
+    }
+
+    @Override
+    public List<PipelineResult> execute(List<Pipeline> batch) throws InterruptedException {
+        List<PipelineResult> results = new ArrayList<PipelineResult>(batch.size());
+        for (Pipeline pipeline : batch) {
+            results.add(submit(pipeline));
+        }
+        for (PipelineResult result : results) {
+            ((Run) result).finished.await();
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized PipelineResult submit(Pipeline pipeline) {
+        Run run = new Run(pipeline);
+        runs.add(run);
+        for (Step<?> step : pipeline.getSteps()) {
+            if (step.getInputs().length == 0) {
+                ready(run, step);
+            }
+        }
+        if (run.isFinished()) {
+            finished(run);
+        }
+        return run;
+    }
+
+    /**
+     * Starts a step whose inputs are computed, unless it is cached or being
+     * computed for another run.
+     */
+    private void ready(Run run, Step<?> step) {
+        Object key = getCacheKey(run, step);
+        run.keys.put(step.getName(), key);
+        if (key != null) {
+            Object result = cache.get(key);
+            if (result != null) {
+                completed(run, step.getName(), Status.CACHED, result, null);
+                return;
+            }
+            if (cache.await(key, new Waiter(run, step.getName()))) {
+                return;
+            }
+        }
+        StepTask task = new StepTask(run, step, key);
+        // Steps of started runs go first, finishing runs to free their results
+        executor.execute(task, task, step.getName(), step.getInputs().length > 0 ? Priority.HIGH : Priority.NORMAL, null, null);
+    }
+
+    private Object getCacheKey(Run run, Step<?> step) {
+        Object key = step.getKey();
+        if (key == null) {
+            return null;
+        }
+        String[] inputs = step.getInputs();
+        Object[] keys = new Object[inputs.length + 2];
+        keys[0] = step.getClass().getName();
+        keys[1] = key;
+        for (int i = 0; i < inputs.length; i++) {
+            if ((keys[i + 2] = run.keys.get(inputs[i])) == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(keys);
+    }
+
+    private synchronized void executed(Run run, Step<?> step, Object key, Object result, Throwable error) {
+        if (key != null) {
+            for (Object o : cache.put(key, error == null ? result : null)) {
+                Waiter w = (Waiter) o;
+                completed(w.run, w.step, error == null ? Status.CACHED : Status.FAILED, result, error);
+            }
+        }
+        completed(run, step.getName(), error == null ? Status.DONE : Status.FAILED, result, error);
+    }
+
+    /**
+     * Records the result of a step and starts the steps it completes the inputs
+     * of, or skips them if the step did not succeed.
+     */
+    private void completed(Run run, String step, Status status, Object result, Throwable error) {
+        if (!run.setResult(step, status, result, error)) {
+            return;
+        }
+        for (PipelineListener l : listeners) {
+            l.stepFinished(run, step);
+        }
+        for (String dependent : run.dependents.get(step)) {
+            if (status == Status.DONE || status == Status.CACHED) {
+                int waiting = run.waiting.get(dependent) - 1;
+                run.waiting.put(dependent, waiting);
+                if (waiting == 0) {
+                    ready(run, run.pipeline.getStep(dependent));
+                }
+            } else {
+                completed(run, dependent, status == Status.CANCELLED ? Status.CANCELLED : Status.SKIPPED, null, null);
+            }
+        }
+        if (run.isFinished()) {
+            finished(run);
+        }
+    }
+
+    private void finished(Run run) {
+        if (!runs.remove(run)) {
+            return;
+        }
+        run.setEndTime();
+        for (PipelineListener l : listeners) {
+            l.pipelineFinished(run);
+        }
+        run.finished.countDown();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            cache.cancel();
+            for (Run run : new ArrayList<Run>(runs)) {
+                for (Step<?> step : run.pipeline.getSteps()) {
+                    completed(run, step.getName(), Status.CANCELLED, null, null);
+                }
+            }
+        }
+        executor.cancel();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !runs.isEmpty();
+    }
+
+    @Override
+    public synchronized void setCacheSize(int size) {
+        cache.setMaxSize(size);
+    }
+
+    @Override
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    synchronized ResultCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public void addPipelineListener(PipelineListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removePipelineListener(PipelineListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static class Waiter {
+
+        private final Run run;
+        private final String step;
+
+        Waiter(Run run, String step) {
+            this.run = run;
+            this.step = step;
+        }
+    }
+
+    /**
+     * The state of a pipeline run, guarded by the lock of the controller except
+     * the results read through {@link PipelineResult}.
+     */
+    private static class Run implements PipelineResult {
+
+        private final Pipeline pipeline;
+        private final Map<String, List<String>> dependents = new HashMap<String, List<String>>();
+        private final Map<String, Integer> waiting = new HashMap<String, Integer>();
+        private final Map<String, Object> keys = new HashMap<String, Object>();
+        private final Map<String, Object> results = new HashMap<String, Object>();
+        private final Map<String, Status> statuses = new HashMap<String, Status>();
+        private final Map<String, Throwable> errors = new HashMap<String, Throwable>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final long startTime = System.currentTimeMillis();
+        private long endTime;
+
+        Run(Pipeline pipeline) {
+            this.pipeline = pipeline;
+            for (Step<?> step : pipeline.getSteps()) {
+                dependents.put(step.getName(), new ArrayList<String>());
+                waiting.put(step.getName(), step.getInputs().length);
+                for (String input : step.getInputs()) {
+                    dependents.get(input).add(step.getName());
+                }
+            }
+        }
+
+        synchronized boolean setResult(String step, Status status, Object result, Throwable error) {
+            if (statuses.containsKey(step)) {
+                return false;
+            }
+            statuses.put(step, status);
+            if (result != null) {
+                results.put(step, result);
+            }
+            if (error != null) {
+                errors.put(step, error);
+            }
+            return true;
+        }
+
+        synchronized Object[] getInputs(Step<?> step) {
+            String[] inputs = step.getInputs();
+            Object[] values = new Object[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                values[i] = results.get(inputs[i]);
+            }
+            return values;
+        }
+
+        synchronized void setEndTime() {
+            endTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public Pipeline getPipeline() {
+            return pipeline;
+        }
+
+        @Override
+        public synchronized Object get(String step) {
+            return results.get(step);
+        }
+
+        @Override
+        public synchronized Status getStatus(String step) {
+            Status status = statuses.get(step);
+            return status != null ? status : Status.WAITING;
+        }
+
+        @Override
+        public synchronized Throwable getError(String step) {
+            return errors.get(step);
+        }
+
+        @Override
+        public synchronized boolean isSucceeded() {
+            for (Step<?> step : pipeline.getSteps()) {
+                Status status = getStatus(step.getName());
+                if (status != Status.DONE && status != Status.CACHED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isFinished() {
+            return statuses.size() == dependents.size();
+        }
+
+        @Override
+        public synchronized long getTime() {
+            return (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+        }
+
+        @Override
+        public String toString() {
+            return pipeline.getName();
+        }
+    }
+
+    private class StepTask implements LongTask, Runnable {
+
+        private final Run run;
+        private final Step<?> step;
+        private final Object key;
+
+        StepTask(Run run, Step<?> step, Object key) {
+            this.run = run;
+            this.step = step;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (run.isFinished()) {
+                return;
+            }
+            Object result = null;
+            Throwable error = null;
+            try {
+                result = step.execute(run.getInputs(step));
+            } catch (Exception ex) {
+                error = ex;
+            } catch (Error ex) {
+                executed(run, step, key, null, ex);
+                throw ex;
+            }
+            executed(run, step, key, result, error);
+        }
+
+        @Override
+        public boolean cancel() {
+            return step.cancel();
+        }
+
+        @Override
+        public void setProgressTicket(ProgressTicket progressTicket) {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of steps by their keys, the least recently used ones evicted beyond
+ * a maximum size, and steps being computed, whose results are waited for by
+ * other runs of the same steps. Guarded by the lock of the controller.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+class ResultCache {
+
+    private int maxSize;
+    private final Map<Object, Object> results = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+            return size() > maxSize;
+        }
+    };
+    private final Map<Object, List<Object>> pending = new HashMap<Object, List<Object>>();
+    private int hitCount, missCount;
+
+    ResultCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        for (Iterator<Object> keys = results.keySet().iterator(); results.size() > maxSize;) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Returns the result of a key, counting a hit or a miss.
+     *
+     * @param key the key of a step
+     * @return the result, or <tt>null</tt> if not cached
+     */
+    Object get(Object key) {
+        Object result = results.get(key);
+        if (result != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return result;
+    }
+
+    boolean isPending(Object key) {
+        return pending.containsKey(key);
+    }
+
+    /**
+     * Adds a waiter for the result of a key being computed, or marks the key
+     * computed if nobody computes it yet.
+     *
+     * @param key the key of a step
+     * @param waiter the waiter
+     * @return true if the waiter must wait, false if the caller computes it
+     */
+    boolean await(Object key, Object waiter) {
+        List<Object> waiters = pending.get(key);
+        if (waiters == null) {
+            pending.put(key, new ArrayList<Object>());
+            return false;
+        }
+        waiters.add(waiter);
+        return true;
+    }
+
+    /**
+     * Stores the result of a key computed, or forgets a failed key.
+     *
+     * @param key the key of a step
+     * @param result the result, or <tt>null</tt> if the step failed
+     * @return the waiters for the result
+     */
+    List<Object> put(Object key, Object result) {
+        if (result != null && maxSize > 0) {
+            results.put(key, result);
+        }
+        List<Object> waiters = pending.remove(key);
+        return waiters != null ? waiters : new ArrayList<Object>(0);
+    }
+
+    /**
+     * Forgets the keys being computed and their waiters.
+     */
+    void cancel() {
+        pending.clear();
+    }
+
+    void clear() {
+        results.clear();
+    }
+
+    int size() {
+        return results.size();
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.spi;
+
+/**
+ * Base class of steps, holding the name and the inputs, and which can not be
+ * cancelled unless the subclass checks {@link #isCancelled()}.
+ *
+ * @param <T> the type of the result
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public abstract class AbstractStep<T> implements Step<T> {
+
+    private final String name;
+    private final String[] inputs;
+    private volatile boolean cancelled;
+
+    protected AbstractStep(String name, String... inputs) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        this.name = name;
+        this.inputs = inputs;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String[] getInputs() {
+        return inputs.clone();
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    protected boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.spi;
+
+/**
+ * A step of a {@link org.mongkie.pipeline.Pipeline}, computing a result from
+ * the results of its input steps.
+ * <p>
+ * Results of steps with a {@link #getKey() key} are cached and shared by every
+ * pipeline running the same step on the same inputs, so a step must not modify
+ * its inputs, and should lock them while reading since other steps may read
+ * them at the same time.
+ *
+ * @param <T> the type of the result
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public interface Step<T> {
+
+    /**
+     * Returns the name of this step, unique in its pipeline.
+     *
+     * @return the name
+     */
+    public String getName();
+
+    /**
+     * Returns the names of the steps whose results are the inputs of this step,
+     * in the order of the arguments of {@link #execute(Object...)}.
+     *
+     * @return the names of the input steps, or an empty array
+     */
+    public String[] getInputs();
+
+    /**
+     * Returns a key identifying the parameters of this step, e.g. the path and
+     * the modification time of a file it reads. Two steps of the same class
+     * with equal keys compute equal results from equal inputs.
+     *
+     * @return the key, or <tt>null</tt> if the result must not be cached, e.g.
+     * a step writing files
+     */
+    public Object getKey();
+
+    /**
+     * Computes the result of this step.
+     *
+     * @param inputs the results of the input steps
+     * @return the result
+     * @throws Exception if the step fails, which skips the steps depending on
+     * it
+     */
+    public T execute(Object... inputs) throws Exception;
+
+    /**
+     * Cancels the execution of this step.
+     *
+     * @return true if cancelled
+     */
+    public boolean cancel();
+}
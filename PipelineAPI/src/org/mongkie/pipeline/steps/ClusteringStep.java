@@ -0,0 +1,122 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.mongkie.clustering.spi.Cluster;
+import org.mongkie.clustering.spi.Clustering;
+import org.mongkie.clustering.spi.ClusteringBuilder;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.openide.util.Lookup;
+import prefuse.data.Graph;
+import prefuse.data.Node;
+
+/**
+ * Clusters a copy of a network with the clustering of a
+ * {@link ClusteringBuilder} found in Lookup by its name, and writes the name of
+ * the cluster of each node into a node column. A node in several clusters gets
+ * the name of the best ranked one.
+ * <p>
+ * Builders share one clustering instance, so the runs of a clustering are
+ * serialized.
+ * <p>
+ * Input: the network.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ClusteringStep extends AbstractStep<Graph> {
+
+    private final String clustering;
+    private final String column;
+    private volatile Clustering running;
+
+    /**
+     * @param name the name of the step
+     * @param network the name of the step of the network
+     * @param clustering the name of the clustering, e.g. <tt>MCL</tt>
+     * @param column the node column of the cluster names to create
+     */
+    public ClusteringStep(String name, String network, String clustering, String column) {
+        super(name, network);
+        this.clustering = clustering;
+        this.column = column;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(clustering, column);
+    }
+
+    private Clustering getClustering() {
+        for (ClusteringBuilder<?> builder : Lookup.getDefault().lookupAll(ClusteringBuilder.class)) {
+            if (builder.getName().equalsIgnoreCase(clustering)) {
+                return builder.getClustering();
+            }
+        }
+        throw new IllegalArgumentException("No clustering named " + clustering);
+    }
+
+    @Override
+    public Graph execute(Object... inputs) throws Exception {
+        Graph g = Steps.copy((Graph) inputs[0]);
+        Clustering<?> c = getClustering();
+        Collection<? extends Cluster> results = null;
+        synchronized (c) {
+            if (!isCancelled()) {
+                running = c;
+                try {
+                    results = c.execute(g);
+                } finally {
+                    running = null;
+                }
+            }
+        }
+        if (results == null || isCancelled()) {
+            throw new InterruptedException("Clustering cancelled");
+        }
+        List<Cluster> clusters = new ArrayList<Cluster>(results);
+        Collections.sort(clusters, new Comparator<Cluster>() {
+            @Override
+            public int compare(Cluster c1, Cluster c2) {
+                return c1.getRank() - c2.getRank();
+            }
+        });
+        g.getNodeTable().addColumn(column, String.class);
+        for (Cluster cluster : clusters) {
+            for (Node n : cluster.getNodes()) {
+                if (n.getString(column) == null) {
+                    n.setString(column, cluster.getName());
+                }
+            }
+        }
+        return g;
+    }
+
+    @Override
+    public boolean cancel() {
+        super.cancel();
+        Clustering c = running;
+        return c == null || c.cancel();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.mongkie.exporter.ExportController;
+import org.mongkie.exporter.spi.AbstractGraphExporter;
+import org.mongkie.exporter.spi.FileExporterBuilder;
+import org.mongkie.exporter.spi.GraphExporter;
+import org.mongkie.exporter.spi.GraphExporterBuilder;
+import org.mongkie.exporter.spi.TableExporterBuilder;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.openide.util.Lookup;
+import prefuse.data.Graph;
+
+/**
+ * Exports a network into a directory with the graph exporters found in Lookup,
+ * without a display. The <tt>CSV</tt> format writes the node and the edge
+ * tables into <tt>&lt;base name&gt;_nodes.csv</tt> and
+ * <tt>&lt;base name&gt;_edges.csv</tt>, and the other formats, e.g.
+ * <tt>GraphML</tt>, a single file named after the base name and the extension
+ * of the format.
+ * <p>
+ * The result is the list of the written files. It is never cached, so files
+ * are written by every run.
+ * <p>
+ * Input: the network.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ExportStep extends AbstractStep<List<File>> {
+
+    private final File directory;
+    private final String baseName;
+    private final String format;
+
+    public ExportStep(String name, String network, File directory, String baseName, String format) {
+        super(name, network);
+        this.directory = directory;
+        this.baseName = baseName;
+        this.format = format;
+    }
+
+    @Override
+    public Object getKey() {
+        return null;
+    }
+
+    @Override
+    public List<File> execute(Object... inputs) throws Exception {
+        Graph g = (Graph) inputs[0];
+        List<File> files = new ArrayList<File>();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Can not create the directory " + directory);
+        }
+        synchronized (g) {
+            if ("CSV".equalsIgnoreCase(format)) {
+                files.add(export(g, Lookup.getDefault().lookup(TableExporterBuilder.Node.class), baseName + "_nodes.csv"));
+                files.add(export(g, Lookup.getDefault().lookup(TableExporterBuilder.Edge.class), baseName + "_edges.csv"));
+            } else {
+                for (GraphExporterBuilder<?> builder : Lookup.getDefault().lookupAll(GraphExporterBuilder.class)) {
+                    if (builder.getName().equalsIgnoreCase(format)) {
+                        files.add(export(g, builder, baseName + builder.getFileTypes()[0].getExtension()));
+                        return files;
+                    }
+                }
+                throw new IllegalArgumentException("No graph exporter of the format " + format);
+            }
+        }
+        return files;
+    }
+
+    private File export(Graph g, FileExporterBuilder<? extends GraphExporter> builder, String fileName) throws Exception {
+        if (builder == null) {
+            throw new IllegalArgumentException("No graph exporter of the format " + format);
+        }
+        GraphExporter exporter = builder.buildExporter();
+        if (!(exporter instanceof AbstractGraphExporter)) {
+            throw new IllegalArgumentException("The exporter needs a display: " + exporter.getClass().getName());
+        }
+        File file = new File(directory, fileName);
+        Lookup.getDefault().lookup(ExportController.class).exportFile(file, g, (AbstractGraphExporter) exporter);
+        return file;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.util.Arrays;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.mongkie.series.SeriesImporter;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+
+/**
+ * Overlays expression profiles onto a copy of a network, adding a node column
+ * of the values of each sample with the {@link SeriesImporter}.
+ * <p>
+ * Inputs: the network, and the expression table of an
+ * {@link ExpressionReadStep}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ExpressionOverlayStep extends AbstractStep<Graph> {
+
+    private final String keyField;
+
+    /**
+     * @param name the name of the step
+     * @param network the name of the step of the network
+     * @param expression the name of the step of the expression table
+     * @param keyField the node column of the gene identifiers, or <tt>null</tt>
+     * for the label column of the network
+     */
+    public ExpressionOverlayStep(String name, String network, String expression, String keyField) {
+        super(name, network, expression);
+        this.keyField = keyField;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(keyField);
+    }
+
+    @Override
+    public Graph execute(Object... inputs) throws Exception {
+        Graph g = Steps.copy((Graph) inputs[0]);
+        Table series = (Table) inputs[1];
+        SeriesImporter importer = new SeriesImporter();
+        importer.setKeyField(Steps.getKeyField(g, keyField));
+        synchronized (series) {
+            importer.overlay(series, g.getNodeTable());
+        }
+        return g;
+    }
+}
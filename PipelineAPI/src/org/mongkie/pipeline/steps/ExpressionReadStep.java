@@ -0,0 +1,65 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.mongkie.series.SeriesImporter;
+import prefuse.data.Table;
+
+/**
+ * Reads a CSV table of expression profiles, the first column holding the gene
+ * identifiers and the others a value of each sample, with the
+ * {@link SeriesImporter}. The table is read once and overlaid onto any number
+ * of networks by {@link ExpressionOverlayStep}s.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ExpressionReadStep extends AbstractStep<Table> {
+
+    private final File file;
+    private final boolean hasHeader;
+
+    public ExpressionReadStep(String name, File file, boolean hasHeader) {
+        super(name);
+        this.file = file;
+        this.hasHeader = hasHeader;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(Steps.fileKey(file), hasHeader);
+    }
+
+    @Override
+    public Table execute(Object... inputs) throws Exception {
+        SeriesImporter importer = new SeriesImporter();
+        importer.setHasHeaderRecord(hasHeader);
+        InputStream in = new FileInputStream(file);
+        try {
+            importer.setInputStream(in);
+            return importer.readSeries();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.mongkie.pipeline.spi.AbstractStep;
+
+/**
+ * Reads a list of gene identifiers, the first field of each line separated by
+ * tabs, commas or spaces. Blank lines and lines starting with <tt>#</tt> are
+ * ignored, as are repeated genes.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class GeneListStep extends AbstractStep<List<String>> {
+
+    private final File file;
+
+    public GeneListStep(String name, File file) {
+        super(name);
+        this.file = file;
+    }
+
+    @Override
+    public Object getKey() {
+        return Steps.fileKey(file);
+    }
+
+    @Override
+    public List<String> execute(Object... inputs) throws Exception {
+        Set<String> genes = new LinkedHashSet<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null && !isCancelled()) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                genes.add(line.split("[\\t, ]", 2)[0]);
+            }
+        } finally {
+            reader.close();
+        }
+        return new ArrayList<String>(genes);
+    }
+}
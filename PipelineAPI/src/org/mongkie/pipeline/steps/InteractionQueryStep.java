@@ -0,0 +1,164 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import kobic.prefuse.data.Attribute;
+import kobic.prefuse.data.Schema;
+import org.mongkie.im.spi.Interaction;
+import org.mongkie.im.spi.InteractionSource;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.openide.util.Lookup;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+
+/**
+ * Builds the network of a gene list from the interactions of the genes queried
+ * from an {@link InteractionSource}, found in Lookup by its name. The source is
+ * queried once for all genes of the list, whose identifiers are converted to
+ * the key type of the source.
+ * <p>
+ * Input: the gene list, e.g. of a {@link GeneListStep}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class InteractionQueryStep extends AbstractStep<Graph> {
+
+    private final String source;
+    private final String keyField;
+    private final boolean neighbors;
+
+    /**
+     * @param name the name of the step
+     * @param genes the name of the step of the gene list
+     * @param source the name of the interaction source
+     * @param keyField the node column of the gene identifiers to create
+     * @param neighbors whether to add the interactors of the genes not in the
+     * list, or only the interactions between the genes
+     */
+    public InteractionQueryStep(String name, String genes, String source, String keyField, boolean neighbors) {
+        super(name, genes);
+        this.source = source;
+        this.keyField = keyField;
+        this.neighbors = neighbors;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(source, keyField, neighbors);
+    }
+
+    private InteractionSource getInteractionSource() {
+        for (InteractionSource is : Lookup.getDefault().lookupAll(InteractionSource.class)) {
+            if (is.getName().equalsIgnoreCase(source)) {
+                return is;
+            }
+        }
+        throw new IllegalArgumentException("No interaction source named " + source);
+    }
+
+    private static Object[] toKeys(List<String> genes, Class<?> keyType) {
+        Object[] keys = (Object[]) Array.newInstance(keyType, genes.size());
+        int i = 0;
+        for (String gene : genes) {
+            if (keyType == String.class) {
+                keys[i++] = gene;
+            } else if (keyType == Integer.class || keyType == Long.class) {
+                try {
+                    keys[i++] = keyType == Integer.class ? Integer.valueOf(gene) : Long.valueOf(gene);
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported key type: " + keyType.getName());
+            }
+        }
+        return Arrays.copyOf(keys, i);
+    }
+
+    @Override
+    public Graph execute(Object... inputs) throws Exception {
+        InteractionSource<Object> is = getInteractionSource();
+        Object[] keys = toKeys((List<String>) inputs[0], is.getKeyType());
+        Map<Object, Set<Interaction<Object>>> results = is.query(keys);
+
+        Table nodes = new Table();
+        nodes.addColumn(keyField, String.class);
+        Table edges = new Table();
+        edges.addColumn(Graph.DEFAULT_SOURCE_KEY, int.class);
+        edges.addColumn(Graph.DEFAULT_TARGET_KEY, int.class);
+        Schema es = is.getInteractionSchema();
+        for (int i = 0; es != null && i < es.getColumnCount(); i++) {
+            if (edges.getColumnNumber(es.getColumnName(i)) < 0) {
+                edges.addColumn(es.getColumnName(i), es.getColumnType(i), es.getDefault(i));
+            }
+        }
+        Map<Object, Integer> rows = new HashMap<Object, Integer>();
+        for (Object key : keys) {
+            rows.put(key, addNode(nodes, key));
+        }
+        Set<List<Integer>> pairs = new HashSet<List<Integer>>();
+        for (Set<Interaction<Object>> interactions : results.values()) {
+            for (Interaction<Object> i : interactions) {
+                if (isCancelled()) {
+                    return null;
+                }
+                Object s = i.getSourceKey(), t = i.getTargetKey();
+                if (!neighbors && (!rows.containsKey(s) || !rows.containsKey(t))) {
+                    continue;
+                }
+                for (Object key : new Object[]{s, t}) {
+                    if (!rows.containsKey(key)) {
+                        rows.put(key, addNode(nodes, key));
+                    }
+                }
+                int srow = rows.get(s), trow = rows.get(t);
+                boolean directed = is.isDirected() || i.isDirected();
+                if (!pairs.add(Arrays.asList(directed ? srow : Math.min(srow, trow), directed ? trow : Math.max(srow, trow)))) {
+                    continue;
+                }
+                int row = edges.addRow();
+                edges.setInt(row, Graph.DEFAULT_SOURCE_KEY, srow);
+                edges.setInt(row, Graph.DEFAULT_TARGET_KEY, trow);
+                if (i.getAttributeSet() != null) {
+                    for (Attribute a : i.getAttributeSet()) {
+                        if (a.getValue() != null && edges.canSet(a.getName(), a.getValue().getClass())) {
+                            edges.set(row, a.getName(), a.getValue());
+                        }
+                    }
+                }
+            }
+        }
+        Graph g = new Graph(nodes, edges, is.isDirected(), Graph.DEFAULT_SOURCE_KEY, Graph.DEFAULT_TARGET_KEY);
+        g.setNodeLabelField(keyField);
+        return g;
+    }
+
+    private int addNode(Table nodes, Object key) {
+        int row = nodes.addRow();
+        nodes.setString(row, keyField, key.toString());
+        return row;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.mongkie.importer.GraphContainer;
+import org.mongkie.importer.ImportController;
+import org.mongkie.pipeline.spi.AbstractStep;
+import org.openide.util.Lookup;
+import prefuse.data.Graph;
+
+/**
+ * Imports a network, e.g. a PPI network, from CSV tables of nodes and edges
+ * through the {@link ImportController}. Without a node table, the nodes are
+ * created from the identifiers of the edges into the default label column.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class NetworkImportStep extends AbstractStep<Graph> {
+
+    private final File nodes, edges;
+    private final String nodeId, sourceId, targetId;
+    private final boolean directed;
+
+    /**
+     * @param name the name of the step
+     * @param nodes the node table, or <tt>null</tt>
+     * @param edges the edge table
+     * @param nodeId the column of the node identifiers, ignored without a node
+     * table
+     * @param sourceId the column of the identifiers of the source nodes of edges
+     * @param targetId the column of the identifiers of the target nodes of edges
+     * @param directed whether the edges are directed
+     */
+    public NetworkImportStep(String name, File nodes, File edges, String nodeId, String sourceId, String targetId, boolean directed) {
+        super(name);
+        this.nodes = nodes;
+        this.edges = edges;
+        this.nodeId = nodeId;
+        this.sourceId = sourceId;
+        this.targetId = targetId;
+        this.directed = directed;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(Steps.fileKey(nodes, edges), nodeId, sourceId, targetId, directed);
+    }
+
+    @Override
+    public Graph execute(Object... inputs) throws Exception {
+        InputStream nodesIn = nodes != null ? new FileInputStream(nodes) : null;
+        InputStream edgesIn = new FileInputStream(edges);
+        try {
+            GraphContainer container = Lookup.getDefault().lookup(ImportController.class).importCSV(
+                    nodesIn, edgesIn, nodeId, nodeId, sourceId, targetId, null, directed);
+            return container.getGraph();
+        } finally {
+            if (nodesIn != null) {
+                nodesIn.close();
+            }
+            edgesIn.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import prefuse.data.Graph;
+import prefuse.data.Node;
+
+/**
+ * Helpers shared by the built-in steps.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+final class Steps {
+
+    private Steps() {
+    }
+
+    /**
+     * Returns a key of the contents of files, changed when a file is modified.
+     */
+    static Object fileKey(File... files) {
+        Object[] key = new Object[files.length * 3];
+        for (int i = 0; i < files.length; i++) {
+            if (files[i] != null) {
+                key[3 * i] = files[i].getAbsolutePath();
+                key[3 * i + 1] = files[i].lastModified();
+                key[3 * i + 2] = files[i].length();
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Copies a graph which may be shared by other steps, locking it while
+     * reading.
+     */
+    static Graph copy(Graph g) {
+        synchronized (g) {
+            Set<Node> nodes = new LinkedHashSet<Node>(g.getNodeCount());
+            for (Iterator<Node> nodeIter = g.nodes(); nodeIter.hasNext();) {
+                nodes.add(nodeIter.next());
+            }
+            Graph copy = g.createPartial(nodes);
+            copy.setEdgeLabelField(g.getEdgeLabelField());
+            return copy;
+        }
+    }
+
+    /**
+     * Returns the node column holding the gene identifiers of a graph.
+     */
+    static String getKeyField(Graph g, String keyField) {
+        if (keyField != null) {
+            return keyField;
+        }
+        return g.getNodeLabelField() != null ? g.getNodeLabelField() : Graph.DEFAULT_NODE_LABEL;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.steps;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.mongkie.pipeline.spi.AbstractStep;
+import prefuse.data.Graph;
+import prefuse.data.Node;
+
+/**
+ * Extracts the network of a gene list from a larger network, e.g. a PPI
+ * network, as a new graph of the nodes of the genes, optionally with their
+ * neighbors, and the edges between them.
+ * <p>
+ * Inputs: the gene list, e.g. of a {@link GeneListStep}, and the network.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class SubnetworkStep extends AbstractStep<Graph> {
+
+    private final String keyField;
+    private final boolean neighbors;
+
+    /**
+     * @param name the name of the step
+     * @param genes the name of the step of the gene list
+     * @param network the name of the step of the network
+     * @param keyField the node column of the gene identifiers, or <tt>null</tt>
+     * for the label column of the network
+     * @param neighbors whether to add the neighbors of the genes
+     */
+    public SubnetworkStep(String name, String genes, String network, String keyField, boolean neighbors) {
+        super(name, genes, network);
+        this.keyField = keyField;
+        this.neighbors = neighbors;
+    }
+
+    @Override
+    public Object getKey() {
+        return Arrays.asList(keyField, neighbors);
+    }
+
+    @Override
+    public Graph execute(Object... inputs) throws Exception {
+        Set<String> genes = new HashSet<String>((List<String>) inputs[0]);
+        Graph network = (Graph) inputs[1];
+        synchronized (network) {
+            String field = Steps.getKeyField(network, keyField);
+            Set<Node> nodes = new LinkedHashSet<Node>();
+            for (Iterator<Node> nodeIter = network.nodes(); nodeIter.hasNext();) {
+                Node n = nodeIter.next();
+                Object key = n.get(field);
+                if (key != null && genes.contains(key.toString())) {
+                    nodes.add(n);
+                }
+            }
+            if (neighbors) {
+                for (Node n : nodes.toArray(new Node[nodes.size()])) {
+                    for (Iterator<Node> neighborIter = n.neighbors(); neighborIter.hasNext();) {
+                        nodes.add(neighborIter.next());
+                    }
+                }
+            }
+            Graph subnetwork = network.createPartial(nodes);
+            subnetwork.setEdgeLabelField(network.getEdgeLabelField());
+            return subnetwork;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.pipeline.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.mongkie.pipeline.Pipeline;
+import org.mongkie.pipeline.PipelineResult;
+import org.mongkie.pipeline.PipelineResult.Status;
+import org.mongkie.pipeline.spi.AbstractStep;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class PipelineControllerImplTest {
+
+    public PipelineControllerImplTest() {
+    }
+
+    private static class CountStep extends AbstractStep<String> {
+
+        final AtomicInteger count;
+        final Object key;
+
+        CountStep(String name, Object key, AtomicInteger count, String... inputs) {
+            super(name, inputs);
+            this.key = key;
+            this.count = count;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public String execute(Object... inputs) throws Exception {
+            count.incrementAndGet();
+            StringBuilder result = new StringBuilder(getName());
+            for (Object input : inputs) {
+                result.append('(').append(input).append(')');
+            }
+            return result.toString();
+        }
+    }
+
+    private static class LatchStep extends AbstractStep<String> {
+
+        final CountDownLatch started, release;
+
+        LatchStep(String name, CountDownLatch started, CountDownLatch release) {
+            super(name);
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public Object getKey() {
+            return null;
+        }
+
+        @Override
+        public String execute(Object... inputs) throws Exception {
+            started.countDown();
+            while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                if (isCancelled()) {
+                    throw new InterruptedException();
+                }
+            }
+            return getName();
+        }
+    }
+
+    @Test
+    public void testIndependentStepsRunInParallel() throws InterruptedException {
+        PipelineControllerImpl controller = new PipelineControllerImpl(2);
+        CountDownLatch started = new CountDownLatch(2), release = new CountDownLatch(1);
+        Pipeline p = new Pipeline("parallel");
+        p.add(new LatchStep("a", started, release));
+        p.add(new LatchStep("b", started, release));
+        p.add(new CountStep("c", null, new AtomicInteger(), "a", "b"));
+        PipelineResult result = controller.submit(p);
+        try {
+            // both steps without inputs are running at the same time
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            assertEquals(Status.WAITING, result.getStatus("c"));
+        } finally {
+            release.countDown();
+        }
+        for (int i = 0; i < 200 && !result.isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(result.isSucceeded());
+        assertEquals("c(a)(b)", result.get("c"));
+    }
+
+    @Test
+    public void testCachedStepsRunOnce() throws InterruptedException {
+        PipelineControllerImpl controller = new PipelineControllerImpl(4);
+        AtomicInteger shared = new AtomicInteger(), own = new AtomicInteger();
+        List<Pipeline> batch = new ArrayList<Pipeline>();
+        for (int i = 0; i < 8; i++) {
+            Pipeline p = new Pipeline("p" + i);
+            p.add(new CountStep("ppi", "ppi", shared));
+            p.add(new CountStep("genes", "genes" + i, own));
+            p.add(new CountStep("network", "network", own, "genes", "ppi"));
+            batch.add(p);
+        }
+        List<PipelineResult> results = controller.execute(batch);
+        // the shared step runs once for the batch, the others once a pipeline
+        assertEquals(1, shared.get());
+        assertEquals(16, own.get());
+        for (int i = 0; i < results.size(); i++) {
+            assertTrue(results.get(i).isSucceeded());
+            assertEquals("network(genes)(ppi)", results.get(i).get("network"));
+        }
+
+        // and a later run finds the results in the cache
+        results = controller.execute(Arrays.asList(batch.get(0)));
+        assertEquals(Status.CACHED, results.get(0).getStatus("network"));
+        assertEquals(16, own.get());
+        controller.clearCache();
+        controller.execute(batch.get(0));
+        assertEquals(2, shared.get());
+    }
+
+    @Test
+    public void testFailureSkipsDependents() throws InterruptedException {
+        PipelineControllerImpl controller = new PipelineControllerImpl(2);
+        AtomicInteger count = new AtomicInteger();
+        Pipeline p = new Pipeline("failure");
+        p.add(new CountStep("genes", null, count));
+        p.add(new AbstractStep<String>("ppi") {
+            @Override
+            public Object getKey() {
+                return null;
+            }
+
+            @Override
+            public String execute(Object... inputs) throws Exception {
+                throw new IllegalStateException("unreadable");
+            }
+        });
+        p.add(new CountStep("network", null, count, "genes", "ppi"));
+        p.add(new CountStep("export", null, count, "network"));
+        PipelineResult result = controller.execute(p);
+        assertTrue(result.isFinished());
+        assertFalse(result.isSucceeded());
+        assertEquals(Status.DONE, result.getStatus("genes"));
+        assertEquals(Status.FAILED, result.getStatus("ppi"));
+        assertTrue(result.getError("ppi") instanceof IllegalStateException);
+        assertEquals(Status.SKIPPED, result.getStatus("network"));
+        assertEquals(Status.SKIPPED, result.getStatus("export"));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        PipelineControllerImpl controller = new PipelineControllerImpl(1);
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        AtomicInteger count = new AtomicInteger();
+        Pipeline p = new Pipeline("cancel");
+        p.add(new LatchStep("genes", started, release));
+        p.add(new CountStep("network", null, count, "genes"));
+        PipelineResult result = controller.submit(p);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        assertTrue(controller.isRunning());
+        controller.cancel();
+        for (int i = 0; i < 200 && controller.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        assertFalse(controller.isRunning());
+        assertTrue(result.isFinished());
+        assertEquals(Status.CANCELLED, result.getStatus("genes"));
+        assertEquals(Status.CANCELLED, result.getStatus("network"));
+        assertEquals(0, count.get());
+    }
+}
@@ -1,8 +1,10 @@
 package prefuse;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.Frame;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GraphicsEnvironment;
@@ -10,8 +12,12 @@ import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
@@ -19,7 +25,11 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowListener;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -34,6 +44,7 @@ import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.JToolTip;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.text.JTextComponent;
 
 import prefuse.activity.Activity;
@@ -45,6 +56,7 @@ import prefuse.data.expression.Predicate;
 import prefuse.data.expression.parser.ExpressionParser;
 import prefuse.render.Renderer;
 import prefuse.util.ColorLib;
+import prefuse.util.PrefuseConfig;
 import prefuse.util.StringLib;
 import prefuse.util.UpdateListener;
 import prefuse.util.collections.CopyOnWriteArrayList;
@@ -55,6 +67,11 @@ import prefuse.util.display.ExportDisplayAction;
 import prefuse.util.display.ItemBoundsListener;
 import prefuse.util.display.PaintListener;
 import prefuse.util.display.RenderingQueue;
+import prefuse.util.display.SpatialIndex;
+import prefuse.util.display.TileRenderer;
+import prefuse.visual.DecoratorItem;
+import prefuse.visual.EdgeItem;
+import prefuse.visual.NodeItem;
 import prefuse.visual.VisualItem;
 import prefuse.visual.expression.VisiblePredicate;
 import prefuse.visual.sort.ItemSorter;
@@ -124,6 +141,32 @@ public class Display extends JComponent {
     // rendering queue
     protected RenderingQueue m_queue = new RenderingQueue();
     protected int m_visibleCount = 0;
+    // spatial index of the items found by the last pass over all items
+    protected SpatialIndex m_index = new SpatialIndex();
+    protected boolean m_indexValid = false;
+    protected int m_indexChanges = 0;
+    // level of detail, lowered when zoomed out or crowded on screen
+    protected boolean m_lodEnabled = true;
+    protected double m_lodScale = PrefuseConfig.getDouble("display.lod.scale");
+    protected int m_lodItemCount = PrefuseConfig.getInt("display.lod.itemCount");
+    protected double m_lodMinPixels = PrefuseConfig.getDouble("display.lod.minPixels");
+    protected boolean m_lowDetail = false;
+    protected int m_screenItemCount = 0;
+    private boolean m_onScreen = false;
+    private static final Stroke LOD_STROKE = new BasicStroke(0f);
+    // tiled rendering, null when drawn in a single pass
+    protected TileRenderer m_tiles = null;
+    private Window m_window = null;
+    private WindowListener m_windowListener = new WindowAdapter() {
+
+        public void windowIconified(WindowEvent e) {
+            showingChanged();
+        }
+
+        public void windowDeiconified(WindowEvent e) {
+            showingChanged();
+        }
+    };
     // transform variables
     protected AffineTransform m_transform = new AffineTransform();
     protected AffineTransform m_itransform = new AffineTransform();
@@ -201,12 +244,24 @@ public class Display extends JComponent {
         addMouseWheelListener(iec);
         addKeyListener(iec);
 
+        // suspend the endless activities of the visualization while hidden
+        addHierarchyListener(new HierarchyListener() {
+
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED
+                        | HierarchyEvent.PARENT_CHANGED)) != 0) {
+                    showingChanged();
+                }
+            }
+        });
+
         registerDefaultCommands();
 
         // invalidate the display when the filter changes
         m_predicate.addExpressionListener(new UpdateListener() {
 
             public void update(Object src) {
+                m_indexValid = false;
                 damageReport();
             }
         });
@@ -224,6 +279,11 @@ public class Display extends JComponent {
     public void reset() {
         m_offscreen = null;
         m_queue.clean();
+        m_index.clean();
+        m_indexValid = false;
+        if (m_tiles != null) {
+            m_tiles.clear();
+        }
     }
 
     /**
@@ -353,6 +413,97 @@ public class Display extends JComponent {
         return m_highQuality;
     }
 
+    /**
+     * Sets if this Display lowers the level of detail while zoomed out below
+     * a scale or while too many items are on screen, as configured by
+     * {@link #setLevelOfDetail(double, int, double)}. In low detail, edges
+     * are drawn as thin straight lines without arrows, nodes as points or
+     * unlabeled rectangles, and decorators smaller than the minimum pixel
+     * size are not drawn. Above the scale and below the item count, all
+     * items are drawn by their renderers as when disabled. Enabled by
+     * default. Images exported or printed from the Display are always drawn
+     * in full detail.
+     * @param on true to enable the level of detail, false to always draw
+     * items by their renderers
+     */
+    public void setLevelOfDetailEnabled(boolean on) {
+        if (m_lodEnabled != on) {
+            damageReport();
+        }
+        m_lodEnabled = on;
+    }
+
+    /**
+     * Indicates if this Display lowers the level of detail automatically.
+     * @return true if the level of detail is enabled
+     */
+    public boolean isLevelOfDetailEnabled() {
+        return m_lodEnabled;
+    }
+
+    /**
+     * Sets when this Display lowers the level of detail. The defaults are
+     * the <code>display.lod.*</code> prefuse configuration properties.
+     * @param scale the zoom scale below which items are drawn in low detail
+     * @param itemCount the number of items on screen above which items are
+     * drawn in low detail
+     * @param minPixels the on-screen size in pixels below which decorators
+     * such as labels are not drawn in low detail
+     */
+    public void setLevelOfDetail(double scale, int itemCount, double minPixels) {
+        m_lodScale = scale;
+        m_lodItemCount = itemCount;
+        m_lodMinPixels = minPixels;
+        damageReport();
+    }
+
+    /**
+     * Indicates if the last frame of this Display was drawn in low detail.
+     * @return true if drawn in low detail
+     */
+    public boolean isLowDetail() {
+        return m_lowDetail;
+    }
+
+    /**
+     * Sets if this Display draws in tiles, with the tile size and the number
+     * of threads of the <code>display.tiles.*</code> prefuse configuration
+     * properties.
+     * @param on true to draw in tiles, false to draw in a single pass
+     * @see #setTiledRendering(int, int)
+     */
+    public void setTiledRendering(boolean on) {
+        setTiledRendering(on ? PrefuseConfig.getInt("display.tiles.size") : 0,
+                PrefuseConfig.getInt("display.tiles.threads"));
+    }
+
+    /**
+     * Sets if this Display draws in tiles. The screen is then split into
+     * square tiles, which are drawn in parallel by several threads, each
+     * into its own image, and the tiles whose items have not changed are
+     * reused by the next frames, also when the Display is panned. Drawing
+     * in tiles pays off for dense networks on multicore machines. Images
+     * exported or printed from the Display are always drawn in a single
+     * pass. Disabled by default.
+     * @param tileSize the width and height of a tile in pixels, or 0 to
+     * draw in a single pass
+     * @param threads the number of tiles drawn at a time, or 0 for the
+     * number of available processors
+     * @see TileRenderer
+     */
+    public synchronized void setTiledRendering(int tileSize, int threads) {
+        m_tiles = tileSize > 0 ? new TileRenderer(tileSize, threads) : null;
+        damageReport();
+    }
+
+    /**
+     * Indicates if this Display draws in tiles.
+     * @return true if drawn in tiles
+     */
+    public boolean isTiledRendering() {
+        return m_tiles != null;
+    }
+
     /**
      * Returns the Visualization backing this Display.
      * @return this Display's {@link Visualization}
@@ -376,10 +527,46 @@ public class Display extends JComponent {
         } else if (m_vis != null) {
             // remove this display from it's previous registry
             m_vis.removeDisplay(this);
+            m_vis.checkShowing();
         }
         m_vis = vis;
+        m_indexValid = false;
         if (m_vis != null) {
             m_vis.addDisplay(this);
+            if (m_window != null) {
+                m_vis.checkShowing();
+            }
+        }
+    }
+
+    /**
+     * Indicates if this Display is visible on the screen, that is showing
+     * and not in a minimized window.
+     * @return true if visible on the screen
+     */
+    public boolean isVisibleOnScreen() {
+        Window w = SwingUtilities.getWindowAncestor(this);
+        return isShowing() && !(w instanceof Frame
+                && (((Frame) w).getExtendedState() & Frame.ICONIFIED) != 0);
+    }
+
+    /**
+     * Follows the window of this Display, and suspends or resumes the
+     * activities of the visualization as the Display is hidden or shown.
+     */
+    private void showingChanged() {
+        Window w = SwingUtilities.getWindowAncestor(this);
+        if (w != m_window) {
+            if (m_window != null) {
+                m_window.removeWindowListener(m_windowListener);
+            }
+            m_window = w;
+            if (w != null) {
+                w.addWindowListener(m_windowListener);
+            }
+        }
+        if (m_vis != null) {
+            m_vis.checkShowing();
         }
     }
 
@@ -792,8 +979,13 @@ public class Display extends JComponent {
         // Why not fire a pre-paint event here?
         // Pre-paint events are fired by the clearRegion method
 
-        // paint the visualization
-        paintDisplay(buf_g2D, getSize());
+        // paint the visualization, in lower detail if needed
+        m_onScreen = true;
+        try {
+            paintDisplay(buf_g2D, getSize());
+        } finally {
+            m_onScreen = false;
+        }
         paintBufferToScreen(g2D);
 
         // fire post-paint events to any painters
@@ -836,6 +1028,14 @@ public class Display extends JComponent {
                 // values too small will cause incorrect rendering
                 double pixel = 1.0 + 1.0 / getScale();
 
+                boolean lod = m_lodEnabled && m_onScreen;
+                if (m_tiles != null && m_onScreen && m_damageRedraw
+                        && m_tiles.prepare(m_transform, d.width, d.height, m_clip,
+                        m_vis.getItemChangeCount(), getTileMode(lod))) {
+                    paintTiles(g2D, pixel, lod);
+                    return;
+                }
+
                 if (m_damageRedraw) {
                     if (m_clip.isInvalid()) {
                         // if clip is invalid, we clip to the entire screen
@@ -883,32 +1083,28 @@ public class Display extends JComponent {
                 // -- render ----------------------------
                 // the actual rendering  loop
 
-                // copy current item bounds into m_rclip, reset item bounds
+                // copy current item bounds into m_rclip
                 getItemBounds(m_rclip);
-                m_bounds.reset();
-
-                // fill the rendering and picking queues
-                m_queue.clear();   // clear the queue
-                Iterator items = m_vis.items(m_predicate);
-                for (m_visibleCount = 0; items.hasNext(); ++m_visibleCount) {
-                    VisualItem item = (VisualItem) items.next();
-                    Rectangle2D bounds = item.getBounds();
-                    m_bounds.union(bounds); // add to item bounds
-
-                    if (m_clip.intersects(bounds, pixel)) {
-                        m_queue.addToRenderQueue(item);
-                    }
-                    if (item.isInteractive()) {
-                        m_queue.addToPickingQueue(item);
-                    }
-                }
 
-                // sort the rendering queue
-                m_queue.sortRenderQueue();
+                // fill and sort the rendering queue
+                fillRenderQueue(pixel);
+
+                // choose the level of detail, counting the items on screen
+                // only when the whole screen is drawn
+                chooseLevelOfDetail(lod);
+                if (m_lowDetail) {
+                    g2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                            RenderingHints.VALUE_ANTIALIAS_OFF);
+                }
 
                 // render each visual item
                 for (int i = 0; i < m_queue.rsize; ++i) {
-                    m_queue.ritems[i].render(g2D);
+                    VisualItem item = m_queue.ritems[i];
+                    if (lod) {
+                        renderLevelOfDetail(g2D, item, item.getRenderer());
+                    } else {
+                        item.render(g2D);
+                    }
                 }
 
                 // no more damage so reset the clip
@@ -923,6 +1119,175 @@ public class Display extends JComponent {
         } // end synchronized block
     }
 
+    /**
+     * Paints the display in tiles, drawing only the tiles to be drawn again
+     * and copying all tiles on screen into the given graphics context.
+     */
+    private void paintTiles(Graphics2D g2D, double pixel, boolean lod) {
+        // copy current item bounds into m_rclip
+        getItemBounds(m_rclip);
+
+        // the items are drawn within the tiles to be drawn again
+        if (m_tiles.getDirtyRegion(m_clip)) {
+            fillRenderQueue(pixel);
+            chooseLevelOfDetail(lod);
+
+            Graphics2D hints = (Graphics2D) g2D.create();
+            setRenderingHints(hints);
+            if (m_lowDetail) {
+                hints.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                        RenderingHints.VALUE_ANTIALIAS_OFF);
+            }
+            final boolean detail = lod;
+            m_tiles.render(m_queue.ritems, m_queue.rsize,
+                    hints.getRenderingHints(), getTileMode(lod),
+                    new TileRenderer.ItemPainter() {
+
+                        public void paint(Graphics2D g, VisualItem item, Renderer r) {
+                            if (detail) {
+                                renderLevelOfDetail(g, item, r);
+                            } else {
+                                r.render(g, item);
+                            }
+                        }
+                    });
+            hints.dispose();
+        }
+
+        // clear the screen, then copy the tiles over it
+        prepareGraphics(g2D);
+        m_screen.expand(pixel);
+        clearRegion(g2D, new Rectangle2D.Double(m_screen.getMinX(),
+                m_screen.getMinY(), m_screen.getWidth(), m_screen.getHeight()));
+        m_tiles.paint(g2D);
+
+        m_clip.reset();
+        checkItemBoundsChanged(m_rclip);
+    }
+
+    /**
+     * Returns the mode bits of the tiles for the current settings.
+     */
+    private int getTileMode(boolean lod) {
+        int mode = 0;
+        if (m_highQuality) {
+            mode |= TileRenderer.MODE_HIGH_QUALITY;
+        }
+        if (lod) {
+            mode |= TileRenderer.MODE_LEVEL_OF_DETAIL;
+            if (getScale() < m_lodScale || m_screenItemCount > m_lodItemCount) {
+                mode |= TileRenderer.MODE_LOW_DETAIL;
+            }
+        }
+        return mode;
+    }
+
+    /**
+     * Decides if the items in the rendering queue are drawn in low detail,
+     * counting the items on screen only when the whole screen is drawn.
+     */
+    private void chooseLevelOfDetail(boolean lod) {
+        if (lod && m_clip.getWidth() >= m_screen.getWidth()
+                && m_clip.getHeight() >= m_screen.getHeight()) {
+            m_screenItemCount = m_queue.rsize;
+        }
+        m_lowDetail = lod && (getScale() < m_lodScale
+                || m_screenItemCount > m_lodItemCount);
+    }
+
+    /**
+     * Fills the rendering queue with the items within the current clip and
+     * sorts it, visiting only the indexed items around the clip unless an
+     * item has changed since the last pass over all items.
+     */
+    private void fillRenderQueue(double pixel) {
+        m_queue.clear();   // clear the queue
+        if (m_indexValid && m_indexChanges == m_vis.getItemChangeCount()) {
+            // no item has changed since the last pass over all items,
+            // so only the indexed items around the clip are visited
+            m_index.query(m_clip.getMinX(), m_clip.getMinY(),
+                    m_clip.getMaxX(), m_clip.getMaxY(), pixel);
+            for (int i = 0; i < m_index.rsize; ++i) {
+                VisualItem item = m_index.results[i];
+                if (m_clip.intersects(item.getBounds(), pixel)) {
+                    m_queue.addToRenderQueue(item);
+                }
+            }
+        } else {
+            // reset item bounds and the spatial index
+            m_bounds.reset();
+            m_index.clear();
+            Iterator<?> items = m_vis.items(m_predicate);
+            for (m_visibleCount = 0; items.hasNext(); ++m_visibleCount) {
+                VisualItem item = (VisualItem) items.next();
+                Rectangle2D bounds = item.getBounds();
+                m_bounds.union(bounds); // add to item bounds
+
+                if (m_clip.intersects(bounds, pixel)) {
+                    m_queue.addToRenderQueue(item);
+                }
+                m_index.add(item, bounds);
+            }
+            // validating the bounds above changes items, so the count
+            // of changes is taken after the pass
+            m_indexChanges = m_vis.getItemChangeCount();
+            m_indexValid = true;
+        }
+
+        // sort the rendering queue
+        m_queue.sortRenderQueue();
+    }
+
+    /**
+     * Renders an item at the current level of detail. In low detail, edges
+     * are drawn as straight lines, nodes as filled rectangles or points, and
+     * decorators smaller than the minimum pixel size are skipped. Other
+     * items are drawn by the given renderer.
+     * As the tiles of the Display are drawn in several threads, this
+     * method keeps no state of its own.
+     * @param g the graphics context to draw into
+     * @param item the item to render
+     * @param r the renderer of the item, or a copy of it
+     */
+    protected void renderLevelOfDetail(Graphics2D g, VisualItem item, Renderer r) {
+        double scale = getScale();
+        if (m_lowDetail && item instanceof DecoratorItem) {
+            Rectangle2D b = item.getBounds();
+            if (Math.min(b.getWidth(), b.getHeight()) * scale >= m_lodMinPixels) {
+                r.render(g, item);
+            }
+        } else if (m_lowDetail && item instanceof EdgeItem) {
+            EdgeItem e = (EdgeItem) item;
+            VisualItem s = e.getSourceItem(), t = e.getTargetItem();
+            int color = item.getStrokeColor();
+            if (s == t || ColorLib.alpha(color) == 0) {
+                return;
+            }
+            g.setPaint(ColorLib.getColor(color));
+            g.setStroke(LOD_STROKE);
+            g.draw(new Line2D.Double(s.getX(), s.getY(), t.getX(), t.getY()));
+        } else if (m_lowDetail && item instanceof NodeItem) {
+            Rectangle2D b = item.getBounds();
+            int color = item.getFillColor();
+            if (ColorLib.alpha(color) == 0) {
+                color = item.getStrokeColor();
+            }
+            if (ColorLib.alpha(color) == 0) {
+                return;
+            }
+            g.setPaint(ColorLib.getColor(color));
+            if (Math.max(b.getWidth(), b.getHeight()) * scale < 2) {
+                // a point of a pixel
+                double p = 1 / scale;
+                g.fill(new Rectangle2D.Double(b.getCenterX() - p / 2, b.getCenterY() - p / 2, p, p));
+            } else {
+                g.fill(b);
+            }
+        } else {
+            r.render(g, item);
+        }
+    }
+
     /**
      * Immediately render the given VisualItem to the screen. This method
      * bypasses the Display's offscreen buffer.
@@ -1361,6 +1726,10 @@ public class Display extends JComponent {
             this.run();
         }
 
+        protected Object getScheduleKey() {
+            return m_vis;
+        }
+
         protected void run(long elapsedTime) {
             double f = getPace(elapsedTime);
             damageReport();
@@ -1514,10 +1883,37 @@ public class Display extends JComponent {
     public synchronized VisualItem findItem(Point p) {
         // transform mouse point from screen space to item space
         Point2D p2 = (m_itransform == null ? p : m_itransform.transform(p, m_tmpPoint));
-        // ensure that the picking queue has been z-sorted
-        if (!m_queue.psorted) {
-            m_queue.sortPickingQueue();
+        // fill the picking queue with the items around the point.
+        // renderers may hit a point slightly outside of the item bounds, as
+        // edges do within their line width, so a margin of a few pixels is kept
+        m_queue.clearPickingQueue();
+        double x = p2.getX(), y = p2.getY();
+        double margin = 2 * (1.0 + 1.0 / getScale());
+        if (m_indexValid && m_indexChanges == m_vis.getItemChangeCount()) {
+            // no item has changed since the index was built
+            m_index.query(x, y, x, y, margin);
+            for (int i = 0; i < m_index.rsize; ++i) {
+                VisualItem item = m_index.results[i];
+                if (item.isInteractive()) {
+                    m_queue.addToPickingQueue(item);
+                }
+            }
+        } else {
+            // items have moved or the index is not built yet, so visit all
+            // the items at their current bounds
+            Iterator<?> items = m_vis.items(m_predicate);
+            while (items.hasNext()) {
+                VisualItem item = (VisualItem) items.next();
+                Rectangle2D b = item.getBounds();
+                if (item.isInteractive()
+                        && b.getMinX() - margin <= x && b.getMaxX() + margin >= x
+                        && b.getMinY() - margin <= y && b.getMaxY() + margin >= y) {
+                    m_queue.addToPickingQueue(item);
+                }
+            }
         }
+        // z-sort the picking queue
+        m_queue.sortPickingQueue();
         // walk queue from front to back looking for hits
         for (int i = m_queue.psize; --i >= 0;) {
             VisualItem vi = m_queue.pitems[i];
@@ -5,8 +5,10 @@ import java.util.*;
 import java.util.concurrent.locks.ReentrantLock;
 import prefuse.action.Action;
 import prefuse.activity.Activity;
+import prefuse.activity.ActivityManager;
 import prefuse.activity.ActivityMap;
 import prefuse.data.*;
+import prefuse.data.event.TupleSetListener;
 import prefuse.data.expression.Expression;
 import prefuse.data.expression.Predicate;
 import prefuse.data.expression.parser.ExpressionParser;
@@ -165,6 +167,15 @@ public class Visualization {
     private RendererFactory m_renderers;
     // displays
     private ArrayList m_displays;
+    // count of the changes of the visual items, for the displays to tell
+    // if their spatial index of the items is still current
+    private volatile int m_itemChanges = 0;
+    private final TupleSetListener m_focusListener = new TupleSetListener() {
+
+        public void tupleSetChanged(TupleSet tset, Tuple[] added, Tuple[] removed) {
+            itemsChanged();
+        }
+    };
 
     // ------------------------------------------------------------------------
     // Constructor
@@ -241,6 +252,7 @@ public class Visualization {
         if (src != null) {
             m_source.put(group, src);
         }
+        itemsChanged();
     }
 
     // -- Tables --------------------------------------------------------------
@@ -420,6 +432,9 @@ public class Visualization {
                 graph.getEdgeSourceField(), graph.getEdgeTargetField());
         vg.setVisualization(this);
         vg.setGroup(group);
+        if (graph.isCompactLinks()) {
+            vg.compactLinks();
+        }
 
         addDataGroup(group, vg, graph);
 
@@ -660,7 +675,9 @@ public class Visualization {
                 ((VisualItem) items.next()).setValidated(false);
             }
             ts.clear(); // trigger group removal callback
+            ts.removeTupleSetListener(m_focusListener);
             m_focus.remove(group);
+            itemsChanged();
             return true;
         }
 
@@ -692,6 +709,7 @@ public class Visualization {
         }
         m_visual.remove(group);
         m_source.remove(group);
+        itemsChanged();
         return true;
     }
 
@@ -720,6 +738,7 @@ public class Visualization {
         }
         m_visual.clear();
         m_source.clear();
+        itemsChanged();
 
         removeGroup(AGGR_ITEMS);
         initAggregates();
@@ -871,7 +890,7 @@ public class Visualization {
      */
     public void addFocusGroup(String group) {
         checkGroupExists(group);
-        m_focus.put(group, new DefaultTupleSet());
+        addFocusGroup(group, new DefaultTupleSet());
     }
 
     /**
@@ -883,6 +902,7 @@ public class Visualization {
     public void addFocusGroup(String group, TupleSet tset) {
         checkGroupExists(group);
         m_focus.put(group, tset);
+        tset.addTupleSetListener(m_focusListener);
     }
 
     // ------------------------------------------------------------------------
@@ -1329,6 +1349,28 @@ public class Visualization {
         return r;
     }
 
+    /**
+     * Notify this visualization that visual items were added, removed or
+     * changed, or that the membership of a group changed. Displays refill their
+     * spatial index of the items after such a change. This is called
+     * automatically for changes of {@link prefuse.visual.VisualTable}
+     * instances and of groups.
+     */
+    public void itemsChanged() {
+        ++m_itemChanges;
+    }
+
+    /**
+     * Get the number of changes of the visual items reported so far. Two equal
+     * counts mean that no item changed in between.
+     *
+     * @return the number of changes of the visual items
+     * @see #itemsChanged()
+     */
+    public int getItemChangeCount() {
+        return m_itemChanges;
+    }
+
     // ------------------------------------------------------------------------
     // Displays
     /**
@@ -1371,6 +1413,22 @@ public class Visualization {
         return m_displays.remove(display);
     }
 
+    /**
+     * Suspends the activities of infinite duration run for this
+     * visualization while none of its displays is visible on the screen, and
+     * resumes them once one is. Called automatically by the displays as they
+     * are shown or hidden.
+     *
+     * @see prefuse.activity.ActivityManager#setSuspended(Object, boolean)
+     */
+    void checkShowing() {
+        boolean hidden = !m_displays.isEmpty();
+        for (int i = 0; hidden && i < m_displays.size(); ++i) {
+            hidden = !getDisplay(i).isVisibleOnScreen();
+        }
+        ActivityManager.setSuspended(this, hidden);
+    }
+
     /**
      * Report damage to associated displays, indicating a region that will need
      * to be redrawn.
@@ -142,5 +142,14 @@ public abstract class Action extends Activity {
     public void setVisualization(Visualization vis) {
         m_vis = vis;
     }
+    
+    /**
+     * Actions are queued by the Visualization they process, so that the
+     * actions of different visualizations run concurrently.
+     * @see prefuse.activity.Activity#getScheduleKey()
+     */
+    protected Object getScheduleKey() {
+        return m_vis;
+    }
 
 } // end of class Action
@@ -127,6 +127,17 @@ public abstract class Activity {
      */
     protected abstract void run(long elapsedTime);
     
+    /**
+     * Returns the key by which the ActivityManager queues this activity.
+     * Activities of the same key run one after another, while those of
+     * different keys may run concurrently. By default activities share a
+     * single queue.
+     * @return the schedule key, or null for the default queue
+     */
+    protected Object getScheduleKey() {
+        return null;
+    }
+    
     /**
      * Run this activity for a single step. This method is called by the
      * ActivityManager -- outside code should have no need to call or
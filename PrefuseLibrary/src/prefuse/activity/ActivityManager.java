@@ -1,6 +1,16 @@
 package prefuse.activity;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import prefuse.util.PrefuseConfig;
 
@@ -9,12 +19,24 @@ import prefuse.util.PrefuseConfig;
  * <p>The ActivityManager is responsible for scheduling and running timed 
  * activities that perform data processing and animation.</p>
  * 
- * <p>The AcivityManager runs in its own separate thread of execution, and
- * one instance is used to schedule activities from any number of currently
- * active visualizations. The class is implemented as a singleton; the single
- * instance of this class is interacted with through static methods. These
- * methods are called by an Activity's run methods, and so are made only
- * package visible here.</p>
+ * <p>The AcivityManager keeps the time in its own separate thread of
+ * execution, and one instance is used to schedule activities from any number
+ * of currently active visualizations. The class is implemented as a
+ * singleton; the single instance of this class is interacted with through
+ * static methods. These methods are called by an Activity's run methods,
+ * and so are made only package visible here.</p>
+ * 
+ * <p>Activities are queued by their
+ * {@link Activity#getScheduleKey() schedule key}, the Visualization of an
+ * Action. The activities of a queue run one after another as before, while
+ * the queues of different visualizations run concurrently in a bounded pool
+ * of worker threads, so that an endless animation in one visualization
+ * does not hold back the others. Activities of infinite duration are run at
+ * most at the maximum frame rate, and not at all while their queue is
+ * {@link #setSuspended(Object, boolean) suspended}, as the Visualization
+ * does while none of its displays is visible. The size of the pool and the
+ * frame rate are the <code>activity.threads</code> and
+ * <code>activity.maxFrameRate</code> prefuse configuration properties.</p>
  * 
  * <p>Activity instances can be scheduled by using their  
  * {@link prefuse.activity.Activity#run()},
@@ -38,10 +60,13 @@ import prefuse.util.PrefuseConfig;
 public class ActivityManager extends Thread {
     
     private static ActivityManager s_instance;
+    private static volatile long s_minStepTime =
+        frameTime(PrefuseConfig.getDouble("activity.maxFrameRate"));
     
-    private ArrayList m_activities;
-    private ArrayList m_tmp;
-    private long      m_nextTime;
+    private Map<Object, ActivityQueue> m_queues;
+    // weak keys, as the visualizations of closed displays stay suspended
+    private Set<Object> m_suspended;
+    private ExecutorService m_workers;
     private boolean   m_run;
     
     /**
@@ -60,16 +85,29 @@ public class ActivityManager extends Thread {
      */
     private ActivityManager() {
         super("prefuse_ActivityManager");
-        m_activities = new ArrayList();
-        m_tmp = new ArrayList();
-        m_nextTime = Long.MAX_VALUE;
+        m_queues = new HashMap<Object, ActivityQueue>();
+        m_suspended = Collections.newSetFromMap(new WeakHashMap<Object, Boolean>());
         
-        int priority = PrefuseConfig.getInt("activity.threadPriority");
+        final int priority = PrefuseConfig.getInt("activity.threadPriority");
         if ( priority >= Thread.MIN_PRIORITY && 
              priority <= Thread.MAX_PRIORITY )
         {
             this.setPriority(priority);
         }
+        int threads = Math.max(1, PrefuseConfig.getInt("activity.threads"));
+        m_workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int m_count = 0;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "prefuse_ActivityWorker-"+(++m_count));
+                if ( priority >= Thread.MIN_PRIORITY && 
+                     priority <= Thread.MAX_PRIORITY )
+                {
+                    t.setPriority(priority);
+                }
+                t.setDaemon(true);
+                return t;
+            }
+        });
         this.setDaemon(true);
         this.start();
     }
@@ -168,19 +206,74 @@ public class ActivityManager extends Thread {
         return getInstance()._activityCount();
     }
     
+    /**
+     * Suspends or resumes the activities of infinite duration scheduled
+     * with the given key, typically a {@link prefuse.Visualization}. While
+     * suspended, such activities stay scheduled but are not run. Activities
+     * of a finite duration keep running, so that they finish as expected.
+     * @param key the schedule key of the activities
+     * @param suspended true to suspend the activities, false to resume them
+     * @see Activity#getScheduleKey()
+     */
+    public static void setSuspended(Object key, boolean suspended) {
+        getInstance()._setSuspended(key, suspended);
+    }
+    
+    /**
+     * Indicates if the activities of infinite duration scheduled with the
+     * given key are suspended.
+     * @param key the schedule key of the activities
+     * @return true if suspended
+     */
+    public static boolean isSuspended(Object key) {
+        return getInstance()._isSuspended(key);
+    }
+    
+    /**
+     * Sets the maximum number of times per second an activity of infinite
+     * duration is run, whatever its step time.
+     * @param fps the maximum frame rate, or 0 for no limit
+     */
+    public static void setMaxFrameRate(double fps) {
+        s_minStepTime = frameTime(fps);
+    }
+    
+    /**
+     * Returns the maximum number of times per second an activity of infinite
+     * duration is run.
+     * @return the maximum frame rate, or 0 if not limited
+     */
+    public static double getMaxFrameRate() {
+        long step = s_minStepTime;
+        return step > 0 ? 1000.0 / step : 0;
+    }
+    
+    private static long frameTime(double fps) {
+        return fps > 0 ? Math.round(1000 / fps) : 0;
+    }
+    
     /**
      * Stops the activity manager thread. All scheduled actvities are
      * canceled, and then the thread is then notified to stop running.
      */
     private synchronized void _stop() {
-        while ( m_activities.size() > 0 ) {
-            Activity a = (Activity)m_activities.get(m_activities.size()-1);
+        Activity a;
+        while ( (a = _anyActivity()) != null ) {
             a.cancel();
         }
         _setRunning(false);
+        m_workers.shutdown();
         notify();
     }
     
+    private synchronized Activity _anyActivity() {
+        for ( ActivityQueue q : m_queues.values() ) {
+            if ( q.m_activities.size() > 0 )
+                return q.m_activities.get(q.m_activities.size()-1);
+        }
+        return null;
+    }
+    
     /**
      * Schedules an Activity with the manager.
      * @param a the Activity to schedule
@@ -192,10 +285,16 @@ public class ActivityManager extends Thread {
         }
         a.setStartTime(startTime);
         synchronized ( this ) {
-            m_activities.add(a);
+            Object key = a.getScheduleKey();
+            ActivityQueue q = m_queues.get(key);
+            if ( q == null ) {
+                q = new ActivityQueue(key);
+                m_queues.put(key, q);
+            }
+            q.m_activities.add(a);
             a.setScheduled(true);
-            if ( startTime < m_nextTime ) { 
-               m_nextTime = startTime;
+            if ( startTime < q.m_nextTime ) { 
+               q.m_nextTime = startTime;
                notify();
             }
         }
@@ -289,13 +388,12 @@ public class ActivityManager extends Thread {
      *  if the activity is not scheduled with this manager.
      */
     private boolean _removeActivity(Activity a) {
-        boolean r;
+        boolean r = false;
         synchronized ( this ) {
-            r = m_activities.remove(a);
-            if ( r ) {
-                if ( m_activities.size() == 0 ) {
-                    m_nextTime = Long.MAX_VALUE;
-                }
+            for ( Iterator<ActivityQueue> iter = m_queues.values().iterator();
+                  !r && iter.hasNext(); )
+            {
+                r = iter.next().m_activities.remove(a);
             }
         }
         if ( r ) {
@@ -309,7 +407,26 @@ public class ActivityManager extends Thread {
      * @return the number of scheduled activities
      */
     private synchronized int _activityCount() {
-        return m_activities.size();
+        int count = 0;
+        for ( ActivityQueue q : m_queues.values() ) {
+            count += q.m_activities.size();
+        }
+        return count;
+    }
+    
+    private synchronized void _setSuspended(Object key, boolean suspended) {
+        if ( suspended ? !m_suspended.add(key) : !m_suspended.remove(key) )
+            return;
+        ActivityQueue q = m_queues.get(key);
+        if ( q != null ) {
+            // resumed activities are due at once
+            q.m_nextTime = System.currentTimeMillis();
+            notify();
+        }
+    }
+    
+    private synchronized boolean _isSuspended(Object key) {
+        return m_suspended.contains(key);
     }
     
     /**
@@ -329,62 +446,118 @@ public class ActivityManager extends Thread {
     
     /**
      * Main scheduling thread loop. This is automatically started upon
-     * initialization of the ActivityManager.
+     * initialization of the ActivityManager. It hands the queues which are
+     * due to the worker threads, a queue to one worker at a time, and
+     * sleeps until the next queue is due or a queue is done.
      */
     public void run() {
         _setRunning(true);
-        while ( _keepRunning() ) {
-            if ( _activityCount() > 0 ) {
+        synchronized ( this ) {
+            while ( _keepRunning() ) {
                 long currentTime = System.currentTimeMillis();
-                long t = -1;
-                
-                synchronized (this) {
-                    // copy content of activities, as new activities might
-                    // be added while we process the current ones
-                    for ( int i=0; i<m_activities.size(); i++ ) {
-                        Activity a = (Activity)m_activities.get(i);
-                        m_tmp.add(a);
-                        
-                        // remove activities that won't be run again
-                        if ( currentTime >= a.getStopTime() )
-                        {
-                            m_activities.remove(i--);
-                            a.setScheduled(false);
-                        }
-                    }
-                    // if no activities left, reflect that in the next time
-                    if ( m_activities.size() == 0 ) {
-                        m_nextTime = Long.MAX_VALUE;
+                long t = Long.MAX_VALUE;
+                for ( Iterator<ActivityQueue> iter = m_queues.values().iterator();
+                      iter.hasNext(); )
+                {
+                    ActivityQueue q = iter.next();
+                    if ( q.m_busy ) {
+                        continue;
+                    } else if ( q.m_activities.size() == 0 ) {
+                        iter.remove();
+                    } else if ( q.m_nextTime <= currentTime ) {
+                        q.m_busy = true;
+                        q.m_nextTime = Long.MAX_VALUE;
+                        m_workers.execute(q);
+                    } else {
+                        t = Math.min(t, q.m_nextTime - currentTime);
                     }
                 }
                 
+                // nothing to do, chill out until notified
+                try {
+                    if ( t == Long.MAX_VALUE ) wait(); else wait(t);
+                } catch (InterruptedException e) { }
+            }
+        }
+    }
+    
+    /**
+     * The activities of a schedule key, run one after another by a worker
+     * thread whenever the first of them is due.
+     */
+    private class ActivityQueue implements Runnable {
+        private final Object m_key;
+        private final ArrayList<Activity> m_activities = new ArrayList<Activity>();
+        private final ArrayList<Activity> m_tmp = new ArrayList<Activity>();
+        // the earliest time of the next frame of capped activities
+        private final Map<Activity, Long> m_nextFrames = new IdentityHashMap<Activity, Long>();
+        private long    m_nextTime = Long.MAX_VALUE;
+        private boolean m_busy = false;
+        
+        ActivityQueue(Object key) {
+            m_key = key;
+        }
+        
+        public void run() {
+            long currentTime = System.currentTimeMillis();
+            long t = -1;
+            boolean suspended;
+            
+            synchronized ( ActivityManager.this ) {
+                suspended = m_suspended.contains(m_key);
+                // copy content of activities, as new activities might
+                // be added while we process the current ones
+                for ( int i=0; i<m_activities.size(); i++ ) {
+                    Activity a = m_activities.get(i);
+                    m_tmp.add(a);
+                    
+                    // remove activities that won't be run again
+                    if ( currentTime >= a.getStopTime() )
+                    {
+                        m_activities.remove(i--);
+                        a.setScheduled(false);
+                    }
+                }
+            }
+            
+            try {
                 for ( int i=0; i<m_tmp.size(); i++ ) {
-                    // run the activity - the activity will check for
-                    // itself if it should perform any action or not
-                    Activity a = (Activity)m_tmp.get(i);
-                    long s = a.runActivity(currentTime);
+                    Activity a = m_tmp.get(i);
+                    boolean infinite = a.getDuration() == Activity.INFINITY;
+                    long s;
+                    if ( infinite && suspended ) {
+                        // run again when resumed
+                        continue;
+                    }
+                    Long next = infinite ? m_nextFrames.get(a) : null;
+                    if ( next != null && currentTime < next.longValue() ) {
+                        s = next.longValue() - currentTime;
+                    } else {
+                        // run the activity - the activity will check for
+                        // itself if it should perform any action or not
+                        s = a.runActivity(currentTime);
+                        long step = s_minStepTime;
+                        if ( infinite && s >= 0 && step > 0 ) {
+                            s = Math.max(s, step);
+                            m_nextFrames.put(a, Long.valueOf(currentTime+step));
+                        }
+                    }
                     // compute minimum time for next activity cycle
                     t = (s<0 ? t : t<0 ? s : Math.min(t,s));
                 }
-
-                // clear the temporary list
+            } finally {
+                m_nextFrames.keySet().retainAll(m_tmp);
                 m_tmp.clear();
-                
-                if ( t == -1 ) continue;
-                
-                // determine the next time we should run
-                try {
-                    synchronized (this) { wait(t); }
-                } catch (InterruptedException e) { }
-                
-            } else {
-                // nothing to do, chill out until notified
-                try {
-                    synchronized (this) { wait(); }
-                } catch (InterruptedException e) { }
+                synchronized ( ActivityManager.this ) {
+                    // activities scheduled meanwhile may be due earlier
+                    if ( t >= 0 )
+                        m_nextTime = Math.min(m_nextTime, currentTime+t);
+                    m_busy = false;
+                    ActivityManager.this.notify();
+                }
             }
         }
-    }
+    } // end of inner class ActivityQueue
     
     public class ScheduleAfterActivity extends ActivityAdapter {
         Activity after;
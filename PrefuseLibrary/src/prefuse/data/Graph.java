@@ -8,6 +8,7 @@ import prefuse.data.event.GraphListener;
 import prefuse.data.event.TableListener;
 import prefuse.data.expression.Predicate;
 import prefuse.data.tuple.*;
+import prefuse.data.util.CompressedLinks;
 import prefuse.data.util.Index;
 import prefuse.data.util.NeighborIterator;
 import prefuse.util.PrefuseConfig;
@@ -109,6 +110,11 @@ public class Graph extends CompositeTupleSet {
      * Table containing the adjacency lists for the graph
      */
     protected Table m_links;
+    /**
+     * Compressed adjacency lists, or null if the adjacency lists are kept per
+     * node in the link table
+     */
+    protected CompressedLinks m_clinks = null;
     /**
      * TupleManager for managing Node tuple instances
      */
@@ -454,6 +460,7 @@ public class Graph extends CompositeTupleSet {
     protected void initLinkTable() {
         // set up cache of node data
         m_links = createLinkTable();
+        m_clinks = null;
 
         IntIterator edges = getEdgeTable().rows();
         while (edges.hasNext()) {
@@ -465,6 +472,102 @@ public class Graph extends CompositeTupleSet {
         setEdgeTable(getEdgeTable());
     }
 
+    /**
+     * Rebuild the adjacency lists of this graph in bulk as compressed sparse
+     * rows, i.e. two flat int arrays for all in-links and out-links instead of
+     * an int array per node. This is intended for large graphs which are
+     * loaded at once, e.g. by importers. The compressed lists are read-only;
+     * the first change of the graph linkage converts them back to per node
+     * adjacency lists.
+     *
+     * @return true if the adjacency lists are compressed, false if this graph
+     * does not support compressed adjacency lists
+     */
+    public boolean compactLinks() {
+        Table edges = getEdgeTable();
+        int len = 0, count = edges.getRowCount();
+        int[] erows = new int[count], sources = new int[count], targets = new int[count];
+        for (IntIterator rows = edges.rows(); rows.hasNext();) {
+            int e = rows.nextInt();
+            int s = getSourceNode(e);
+            int t = getTargetNode(e);
+            if (s < 0 || t < 0) {
+                continue;
+            }
+            erows[len] = e;
+            sources[len] = s;
+            targets[len] = t;
+            len++;
+        }
+        m_links = createLinkTable();
+        m_clinks = CompressedLinks.build(m_links.getMaximumRow() + 1, erows, sources, targets, len);
+        for (IntIterator nodes = m_links.rows(); nodes.hasNext();) {
+            int n = nodes.nextInt();
+            m_links.setInt(n, OUTDEGREE, m_clinks.getOutDegree(n));
+            m_links.setInt(n, INDEGREE, m_clinks.getInDegree(n));
+        }
+        m_spanning = null;
+        return true;
+    }
+
+    /**
+     * Indicates if the adjacency lists of this graph are currently compressed.
+     *
+     * @return true if compressed, false if kept per node
+     * @see #compactLinks()
+     */
+    public boolean isCompactLinks() {
+        return m_clinks != null;
+    }
+
+    /**
+     * Convert compressed adjacency lists back to per node adjacency lists in
+     * the link table, so that they can be modified. Does nothing if the
+     * adjacency lists are not compressed.
+     */
+    protected void expandLinks() {
+        if (m_clinks == null) {
+            return;
+        }
+        for (IntIterator nodes = m_links.rows(); nodes.hasNext();) {
+            int n = nodes.nextInt();
+            m_links.set(n, OUTLINKS, m_clinks.copyOutLinks(n));
+            m_links.set(n, INLINKS, m_clinks.copyInLinks(n));
+        }
+        m_clinks = null;
+    }
+
+    /**
+     * Internal method for getting the array which holds the adjacency list of
+     * the given node. Use {@link #getLinkOffset(int, String)} for the position
+     * of the first link in the returned array.
+     *
+     * @param n the node id
+     * @param field which adjacency list (inlinks or outlinks) to use
+     * @return the array holding the adjacency list
+     */
+    protected int[] getLinks(int n, String field) {
+        if (m_clinks != null) {
+            return OUTLINKS.equals(field) ? m_clinks.getOutLinks() : m_clinks.getInLinks();
+        }
+        return (int[]) m_links.get(n, field);
+    }
+
+    /**
+     * Internal method for getting the position of the first link of the given
+     * node in the array returned by {@link #getLinks(int, String)}.
+     *
+     * @param n the node id
+     * @param field which adjacency list (inlinks or outlinks) to use
+     * @return the offset of the adjacency list
+     */
+    protected int getLinkOffset(int n, String field) {
+        if (m_clinks != null) {
+            return OUTLINKS.equals(field) ? m_clinks.getOutOffset(n) : m_clinks.getInOffset(n);
+        }
+        return 0;
+    }
+
     /**
      * Instantiate and return the link table.
      *
@@ -506,6 +609,7 @@ public class Graph extends CompositeTupleSet {
      * link
      */
     protected void updateDegrees(int e, int s, int t, int incr) {
+        expandLinks();
         int od = m_links.getInt(s, OUTDEGREE);
         int id = m_links.getInt(t, INDEGREE);
         // update adjacency lists
@@ -789,8 +893,10 @@ public class Graph extends CompositeTupleSet {
     public void removeEdges(int node, String linkDir, boolean removeIsolatedNodes) {
         int degree = (linkDir.equals(INLINKS)) ? getInDegree(node) : getOutDegree(node);
         if (degree > 0) {
-            int[] links = (int[]) m_links.get(node, linkDir);
-            for (int i = degree; --i >= 0;) {
+            // compressed lists are not modified but replaced on removal
+            int[] links = getLinks(node, linkDir);
+            int offset = getLinkOffset(node, linkDir);
+            for (int i = offset + degree; --i >= offset;) {
                 int adjacent = getAdjacentNode(links[i], node);
                 removeEdge(links[i]);
                 if (!removeIsolatedNodes
@@ -821,6 +927,31 @@ public class Graph extends CompositeTupleSet {
         return removeEdge(e.getRow());
     }
 
+    /**
+     * Begin a batch of updates on both the node and the edge table, merging
+     * their update events until {@link #commitBatch()} is called.
+     *
+     * @see Table#beginBatch()
+     */
+    public void beginBatch() {
+        getNodeTable().beginBatch();
+        getEdgeTable().beginBatch();
+    }
+
+    /**
+     * Commit a batch of updates begun by {@link #beginBatch()}, firing the
+     * merged update events of the node and the edge table.
+     *
+     * @see Table#commitBatch()
+     */
+    public void commitBatch() {
+        try {
+            getEdgeTable().commitBatch();
+        } finally {
+            getNodeTable().commitBatch();
+        }
+    }
+
     /**
      * Internal method for clearing the edge table, removing all edges.
      */
@@ -1174,8 +1305,9 @@ public class Graph extends CompositeTupleSet {
     public int getEdge(int source, int target) {
         int outd = getOutDegree(source);
         if (outd > 0) {
-            int[] edges = (int[]) m_links.get(source, OUTLINKS);
-            for (int i = 0; i < outd; ++i) {
+            int[] edges = getLinks(source, OUTLINKS);
+            int offset = getLinkOffset(source, OUTLINKS);
+            for (int i = offset; i < offset + outd; ++i) {
                 if (getTargetNode(edges[i]) == target) {
                     return edges[i];
                 }
@@ -1188,8 +1320,9 @@ public class Graph extends CompositeTupleSet {
         List<Integer> edgeRowList = new ArrayList<Integer>();
         int outd = getOutDegree(source);
         if (outd > 0) {
-            int[] edges = (int[]) m_links.get(source, OUTLINKS);
-            for (int i = 0; i < outd; ++i) {
+            int[] edges = getLinks(source, OUTLINKS);
+            int offset = getLinkOffset(source, OUTLINKS);
+            for (int i = offset; i < offset + outd; ++i) {
                 if (getTargetNode(edges[i]) == target) {
                     edgeRowList.add(edges[i]);
                 }
@@ -1518,11 +1651,11 @@ public class Graph extends CompositeTupleSet {
      */
     public IntIterator edgeRows(int node, int direction) {
         if (direction == OUTEDGES) {
-            int[] outedges = (int[]) m_links.get(node, OUTLINKS);
-            return new IntArrayIterator(outedges, 0, getOutDegree(node));
+            int[] outedges = getLinks(node, OUTLINKS);
+            return new IntArrayIterator(outedges, getLinkOffset(node, OUTLINKS), getOutDegree(node));
         } else if (direction == INEDGES) {
-            int[] inedges = (int[]) m_links.get(node, INLINKS);
-            return new IntArrayIterator(inedges, 0, getInDegree(node));
+            int[] inedges = getLinks(node, INLINKS);
+            return new IntArrayIterator(inedges, getLinkOffset(node, INLINKS), getInDegree(node));
         } else if (direction == UNDIRECTED) {
             return new CompositeIntIterator(
                     edgeRows(node, OUTEDGES), edgeRows(node, INEDGES));
@@ -1704,6 +1837,7 @@ public class Graph extends CompositeTupleSet {
         m_edgeTuples.invalidateAll();
         super.clear();
         m_links.clear();
+        m_clinks = null;
     }
 
     /**
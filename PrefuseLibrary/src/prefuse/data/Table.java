@@ -1,6 +1,7 @@
 package prefuse.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -128,6 +129,15 @@ public class Table extends AbstractTupleSet implements ColumnListener {
      * A cached schema instance, loaded lazily
      */
     protected Schema m_schema;
+    /**
+     * Nesting depth of batched updates, 0 if updates are not batched
+     */
+    protected int m_batchDepth = 0;
+    /**
+     * Pending update range of each column while batching, indexed by column
+     * number, or -1 if a column has no pending update
+     */
+    private int[] m_batchStart, m_batchEnd;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -644,6 +654,8 @@ public class Table extends AbstractTupleSet implements ColumnListener {
         if (idx < 0 || idx >= m_columns.size()) {
             throw new IllegalArgumentException("Column index is not legal.");
         }
+        // pending updates refer to the column numbers before renumbering
+        flushBatch();
 
         String name = (String) m_names.get(idx);
         ((ColumnEntry) m_entries.get(name)).dispose();
@@ -692,6 +704,49 @@ public class Table extends AbstractTupleSet implements ColumnListener {
         removeColumn(idx);
     }
 
+    /**
+     * Replace the column of the given data field with a new Column instance,
+     * keeping the column number and name. This is used to change the data
+     * type of a column in place, e.g. to widen an int column to a double or
+     * String column when reading data values that do not fit. Column metadata
+     * is reset and an existing index on the field is rebuilt.
+     *
+     * @param field the name of the data field / column to replace
+     * @param col the new Column instance, with values for all table rows
+     * @return the replaced Column instance
+     */
+    public Column replaceColumn(String field, Column col) {
+        int idx = m_names.indexOf(field);
+        if (idx < 0) {
+            throw new IllegalArgumentException("No such column.");
+        }
+        // pending updates refer to the values of the old column
+        flushBatch();
+
+        ColumnEntry entry = (ColumnEntry) m_entries.get(field);
+        boolean indexed = entry.index != null;
+        entry.dispose();
+        Column old = (Column) m_columns.set(idx, col);
+        old.removeColumnListener(this);
+        entry.column = col;
+        entry.metadata = new ColumnMetadata(this, field);
+        entry.index = null;
+        col.setMaximumRow(m_rows.getMaximumRow() + 1);
+        invalidateSchema();
+
+        // listen to what the column has to say
+        col.addColumnListener(this);
+        if (indexed) {
+            index(field);
+        }
+
+        // fire notification
+        fireTableEvent(m_rows.getMinimumRow(), m_rows.getMaximumRow(),
+                idx, TableModelEvent.UPDATE);
+
+        return old;
+    }
+
     /**
      * Internal method that re-numbers columns upon column removal.
      */
@@ -2257,8 +2312,104 @@ public class Table extends AbstractTupleSet implements ColumnListener {
         m_listeners.clear();
     }
 
+    // -- Batched Updates -----------------------------------------------------
+    /**
+     * Begin a batch of updates. Until the matching {@link #commitBatch()},
+     * update events of this table are not fired for every changed value but
+     * merged into a single range event per column, which is fired when the
+     * batch is committed. Row and column insertions and deletions are still
+     * notified immediately, after the updates made so far. Batches may be
+     * nested; the events are fired when the outermost batch is committed.
+     * Batches are not thread-safe, a batch should be begun and committed by
+     * the same thread which makes the updates, e.g. inside
+     * {@link prefuse.Visualization#process(Runnable)}.
+     */
+    public void beginBatch() {
+        ++m_batchDepth;
+    }
+
     /**
-     * Fire a table event to notify listeners.
+     * Commit a batch of updates begun by {@link #beginBatch()}. If this is the
+     * outermost batch, the merged update events are fired to the listeners.
+     *
+     * @throws IllegalStateException if no batch has begun
+     */
+    public void commitBatch() {
+        if (m_batchDepth == 0) {
+            throw new IllegalStateException("No batch has begun.");
+        }
+        if (--m_batchDepth == 0) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Indicates if updates of this table are currently batched.
+     *
+     * @return true if a batch has begun and is not yet committed
+     */
+    public boolean isBatching() {
+        return m_batchDepth > 0;
+    }
+
+    /**
+     * Internal method for recording an update event while batching.
+     *
+     * @param row0 the starting row of the modified range
+     * @param row1 the ending row (inclusive) of the modified range
+     * @param col the number of the column modified
+     */
+    private void deferTableEvent(int row0, int row1, int col) {
+        if (m_batchStart == null || col >= m_batchStart.length) {
+            int len = Math.max(col + 1, getColumnCount());
+            int[] start = new int[len], end = new int[len];
+            Arrays.fill(start, -1);
+            Arrays.fill(end, -1);
+            if (m_batchStart != null) {
+                System.arraycopy(m_batchStart, 0, start, 0, m_batchStart.length);
+                System.arraycopy(m_batchEnd, 0, end, 0, m_batchEnd.length);
+            }
+            m_batchStart = start;
+            m_batchEnd = end;
+        }
+        if (m_batchStart[col] < 0) {
+            m_batchStart[col] = row0;
+            m_batchEnd[col] = row1;
+        } else {
+            m_batchStart[col] = Math.min(m_batchStart[col], row0);
+            m_batchEnd[col] = Math.max(m_batchEnd[col], row1);
+        }
+    }
+
+    /**
+     * Internal method for firing the update events merged so far. A merged
+     * range is split at invalid rows, so listeners are notified of valid rows
+     * only.
+     */
+    protected void flushBatch() {
+        if (m_batchStart == null) {
+            return;
+        }
+        int[] start = m_batchStart, end = m_batchEnd;
+        m_batchStart = m_batchEnd = null;
+        for (int col = 0; col < start.length; col++) {
+            if (start[col] < 0) {
+                continue;
+            }
+            for (int r = start[col]; r <= end[col]; ++r) {
+                if (!isValidRow(r)) {
+                    continue;
+                }
+                int r0 = r;
+                for (; r < end[col] && isValidRow(r + 1); ++r);
+                dispatchTableEvent(r0, r, col, EventConstants.UPDATE);
+            }
+        }
+    }
+
+    /**
+     * Fire a table event to notify listeners. While batching, update events
+     * of a single column are deferred until the batch is committed.
      *
      * @param row0 the starting row of the modified range
      * @param row1 the ending row (inclusive) of the modified range
@@ -2268,11 +2419,34 @@ public class Table extends AbstractTupleSet implements ColumnListener {
      * @param type the table modification type, one of      {@link prefuse.data.event.EventConstants#INSERT},
      * {@link prefuse.data.event.EventConstants#DELETE}, or
      * {@link prefuse.data.event.EventConstants#UPDATE}.
+     * @see #beginBatch()
      */
     protected void fireTableEvent(int row0, int row1, int col, int type) {
         // increment the modification count
         ++m_modCount;
 
+        if (m_batchDepth > 0) {
+            if (type == EventConstants.UPDATE && col != EventConstants.ALL_COLUMNS) {
+                deferTableEvent(row0, row1, col);
+                return;
+            }
+            // structural changes must not overtake the pending updates
+            flushBatch();
+        }
+        dispatchTableEvent(row0, row1, col, type);
+    }
+
+    /**
+     * Internal method for notifying tuple set and table listeners of a table
+     * event.
+     *
+     * @param row0 the starting row of the modified range
+     * @param row1 the ending row (inclusive) of the modified range
+     * @param col the number of the column modified, or
+     * {@link prefuse.data.event.EventConstants#ALL_COLUMNS}
+     * @param type the table modification type
+     */
+    private void dispatchTableEvent(int row0, int row1, int col, int type) {
         if (type != EventConstants.UPDATE
                 && col == EventConstants.ALL_COLUMNS && type != EventConstants.INSERTED) {
             // fire event to all tuple set listeners
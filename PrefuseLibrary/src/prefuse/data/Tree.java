@@ -132,6 +132,16 @@ public class Tree extends Graph {
         return links;
     }
     
+    /**
+     * Trees keep child indices next to the per node adjacency lists, so the
+     * adjacency lists of a tree are never compressed.
+     * @return false
+     * @see prefuse.data.Graph#compactLinks()
+     */
+    public boolean compactLinks() {
+        return false;
+    }
+
     /**
      * @see prefuse.data.Graph#updateDegrees(int, int, int, int)
      */
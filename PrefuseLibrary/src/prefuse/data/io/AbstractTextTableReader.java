@@ -2,15 +2,20 @@ package prefuse.data.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import java.util.List;
 import prefuse.data.Table;
+import prefuse.data.column.Column;
+import prefuse.data.column.ColumnFactory;
 import prefuse.data.parser.DataParseException;
 import prefuse.data.parser.DataParser;
 import prefuse.data.parser.ParserFactory;
 import prefuse.data.parser.TypeInferencer;
 import prefuse.util.collections.ByteArrayList;
+import prefuse.util.collections.IntObjectHashMap;
 import prefuse.util.io.IOLib;
 
 /**
@@ -21,8 +26,15 @@ import prefuse.util.io.IOLib;
  */
 public abstract class AbstractTextTableReader extends AbstractTableReader {
 
+    /**
+     * Default number of leading data rows sampled to infer the column types
+     * when reading in a single pass.
+     */
+    public static final int DEFAULT_SAMPLE_ROWS = 1000;
+
     private ParserFactory m_pfactory;
     private boolean m_hasHeader;
+    private int m_sampleRows = 0;
 
     /**
      * Create a new AbstractTextTableReader using a default ParserFactory.
@@ -50,11 +62,51 @@ public abstract class AbstractTextTableReader extends AbstractTableReader {
         m_hasHeader = hasHeaderRow;
     }
 
+    /**
+     * Set the number of leading data rows buffered to infer the column types
+     * before values are written into the table. With a positive number of
+     * sample rows, the input is read in a single pass: once the sample is
+     * parsed, later values are parsed straight into the table columns, and a
+     * column is widened to a more general type if a value does not fit its
+     * current type. This keeps the memory use bounded by the table itself,
+     * instead of buffering the whole input for a second pass.
+     * @param sampleRows the number of rows to sample, or 0 (the default) to
+     * scan the whole input for types first and then read it a second time.
+     */
+    public void setSampleRows(int sampleRows) {
+        if (sampleRows < 0) {
+            throw new IllegalArgumentException(
+                    "Number of sample rows must be non-negative.");
+        }
+        m_sampleRows = sampleRows;
+    }
+
+    /**
+     * Get the number of leading data rows buffered to infer the column types.
+     * @return the number of sample rows, 0 if the input is read in two passes
+     * @see #setSampleRows(int)
+     */
+    public int getSampleRows() {
+        return m_sampleRows;
+    }
+
     /**
      * @see prefuse.data.io.AbstractTableReader#readTable(java.io.InputStream)
      */
     @Override
     public Table readTable(InputStream is) throws DataIOException {
+        if (m_sampleRows > 0) {
+            StreamingReader reader = new StreamingReader();
+            try {
+                read(is, reader);
+                return reader.finish();
+            } catch (IOException ioe) {
+                throw new DataIOException(ioe);
+            } catch (DataParseException de) {
+                throw new DataIOException("Parse exception for column "
+                        + '\"' + reader.col + '\"' + " at row: " + reader.row, de);
+            }
+        }
 
         // determine input stream capabilities
         // if we can't reset the stream, we read in all the bytes
@@ -176,6 +228,166 @@ public abstract class AbstractTextTableReader extends AbstractTableReader {
         return table;
     }
 
+    /**
+     * TableReadListener that reads the input in a single pass. The first
+     * rows are buffered as text until the sample is complete, then the table
+     * is created and the remaining values are parsed directly into it. All
+     * values keep being sampled, so the inferred column types are the same
+     * as for a two-pass read. The text of a value is kept only if it can not
+     * be reproduced by formatting the parsed value, e.g. numbers with leading
+     * zeros, so that a widened column is parsed from the original text.
+     */
+    private class StreamingReader implements TableReadListener {
+
+        private final TypeInferencer di = new TypeInferencer(m_pfactory);
+        private final ArrayList<String> headers = getColumnNames();
+        private ArrayList<ArrayList<String>> sample = new ArrayList<ArrayList<String>>();
+        private ArrayList<DataParser> parsers = new ArrayList<DataParser>();
+        private ArrayList<BitSet> valued = new ArrayList<BitSet>();
+        private ArrayList<IntObjectHashMap> texts = new ArrayList<IntObjectHashMap>();
+        private Table table;
+        private int ncols = 0;
+        private int prevLine = -1;
+        int row = -1, col = -1;
+
+        @Override
+        public void readValue(int line, int col, String value)
+                throws DataParseException {
+            if (line == 1 && m_hasHeader) {
+                headers.add(value);
+                ncols = Math.max(ncols, col);
+                return;
+            }
+            if (line != prevLine) {
+                prevLine = line;
+                ++row;
+                if (table == null && sample.size() == m_sampleRows) {
+                    createTable();
+                }
+                if (table != null) {
+                    table.addRow();
+                } else {
+                    sample.add(new ArrayList<String>());
+                }
+            }
+            this.col = col - 1;
+            ncols = Math.max(ncols, col);
+            di.sample(this.col, value);
+
+            if (table == null) {
+                ArrayList<String> values = sample.get(row);
+                while (values.size() < this.col) {
+                    values.add(null);
+                }
+                values.add(value);
+            } else {
+                set(row, this.col, getParser(this.col), value);
+            }
+        }
+
+        /**
+         * Parse a value into the table, keeping its text if formatting the
+         * parsed value does not give it back.
+         */
+        private void set(int r, int c, DataParser dp, String value)
+                throws DataParseException {
+            Object val = dp.parse(value);
+            table.set(r, c, val);
+            valued.get(c).set(r);
+            if (!value.equals(format(dp, val))) {
+                texts.get(c).put(r, value);
+            }
+        }
+
+        private String format(DataParser dp, Object val) {
+            // empty arrays were parsed from empty text, which the array
+            // parsers would format as "[]"
+            return val != null && val.getClass().isArray()
+                    && Array.getLength(val) == 0 ? "" : dp.format(val);
+        }
+
+        /**
+         * Create the table and its columns from the types inferred so far,
+         * and parse the buffered sample rows into it.
+         */
+        private void createTable() throws DataParseException {
+            table = new Table(sample.size(), 0);
+            for (int c = 0; c < ncols; ++c) {
+                addColumn(c);
+            }
+            int nrows = sample.size();
+            for (row = 0; row < nrows; ++row) {
+                ArrayList<String> values = sample.get(row);
+                for (col = 0; col < values.size(); ++col) {
+                    String value = values.get(col);
+                    if (value != null) {
+                        set(row, col, parsers.get(col), value);
+                    }
+                }
+            }
+            // release the buffered text
+            sample = null;
+        }
+
+        private void addColumn(int c) {
+            DataParser dp = di.getParser(c);
+            table.addColumn(getHeaderName(headers, c), dp.getType());
+            table.getColumn(c).setParser(dp);
+            parsers.add(dp);
+            valued.add(new BitSet());
+            texts.add(new IntObjectHashMap());
+        }
+
+        /**
+         * Get the parser for a data value of the given column, widening the
+         * column if the value was not accepted by its current parser. The
+         * values read so far are parsed again from their kept text, or from
+         * their formatted value which gives the same text.
+         */
+        private DataParser getParser(int c) throws DataParseException {
+            while (table.getColumnCount() <= c) {
+                addColumn(table.getColumnCount());
+            }
+            DataParser dp = di.getParser(c);
+            DataParser prev = parsers.get(c);
+            if (dp != prev) {
+                // convert the values read so far to the wider type
+                Column oldcol = table.getColumn(c);
+                BitSet rows = valued.get(c);
+                IntObjectHashMap oldtexts = texts.get(c);
+                IntObjectHashMap newtexts = new IntObjectHashMap();
+                Column newcol = ColumnFactory.getColumn(dp.getType(), table.getMaximumRow() + 1);
+                for (int r = rows.nextSetBit(0); r >= 0; r = rows.nextSetBit(r + 1)) {
+                    String text = (String) oldtexts.get(r);
+                    if (text == null) {
+                        text = format(prev, oldcol.get(r));
+                    }
+                    Object val = dp.parse(text);
+                    newcol.set(val, r);
+                    if (!text.equals(format(dp, val))) {
+                        newtexts.put(r, text);
+                    }
+                }
+                texts.set(c, newtexts);
+                newcol.setParser(dp);
+                table.replaceColumn(table.getColumnName(c), newcol);
+                parsers.set(c, dp);
+            }
+            return dp;
+        }
+
+        /**
+         * Complete the read, creating the table if the input had fewer rows
+         * than the sample size.
+         */
+        Table finish() throws DataParseException {
+            if (table == null) {
+                createTable();
+            }
+            return table;
+        }
+    }
+
     /**
      * Subclasses can override this to provide column names through
      * a custom mechanism.
@@ -165,6 +165,7 @@ public class GraphMLReader extends AbstractGraphReader  implements GraphReader {
 
             // now create the graph
             m_graph = new Graph(m_nodes, m_edges, m_directed);
+            m_graph.compactLinks();
             if (m_graphid != null)
                 m_graph.putClientProperty(ID, m_graphid);
         }
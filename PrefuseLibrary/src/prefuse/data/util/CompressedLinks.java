@@ -0,0 +1,197 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package prefuse.data.util;
+
+import java.util.Arrays;
+import prefuse.util.collections.IntArrayIterator;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Read-only adjacency store of a graph in compressed sparse row form. The
+ * in-links and out-links of all nodes are kept in two flat int arrays, and the
+ * links of a node are the slice <tt>[offset(n), offset(n+1))</tt> of them.
+ * Instances are built in bulk by {@link #build(int, int[], int[], int[], int)}
+ * and never modified afterwards.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class CompressedLinks {
+
+    private final int[] m_outOffsets, m_outLinks;
+    private final int[] m_inOffsets, m_inLinks;
+
+    private CompressedLinks(int[] outOffsets, int[] outLinks, int[] inOffsets, int[] inLinks) {
+        m_outOffsets = outOffsets;
+        m_outLinks = outLinks;
+        m_inOffsets = inOffsets;
+        m_inLinks = inLinks;
+    }
+
+    /**
+     * Build the compressed adjacency lists for the given edges. The relative
+     * order of the edges is preserved within every adjacency list.
+     *
+     * @param nodeCount the number of node ids, one greater than the maximum
+     * node id (node table row number)
+     * @param edges the edge ids (edge table row numbers)
+     * @param sources the source node id of each edge
+     * @param targets the target node id of each edge
+     * @param len the number of valid entries in the edge arrays
+     * @return the compressed adjacency lists
+     */
+    public static CompressedLinks build(int nodeCount, int[] edges, int[] sources, int[] targets, int len) {
+        int[] outOffsets = new int[nodeCount + 1];
+        int[] inOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < len; i++) {
+            outOffsets[sources[i] + 1]++;
+            inOffsets[targets[i] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            outOffsets[n + 1] += outOffsets[n];
+            inOffsets[n + 1] += inOffsets[n];
+        }
+        int[] outLinks = new int[len];
+        int[] inLinks = new int[len];
+        int[] outFill = Arrays.copyOf(outOffsets, nodeCount);
+        int[] inFill = Arrays.copyOf(inOffsets, nodeCount);
+        for (int i = 0; i < len; i++) {
+            outLinks[outFill[sources[i]]++] = edges[i];
+            inLinks[inFill[targets[i]]++] = edges[i];
+        }
+        return new CompressedLinks(outOffsets, outLinks, inOffsets, inLinks);
+    }
+
+    /**
+     * Get the number of node ids covered by this adjacency store.
+     *
+     * @return the number of node ids
+     */
+    public int getNodeCount() {
+        return m_outOffsets.length - 1;
+    }
+
+    /**
+     * Get the number of out-links of the given node.
+     *
+     * @param node the node id
+     * @return the out-degree, 0 if the node is not covered by this store
+     */
+    public int getOutDegree(int node) {
+        return node < getNodeCount() ? m_outOffsets[node + 1] - m_outOffsets[node] : 0;
+    }
+
+    /**
+     * Get the number of in-links of the given node.
+     *
+     * @param node the node id
+     * @return the in-degree, 0 if the node is not covered by this store
+     */
+    public int getInDegree(int node) {
+        return node < getNodeCount() ? m_inOffsets[node + 1] - m_inOffsets[node] : 0;
+    }
+
+    /**
+     * Get the flat array holding all out-links. The out-links of a node start
+     * at {@link #getOutOffset(int)}. The returned array must not be modified.
+     *
+     * @return the flat out-links array
+     */
+    public int[] getOutLinks() {
+        return m_outLinks;
+    }
+
+    /**
+     * Get the flat array holding all in-links. The in-links of a node start at
+     * {@link #getInOffset(int)}. The returned array must not be modified.
+     *
+     * @return the flat in-links array
+     */
+    public int[] getInLinks() {
+        return m_inLinks;
+    }
+
+    /**
+     * Get the position of the first out-link of the given node.
+     *
+     * @param node the node id
+     * @return the offset into the out-links array
+     */
+    public int getOutOffset(int node) {
+        return node < getNodeCount() ? m_outOffsets[node] : 0;
+    }
+
+    /**
+     * Get the position of the first in-link of the given node.
+     *
+     * @param node the node id
+     * @return the offset into the in-links array
+     */
+    public int getInOffset(int node) {
+        return node < getNodeCount() ? m_inOffsets[node] : 0;
+    }
+
+    /**
+     * Get an iterator over the out-links of the given node.
+     *
+     * @param node the node id
+     * @return an iterator over edge ids
+     */
+    public IntIterator outLinks(int node) {
+        return new IntArrayIterator(m_outLinks, getOutOffset(node), getOutDegree(node));
+    }
+
+    /**
+     * Get an iterator over the in-links of the given node.
+     *
+     * @param node the node id
+     * @return an iterator over edge ids
+     */
+    public IntIterator inLinks(int node) {
+        return new IntArrayIterator(m_inLinks, getInOffset(node), getInDegree(node));
+    }
+
+    /**
+     * Copy the out-links of the given node into a new array.
+     *
+     * @param node the node id
+     * @return a new array of edge ids, or null if the node has no out-links
+     */
+    public int[] copyOutLinks(int node) {
+        int degree = getOutDegree(node);
+        if (degree == 0) {
+            return null;
+        }
+        int offset = m_outOffsets[node];
+        return Arrays.copyOfRange(m_outLinks, offset, offset + degree);
+    }
+
+    /**
+     * Copy the in-links of the given node into a new array.
+     *
+     * @param node the node id
+     * @return a new array of edge ids, or null if the node has no in-links
+     */
+    public int[] copyInLinks(int node) {
+        int degree = getInDegree(node);
+        if (degree == 0) {
+            return null;
+        }
+        int offset = m_inOffsets[node];
+        return Arrays.copyOfRange(m_inLinks, offset, offset + degree);
+    }
+}
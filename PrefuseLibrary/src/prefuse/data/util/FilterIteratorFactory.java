@@ -224,7 +224,7 @@ public class FilterIteratorFactory {
         if ( index == null || !cmp.equals(index.getComparator()) )
             return null;
         
-        Class ltype = lit.getClass();
+        Class ltype = t.getColumnType(col.getColumnName());
         if ( ltype == int.class ) {
             int val = lit.getInt(null); // literal value, so null is safe
             switch ( operation ) {
@@ -261,15 +261,15 @@ public class FilterIteratorFactory {
             float val = lit.getFloat(null); // literal value, so null is safe
             switch ( operation ) {
             case ComparisonPredicate.LT:
-                return index.rows(Float.MIN_VALUE, val, Index.TYPE_AIE);
+                return index.rows(Float.NEGATIVE_INFINITY, val, Index.TYPE_AIE);
             case ComparisonPredicate.GT:
-                return index.rows(val, Float.MAX_VALUE, Index.TYPE_AEI);
+                return index.rows(val, Float.POSITIVE_INFINITY, Index.TYPE_AEI);
             case ComparisonPredicate.EQ:
                 return index.rows(val, val, Index.TYPE_AII);
             case ComparisonPredicate.LTEQ:
-                return index.rows(Float.MIN_VALUE, val, Index.TYPE_AII);
+                return index.rows(Float.NEGATIVE_INFINITY, val, Index.TYPE_AII);
             case ComparisonPredicate.GTEQ:
-                return index.rows(val, Float.MAX_VALUE, Index.TYPE_AII);
+                return index.rows(val, Float.POSITIVE_INFINITY, Index.TYPE_AII);
             default:
                 throw new IllegalStateException(); // should never occur
             }
@@ -277,15 +277,15 @@ public class FilterIteratorFactory {
             double val = lit.getDouble(null); // literal value, so null is safe
             switch ( operation ) {
             case ComparisonPredicate.LT:
-                return index.rows(Double.MIN_VALUE, val, Index.TYPE_AIE);
+                return index.rows(Double.NEGATIVE_INFINITY, val, Index.TYPE_AIE);
             case ComparisonPredicate.GT:
-                return index.rows(val, Double.MAX_VALUE, Index.TYPE_AEI);
+                return index.rows(val, Double.POSITIVE_INFINITY, Index.TYPE_AEI);
             case ComparisonPredicate.EQ:
                 return index.rows(val, val, Index.TYPE_AII);
             case ComparisonPredicate.LTEQ:
-                return index.rows(Double.MIN_VALUE, val, Index.TYPE_AII);
+                return index.rows(Double.NEGATIVE_INFINITY, val, Index.TYPE_AII);
             case ComparisonPredicate.GTEQ:
-                return index.rows(val, Double.MAX_VALUE, Index.TYPE_AII);
+                return index.rows(val, Double.POSITIVE_INFINITY, Index.TYPE_AII);
             default:
                 throw new IllegalStateException(); // should never occur
             }
@@ -30,7 +30,7 @@ import prefuse.visual.VisualItem;
  * @author alan newberger
  * @author <a href="http://jheer.org">jeffrey heer</a>
  */
-public abstract class AbstractShapeRenderer implements Renderer {
+public abstract class AbstractShapeRenderer implements Renderer, Cloneable {
     
     public static final int RENDER_TYPE_NONE = 0;
     public static final int RENDER_TYPE_DRAW = 1;
@@ -45,6 +45,33 @@ public abstract class AbstractShapeRenderer implements Renderer {
         m_manageBounds = b;
     }
     
+    /**
+     * Returns a copy of this renderer for drawing items in another thread,
+     * as the tiles of a {@link prefuse.Display} are drawn. The copy shares
+     * the settings of this renderer but has its own temporary shapes, and
+     * is meant to be thrown away after a frame. Subclasses keeping other
+     * temporary state must renew it in {@link #copyTemporaries()}.
+     * @return a copy of this renderer, or null if this renderer can not be
+     * used from several threads at once
+     */
+    public AbstractShapeRenderer copy() {
+        try {
+            AbstractShapeRenderer r = (AbstractShapeRenderer)clone();
+            r.copyTemporaries();
+            return r;
+        } catch ( CloneNotSupportedException e ) {
+            throw new InternalError(e.toString());
+        }
+    }
+    
+    /**
+     * Replaces the temporary state of a renderer just copied by
+     * {@link #copy()}, so that the copy does not share it with the original.
+     */
+    protected void copyTemporaries() {
+        m_transform = new AffineTransform();
+    }
+    
     /**
      * @see prefuse.render.Renderer#render(java.awt.Graphics2D, prefuse.visual.VisualItem)
      */
@@ -50,6 +50,15 @@ public class AxisRenderer extends AbstractShapeRenderer {
         m_yalign = yalign;
     }
     
+    /**
+     * @see prefuse.render.AbstractShapeRenderer#copyTemporaries()
+     */
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        m_line = new Line2D.Double();
+        m_box  = new Rectangle2D.Double();
+    }
+    
     /**
      * Set the horizontal alignment of axis labels.
      * @param xalign the horizontal alignment for the axis label. One of
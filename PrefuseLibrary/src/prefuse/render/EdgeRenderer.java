@@ -131,6 +131,23 @@ public class EdgeRenderer extends AbstractShapeRenderer {
         setArrowType(arrowType);
     }
 
+    /**
+     * @see prefuse.render.AbstractShapeRenderer#copyTemporaries()
+     */
+    @Override
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        m_line = new Line2D.Float();
+        m_quad = new QuadCurve2D.Float();
+        m_tmpPoints = new Point2D[]{new Point2D.Float(), new Point2D.Float()};
+        m_ctrlPoints = new Point2D[]{new Point2D.Float()};
+        m_isctPoints = new Point2D[]{new Point2D.Float(), new Point2D.Float()};
+        m_arrowTrans = new AffineTransform();
+        m_tmpArrow = new TransientPath2D.Double();
+        m_edgeTrans = new AffineTransform();
+        m_tmpBounds = new Rectangle2D.Double();
+    }
+
     /**
      * @see prefuse.render.AbstractShapeRenderer#getRenderType(prefuse.visual.VisualItem)
      */
@@ -468,7 +485,7 @@ public class EdgeRenderer extends AbstractShapeRenderer {
         }
         item.setBounds(m_tmpBounds.getX(), m_tmpBounds.getY(), m_tmpBounds.getWidth(), m_tmpBounds.getHeight());
     }
-    private final Rectangle2D m_tmpBounds = new Rectangle2D.Double();
+    private Rectangle2D m_tmpBounds = new Rectangle2D.Double();
 
     /**
      * Returns the line width to be used for this VisualItem. By default,
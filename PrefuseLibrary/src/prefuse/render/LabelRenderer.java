@@ -16,7 +16,6 @@ import prefuse.Constants;
 import prefuse.util.ColorLib;
 import prefuse.util.FontLib;
 import prefuse.util.GraphicsLib;
-import prefuse.util.StringLib;
 import prefuse.visual.VisualItem;
 
 
@@ -86,6 +85,10 @@ public class LabelRenderer extends AbstractShapeRenderer {
     protected Font    m_font; // temp font holder
     protected String    m_text; // label text
     protected Dimension m_textDim = new Dimension(); // text width / height
+    protected TextMetricsCache.TextMetrics m_textMetrics; // measured label text
+    protected TextMetricsCache m_metricsCache = TextMetricsCache.getDefault();
+    private String m_line;  // temp holder of the line being drawn
+    private int m_lineWidth; // and its width
 
     /**
      * Create a new LabelRenderer. By default the field "label" is used
@@ -119,6 +122,16 @@ public class LabelRenderer extends AbstractShapeRenderer {
         setImageField(imageField);
     }
     
+    /**
+     * @see prefuse.render.AbstractShapeRenderer#copyTemporaries()
+     */
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        m_bbox = (RectangularShape)m_bbox.clone();
+        m_pt = new Point2D.Double();
+        m_textDim = new Dimension();
+    }
+    
     // ------------------------------------------------------------------------
     
     /**
@@ -268,47 +281,12 @@ public class LabelRenderer extends AbstractShapeRenderer {
                                      size*m_font.getSize());
         }
         
-        FontMetrics fm = DEFAULT_GRAPHICS.getFontMetrics(m_font);
-        StringBuffer str = null;
-        
-        // compute the number of lines and the maximum width
-        int nlines = 1, w = 0, start = 0, end = text.indexOf(m_delim);
-        m_textDim.width = 0;
-        String line;
-        for ( ; end >= 0; ++nlines ) {
-            w = fm.stringWidth(line=text.substring(start,end));
-            // abbreviate line as needed
-            if ( m_maxTextWidth > -1 && w > m_maxTextWidth ) {
-                if ( str == null )
-                    str = new StringBuffer(text.substring(0,start));
-                str.append(StringLib.abbreviate(line, fm, m_maxTextWidth));
-                str.append(m_delim);
-                w = m_maxTextWidth;
-            } else if ( str != null ) {
-                str.append(line).append(m_delim);
-            }
-            // update maximum width and substring indices
-            m_textDim.width = Math.max(m_textDim.width, w);
-            start = end+1;
-            end = text.indexOf(m_delim, start);
-        }
-        w = fm.stringWidth(line=text.substring(start));
-        // abbreviate line as needed
-        if ( m_maxTextWidth > -1 && w > m_maxTextWidth ) {
-            if ( str == null )
-                str = new StringBuffer(text.substring(0,start));
-            str.append(StringLib.abbreviate(line, fm, m_maxTextWidth));
-            w = m_maxTextWidth;
-        } else if ( str != null ) {
-            str.append(line);
-        }
-        // update maximum width
-        m_textDim.width = Math.max(m_textDim.width, w);
-        
-        // compute the text height
-        m_textDim.height = fm.getHeight() * nlines;
+        // measure the text, or reuse the measures of the same text
+        m_textMetrics = m_metricsCache.get(m_font, text, m_delim, m_maxTextWidth);
+        m_textDim.width = m_textMetrics.width;
+        m_textDim.height = m_textMetrics.getHeight();
         
-        return str==null ? text : str.toString();
+        return m_textMetrics.text;
     }
     
     /**
@@ -526,15 +504,15 @@ public class LabelRenderer extends AbstractShapeRenderer {
                 y += (th - m_textDim.height)/2;
             }
             
-            // render each line of text
+            // render each line of text, as measured by the metrics cache
             int lh = fm.getHeight(); // the line height
-            int start = 0, end = text.indexOf(m_delim);
-            for ( ; end >= 0; y += lh ) {
-                drawString(item, g, fm, text.substring(start, end), useInt, x, y, tw);
-                start = end+1;
-                end = text.indexOf(m_delim, start);   
+            String[] lines = m_textMetrics.lines;
+            for ( int i=0; i<lines.length; ++i, y += lh ) {
+                m_line = lines[i];
+                m_lineWidth = m_textMetrics.lineWidths[i];
+                drawString(item, g, fm, lines[i], useInt, x, y, tw);
             }
-            drawString(item, g, fm, text.substring(start), useInt, x, y, tw);
+            m_line = null;
         }
     
         // draw border
@@ -558,10 +536,10 @@ public class LabelRenderer extends AbstractShapeRenderer {
             tx = x;
             break;
         case Constants.RIGHT:
-            tx = x + w - fm.stringWidth(text);
+            tx = x + w - stringWidth(fm, text);
             break;
         case Constants.CENTER:
-            tx = x + (w - fm.stringWidth(text)) / 2;
+            tx = x + (w - stringWidth(fm, text)) / 2;
             break;
         default:
             throw new IllegalStateException(
@@ -576,6 +554,29 @@ public class LabelRenderer extends AbstractShapeRenderer {
         }
     }
     
+    private int stringWidth(FontMetrics fm, String text) {
+        // the width of a measured line is known unless a subclass draws
+        // some other text
+        return text == m_line ? m_lineWidth : fm.stringWidth(text);
+    }
+    
+    /**
+     * Returns the text metrics cache used by this renderer.
+     * @return the text metrics cache
+     */
+    public TextMetricsCache getTextMetricsCache() {
+        return m_metricsCache;
+    }
+    
+    /**
+     * Sets the text metrics cache used by this renderer. By default all
+     * label renderers share {@link TextMetricsCache#getDefault()}.
+     * @param cache the text metrics cache
+     */
+    public void setTextMetricsCache(TextMetricsCache cache) {
+        m_metricsCache = cache;
+    }
+    
     /**
      * Returns the image factory used by this renderer.
      * @return the image factory
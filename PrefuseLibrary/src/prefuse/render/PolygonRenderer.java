@@ -74,6 +74,14 @@ public class PolygonRenderer extends AbstractShapeRenderer {
         m_slack = slack;
     }
 
+    /**
+     * @see prefuse.render.AbstractShapeRenderer#copyTemporaries()
+     */
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        m_path = new GeneralPath();
+    }
+
     /**
      * Get the polygon line type.
      * @return the polygon edge type, one of
@@ -35,6 +35,16 @@ public class ShapeRenderer extends AbstractShapeRenderer {
         setBaseSize(size);
     }
 
+    /**
+     * @see prefuse.render.AbstractShapeRenderer#copyTemporaries()
+     */
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        m_ellipse = new Ellipse2D.Double();
+        m_rect = new Rectangle2D.Double();
+        m_path = new GeneralPath();
+    }
+
     /**
      * Sets the base size, in pixels, for shapes drawn by this renderer. The
      * base size is the width and height value used when a VisualItem's size
@@ -56,6 +56,13 @@ public class ShapedLabelRenderer extends AbstractShapeRenderer {
         return shapeOn;
     }
 
+    @Override
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        shapeRenderer = (ShapeRenderer) shapeRenderer.copy();
+        labelRenderer = (LabelRenderer) labelRenderer.copy();
+    }
+
     @Override
     public void render(Graphics2D g, VisualItem item) {
 
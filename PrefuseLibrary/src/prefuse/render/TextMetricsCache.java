@@ -0,0 +1,249 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package prefuse.render;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import prefuse.util.PrefuseConfig;
+import prefuse.util.StringLib;
+
+/**
+ * LRU cache of measured label texts, keyed by the font, the text, the line
+ * delimiter and the maximum line width. An entry holds the text with its
+ * lines abbreviated to the maximum width, the lines and their widths, and
+ * the dimensions of the whole text, so that renderers do not measure the
+ * same labels again on every frame. All texts are measured with the font
+ * metrics of {@link Renderer#DEFAULT_GRAPHICS}.
+ *
+ * <p>The cache is shared by all {@link LabelRenderer}s unless another one is
+ * set. Its capacity is the <code>render.textMetrics.cacheSize</code> prefuse
+ * configuration property.</p>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class TextMetricsCache {
+
+    private static final TextMetricsCache s_default =
+        new TextMetricsCache(PrefuseConfig.getInt("render.textMetrics.cacheSize"));
+
+    private final int m_capacity;
+    private final Map<Key, TextMetrics> m_cache;
+    private final Key m_probe = new Key();
+    private long m_hits = 0, m_misses = 0;
+
+    /**
+     * Returns the cache shared by the label renderers.
+     * @return the shared text metrics cache
+     */
+    public static TextMetricsCache getDefault() {
+        return s_default;
+    }
+
+    /**
+     * Create a new TextMetricsCache.
+     * @param capacity the maximum number of measured texts to keep
+     */
+    public TextMetricsCache(int capacity) {
+        m_capacity = Math.max(1, capacity);
+        m_cache = new LinkedHashMap<Key, TextMetrics>(Math.min(m_capacity, 1024), .75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<Key, TextMetrics> eldest) {
+                return size() > m_capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the measures of the given text, measuring it if not cached.
+     * @param font the font of the text
+     * @param text the text, possibly of multiple lines
+     * @param delim the delimiter of lines
+     * @param maxWidth the maximum width of a line, beyond which a line is
+     *  abbreviated, or -1 for no limit
+     * @return the measures of the text
+     */
+    public TextMetrics get(Font font, String text, String delim, int maxWidth) {
+        synchronized ( this ) {
+            m_probe.set(font, text, delim, maxWidth);
+            TextMetrics tm = m_cache.get(m_probe);
+            m_probe.set(null, null, null, 0);
+            if ( tm != null ) {
+                m_hits++;
+                return tm;
+            }
+        }
+        // measure outside of the lock, a concurrent miss of the same text
+        // just measures it twice
+        TextMetrics tm = measure(font, text, delim, maxWidth);
+        synchronized ( this ) {
+            m_misses++;
+            Key key = new Key();
+            key.set(font, text, delim, maxWidth);
+            m_cache.put(key, tm);
+        }
+        return tm;
+    }
+
+    private static TextMetrics measure(Font font, String text, String delim,
+                                       int maxWidth)
+    {
+        FontMetrics fm = Renderer.DEFAULT_GRAPHICS.getFontMetrics(font);
+        List<String> lines = new ArrayList<String>(1);
+        List<Integer> lineWidths = new ArrayList<Integer>(1);
+        StringBuffer str = null;
+        int start = 0, end, width = 0;
+        do {
+            end = text.indexOf(delim, start);
+            String line = end < 0 ? text.substring(start)
+                                  : text.substring(start, end);
+            int w = fm.stringWidth(line), lw = w;
+            // abbreviate line as needed, an abbreviated line takes up the
+            // maximum width
+            if ( maxWidth > -1 && w > maxWidth ) {
+                if ( str == null )
+                    str = new StringBuffer(text.substring(0, start));
+                line = StringLib.abbreviate(line, fm, maxWidth);
+                str.append(line);
+                w = maxWidth;
+                lw = fm.stringWidth(line);
+            } else if ( str != null ) {
+                str.append(line);
+            }
+            if ( end >= 0 ) {
+                if ( str != null )
+                    str.append(delim);
+                start = end + delim.length();
+            }
+            lines.add(line);
+            lineWidths.add(Integer.valueOf(lw));
+            width = Math.max(width, w);
+        } while ( end >= 0 );
+
+        String[] l = lines.toArray(new String[lines.size()]);
+        int[] widths = new int[l.length];
+        for ( int i=0; i<l.length; ++i ) {
+            widths[i] = lineWidths.get(i).intValue();
+        }
+        return new TextMetrics(str==null ? text : str.toString(), l, widths,
+                width, fm.getHeight(), fm.getAscent());
+    }
+
+    /**
+     * Remove all measured texts.
+     */
+    public synchronized void clear() {
+        m_cache.clear();
+    }
+
+    /**
+     * Returns the number of measured texts in the cache.
+     * @return the number of cached texts
+     */
+    public synchronized int size() {
+        return m_cache.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return m_hits;
+    }
+
+    /**
+     * Returns the number of lookups which measured the text.
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return m_misses;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * The measures of a label text.
+     */
+    public static final class TextMetrics {
+
+        /** The text with its lines abbreviated to the maximum width. */
+        public final String text;
+        /** The lines of the abbreviated text. */
+        public final String[] lines;
+        /** The width of each line. */
+        public final int[] lineWidths;
+        /** The width of the text, the maximum width if a line is abbreviated. */
+        public final int width;
+        /** The height of a line. */
+        public final int lineHeight;
+        /** The ascent of the font. */
+        public final int ascent;
+
+        TextMetrics(String text, String[] lines, int[] lineWidths, int width,
+                    int lineHeight, int ascent)
+        {
+            this.text = text;
+            this.lines = lines;
+            this.lineWidths = lineWidths;
+            this.width = width;
+            this.lineHeight = lineHeight;
+            this.ascent = ascent;
+        }
+
+        /**
+         * Returns the height of all lines.
+         * @return the text height
+         */
+        public int getHeight() {
+            return lineHeight * lines.length;
+        }
+    }
+
+    private static final class Key {
+        Font font;
+        String text, delim;
+        int maxWidth;
+        int hash;
+
+        void set(Font font, String text, String delim, int maxWidth) {
+            this.font = font;
+            this.text = text;
+            this.delim = delim;
+            this.maxWidth = maxWidth;
+            this.hash = font == null ? 0 : ((font.hashCode()*31
+                + text.hashCode())*31 + delim.hashCode())*31 + maxWidth;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            if ( !(o instanceof Key) )
+                return false;
+            Key k = (Key)o;
+            return maxWidth == k.maxWidth && text.equals(k.text)
+                && delim.equals(k.delim) && font.equals(k.font);
+        }
+    }
+
+} // end of class TextMetricsCache
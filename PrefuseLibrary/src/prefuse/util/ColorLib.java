@@ -285,7 +285,7 @@ public class ColorLib {
      * blue, and alpha channel information
      * @return a Java Color object
      */
-    public static Color getColor(int rgba) {
+    public static synchronized Color getColor(int rgba) {
         Color c = null;
         if ((c = (Color) colorMap.get(rgba)) == null) {
             c = new Color(rgba, true);
@@ -317,7 +317,7 @@ public class ColorLib {
     /**
      * Clear the Color object cache.
      */
-    public static void clearCache() {
+    public static synchronized void clearCache() {
         colorMap.clear();
     }
     // ------------------------------------------------------------------------
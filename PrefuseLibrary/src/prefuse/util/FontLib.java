@@ -55,7 +55,7 @@ public class FontLib {
      * @param size the size, in points, of the font
      * @return the requested Font instance
      */
-    public static Font getFont(String name, int style, int size) {
+    public static synchronized Font getFont(String name, int style, int size) {
         int key = (name.hashCode()<<8)+(size<<2)+style;
         Font f = null;
         if ( (f=(Font)fontMap.get(key)) == null ) {
@@ -86,7 +86,7 @@ public class FontLib {
     /**
      * Clear the Font object cache.
      */
-    public static void clearCache() {
+    public static synchronized void clearCache() {
         fontMap.clear();
     }
     
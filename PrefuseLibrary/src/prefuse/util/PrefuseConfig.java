@@ -25,6 +25,12 @@ import prefuse.util.io.IOLib;
  * <li><code>activity.threadPriority</code> - the thread priority of the
  * ActivityManager thread. The value should be between 1 and 10, with 5 being
  * the standard Java default. The default prefuse setting is 6.</li>
+ * <li><code>activity.threads</code> - the number of worker threads running
+ * the activities of different visualizations concurrently. The default is
+ * 4.</li>
+ * <li><code>activity.maxFrameRate</code> - the maximum number of times per
+ * second an activity of infinite duration is run, or 0 for no limit. The
+ * default is 60.</li>
  * <li><code>data.io.worker.threadPriority</code> - the thread priority of
  * asynchronous database worker threads. The default prefuse setting is 5
  * (same as the Java thread default).</li>
@@ -191,6 +197,10 @@ public class PrefuseConfig extends Properties {
         setProperty("size.scale2D", "0.5");
 //        setProperty("activity.threadPriority", "6");
         setProperty("activity.threadPriority", String.valueOf(Thread.NORM_PRIORITY));
+        // activities of different visualizations run concurrently in this
+        // many threads, and endless ones at most this many times a second
+        setProperty("activity.threads", "4");
+        setProperty("activity.maxFrameRate", "60");
         setProperty("data.delimiter", ".");
         setProperty("data.graph.nodeGroup", "nodes");
         setProperty("data.graph.edgeGroup", "edges");
@@ -198,6 +208,20 @@ public class PrefuseConfig extends Properties {
         setProperty("data.io.worker.threadPriority",
                 String.valueOf(Thread.NORM_PRIORITY));
 
+        // the number of measured label texts shared by the label renderers
+        setProperty("render.textMetrics.cacheSize", "50000");
+
+        // displays draw in low detail below this zoom scale or above this
+        // count of items on screen, and skip decorators smaller than this
+        setProperty("display.lod.scale", "0.25");
+        setProperty("display.lod.itemCount", "10000");
+        setProperty("display.lod.minPixels", "4");
+
+        // displays drawn in tiles split the screen in tiles of this size,
+        // drawn by this many threads, 0 for the number of processors
+        setProperty("display.tiles.size", "256");
+        setProperty("display.tiles.threads", "0");
+
         // prefuse will only attempt to optimize filtering operations
         // on tables with more rows than this threshold value
         setProperty("data.filter.optimizeThreshold", "300");
@@ -509,6 +509,7 @@ public abstract class AbstractTreeMap implements IntSortedMap {
         EntryIterator(boolean reverse) {
             next = reverse ? maximum(root) : minimum(root);
             end = NIL;
+            this.reverse = reverse;
         }
 
         EntryIterator(Entry first, Entry last) {
@@ -0,0 +1,368 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package prefuse.util.display;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import prefuse.visual.VisualItem;
+
+/**
+ * A static R-tree over the bounds of VisualItems, used by a Display to pick
+ * items and to cull items outside of the clip without walking all items.
+ * Items and snapshots of their bounds are collected with
+ * {@link #add(VisualItem, Rectangle2D)}, and the tree is bulk loaded by
+ * sort-tile-recursive packing when it is first queried. Changes of the items
+ * are not tracked, the index is instead cleared and refilled by its Display.
+ * Fields are used directly by a single Display instance, as in
+ * {@link RenderingQueue}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class SpatialIndex {
+
+    private static final int DEFAULT_SIZE = 256;
+    private static final int NODE_CAPACITY = 16;
+
+    // items in the order they were added, and their bounds
+    private VisualItem[] items = new VisualItem[DEFAULT_SIZE];
+    private double[] minX = new double[DEFAULT_SIZE];
+    private double[] minY = new double[DEFAULT_SIZE];
+    private double[] maxX = new double[DEFAULT_SIZE];
+    private double[] maxY = new double[DEFAULT_SIZE];
+    private int size = 0;
+
+    // tree nodes, leaves first and the root last. the children of a leaf are
+    // positions in entries, those of other nodes are node indices
+    private int[] entries;
+    private double[] nodeMinX, nodeMinY, nodeMaxX, nodeMaxY;
+    private int[] childStart, childEnd;
+    private int leafCount, nodeCount;
+    private boolean built = false;
+
+    // query buffers
+    private int[] stack = new int[64];
+    private int[] hits = new int[DEFAULT_SIZE];
+
+    /** Items found by the last query, in the order they were added. */
+    public VisualItem[] results = new VisualItem[DEFAULT_SIZE];
+    /** The number of items found by the last query. */
+    public int rsize = 0;
+
+    /**
+     * Remove all items from the index.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        Arrays.fill(results, 0, rsize, null);
+        size = 0;
+        rsize = 0;
+        built = false;
+    }
+
+    /**
+     * Clears the index and resizes internal arrays to a small size.
+     * This should help reclaim used memory.
+     */
+    public void clean() {
+        clear();
+        items = new VisualItem[DEFAULT_SIZE];
+        minX = new double[DEFAULT_SIZE];
+        minY = new double[DEFAULT_SIZE];
+        maxX = new double[DEFAULT_SIZE];
+        maxY = new double[DEFAULT_SIZE];
+        hits = new int[DEFAULT_SIZE];
+        results = new VisualItem[DEFAULT_SIZE];
+        entries = null;
+        nodeMinX = nodeMinY = nodeMaxX = nodeMaxY = null;
+        childStart = childEnd = null;
+    }
+
+    /**
+     * Get the number of items in the index.
+     * @return the number of items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add an item to the index. The bounds are copied, so later changes of
+     * the bounds of the item are not reflected by the index.
+     * @param item the item to add
+     * @param bounds the current bounds of the item
+     */
+    public void add(VisualItem item, Rectangle2D bounds) {
+        if ( items.length == size ) {
+            int capacity = (3*items.length)/2 + 1;
+            items = Arrays.copyOf(items, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        items[size] = item;
+        minX[size] = bounds.getMinX();
+        minY[size] = bounds.getMinY();
+        maxX[size] = bounds.getMaxX();
+        maxY[size] = bounds.getMaxY();
+        ++size;
+        built = false;
+    }
+
+    /**
+     * Find all items whose bounds, expanded by the given margin, intersect
+     * the given rectangle, including touching edges. The found items are
+     * stored in {@link #results}.
+     * @param x1 the minimum x-coordinate of the rectangle
+     * @param y1 the minimum y-coordinate of the rectangle
+     * @param x2 the maximum x-coordinate of the rectangle
+     * @param y2 the maximum y-coordinate of the rectangle
+     * @param margin the margin to add around each item
+     * @return the number of items found
+     */
+    public int query(double x1, double y1, double x2, double y2,
+                     double margin)
+    {
+        Arrays.fill(results, 0, rsize, null);
+        rsize = 0;
+        if ( size == 0 ) return 0;
+        if ( !built ) build();
+        x1 -= margin; y1 -= margin;
+        x2 += margin; y2 += margin;
+
+        int count = 0;
+        int top = 0;
+        stack[top++] = nodeCount-1;
+        while ( top > 0 ) {
+            int n = stack[--top];
+            if ( nodeMinX[n] > x2 || nodeMaxX[n] < x1 ||
+                 nodeMinY[n] > y2 || nodeMaxY[n] < y1 )
+            {
+                continue;
+            }
+            if ( n < leafCount ) {
+                for ( int p=childStart[n]; p<childEnd[n]; ++p ) {
+                    int i = entries[p];
+                    if ( minX[i] <= x2 && maxX[i] >= x1 &&
+                         minY[i] <= y2 && maxY[i] >= y1 )
+                    {
+                        if ( hits.length == count )
+                            hits = Arrays.copyOf(hits, (3*count)/2 + 1);
+                        hits[count++] = i;
+                    }
+                }
+            } else {
+                for ( int c=childStart[n]; c<childEnd[n]; ++c ) {
+                    if ( stack.length == top )
+                        stack = Arrays.copyOf(stack, 2*top);
+                    stack[top++] = c;
+                }
+            }
+        }
+
+        // report the items in the order they were added
+        Arrays.sort(hits, 0, count);
+        if ( results.length < count )
+            results = new VisualItem[Math.max(count, (3*results.length)/2 + 1)];
+        for ( int k=0; k<count; ++k )
+            results[k] = items[hits[k]];
+        rsize = count;
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Bulk load the tree by sort-tile-recursive packing of the items, then of
+     * each level of nodes until a single root remains.
+     */
+    private void build() {
+        // leaves over the items
+        if ( entries == null || entries.length < size )
+            entries = new int[items.length];
+        for ( int i=0; i<size; ++i )
+            entries[i] = i;
+        int leaves = (size + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int total = leaves, level = leaves;
+        while ( level > 1 ) {
+            level = (level + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            total += level;
+        }
+        if ( nodeMinX == null || nodeMinX.length < total ) {
+            nodeMinX = new double[total];
+            nodeMinY = new double[total];
+            nodeMaxX = new double[total];
+            nodeMaxY = new double[total];
+            childStart = new int[total];
+            childEnd = new int[total];
+        }
+
+        pack(entries, 0, size, minX, minY, maxX, maxY);
+        for ( int n=0; n<leaves; ++n ) {
+            int start = n*NODE_CAPACITY;
+            int end = Math.min(start + NODE_CAPACITY, size);
+            childStart[n] = start;
+            childEnd[n] = end;
+            setNodeBounds(n, entries, start, end, minX, minY, maxX, maxY);
+        }
+        leafCount = leaves;
+
+        // upper levels, each over the nodes of the level below
+        int from = 0, to = leaves;
+        int[] order = new int[leaves];
+        while ( to - from > 1 ) {
+            int count = to - from;
+            for ( int k=0; k<count; ++k )
+                order[k] = from + k;
+            pack(order, 0, count, nodeMinX, nodeMinY, nodeMaxX, nodeMaxY);
+            // move the packed nodes of this level into place
+            permute(order, count, from);
+            int parents = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            for ( int k=0; k<parents; ++k ) {
+                int n = to + k;
+                int start = from + k*NODE_CAPACITY;
+                int end = Math.min(start + NODE_CAPACITY, to);
+                childStart[n] = start;
+                childEnd[n] = end;
+                nodeMinX[n] = Double.POSITIVE_INFINITY;
+                nodeMinY[n] = Double.POSITIVE_INFINITY;
+                nodeMaxX[n] = Double.NEGATIVE_INFINITY;
+                nodeMaxY[n] = Double.NEGATIVE_INFINITY;
+                for ( int c=start; c<end; ++c )
+                    union(n, nodeMinX[c], nodeMinY[c], nodeMaxX[c], nodeMaxY[c]);
+            }
+            from = to;
+            to += parents;
+        }
+        nodeCount = to;
+        built = true;
+    }
+
+    /**
+     * Reorder the nodes <code>from .. from+count-1</code> so that the node at
+     * position <code>from+k</code> is the node <code>order[k]</code>.
+     */
+    private void permute(int[] order, int count, int from) {
+        double[] x1 = new double[count], y1 = new double[count];
+        double[] x2 = new double[count], y2 = new double[count];
+        int[] cs = new int[count], ce = new int[count];
+        for ( int k=0; k<count; ++k ) {
+            int n = order[k];
+            x1[k] = nodeMinX[n]; y1[k] = nodeMinY[n];
+            x2[k] = nodeMaxX[n]; y2[k] = nodeMaxY[n];
+            cs[k] = childStart[n]; ce[k] = childEnd[n];
+        }
+        System.arraycopy(x1, 0, nodeMinX, from, count);
+        System.arraycopy(y1, 0, nodeMinY, from, count);
+        System.arraycopy(x2, 0, nodeMaxX, from, count);
+        System.arraycopy(y2, 0, nodeMaxY, from, count);
+        System.arraycopy(cs, 0, childStart, from, count);
+        System.arraycopy(ce, 0, childEnd, from, count);
+    }
+
+    /**
+     * Sort-tile-recursive packing: sort the boxes by the x-coordinate of
+     * their centers, cut them into vertical slices, and sort each slice by the
+     * y-coordinate of the centers, so that runs of NODE_CAPACITY boxes form
+     * compact nodes.
+     */
+    private static void pack(int[] idx, int lo, int hi, double[] x1,
+            double[] y1, double[] x2, double[] y2)
+    {
+        int count = hi - lo;
+        int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int)Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_CAPACITY;
+
+        double[] keys = new double[x1.length];
+        for ( int k=lo; k<hi; ++k ) {
+            int i = idx[k];
+            keys[i] = x1[i] + x2[i];
+        }
+        sort(idx, keys, lo, hi-1);
+        for ( int k=lo; k<hi; ++k ) {
+            int i = idx[k];
+            keys[i] = y1[i] + y2[i];
+        }
+        for ( int s=lo; s<hi; s+=sliceSize )
+            sort(idx, keys, s, Math.min(s+sliceSize, hi)-1);
+    }
+
+    /**
+     * Sort indices in ascending order of their keys. NaN keys, as given by
+     * items with invalid bounds, are ordered as equal to all other keys.
+     */
+    private static void sort(int[] idx, double[] keys, int lo, int hi) {
+        while ( hi - lo > 16 ) {
+            int mid = (lo + hi) >>> 1;
+            // median of three as pivot
+            if ( keys[idx[mid]] < keys[idx[lo]] ) swap(idx, lo, mid);
+            if ( keys[idx[hi]] < keys[idx[lo]] ) swap(idx, lo, hi);
+            if ( keys[idx[hi]] < keys[idx[mid]] ) swap(idx, mid, hi);
+            double pivot = keys[idx[mid]];
+            int i = lo, j = hi;
+            while ( i <= j ) {
+                while ( keys[idx[i]] < pivot ) ++i;
+                while ( keys[idx[j]] > pivot ) --j;
+                if ( i <= j ) swap(idx, i++, j--);
+            }
+            // recurse into the smaller part
+            if ( j - lo < hi - i ) {
+                sort(idx, keys, lo, j);
+                lo = i;
+            } else {
+                sort(idx, keys, i, hi);
+                hi = j;
+            }
+        }
+        for ( int i=lo+1; i<=hi; ++i ) {
+            int v = idx[i];
+            double key = keys[v];
+            int j = i - 1;
+            for ( ; j>=lo && keys[idx[j]] > key; --j )
+                idx[j+1] = idx[j];
+            idx[j+1] = v;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    private void setNodeBounds(int n, int[] idx, int start, int end,
+            double[] x1, double[] y1, double[] x2, double[] y2)
+    {
+        nodeMinX[n] = Double.POSITIVE_INFINITY;
+        nodeMinY[n] = Double.POSITIVE_INFINITY;
+        nodeMaxX[n] = Double.NEGATIVE_INFINITY;
+        nodeMaxY[n] = Double.NEGATIVE_INFINITY;
+        for ( int p=start; p<end; ++p ) {
+            int i = idx[p];
+            union(n, x1[i], y1[i], x2[i], y2[i]);
+        }
+    }
+
+    private void union(int n, double x1, double y1, double x2, double y2) {
+        if ( x1 < nodeMinX[n] ) nodeMinX[n] = x1;
+        if ( y1 < nodeMinY[n] ) nodeMinY[n] = y1;
+        if ( x2 > nodeMaxX[n] ) nodeMaxX[n] = x2;
+        if ( y2 > nodeMaxY[n] ) nodeMaxY[n] = y2;
+    }
+
+} // end of class SpatialIndex
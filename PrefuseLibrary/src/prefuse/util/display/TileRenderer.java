@@ -0,0 +1,509 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Copyright (C) 2011 Korean Bioinformation Center(KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package prefuse.util.display;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import prefuse.render.AbstractShapeRenderer;
+import prefuse.render.Renderer;
+import prefuse.visual.DecoratorItem;
+import prefuse.visual.EdgeItem;
+import prefuse.visual.VisualItem;
+
+/**
+ * Draws the items of a Display in square tiles of the screen, each tile into
+ * its own image, several tiles at a time in worker threads. The tiles are
+ * anchored to the pan position of the Display, so that after a pan without
+ * any changed item the tiles still on screen are reused and only the newly
+ * exposed ones are drawn. Likewise a damaged region only redraws the tiles
+ * it touches. A zoom, or any other repaint of the whole Display, redraws
+ * all tiles.
+ *
+ * <p>Renderers keep temporary shapes while drawing an item, so every worker
+ * draws with its own {@link AbstractShapeRenderer#copy() copies} of the
+ * renderers for a frame. Items of renderers which can not be copied are
+ * drawn by one worker at a time. The items must not change while the tiles
+ * are drawn, which the Display ensures by holding the lock of its
+ * Visualization.</p>
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class TileRenderer {
+
+    private static final ExecutorService s_workers =
+        Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger m_count = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "prefuse Tile Renderer "
+                                         + m_count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    /** Mode bit of frames drawn in high quality. */
+    public static final int MODE_HIGH_QUALITY = 1;
+    /** Mode bit of frames drawn with the level of detail of the Display. */
+    public static final int MODE_LEVEL_OF_DETAIL = 2;
+    /** Mode bit of frames drawn in low detail. */
+    public static final int MODE_LOW_DETAIL = 4;
+
+    private final int m_size;
+    private final int m_threads;
+
+    // the tiles on screen, by row and column from the first ones
+    private Tile[] m_tiles = new Tile[0];
+    private int m_col0, m_row0, m_cols, m_rows;
+    private final List<BufferedImage> m_spare = new ArrayList<BufferedImage>();
+    private final List<Tile> m_dirty = new ArrayList<Tile>();
+
+    // the transform, mode and item changes the tiles were drawn with
+    private double m_sx = Double.NaN, m_sy, m_fx, m_fy;
+    private long m_ix, m_iy;
+    private int m_mode = -1;
+    private int m_changes;
+
+    /**
+     * Create a new TileRenderer.
+     * @param tileSize the width and height of a tile in pixels
+     * @param threads the number of tiles drawn at a time, or 0 for the
+     * number of available processors
+     */
+    public TileRenderer(int tileSize, int threads) {
+        m_size = Math.max(16, tileSize);
+        m_threads = threads > 0 ? threads
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the width and height of a tile.
+     * @return the tile size in pixels
+     */
+    public int getTileSize() {
+        return m_size;
+    }
+
+    /**
+     * Returns the maximum number of tiles drawn at a time.
+     * @return the number of worker threads
+     */
+    public int getThreadCount() {
+        return m_threads;
+    }
+
+    /**
+     * Returns the number of tiles on screen.
+     * @return the tile count
+     */
+    public int getTileCount() {
+        return m_tiles.length;
+    }
+
+    /**
+     * Returns the number of tiles to be drawn for the current frame.
+     * @return the dirty tile count
+     */
+    public int getDirtyCount() {
+        return m_dirty.size();
+    }
+
+    /**
+     * Drops all tiles, so that the next frame is drawn from scratch.
+     */
+    public void clear() {
+        m_tiles = new Tile[0];
+        m_cols = m_rows = 0;
+        m_spare.clear();
+        m_dirty.clear();
+        m_sx = Double.NaN;
+    }
+
+    /**
+     * Lays out the tiles on screen for a new frame and finds the tiles to be
+     * drawn. A tile is drawn again when it was not on screen before, when
+     * the scale, the subpixel position or the mode changed, when it touches
+     * the damaged region, or, if the whole Display is damaged, unless the
+     * Display was just panned without any changed item.
+     * @param transform the transform of the Display
+     * @param width the width of the Display
+     * @param height the height of the Display
+     * @param damage the damaged region in absolute coordinates
+     * @param changes the count of item changes of the Visualization
+     * @param mode the mode bits of the frame
+     * @return false if the transform is not supported by tiles, which are
+     * only scaled and translated
+     */
+    public boolean prepare(AffineTransform transform, int width, int height,
+                           Clip damage, int changes, int mode)
+    {
+        double sx = transform.getScaleX(), sy = transform.getScaleY();
+        if ( transform.getShearX() != 0 || transform.getShearY() != 0
+                || sx <= 0 || sy <= 0 )
+        {
+            clear();
+            return false;
+        }
+        double tx = transform.getTranslateX(), ty = transform.getTranslateY();
+        long ix = Math.round(tx), iy = Math.round(ty);
+        double fx = tx - ix, fy = ty - iy;
+
+        // panning by whole pixels leaves the subpixel position as it was, up
+        // to the rounding errors of the transform
+        boolean all = sx != m_sx || sy != m_sy || mode != m_mode
+            || Math.abs(fx - m_fx) > 1e-3 || Math.abs(fy - m_fy) > 1e-3;
+        if ( !all && damage.isInvalid() ) {
+            all = changes != m_changes || (ix == m_ix && iy == m_iy);
+        }
+
+        // the tile of column c covers the pixels from c*size+ix on screen
+        int col0 = (int)Math.floor(-ix / (double)m_size);
+        int row0 = (int)Math.floor(-iy / (double)m_size);
+        int cols = (int)Math.floor((width - 1 - ix) / (double)m_size) - col0 + 1;
+        int rows = (int)Math.floor((height - 1 - iy) / (double)m_size) - row0 + 1;
+        cols = Math.max(cols, 0);
+        rows = Math.max(rows, 0);
+
+        Tile[] tiles = new Tile[cols * rows];
+        for ( int r=0; r<rows; ++r ) {
+            for ( int c=0; c<cols; ++c ) {
+                Tile t = remove(col0 + c, row0 + r);
+                if ( t == null ) {
+                    t = new Tile(col0 + c, row0 + r);
+                    t.dirty = true;
+                } else {
+                    t.dirty = t.dirty || all;
+                }
+                tiles[r * cols + c] = t;
+            }
+        }
+        // keep the images of the tiles gone off screen for the new ones
+        for ( int i=0; i<m_tiles.length; ++i ) {
+            if ( m_tiles[i] != null && m_tiles[i].image != null )
+                m_spare.add(m_tiles[i].image);
+        }
+        m_tiles = tiles;
+        m_col0 = col0; m_row0 = row0; m_cols = cols; m_rows = rows;
+        m_sx = sx; m_sy = sy; m_fx = fx; m_fy = fy; m_ix = ix; m_iy = iy;
+        m_changes = changes;
+
+        // mark the tiles touched by the damaged region
+        if ( !all && !damage.isInvalid() && !damage.isEmpty() ) {
+            double margin = 1 + 1/Math.min(sx, sy);
+            markDirty(damage.getMinX() - margin, damage.getMinY() - margin,
+                      damage.getMaxX() + margin, damage.getMaxY() + margin);
+        }
+        m_dirty.clear();
+        for ( int i=0; i<m_tiles.length; ++i ) {
+            if ( m_tiles[i].dirty )
+                m_dirty.add(m_tiles[i]);
+        }
+        return true;
+    }
+
+    private Tile remove(int col, int row) {
+        int c = col - m_col0, r = row - m_row0;
+        if ( c < 0 || r < 0 || c >= m_cols || r >= m_rows )
+            return null;
+        Tile t = m_tiles[r * m_cols + c];
+        m_tiles[r * m_cols + c] = null;
+        return t;
+    }
+
+    private void markDirty(double x1, double y1, double x2, double y2) {
+        int c1 = column(x1), c2 = column(x2), r1 = row(y1), r2 = row(y2);
+        for ( int r=Math.max(r1, 0); r<=Math.min(r2, m_rows-1); ++r ) {
+            for ( int c=Math.max(c1, 0); c<=Math.min(c2, m_cols-1); ++c ) {
+                m_tiles[r * m_cols + c].dirty = true;
+            }
+        }
+    }
+
+    // the index from the first column of the column at an absolute x
+    private int column(double x) {
+        return (int)Math.floor((x * m_sx + m_fx) / m_size) - m_col0;
+    }
+
+    private int row(double y) {
+        return (int)Math.floor((y * m_sy + m_fy) / m_size) - m_row0;
+    }
+
+    /**
+     * Sets the given clip to the absolute region covered by the tiles to be
+     * drawn.
+     * @param clip the clip to set
+     * @return false if no tile is to be drawn
+     */
+    public boolean getDirtyRegion(Clip clip) {
+        clip.reset();
+        for ( int i=0; i<m_dirty.size(); ++i ) {
+            Tile t = m_dirty.get(i);
+            double x = (t.col * m_size - m_fx) / m_sx;
+            double y = (t.row * m_size - m_fy) / m_sy;
+            clip.union(x, y, m_size / m_sx, m_size / m_sy);
+        }
+        return !m_dirty.isEmpty();
+    }
+
+    /**
+     * Draws the tiles to be drawn for this frame, each with the given items
+     * it touches in the given order.
+     * @param items the items to draw, in drawing order, including at least
+     * the items within the {@link #getDirtyRegion(Clip) dirty region}
+     * @param count the number of items
+     * @param hints the rendering hints to draw with
+     * @param mode the mode bits of the frame
+     * @param painter draws an item into a tile
+     */
+    public void render(VisualItem[] items, int count, RenderingHints hints,
+                       int mode, ItemPainter painter)
+    {
+        m_mode = mode;
+        if ( m_dirty.isEmpty() )
+            return;
+
+        // hand out the items to the tiles they touch, validating in this
+        // thread the bounds the renderers will look at
+        double margin = 2;
+        for ( int i=0; i<count; ++i ) {
+            VisualItem item = items[i];
+            if ( item instanceof EdgeItem ) {
+                ((EdgeItem)item).getSourceItem().getBounds();
+                ((EdgeItem)item).getTargetItem().getBounds();
+            } else if ( item instanceof DecoratorItem ) {
+                ((DecoratorItem)item).getDecoratedItem().getBounds();
+            }
+            Rectangle2D b = item.getBounds();
+            int c1 = Math.max(column(b.getMinX() - margin / m_sx), 0);
+            int c2 = Math.min(column(b.getMaxX() + margin / m_sx), m_cols-1);
+            int r1 = Math.max(row(b.getMinY() - margin / m_sy), 0);
+            int r2 = Math.min(row(b.getMaxY() + margin / m_sy), m_rows-1);
+            for ( int r=r1; r<=r2; ++r ) {
+                for ( int c=c1; c<=c2; ++c ) {
+                    Tile t = m_tiles[r * m_cols + c];
+                    if ( t.dirty )
+                        t.add(item);
+                }
+            }
+        }
+
+        // draw the tiles, one share of them in this thread
+        final Tile[] dirty = m_dirty.toArray(new Tile[m_dirty.size()]);
+        final AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(m_threads, dirty.length);
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(workers);
+        for ( int i=1; i<workers; ++i ) {
+            futures.add(s_workers.submit(
+                new Worker(dirty, next, hints, painter)));
+        }
+        Throwable failure = null;
+        try {
+            new Worker(dirty, next, hints, painter).call();
+        } catch ( Throwable t ) {
+            failure = t;
+            next.set(dirty.length);
+        }
+        boolean interrupted = false;
+        for ( int i=0; i<futures.size(); ++i ) {
+            Future<Object> f = futures.get(i);
+            while ( true ) {
+                try {
+                    f.get();
+                    break;
+                } catch ( InterruptedException e ) {
+                    // the tiles must be done before the items may change
+                    interrupted = true;
+                } catch ( ExecutionException e ) {
+                    if ( failure == null )
+                        failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if ( interrupted )
+            Thread.currentThread().interrupt();
+        // tiles left over by a failure stay dirty, without their items
+        for ( int i=0; i<dirty.length; ++i ) {
+            for ( int j=0; j<dirty[i].size; ++j )
+                dirty[i].items[j] = null;
+            dirty[i].size = 0;
+        }
+        m_dirty.clear();
+        if ( failure instanceof RuntimeException )
+            throw (RuntimeException)failure;
+        if ( failure instanceof Error )
+            throw (Error)failure;
+        if ( failure != null )
+            throw new IllegalStateException(failure.toString());
+    }
+
+    /**
+     * Draws the tiles on screen into the given graphics context of the
+     * Display, ignoring its transform.
+     * @param g the graphics context to draw into
+     */
+    public void paint(Graphics2D g) {
+        AffineTransform at = g.getTransform();
+        g.setTransform(new AffineTransform());
+        for ( int i=0; i<m_tiles.length; ++i ) {
+            Tile t = m_tiles[i];
+            if ( t.image != null ) {
+                g.drawImage(t.image, (int)(t.col * m_size + m_ix),
+                            (int)(t.row * m_size + m_iy), null);
+            }
+        }
+        g.setTransform(at);
+    }
+
+    private BufferedImage getImage() {
+        synchronized ( m_spare ) {
+            if ( !m_spare.isEmpty() )
+                return m_spare.remove(m_spare.size()-1);
+        }
+        return new BufferedImage(m_size, m_size,
+                                 BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Draws an item into a tile.
+     */
+    public interface ItemPainter {
+
+        /**
+         * Draws the given item with the given renderer, which is the
+         * renderer of the item or a copy of it.
+         * @param g the graphics context of a tile
+         * @param item the item to draw
+         * @param renderer the renderer to draw with
+         */
+        public void paint(Graphics2D g, VisualItem item, Renderer renderer);
+    }
+
+    private static final class Tile {
+        final int col, row;
+        boolean dirty;
+        BufferedImage image;
+        VisualItem[] items = new VisualItem[16];
+        int size = 0;
+
+        Tile(int col, int row) {
+            this.col = col;
+            this.row = row;
+        }
+
+        void add(VisualItem item) {
+            if ( size == items.length ) {
+                VisualItem[] a = new VisualItem[items.length * 2];
+                System.arraycopy(items, 0, a, 0, size);
+                items = a;
+            }
+            items[size++] = item;
+        }
+    }
+
+    /**
+     * Draws the dirty tiles one after another until none is left, with its
+     * own copies of the renderers.
+     */
+    private final class Worker implements Callable<Object> {
+        private final Tile[] m_work;
+        private final AtomicInteger m_next;
+        private final RenderingHints m_hints;
+        private final ItemPainter m_painter;
+        private final Map<Renderer, Renderer> m_copies =
+            new IdentityHashMap<Renderer, Renderer>();
+
+        Worker(Tile[] work, AtomicInteger next, RenderingHints hints,
+               ItemPainter painter)
+        {
+            m_work = work;
+            m_next = next;
+            m_hints = hints;
+            m_painter = painter;
+        }
+
+        public Object call() {
+            for ( int i = m_next.getAndIncrement(); i < m_work.length;
+                  i = m_next.getAndIncrement() )
+            {
+                draw(m_work[i]);
+            }
+            return null;
+        }
+
+        private void draw(Tile t) {
+            if ( t.image == null )
+                t.image = getImage();
+            Graphics2D g = t.image.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, m_size, m_size);
+                g.setComposite(AlphaComposite.SrcOver);
+                g.setRenderingHints(m_hints);
+                g.transform(new AffineTransform(m_sx, 0, 0, m_sy,
+                    m_fx - t.col * m_size, m_fy - t.row * m_size));
+                for ( int i=0; i<t.size; ++i ) {
+                    VisualItem item = t.items[i];
+                    Renderer r = item.getRenderer();
+                    Renderer copy = copy(r);
+                    if ( copy != null ) {
+                        m_painter.paint(g, item, copy);
+                    } else {
+                        synchronized ( r ) {
+                            m_painter.paint(g, item, r);
+                        }
+                    }
+                    t.items[i] = null;
+                }
+            } finally {
+                g.dispose();
+                t.size = 0;
+                t.dirty = false;
+            }
+        }
+
+        private Renderer copy(Renderer r) {
+            Renderer copy = m_copies.get(r);
+            if ( copy == null ) {
+                copy = r instanceof AbstractShapeRenderer
+                    ? ((AbstractShapeRenderer)r).copy() : null;
+                // the renderer itself marks one which can not be copied
+                m_copies.put(r, copy == null ? r : copy);
+            }
+            return copy == r ? null : copy;
+        }
+    }
+
+} // end of class TileRenderer
@@ -438,6 +438,7 @@ public class IOLib {
         Table edgeTable = readEdgeTable(reader, clazz, nodeTable, nodeKey, nodeName, edgesFile, edgeKey, sourceKey, sourceField, targetKey, targetField);
 
         Graph g = new Graph(nodeTable, edgeTable, true, nodeKey, sourceKey, targetKey);
+        g.compactLinks();
 
         return g;
     }
@@ -133,6 +133,10 @@ public class VisualTable extends CascadedTable implements VisualTupleSet {
      * and that damage reports are issued for deleted items.
      */
     protected void fireTableEvent(int row0, int row1, int col, int type) {
+        // any change may move items in the spatial index of the displays
+        if ( m_vis != null )
+            m_vis.itemsChanged();
+
         // table attributes changed, so we invalidate the bounds
         if ( type==EventConstants.UPDATE )
         {
@@ -0,0 +1,144 @@
+package prefuse;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.junit.Test;
+import prefuse.data.Graph;
+import prefuse.render.AbstractShapeRenderer;
+import prefuse.render.DefaultRendererFactory;
+import prefuse.visual.DecoratorItem;
+import prefuse.visual.VisualItem;
+import prefuse.visual.expression.InGroupPredicate;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class DisplayTest {
+
+    public DisplayTest() {
+    }
+
+    /**
+     * Squares of the given size around the items, remembering the items
+     * drawn.
+     */
+    private static class SquareRenderer extends AbstractShapeRenderer {
+
+        final double size;
+        final Set<VisualItem> rendered = new HashSet<VisualItem>();
+
+        SquareRenderer(double size) {
+            this.size = size;
+        }
+
+        @Override
+        protected Shape getRawShape(VisualItem item) {
+            return new Rectangle2D.Double(item.getX() - size / 2, item.getY() - size / 2, size, size);
+        }
+
+        @Override
+        public void render(Graphics2D g, VisualItem item) {
+            rendered.add(item);
+            super.render(g, item);
+        }
+    }
+
+    private static void paint(Display display, SquareRenderer... renderers) {
+        for (SquareRenderer r : renderers) {
+            r.rendered.clear();
+        }
+        display.damageReport();
+        BufferedImage img = new BufferedImage(display.getWidth(), display.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        display.paintComponent(g);
+        g.dispose();
+    }
+
+    @Test
+    public void testLevelOfDetail() {
+        Graph graph = new Graph();
+        for (int i = 0; i < 20; i++) {
+            graph.addNode();
+        }
+        Visualization vis = new Visualization();
+        vis.add("graph", graph);
+        vis.addDecorators("labels", "graph.nodes");
+        SquareRenderer nodes = new SquareRenderer(20), labels = new SquareRenderer(8);
+        DefaultRendererFactory rf = new DefaultRendererFactory(nodes);
+        rf.add(new InGroupPredicate("labels"), labels);
+        vis.setRendererFactory(rf);
+        int i = 0;
+        for (Iterator<?> items = vis.items("graph.nodes"); items.hasNext(); i++) {
+            VisualItem item = (VisualItem) items.next();
+            item.setX(20 + (i % 5) * 40);
+            item.setY(20 + (i / 5) * 40);
+        }
+        for (Iterator<?> items = vis.items("labels"); items.hasNext();) {
+            DecoratorItem label = (DecoratorItem) items.next();
+            label.setX(label.getDecoratedItem().getX());
+            label.setY(label.getDecoratedItem().getY());
+        }
+        Display display = new Display(vis);
+        display.setSize(400, 400);
+        assertTrue(display.isLevelOfDetailEnabled());
+        // labels of 8 pixels at the scale of 1 are below the minimum size
+        display.setLevelOfDetail(0.5, 50, 10);
+
+        // above the scale and below the item count, all are drawn in full
+        paint(display, nodes, labels);
+        assertFalse(display.isLowDetail());
+        assertEquals(20, nodes.rendered.size());
+        assertEquals(20, labels.rendered.size());
+
+        // zoomed out below the scale, labels are skipped and nodes are not
+        // drawn by their renderer
+        display.zoom(new Point(0, 0), 0.4);
+        paint(display, nodes, labels);
+        assertTrue(display.isLowDetail());
+        assertEquals(0, nodes.rendered.size());
+        assertEquals(0, labels.rendered.size());
+
+        // large enough labels are still drawn
+        display.setLevelOfDetail(0.5, 50, 3);
+        paint(display, nodes, labels);
+        assertEquals(0, nodes.rendered.size());
+        assertEquals(20, labels.rendered.size());
+        display.setLevelOfDetail(0.5, 50, 10);
+
+        // and all are drawn in full again when zoomed in
+        display.zoom(new Point(0, 0), 2.5);
+        paint(display, nodes, labels);
+        assertFalse(display.isLowDetail());
+        assertEquals(20, nodes.rendered.size());
+        assertEquals(20, labels.rendered.size());
+
+        // more items on screen than the item count
+        display.setLevelOfDetail(0.5, 30, 10);
+        paint(display, nodes, labels);
+        assertTrue(display.isLowDetail());
+        assertEquals(0, nodes.rendered.size());
+        assertEquals(0, labels.rendered.size());
+        display.setLevelOfDetail(0.5, 40, 10);
+        paint(display, nodes, labels);
+        assertFalse(display.isLowDetail());
+        assertEquals(20, nodes.rendered.size());
+        assertEquals(20, labels.rendered.size());
+
+        // disabled, all are drawn in full at any scale
+        display.setLevelOfDetailEnabled(false);
+        display.setLevelOfDetail(0.5, 30, 10);
+        display.zoom(new Point(0, 0), 0.4);
+        paint(display, nodes, labels);
+        assertFalse(display.isLowDetail());
+        assertEquals(20, nodes.rendered.size());
+        assertEquals(20, labels.rendered.size());
+    }
+}
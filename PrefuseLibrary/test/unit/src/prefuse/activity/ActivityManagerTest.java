@@ -0,0 +1,124 @@
+package prefuse.activity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import prefuse.Visualization;
+import prefuse.action.Action;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ActivityManagerTest {
+
+    public ActivityManagerTest() {
+    }
+
+    /**
+     * Counts down the latch it is given on each run, and keeps the shortest
+     * interval between the times it was run at by the manager.
+     */
+    private static class CountActivity extends Activity {
+
+        volatile CountDownLatch latch = new CountDownLatch(0);
+        volatile long minInterval = Long.MAX_VALUE;
+        private final Object key;
+        private long last = -1;
+
+        CountActivity(Object key, long duration, long stepTime) {
+            super(duration, stepTime);
+            this.key = key;
+        }
+
+        @Override
+        protected Object getScheduleKey() {
+            return key;
+        }
+
+        @Override
+        long runActivity(long currentTime) {
+            if (last >= 0) {
+                minInterval = Math.min(minInterval, currentTime - last);
+            }
+            last = currentTime;
+            return super.runActivity(currentTime);
+        }
+
+        @Override
+        protected void run(long elapsedTime) {
+            latch.countDown();
+        }
+
+        CountDownLatch await(int runs) {
+            CountDownLatch l = new CountDownLatch(runs);
+            latch = l;
+            return l;
+        }
+    }
+
+    @Test
+    public void testVisualizationsRunConcurrently() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Action blocking = new Action(new Visualization()) {
+            @Override
+            public void run(double frac) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                }
+            }
+        };
+        final CountDownLatch done = new CountDownLatch(1);
+        Action other = new Action(new Visualization()) {
+            @Override
+            public void run(double frac) {
+                done.countDown();
+            }
+        };
+        blocking.run();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            other.run();
+            // the other visualization does not wait for the blocked one
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testFrameRateAndSuspension() throws InterruptedException {
+        Visualization vis = new Visualization();
+        CountActivity endless = new CountActivity(vis, Activity.INFINITY, 1);
+        double fps = ActivityManager.getMaxFrameRate();
+        ActivityManager.setMaxFrameRate(20);
+        try {
+            CountDownLatch frames = endless.await(5);
+            endless.run();
+            assertTrue(frames.await(5, TimeUnit.SECONDS));
+            // frames are at least 50ms apart, whatever the step time
+            assertTrue("interval " + endless.minInterval, endless.minInterval >= 50);
+
+            // suspended endless activities stay scheduled but do not run,
+            // apart from a frame which was already running
+            ActivityManager.setSuspended(vis, true);
+            assertTrue(ActivityManager.isSuspended(vis));
+            endless.await(2);
+            assertFalse(endless.latch.await(500, TimeUnit.MILLISECONDS));
+            assertTrue(endless.isScheduled());
+
+            frames = endless.await(2);
+            ActivityManager.setSuspended(vis, false);
+            assertFalse(ActivityManager.isSuspended(vis));
+            assertTrue(frames.await(5, TimeUnit.SECONDS));
+        } finally {
+            endless.cancel();
+            ActivityManager.setSuspended(vis, false);
+            ActivityManager.setMaxFrameRate(fps);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package prefuse.data;
 
+import java.io.ByteArrayInputStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.junit.After;
@@ -8,6 +9,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import prefuse.data.expression.Predicate;
+import prefuse.data.io.CSVTableReader;
 import prefuse.data.expression.parser.ExpressionParser;
 import prefuse.util.GraphLib;
 import prefuse.util.io.IOLib;
@@ -130,4 +132,61 @@ public class CSVTableReaderTest {
 
         return from.createPartial(predicate);
     }
+
+    @Test
+    public void testStreamingRead() throws Exception {
+        String[] files = {NODE_TABLE_CSV, EDGE_TABLE_CSV};
+        for (String file : files) {
+            Table expected = new CSVTableReader().readTable(file);
+            CSVTableReader reader = new CSVTableReader();
+            reader.setSampleRows(10);
+            Table t = reader.readTable(file);
+            assertEquals(expected.getColumnCount(), t.getColumnCount());
+            assertEquals(expected.getRowCount(), t.getRowCount());
+            for (int c = 0; c < t.getColumnCount(); c++) {
+                assertEquals(expected.getColumnName(c), t.getColumnName(c));
+                assertEquals(expected.getColumnType(c), t.getColumnType(c));
+                for (int r = 0; r < t.getRowCount(); r++) {
+                    assertEquals(expected.get(r, c), t.get(r, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingWidening() throws Exception {
+        String csv = "id,score,name\n1,2,a\n2,3,b\n3,4.5,c\n4,x,d\n5000000000,6,e\n";
+        CSVTableReader reader = new CSVTableReader();
+        reader.setSampleRows(1);
+        Table t = reader.readTable(new ByteArrayInputStream(csv.getBytes("UTF-8")));
+        assertEquals(5, t.getRowCount());
+        assertEquals(long.class, t.getColumnType("id"));
+        assertEquals(String.class, t.getColumnType("score"));
+        assertEquals(String.class, t.getColumnType("name"));
+        assertEquals(2L, t.getLong(1, "id"));
+        assertEquals(5000000000L, t.getLong(4, "id"));
+        assertEquals("4.5", t.getString(2, "score"));
+        assertEquals("x", t.getString(3, "score"));
+        assertEquals("e", t.getString(4, "name"));
+    }
+
+    @Test
+    public void testStreamingWideningKeepsText() throws Exception {
+        String csv = "id,score,flag\n00123,2,true\n00456,3,FALSE\nABC1,4.5,1\n789,+7,x\n0,n/a,TRUE\n";
+        CSVTableReader reader = new CSVTableReader();
+        reader.setSampleRows(1);
+        Table t = reader.readTable(new ByteArrayInputStream(csv.getBytes("UTF-8")));
+        Table expected = new CSVTableReader().readTable(new ByteArrayInputStream(csv.getBytes("UTF-8")));
+        assertEquals("00123", t.getString(0, "id"));
+        assertEquals("00456", t.getString(1, "id"));
+        assertEquals("2", t.getString(0, "score"));
+        assertEquals("+7", t.getString(3, "score"));
+        assertEquals("FALSE", t.getString(1, "flag"));
+        for (int c = 0; c < t.getColumnCount(); c++) {
+            assertEquals(expected.getColumnType(c), t.getColumnType(c));
+            for (int r = 0; r < t.getRowCount(); r++) {
+                assertEquals(expected.get(r, c), t.get(r, c));
+            }
+        }
+    }
 }
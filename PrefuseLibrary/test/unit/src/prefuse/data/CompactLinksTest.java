@@ -0,0 +1,86 @@
+package prefuse.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import prefuse.util.collections.IntIterator;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class CompactLinksTest {
+
+    public CompactLinksTest() {
+    }
+
+    private static Graph makeGraph() {
+        Graph g = new Graph(true);
+        for (int i = 0; i < 5; i++) {
+            g.addNodeRow();
+        }
+        g.addEdge(0, 1);
+        g.addEdge(0, 2);
+        g.addEdge(1, 2);
+        g.addEdge(2, 0);
+        g.addEdge(3, 3);
+        g.addEdge(0, 1);
+        return g;
+    }
+
+    private static List<Integer> toList(IntIterator rows) {
+        List<Integer> list = new ArrayList<Integer>();
+        while (rows.hasNext()) {
+            list.add(rows.nextInt());
+        }
+        return list;
+    }
+
+    @Test
+    public void testSameAdjacency() {
+        Graph expected = makeGraph();
+        Graph g = makeGraph();
+        assertTrue(g.compactLinks());
+        assertTrue(g.isCompactLinks());
+        for (int n = 0; n < 5; n++) {
+            assertEquals(expected.getInDegree(n), g.getInDegree(n));
+            assertEquals(expected.getOutDegree(n), g.getOutDegree(n));
+            assertEquals(toList(expected.outEdgeRows(n)), toList(g.outEdgeRows(n)));
+            assertEquals(toList(expected.inEdgeRows(n)), toList(g.inEdgeRows(n)));
+            for (int m = 0; m < 5; m++) {
+                assertEquals(expected.getEdges(n, m), g.getEdges(n, m));
+            }
+        }
+        assertTrue(g.isSelfLinked(3));
+        assertTrue(g.isIsolated(4));
+    }
+
+    @Test
+    public void testExpandOnEdit() {
+        Graph g = makeGraph();
+        g.compactLinks();
+        int e = g.addEdge(4, 0);
+        assertFalse(g.isCompactLinks());
+        assertEquals(e, g.getEdge(4, 0));
+        assertEquals(2, g.getInDegree(0));
+        assertEquals(3, g.getOutDegree(0));
+
+        g.compactLinks();
+        g.removeNode(0);
+        assertFalse(g.isCompactLinks());
+        assertEquals(0, g.getInDegree(1));
+        assertEquals(0, g.getOutDegree(4));
+        assertEquals(2, g.getEdge(1, 2));
+        assertEquals(2, g.getEdgeCount());
+    }
+
+    @Test
+    public void testTreeNotCompressed() {
+        Tree t = new Tree();
+        Node root = t.addRoot();
+        t.addChild(root);
+        assertFalse(t.compactLinks());
+        assertFalse(t.isCompactLinks());
+    }
+}
@@ -1,16 +1,25 @@
 package prefuse.data;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import prefuse.data.event.EventConstants;
+import prefuse.data.event.TableListener;
+import prefuse.data.expression.Predicate;
+import prefuse.data.expression.parser.ExpressionParser;
 import prefuse.data.query.SearchQueryBinding;
 import prefuse.data.search.RegexSearchTupleSet;
 import prefuse.data.search.SearchTupleSet;
 import prefuse.data.tuple.TupleSet;
+import prefuse.data.util.FilterIteratorFactory;
+import prefuse.data.util.Index;
+import prefuse.util.collections.IntIterator;
 import prefuse.util.GraphLib;
 
 /**
@@ -76,4 +85,103 @@ public class TableTest {
             assertEquals(suple.getRow(), tuple.getRow());
         }
     }
+
+    @Test
+    public void testBatchedUpdates() {
+        Table table = NODE_FILTER_TABLE.instantiate();
+        table.addRows(10);
+        final List<int[]> events = new ArrayList<int[]>();
+        table.addTableListener(new TableListener() {
+            @Override
+            public void tableChanged(Table t, int start, int end, int col, int type) {
+                events.add(new int[]{start, end, col, type});
+            }
+        });
+        table.beginBatch();
+        for (int r = 2; r < 8; r++) {
+            table.setString(r, "Name", "name" + r);
+            table.setString(r, "Type", "type" + r);
+        }
+        assertTrue(events.isEmpty());
+        table.commitBatch();
+        assertFalse(table.isBatching());
+        assertEquals(2, events.size());
+        for (int[] e : events) {
+            assertEquals(2, e[0]);
+            assertEquals(7, e[1]);
+            assertEquals(EventConstants.UPDATE, e[3]);
+        }
+
+        events.clear();
+        table.beginBatch();
+        table.setString(1, "Name", "a");
+        table.removeRow(2);
+        table.setString(3, "Name", "b");
+        table.commitBatch();
+        // pending updates are fired before a row deletion
+        assertEquals(3, events.size());
+        assertArrayEquals(new int[]{1, 1, 0, EventConstants.UPDATE}, events.get(0));
+        assertEquals(EventConstants.DELETE, events.get(1)[3]);
+        assertArrayEquals(new int[]{3, 3, 0, EventConstants.UPDATE}, events.get(2));
+
+        events.clear();
+        table.beginBatch();
+        table.setString(1, "Notes", "c");
+        table.setString(4, "Notes", "d");
+        table.commitBatch();
+        // merged ranges are split at invalid rows
+        assertEquals(2, events.size());
+        assertArrayEquals(new int[]{1, 1, 3, EventConstants.UPDATE}, events.get(0));
+        assertArrayEquals(new int[]{3, 4, 3, EventConstants.UPDATE}, events.get(1));
+    }
+
+    @Test
+    public void testIndexedComparison() {
+        Table table = new Table();
+        table.addColumn("i", int.class);
+        table.addColumn("d", double.class);
+        // large enough for the queries to be read from the indices
+        for (int i = 0; i < 1000; i++) {
+            int row = table.addRow();
+            table.setInt(row, "i", i - 500);
+            table.setDouble(row, "d", (i - 500) / 2d);
+        }
+        table.index("i");
+        table.index("d");
+        String[] queries = {"i <= -3", "i > 4", "i = 0", "d < -1.5", "d >= 2", "d > -100", "d < 0.5"};
+        for (String query : queries) {
+            Predicate p = (Predicate) ExpressionParser.parse(query);
+            int count = 0;
+            for (int row = 0; row < table.getRowCount(); row++) {
+                if (p.getBoolean(table.getTuple(row))) {
+                    count++;
+                }
+            }
+            int rows = 0;
+            for (IntIterator iter = FilterIteratorFactory.rows(table, p); iter.hasNext(); iter.nextInt()) {
+                rows++;
+            }
+            assertEquals(query, count, rows);
+        }
+    }
+
+    @Test
+    public void testIndexOrder() {
+        Table table = new Table();
+        table.addColumn("i", int.class);
+        for (int i = 0; i < 100; i++) {
+            table.setInt(table.addRow(), "i", (i * 37) % 10);
+        }
+        Index index = table.index("i");
+        int[] types = {Index.TYPE_ASCENDING, Index.TYPE_DESCENDING};
+        for (int type : types) {
+            int rows = 0, last = type == Index.TYPE_ASCENDING ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            for (IntIterator iter = index.allRows(type); iter.hasNext(); rows++) {
+                int value = table.getInt(iter.nextInt(), "i");
+                assertTrue(type == Index.TYPE_ASCENDING ? value >= last : value <= last);
+                last = value;
+            }
+            assertEquals(100, rows);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package prefuse.render;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import org.junit.Test;
+import prefuse.Visualization;
+import prefuse.util.FontLib;
+import prefuse.visual.VisualItem;
+import prefuse.visual.VisualTable;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class TextMetricsCacheTest {
+
+    public TextMetricsCacheTest() {
+    }
+
+    @Test
+    public void testMeasures() {
+        Font font = FontLib.getFont("SansSerif", Font.PLAIN, 12);
+        FontMetrics fm = Renderer.DEFAULT_GRAPHICS.getFontMetrics(font);
+        TextMetricsCache cache = new TextMetricsCache(10);
+        TextMetricsCache.TextMetrics tm = cache.get(font, "BRCA1\nbreast cancer 1", "\n", -1);
+        assertArrayEquals(new String[]{"BRCA1", "breast cancer 1"}, tm.lines);
+        assertEquals(fm.stringWidth("BRCA1"), tm.lineWidths[0]);
+        assertEquals(fm.stringWidth("breast cancer 1"), tm.width);
+        assertEquals(2 * fm.getHeight(), tm.getHeight());
+        assertSame(tm, cache.get(font, "BRCA1\nbreast cancer 1", "\n", -1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // the second line is abbreviated, and takes up the maximum width
+        int max = fm.stringWidth("BRCA1") + 1;
+        tm = cache.get(font, "BRCA1\nbreast cancer 1", "\n", max);
+        assertEquals("BRCA1", tm.lines[0]);
+        assertTrue(tm.lines[1].length() < "breast cancer 1".length());
+        assertTrue("breast cancer 1".startsWith(tm.lines[1]));
+        assertEquals("BRCA1\n" + tm.lines[1], tm.text);
+        assertEquals(max, tm.width);
+        assertTrue(tm.lineWidths[1] <= max);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        Font font = FontLib.getFont("SansSerif", Font.PLAIN, 12);
+        TextMetricsCache cache = new TextMetricsCache(2);
+        TextMetricsCache.TextMetrics a = cache.get(font, "a", "\n", -1);
+        cache.get(font, "b", "\n", -1);
+        cache.get(font, "a", "\n", -1);
+        cache.get(font, "c", "\n", -1);
+        assertEquals(2, cache.size());
+        // b is the least recently used
+        assertSame(a, cache.get(font, "a", "\n", -1));
+        cache.get(font, "b", "\n", -1);
+        assertEquals(4, cache.getMissCount());
+        // another font is another entry
+        assertNotSame(a, cache.get(font.deriveFont(20f), "a", "\n", -1));
+    }
+
+    @Test
+    public void testLabelRenderer() {
+        VisualTable table = new Visualization().addTable("items");
+        table.addColumn("label", String.class);
+        VisualItem item = table.getItem(table.addRow());
+        item.setString("label", "TP53");
+        item.setFont(FontLib.getFont("SansSerif", Font.PLAIN, 10));
+        LabelRenderer renderer = new LabelRenderer("label");
+        TextMetricsCache cache = new TextMetricsCache(10);
+        renderer.setTextMetricsCache(cache);
+        double width = renderer.getShape(item).getBounds2D().getWidth();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(width, renderer.getShape(item).getBounds2D().getWidth(), 0);
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(100, cache.getHitCount());
+        FontMetrics fm = Renderer.DEFAULT_GRAPHICS.getFontMetrics(item.getFont());
+        assertEquals(fm.stringWidth("TP53") + 2 * 2, width, 0);
+    }
+}
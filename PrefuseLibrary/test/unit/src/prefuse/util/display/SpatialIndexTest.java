@@ -0,0 +1,105 @@
+package prefuse.util.display;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import prefuse.Display;
+import prefuse.Visualization;
+import prefuse.visual.VisualItem;
+import prefuse.visual.VisualTable;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class SpatialIndexTest {
+
+    public SpatialIndexTest() {
+    }
+
+    @Test
+    public void testQueryMatchesScan() {
+        VisualTable table = new Visualization().addTable("items");
+        Random random = new Random(7);
+        int count = 3000;
+        VisualItem[] items = new VisualItem[count];
+        Rectangle2D[] bounds = new Rectangle2D[count];
+        SpatialIndex index = new SpatialIndex();
+        for (int i = 0; i < count; i++) {
+            items[i] = table.getItem(table.addRow());
+            // mostly small items, with a few long ones as edges are
+            double w = random.nextInt(10) == 0 ? random.nextDouble() * 500 : random.nextDouble() * 10;
+            double h = random.nextInt(10) == 0 ? random.nextDouble() * 500 : random.nextDouble() * 10;
+            bounds[i] = new Rectangle2D.Double(random.nextDouble() * 1000 - 500, random.nextDouble() * 1000 - 500, w, h);
+            index.add(items[i], bounds[i]);
+        }
+        assertEquals(count, index.size());
+
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 1200 - 600, y = random.nextDouble() * 1200 - 600;
+            double w = q % 2 == 0 ? 0 : random.nextDouble() * 300, h = q % 2 == 0 ? 0 : random.nextDouble() * 300;
+            double margin = random.nextDouble() * 3;
+            List<VisualItem> expected = new ArrayList<VisualItem>();
+            for (int i = 0; i < count; i++) {
+                Rectangle2D b = bounds[i];
+                if (b.getMinX() - margin <= x + w && b.getMaxX() + margin >= x
+                        && b.getMinY() - margin <= y + h && b.getMaxY() + margin >= y) {
+                    expected.add(items[i]);
+                }
+            }
+            index.query(x, y, x + w, y + h, margin);
+            List<VisualItem> found = new ArrayList<VisualItem>();
+            for (int i = 0; i < index.rsize; i++) {
+                found.add(index.results[i]);
+            }
+            assertEquals(expected, found);
+        }
+
+        index.clear();
+        assertEquals(0, index.query(-1000, -1000, 1000, 1000, 0));
+        index.add(items[0], bounds[0]);
+        assertEquals(1, index.query(-1000, -1000, 1000, 1000, 0));
+        assertSame(items[0], index.results[0]);
+    }
+
+    private static void paint(Display display) {
+        BufferedImage img = new BufferedImage(display.getWidth(), display.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        display.paintComponent(g);
+        g.dispose();
+    }
+
+    @Test
+    public void testPickingMovedItems() {
+        Visualization vis = new Visualization();
+        VisualTable table = vis.addTable("items");
+        VisualItem item = table.getItem(table.addRow());
+        item.setX(100);
+        item.setY(100);
+        Display display = new Display(vis);
+        display.setSize(400, 400);
+
+        // nothing painted yet, so the items are visited as they are
+        assertSame(item, display.findItem(new Point(100, 100)));
+        paint(display);
+        assertSame(item, display.findItem(new Point(100, 100)));
+
+        // an item moved since the last paint, as while dragged, is found
+        // at its new location
+        item.setX(250);
+        item.setY(250);
+        assertSame(item, display.findItem(new Point(250, 250)));
+        assertNull(display.findItem(new Point(100, 100)));
+        paint(display);
+        assertSame(item, display.findItem(new Point(250, 250)));
+
+        display.reset();
+        assertSame(item, display.findItem(new Point(250, 250)));
+    }
+}
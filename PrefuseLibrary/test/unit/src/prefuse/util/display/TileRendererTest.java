@@ -0,0 +1,137 @@
+package prefuse.util.display;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.Test;
+import prefuse.Display;
+import prefuse.Visualization;
+import prefuse.data.Graph;
+import prefuse.render.DefaultRendererFactory;
+import prefuse.render.LabelRenderer;
+import prefuse.render.Renderer;
+import prefuse.visual.VisualGraph;
+import prefuse.visual.VisualItem;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class TileRendererTest {
+
+    private static final TileRenderer.ItemPainter PAINTER = new TileRenderer.ItemPainter() {
+        public void paint(Graphics2D g, VisualItem item, Renderer renderer) {
+            renderer.render(g, item);
+        }
+    };
+
+    public TileRendererTest() {
+    }
+
+    private static Clip invalid() {
+        Clip clip = new Clip();
+        clip.invalidate();
+        return clip;
+    }
+
+    private static void render(TileRenderer tiles) {
+        tiles.render(new VisualItem[0], 0, new RenderingHints(null), 0, PAINTER);
+        assertEquals(0, tiles.getDirtyCount());
+    }
+
+    @Test
+    public void testDirtyTiles() {
+        TileRenderer tiles = new TileRenderer(100, 2);
+        AffineTransform at = new AffineTransform();
+        assertTrue(tiles.prepare(at, 400, 400, invalid(), 0, 0));
+        assertEquals(16, tiles.getTileCount());
+        assertEquals(16, tiles.getDirtyCount());
+        render(tiles);
+
+        // panning by whole pixels only draws the newly exposed tiles
+        at.translate(-30, 0);
+        assertTrue(tiles.prepare(at, 400, 400, invalid(), 0, 0));
+        assertEquals(20, tiles.getTileCount());
+        assertEquals(4, tiles.getDirtyCount());
+        render(tiles);
+
+        // a damaged region only draws the tiles it touches
+        Clip damage = new Clip();
+        damage.setClip(150, 150, 10, 10);
+        assertTrue(tiles.prepare(at, 400, 400, damage, 1, 0));
+        assertEquals(1, tiles.getDirtyCount());
+        render(tiles);
+
+        // but the whole Display damaged with changed items draws all of them,
+        // as does a repaint without a pan or a zoom
+        assertTrue(tiles.prepare(at, 400, 400, invalid(), 2, 0));
+        assertEquals(20, tiles.getDirtyCount());
+        render(tiles);
+        assertTrue(tiles.prepare(at, 400, 400, invalid(), 2, 0));
+        assertEquals(20, tiles.getDirtyCount());
+        render(tiles);
+        at.scale(2, 2);
+        assertTrue(tiles.prepare(at, 400, 400, damage, 2, 0));
+        assertEquals(tiles.getTileCount(), tiles.getDirtyCount());
+        render(tiles);
+        at.rotate(1);
+        assertFalse(tiles.prepare(at, 400, 400, damage, 2, 0));
+    }
+
+    private static BufferedImage paint(Display display) {
+        BufferedImage img = new BufferedImage(display.getWidth(), display.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        display.paintComponent(g);
+        g.dispose();
+        return img;
+    }
+
+    @Test
+    public void testPartialRepaint() {
+        Graph graph = new Graph();
+        graph.addColumn("label", String.class);
+        Random random = new Random(7);
+        int n = 300;
+        for (int i = 0; i < n; i++) {
+            graph.addNode().setString("label", "n" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        Visualization vis = new Visualization();
+        VisualGraph vg = vis.addGraph("graph", graph);
+        vis.setRendererFactory(new DefaultRendererFactory(new LabelRenderer("label")));
+        for (int i = 0; i < n; i++) {
+            VisualItem item = (VisualItem) vg.getNode(i);
+            item.setX(random.nextDouble() * 400);
+            item.setY(random.nextDouble() * 400);
+            item.setFillColor(0xff8888ff);
+            item.setTextColor(0xff000000);
+        }
+        Display display = new Display(vis);
+        display.setSize(400, 400);
+        display.setHighQuality(true);
+        display.setTiledRendering(100, 3);
+        assertTrue(display.isTiledRendering());
+        paint(display);
+        display.pan(-30, 20);
+        paint(display);
+
+        // reused and redrawn tiles make up the same frame as all redrawn
+        VisualItem item = (VisualItem) vg.getNode(0);
+        item.setX(200);
+        item.setY(200);
+        item.setFillColor(0xffff0000);
+        BufferedImage partial = paint(display);
+        display.damageReport();
+        BufferedImage full = paint(display);
+        for (int y = 0; y < full.getHeight(); y++) {
+            for (int x = 0; x < full.getWidth(); x++) {
+                assertEquals("pixel " + x + "," + y, full.getRGB(x, y), partial.getRGB(x, y));
+            }
+        }
+    }
+}
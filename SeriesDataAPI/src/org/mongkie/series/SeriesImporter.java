@@ -18,9 +18,15 @@
 package org.mongkie.series;
 
 import java.io.InputStream;
+import java.util.Iterator;
+import kobic.prefuse.data.io.ReaderFactory;
 import org.mongkie.importer.Container;
 import org.mongkie.importer.Report;
 import org.mongkie.importer.spi.FileImporter;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+import prefuse.data.io.CSVTableReader;
+import prefuse.data.io.DataIOException;
 
 /**
  *
@@ -86,4 +92,60 @@ public class SeriesImporter implements FileImporter {
     public void setTitle(String title) {
         this.title = title;
     }
+
+    /**
+     * Reads the series table from the input stream, whose first column holds
+     * the keys of nodes and the others the values of the series.
+     *
+     * @return the series table
+     * @throws DataIOException if the input is not a CSV table
+     */
+    public Table readSeries() throws DataIOException {
+        CSVTableReader reader = ReaderFactory.createCSVTableReader();
+        reader.setHasHeader(hasHeaderRecord);
+        return reader.readTable(in);
+    }
+
+    /**
+     * Sets the values of a series table to the nodes whose key field matches
+     * the first column, adding a <tt>double</tt> column to the node table for
+     * each series missing there. It does not need a display, but the caller
+     * must lock the node table if it is visualized.
+     *
+     * @param seriesTable the series table read by {@link #readSeries()}
+     * @param nodeTable the node table
+     * @return the series data, a column of values for each series in the order
+     * of the nodes
+     */
+    public SeriesData overlay(Table seriesTable, Table nodeTable) {
+        for (int i = 1; i < seriesTable.getColumnCount(); i++) {
+            String colName = seriesTable.getColumnName(i);
+            if (nodeTable.getColumn(colName) == null) {
+                nodeTable.addColumn(colName, double.class);
+            }
+        }
+        String seriesKey = seriesTable.getColumnName(0);
+        seriesTable.index(seriesKey);
+        double[][] matrix = new double[seriesTable.getColumnCount() - 1][nodeTable.getTupleCount()];
+        int j = 0;
+        for (Iterator<Tuple> nodesIter = nodeTable.tuples(); nodesIter.hasNext(); j++) {
+            Tuple node = nodesIter.next();
+            Object key = node.get(keyField);
+            int row = key == null ? -1 : seriesTable.getIndex(seriesKey).get(key.toString());
+            if (row < 0) {
+                continue;
+            }
+            Tuple s = seriesTable.getTuple(row);
+            for (int i = 1; i < seriesTable.getColumnCount(); i++) {
+                try {
+                    double val = Double.parseDouble(s.getString(i));
+                    node.set(s.getColumnName(i), val);
+                    matrix[i - 1][j] = val;
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+            }
+        }
+        return new SeriesData(title, matrix);
+    }
 }
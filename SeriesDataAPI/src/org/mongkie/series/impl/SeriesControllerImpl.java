@@ -18,11 +18,9 @@
 package org.mongkie.series.impl;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import kobic.prefuse.data.io.ReaderFactory;
 import kobic.prefuse.display.DisplayListener;
 import kobic.prefuse.display.NetworkDisplay;
 import org.mongkie.longtask.LongTask;
@@ -37,8 +35,6 @@ import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
 import prefuse.data.Graph;
 import prefuse.data.Table;
-import prefuse.data.Tuple;
-import prefuse.data.io.CSVTableReader;
 import prefuse.data.io.DataIOException;
 
 /**
@@ -143,13 +139,11 @@ public class SeriesControllerImpl implements SeriesController, DisplayListener {
         private final MongkieDisplay display;
         private final SeriesImporter importer;
         private final SeriesModelImpl model;
-        private static final CSVTableReader CSVReader = ReaderFactory.createCSVTableReader();
 
         public SeriesLoader(SeriesModelImpl model, SeriesImporter importer) {
             this.importer = importer;
             this.model = model;
             this.display = model.getDisplay();
-            CSVReader.setHasHeader(importer.hasHeaderRecord());
         }
 
         @Override
@@ -168,11 +162,9 @@ public class SeriesControllerImpl implements SeriesController, DisplayListener {
             Progress.start(progressTicket);
             // TODO: series is double? String?
             try {
-                final Table seriesTable = CSVReader.readTable(importer.getInputStream());
+                final Table seriesTable = importer.readSeries();
                 if (seriesTable != null) {
                     final Table nodeTable = display.getGraph().getNodeTable();
-                    String seriesKey = seriesTable.getColumnName(0);
-                    seriesTable.index(seriesKey);
                     display.getVisualization().process(new Runnable() {
                         @Override
                         public void run() {
@@ -184,27 +176,7 @@ public class SeriesControllerImpl implements SeriesController, DisplayListener {
                             }
                         }
                     });
-                    double[][] matrix = new double[seriesTable.getColumnCount() - 1][nodeTable.getTupleCount()];
-                    int j = 0;
-                    Iterator<Tuple> nodesIter = nodeTable.tuples();
-                    while (nodesIter.hasNext()) {
-                        Tuple node = nodesIter.next();
-                        int row = seriesTable.getIndex(seriesKey).get(node.getString(importer.getKeyField()));
-                        Tuple s = row < 0 ? null : seriesTable.getTuple(row);
-                        if (s != null) {
-                            for (int i = 1; i < seriesTable.getColumnCount(); i++) {
-                                try {
-                                    double val = Double.parseDouble(s.getString(i));
-                                    node.set(s.getColumnName(i), val);
-                                    matrix[i - 1][j] = val;
-                                } catch (NumberFormatException ex) {
-                                    continue;
-                                }
-                            }
-                        }
-                        j++;
-                    }
-                    model.setData(new SeriesData(importer.getTitle(), matrix));
+                    model.setData(importer.overlay(seriesTable, nodeTable));
                 }
             } catch (DataIOException ex) {
                 Logger.getLogger(SeriesControllerImpl.class.getName()).log(Level.SEVERE, null, ex);
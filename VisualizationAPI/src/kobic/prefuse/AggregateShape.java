@@ -98,6 +98,39 @@ public enum AggregateShape {
         return false;
     }
 
+    /**
+     * Returns whether the current bounds of the given member may be on the
+     * boundary of the shape of the given aggregate, i.e. the shape may shrink
+     * when the member moves inwards. Called before a member moves, so that a
+     * member not on the boundary can be {@link #extend(AggregateItem, Collection) extended}
+     * to its new bounds instead of laying out the whole aggregate again.
+     *
+     * @param aggregate an aggregate
+     * @param member a member of the aggregate before it moves
+     * @return false only if the shape does not depend on the current bounds of
+     * the member
+     */
+    public boolean isBoundary(AggregateItem aggregate, VisualItem member) {
+        return layout.isBoundary(aggregate, member);
+    }
+
+    /**
+     * Extends the shape of the given aggregate to the current bounds of the
+     * given members, which were not on the {@link #isBoundary(AggregateItem, VisualItem) boundary}
+     * of the shape before they moved.
+     *
+     * @param aggregate an aggregate to extend
+     * @param members the moved members of the aggregate
+     * @return true if the shape changed
+     */
+    public boolean extend(AggregateItem aggregate, Collection<VisualItem> members) {
+        if (layout.extend(aggregate, members)) {
+            aggregate.setValidated(false);
+            return true;
+        }
+        return false;
+    }
+
     public Shape getShape(AggregateItem aggregate) {
         return renderer.getShape(aggregate);
     }
@@ -158,14 +191,43 @@ public enum AggregateShape {
          * @return true if polygons of the given aggregate changed, otherwise false
          */
         public boolean run(AggregateItem aggregate);
+
+        /**
+         * @see AggregateShape#isBoundary(AggregateItem, VisualItem)
+         */
+        public boolean isBoundary(AggregateItem aggregate, VisualItem member);
+
+        /**
+         * @see AggregateShape#extend(AggregateItem, Collection)
+         */
+        public boolean extend(AggregateItem aggregate, Collection<VisualItem> members);
     }
 
+    /**
+     * Tolerance of comparing the bounds of items with the polygons in floats.
+     */
+    private static final double EPSILON = 0.01;
+
     static class PolygonLayout implements Layout {
 
         private VisualItem[] boundaries, uppers, lowers;
 
+        /**
+         * The locations of the items change before their events are fired,
+         * so any member may have been on the boundary.
+         */
         @Override
-        public boolean run(AggregateItem aggregate) {
+        public boolean isBoundary(AggregateItem aggregate, VisualItem member) {
+            return true;
+        }
+
+        @Override
+        public boolean extend(AggregateItem aggregate, Collection<VisualItem> members) {
+            return run(aggregate);
+        }
+
+        @Override
+        public synchronized boolean run(AggregateItem aggregate) {
             int boundariesCount = findBoundaryItems(aggregate);
             int polyLen = boundariesCount * 2;
             float[] poly = (float[]) aggregate.get(VisualItem.POLYGON);
@@ -266,6 +328,42 @@ public enum AggregateShape {
             this.margin = margin;
         }
 
+        @Override
+        public boolean isBoundary(AggregateItem aggregate, VisualItem member) {
+            float[] rect = (float[]) aggregate.get(VisualItem.POLYGON);
+            if (rect == null || rect.length < 4) {
+                return true;
+            }
+            Rectangle2D b = (Rectangle2D) member.get(VisualItem.BOUNDS);
+            return b.getMinX() - margin <= rect[0] + EPSILON || b.getMinY() - margin <= rect[1] + EPSILON
+                    || b.getMaxX() + margin >= rect[2] - EPSILON || b.getMaxY() + margin >= rect[3] - EPSILON;
+        }
+
+        @Override
+        public boolean extend(AggregateItem aggregate, Collection<VisualItem> members) {
+            float[] rect = (float[]) aggregate.get(VisualItem.POLYGON);
+            if (rect == null || rect.length < 4) {
+                return run(aggregate);
+            }
+            boolean changed = false;
+            for (VisualItem member : members) {
+                Rectangle2D b = (Rectangle2D) member.get(VisualItem.BOUNDS);
+                changed |= extend(rect, 0, (float) (b.getMinX() - margin), true);
+                changed |= extend(rect, 1, (float) (b.getMinY() - margin), true);
+                changed |= extend(rect, 2, (float) (b.getMaxX() + margin), false);
+                changed |= extend(rect, 3, (float) (b.getMaxY() + margin), false);
+            }
+            return changed;
+        }
+
+        private static boolean extend(float[] rect, int i, float value, boolean min) {
+            if (min ? value < rect[i] : value > rect[i]) {
+                rect[i] = value;
+                return true;
+            }
+            return false;
+        }
+
         @Override
         public boolean run(AggregateItem aggregate) {
             float[] rect = (float[]) aggregate.get(VisualItem.POLYGON);
@@ -294,11 +392,100 @@ public enum AggregateShape {
         }
 
         @Override
-        public boolean run(AggregateItem aggrItem) {
-            int maxSize = 0;
-            for (Iterator<AggregateItem> aggrs = aggrItem.getTable().tuples(); aggrs.hasNext();) {
-                maxSize = Math.max(maxSize, 4 * 2 * aggrs.next().getAggregateSize());
+        public synchronized boolean isBoundary(AggregateItem aggregate, VisualItem member) {
+            if (!member.isVisible()) {
+                return false;
+            }
+            float[] hull = (float[]) aggregate.get(VisualItem.POLYGON);
+            if (hull == null) {
+                return true;
+            }
+            int len = length(hull);
+            addPoint(corners, 0, member, margin);
+            for (int c = 0; c < corners.length; c += 2) {
+                for (int i = 0; i < len; i += 2) {
+                    if (Math.abs(hull[i] - corners[c]) <= EPSILON && Math.abs(hull[i + 1] - corners[c + 1]) <= EPSILON) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        private final double[] corners = new double[2 * 4];
+
+        /**
+         * The hull of the members not on the boundary is the current hull, so
+         * the new hull is that of the current one and the new bounds of the
+         * members, if any of them is outside of the current one.
+         */
+        @Override
+        public synchronized boolean extend(AggregateItem aggrItem, Collection<VisualItem> members) {
+            float[] fhull = (float[]) aggrItem.get(VisualItem.POLYGON);
+            if (fhull == null) {
+                return run(aggrItem);
             }
+            int len = length(fhull);
+            int maxSize = len + 4 * 2 * members.size();
+            if (points == null || maxSize > points.length) {
+                points = new double[maxSize];
+            }
+            for (int i = 0; i < len; i++) {
+                points[i] = fhull[i];
+            }
+            int idx = len;
+            for (VisualItem item : members) {
+                if (item.isVisible()) {
+                    addPoint(points, idx, item, margin);
+                    for (int c = idx; c < idx + 2 * 4; c += 2) {
+                        if (!contains(fhull, len, points[c], points[c + 1])) {
+                            idx += 2 * 4;
+                            break;
+                        }
+                    }
+                }
+            }
+            // all of the moved members are inside of the current hull
+            if (idx == len) {
+                return false;
+            }
+            setHull(aggrItem, fhull, GraphicsLib.convexHull(points, idx));
+            return true;
+        }
+
+        private static int length(float[] hull) {
+            for (int i = 0; i < hull.length; i++) {
+                if (Float.isNaN(hull[i])) {
+                    return i;
+                }
+            }
+            return hull.length;
+        }
+
+        /**
+         * Returns whether the given point is inside of the given convex hull
+         * or on its edges, whatever the orientation of the hull.
+         */
+        private static boolean contains(float[] hull, int len, double x, double y) {
+            int sign = 0;
+            for (int i = 0; i < len; i += 2) {
+                int j = (i + 2) % len;
+                double cross = (hull[j] - hull[i]) * (y - hull[i + 1]) - (hull[j + 1] - hull[i + 1]) * (x - hull[i]);
+                if (Math.abs(cross) <= EPSILON) {
+                    continue;
+                }
+                int s = cross > 0 ? 1 : -1;
+                if (sign == 0) {
+                    sign = s;
+                } else if (sign != s) {
+                    return false;
+                }
+            }
+            return len >= 6;
+        }
+
+        @Override
+        public synchronized boolean run(AggregateItem aggrItem) {
+            int maxSize = 4 * 2 * aggrItem.getAggregateSize();
             if (points == null || maxSize > points.length) {
                 points = new double[maxSize];
             }
@@ -321,9 +508,12 @@ public enum AggregateShape {
                 return false;
             }
             // compute convex hull
-            double[] nhull = GraphicsLib.convexHull(points, idx);
+            setHull(aggrItem, (float[]) aggrItem.get(VisualItem.POLYGON), GraphicsLib.convexHull(points, idx));
+            return true;
+        }
+
+        private static void setHull(AggregateItem aggrItem, float[] fhull, double[] nhull) {
             // prepare viz attribute array
-            float[] fhull = (float[]) aggrItem.get(VisualItem.POLYGON);
             if (fhull == null || fhull.length < nhull.length) {
                 fhull = new float[nhull.length];
                 aggrItem.set(VisualItem.POLYGON, fhull);
@@ -335,7 +525,6 @@ public enum AggregateShape {
                 fhull[j] = (float) nhull[j];
             }
 //            aggrItem.set(VisualItem.POLYGON, fhull);
-            return true;
         }
 
         private static void addPoint(double[] points, int idx, VisualItem item, int growth) {
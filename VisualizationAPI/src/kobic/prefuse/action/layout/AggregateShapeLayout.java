@@ -17,13 +17,22 @@
  */
 package kobic.prefuse.action.layout;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import kobic.prefuse.AggregateShape;
 import static kobic.prefuse.Constants.NODES;
 import prefuse.Visualization;
+import prefuse.action.Action;
 import prefuse.action.layout.Layout;
+import prefuse.activity.ActivityManager;
 import prefuse.data.CascadedTable;
 import prefuse.data.Table;
 import prefuse.data.Tuple;
@@ -35,28 +44,201 @@ import prefuse.visual.*;
 import prefuse.visual.expression.VisiblePredicate;
 
 /**
+ * Lays out the shapes of the aggregates whose members moved. The
+ * {@link #createNodeItemsProjectionListener() listener} of the
+ * {@link NodeItemsProjectionTable} marks the aggregates of a moving member
+ * dirty, or only the member if it is not on the boundary of the shape, so
+ * that the shape is {@link AggregateShape#extend(AggregateItem, Collection) extended}
+ * to its new bounds instead of being laid out again. The dirty aggregates are
+ * laid out when this layout runs, or at most once a frame of the
+ * {@link ActivityManager} otherwise, e.g. while dragging nodes.
  *
  * @author Yeongjun Jang <yjjang@kribb.re.kr>
  */
 public class AggregateShapeLayout extends Layout {
 
+    // the moved members of the dirty aggregates, or null to lay out again
+    private Map<AggregateItem, Set<VisualItem>> dirty = new LinkedHashMap<AggregateItem, Set<VisualItem>>();
+    private boolean all, scheduled;
+    private long lastUpdate;
+    private final Action update;
+
     public AggregateShapeLayout(Visualization v) {
         super(Visualization.AGGR_ITEMS);
         setVisualization(v);
+        update = new Action(v) {
+            @Override
+            public void run(double frac) {
+                synchronized (AggregateShapeLayout.this) {
+                    scheduled = false;
+                    lastUpdate = System.currentTimeMillis();
+                }
+                if (update()) {
+                    m_vis.repaint();
+                }
+            }
+        };
     }
 
     @Override
     public void run(double frac) {
-        Iterator<AggregateItem> aggregates = ((AggregateTable) m_vis.getVisualGroup(m_group)).tuples(VisiblePredicate.TRUE);
-        while (aggregates.hasNext()) {
-            AggregateItem aggregate = aggregates.next();
+        update();
+    }
+
+    /**
+     * Marks all aggregates to be laid out again, e.g. when a layout of the
+     * graph starts.
+     */
+    public void invalidateAll() {
+        synchronized (this) {
+            all = true;
+            dirty.clear();
+        }
+        schedule();
+    }
+
+    /**
+     * Marks the given aggregate to be laid out again.
+     *
+     * @param aggregate an aggregate
+     */
+    public void invalidate(AggregateItem aggregate) {
+        synchronized (this) {
+            if (all || dirty.containsKey(aggregate) && dirty.get(aggregate) == null) {
+                return;
+            }
+            dirty.put(aggregate, null);
+        }
+        schedule();
+    }
+
+    /**
+     * Called before the given member of the given aggregate moves, while its
+     * bounds are not updated yet.
+     */
+    protected void memberMoving(AggregateItem aggregate, VisualItem member) {
+        synchronized (this) {
+            if (all) {
+                return;
+            }
+            Set<VisualItem> moved = dirty.get(aggregate);
+            if (moved == null && dirty.containsKey(aggregate) || moved != null && moved.contains(member)) {
+                return;
+            }
+            AggregateShape s = AggregateShape.get(aggregate.getShape());
+            if (!aggregate.isVisible() || s == null || s.isBoundary(aggregate, member)) {
+                dirty.put(aggregate, null);
+            } else {
+                if (moved == null) {
+                    dirty.put(aggregate, moved = new HashSet<VisualItem>());
+                }
+                moved.add(member);
+            }
+        }
+        schedule();
+    }
+
+    /**
+     * Called after the bounds of the given member of the given aggregate
+     * changed.
+     */
+    protected void memberChanged(AggregateItem aggregate, VisualItem member) {
+        synchronized (this) {
+            if (all || dirty.containsKey(aggregate)
+                    && (dirty.get(aggregate) == null || dirty.get(aggregate).contains(member))) {
+                return;
+            }
+            // the previous bounds are not known
+            dirty.put(aggregate, null);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        long next;
+        synchronized (this) {
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+            double fps = ActivityManager.getMaxFrameRate();
+            next = fps > 0 ? lastUpdate + Math.round(1000 / fps) : 0;
+        }
+        update.runAt(Math.max(next, System.currentTimeMillis()));
+    }
+
+    /**
+     * Lays out the dirty aggregates.
+     *
+     * @return true if any of the shapes changed
+     */
+    private boolean update() {
+        AggregateTable aggregates = (AggregateTable) m_vis.getVisualGroup(m_group);
+        // validate the members first, so that their events find the
+        // aggregates already dirty and do not schedule another update
+        Iterator<AggregateItem> aggregateIter;
+        synchronized (this) {
+            aggregateIter = all ? aggregates.tuples(VisiblePredicate.TRUE)
+                    : new ArrayList<AggregateItem>(dirty.keySet()).iterator();
+        }
+        while (aggregateIter.hasNext()) {
+            AggregateItem aggregate = aggregateIter.next();
+            if (aggregate.isValid() && aggregate.isVisible()) {
+                for (Iterator<VisualItem> items = aggregate.items(); items.hasNext();) {
+                    VisualItem item = items.next();
+                    if (item.isVisible()) {
+                        item.validateBounds();
+                    }
+                }
+            }
+        }
+        Map<AggregateItem, Set<VisualItem>> work;
+        synchronized (this) {
+            if (all) {
+                work = new LinkedHashMap<AggregateItem, Set<VisualItem>>();
+                for (aggregateIter = aggregates.tuples(); aggregateIter.hasNext();) {
+                    work.put(aggregateIter.next(), null);
+                }
+            } else {
+                work = dirty;
+            }
+            all = false;
+            dirty = new LinkedHashMap<AggregateItem, Set<VisualItem>>();
+        }
+        boolean changed = false;
+        List<AggregateItem> hidden = new ArrayList<AggregateItem>();
+        for (Map.Entry<AggregateItem, Set<VisualItem>> e : work.entrySet()) {
+            AggregateItem aggregate = e.getKey();
+            if (!aggregate.isValid()) {
+                continue;
+            }
+            if (!aggregate.isVisible()) {
+                hidden.add(aggregate);
+                continue;
+            }
             AggregateShape s = AggregateShape.get(aggregate.getShape());
             if (s == null) {
                 Logger.getLogger(getClass().getName()).log(Level.WARNING, "Unknown aggregate shape code: {0}", aggregate.getShape());
                 continue;
             }
-            s.layout(aggregate);
+            if (e.getValue() == null ? s.layout(aggregate) : s.extend(aggregate, e.getValue())) {
+                aggregate.validateBounds();
+                changed = true;
+            }
         }
+        // lays out the hidden aggregates again when they are visible
+        synchronized (this) {
+            if (!all) {
+                for (AggregateItem aggregate : hidden) {
+                    dirty.put(aggregate, null);
+                }
+            }
+        }
+        return changed;
+    }
+
+    public TableListener createNodeItemsProjectionListener() {
+        return new NodeItemsProjectionListener(this);
     }
 
     public static NodeItemsProjectionTable createNodeItemsProjectionTable(final Visualization v) {
@@ -65,8 +247,6 @@ public class AggregateShapeLayout extends Layout {
 
     public static class NodeItemsProjectionTable extends CascadedTable {
 
-        private final Visualization v;
-
         protected NodeItemsProjectionTable(final Visualization v) {
             super((VisualTable) v.getVisualGroup(NODES),
                     new AbstractPredicate() {
@@ -77,7 +257,7 @@ public class AggregateShapeLayout extends Layout {
                         public boolean getBoolean(Tuple t) {
                             return aggregates.containsItem((NodeItem) t);
                         }
-                    }, new NamedColumnProjection(new String[]{VisualItem.X, VisualItem.Y, VisualItem.BOUNDS}, true));
+                    }, new NamedColumnProjection(new String[]{VisualItem.X, VisualItem.Y, VisualItem.BOUNDS, VisualItem.VISIBLE}, true));
             ((AggregateTable) v.getVisualGroup(Visualization.AGGR_ITEMS)).addTableListener(
                     new TableListener() {
 
@@ -88,20 +268,17 @@ public class AggregateShapeLayout extends Layout {
                             }
                         }
                     });
-            this.v = v;
-        }
-
-        public TableListener createNodeItemsProjectionListener() {
-            return new NodeItemsProjectionListener(v);
         }
     }
 
     protected static class NodeItemsProjectionListener implements TableListener {
 
+        private final AggregateShapeLayout layout;
         private final AggregateTable aggregates;
 
-        protected NodeItemsProjectionListener(Visualization v) {
-            aggregates = (AggregateTable) v.getVisualGroup(Visualization.AGGR_ITEMS);
+        protected NodeItemsProjectionListener(AggregateShapeLayout layout) {
+            this.layout = layout;
+            aggregates = (AggregateTable) layout.getVisualization().getVisualGroup(Visualization.AGGR_ITEMS);
         }
 
         @Override
@@ -110,29 +287,15 @@ public class AggregateShapeLayout extends Layout {
                 VisualTable nodes = (VisualTable) ((CascadedTable) projection).getParentTable();
                 String column = projection.getColumnName(col);
                 for (int r = start; r <= end; ++r) {
-                    int n = ((CascadedTable) projection).getParentRow(r);
-                    if (column.equals(VisualItem.X) || column.equals(VisualItem.Y)) {
-                        for (Iterator<AggregateItem> aggregateIter = aggregates.getAggregates(nodes.getItem(n)); aggregateIter.hasNext();) {
-                            AggregateItem aggregate = aggregateIter.next();
-                            if (aggregate.isVisible()) {
-                                aggregate.setValidated(false);
-                            }
-                        }
-                    } else if (column.equals(VisualItem.BOUNDS)) {
-                        VisualItem nodeItem = nodes.getItem(n);
-                        for (Iterator<AggregateItem> aggregateIter = aggregates.getAggregates(nodeItem); aggregateIter.hasNext();) {
-                            AggregateItem aggregate = aggregateIter.next();
-                            if (!aggregate.isVisible()) {
-                                continue;
-                            }
-                            AggregateShape s = AggregateShape.get(aggregate.getShape());
-                            if (s == null) {
-                                Logger.getLogger(getClass().getName()).log(Level.WARNING, "Unknown aggregate shape code: {0}", aggregate.getShape());
-                                continue;
-                            }
-                            if (s.layout(aggregate)) {
-                                aggregate.validateBounds();
-                            }
+                    VisualItem nodeItem = nodes.getItem(((CascadedTable) projection).getParentRow(r));
+                    for (Iterator<AggregateItem> aggregateIter = aggregates.getAggregates(nodeItem); aggregateIter.hasNext();) {
+                        AggregateItem aggregate = aggregateIter.next();
+                        if (column.equals(VisualItem.X) || column.equals(VisualItem.Y)) {
+                            layout.memberMoving(aggregate, nodeItem);
+                        } else if (column.equals(VisualItem.BOUNDS)) {
+                            layout.memberChanged(aggregate, nodeItem);
+                        } else {
+                            layout.invalidate(aggregate);
                         }
                     }
                 }
@@ -18,6 +18,7 @@
  */
 package kobic.prefuse.data;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,7 +30,7 @@ import java.util.Map;
  *
  * @author Yeongjun Jang <yjjang@kribb.re.kr>
  */
-public class Attribute<T> {
+public class Attribute<T> implements Serializable {
 
     private final String name;
     private final T value;
@@ -51,7 +52,7 @@ public class Attribute<T> {
         return (Class<T>) value.getClass();
     }
 
-    public static class Set implements Iterable<Attribute> {
+    public static class Set implements Iterable<Attribute>, Serializable {
 
         private List<Attribute> attributes = new ArrayList<Attribute>();
         private Map<String, Attribute> lookup = new HashMap<String, Attribute>();
@@ -84,6 +84,7 @@ public class GraphFactory {
     public static Graph create(Table nodeTable, Table edgeTable,
             String nodeKey, String nodeLabel, String sourceKey, String targetKey, String edgeLabel, boolean directed) {
         Graph g = new Graph(nodeTable, edgeTable, directed, nodeKey, sourceKey, targetKey);
+        g.compactLinks();
         g.setNodeLabelField(nodeLabel);
         g.setEdgeLabelField(edgeLabel);
         return g;
@@ -0,0 +1,528 @@
+/*
+ *  This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ *  Copyright (C) 2012 Korean Bioinformation Center(KOBIC)
+ *
+ *  MONGKIE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Affero General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  MONGKE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Affero General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kobic.prefuse.data.io;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.Stroke;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import prefuse.data.Graph;
+import prefuse.data.Table;
+import prefuse.data.column.Column;
+import prefuse.data.column.ColumnFactory;
+import prefuse.util.FontLib;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Versioned columnar binary format of a (visual) graph. A file starts with a
+ * magic number and a format version, followed by sections. Each section has an
+ * id and a length, so readers can locate sections without parsing the ones in
+ * between and skip sections they do not know.
+ * <p>
+ * A table section stores each column as one block: a primitive array for
+ * <tt>int</tt>, <tt>long</tt>, <tt>float</tt>, <tt>double</tt> and
+ * <tt>boolean</tt> columns, a dictionary of distinct values plus an
+ * <tt>int</tt> code per row for <tt>String</tt> columns, and a serialized
+ * object block for any other column type. Rows are written in ascending order
+ * and renumbered from 0, so row references between tables have to be remapped
+ * by the writer, e.g. using {@link SerializableTable#getRow(int)}.
+ * <p>
+ * Files are read from a {@link ByteBuffer}, which is memory-mapped when the
+ * input is a file, see {@link #map(InputStream)}.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class ColumnarGraphIO {
+
+    public static final int MAGIC = 0x564C4743; // "VLGC"
+    public static final int VERSION = 1;
+    // Section ids
+    public static final int GRAPH = 1;
+    public static final int NODES = 2;
+    public static final int EDGES = 3;
+    public static final int NODE_VISUAL_PROPERTIES = 4;
+    public static final int EDGE_VISUAL_PROPERTIES = 5;
+    public static final int AGGREGATE_VISUAL_PROPERTIES = 6;
+    public static final int AGGREGATE_MEMBERS = 7;
+    // Column block types
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte FLOAT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRING = 6;
+    private static final byte OBJECT = 7;
+    private static final String UTF8 = "UTF-8";
+
+    private ColumnarGraphIO() {
+    }
+
+    /**
+     * Get a buffer over the remaining content of the given input stream. The
+     * content of a file is memory-mapped, any other stream is read into a heap
+     * buffer.
+     *
+     * @param in the input stream to read
+     * @return a buffer positioned at the start of the content
+     * @throws IOException if an I/O error occurs
+     */
+    public static ByteBuffer map(InputStream in) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            try {
+                long position = channel.position();
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+            } finally {
+                channel.close();
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int len;
+        while ((len = in.read(buf)) >= 0) {
+            bytes.write(buf, 0, len);
+        }
+        in.close();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * Writes sections of the columnar format to an output stream.
+     */
+    public static class Writer {
+
+        private final DataOutputStream out;
+
+        public Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        /**
+         * Write the node and edge tables and the properties of a graph.
+         */
+        public void writeGraph(Table nodes, Table edges, boolean directed, String nodeKey, String sourceKey, String targetKey,
+                String nodeLabel, String edgeLabel) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream section = new DataOutputStream(bytes);
+            section.writeBoolean(directed);
+            writeString(section, nodeKey);
+            writeString(section, sourceKey);
+            writeString(section, targetKey);
+            writeString(section, nodeLabel);
+            writeString(section, edgeLabel);
+            section.flush();
+            writeSection(GRAPH, bytes);
+            writeTable(NODES, nodes);
+            writeTable(EDGES, edges);
+        }
+
+        /**
+         * Write a table as a section of the given id.
+         */
+        public void writeTable(int id, Table table) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream section = new DataOutputStream(bytes);
+            int[] rows = new int[table.getTupleCount()];
+            int nrows = 0;
+            for (IntIterator rowIter = table.rows(); rowIter.hasNext();) {
+                rows[nrows++] = rowIter.nextInt();
+            }
+            int ncols = table.getColumnCount();
+            section.writeInt(ncols);
+            section.writeInt(nrows);
+            for (int col = 0; col < ncols; col++) {
+                writeString(section, table.getColumnName(col));
+                writeColumn(section, table.getColumn(col), rows, nrows);
+            }
+            section.flush();
+            writeSection(id, bytes);
+        }
+
+        /**
+         * Write the member node rows of aggregates, keyed by aggregate id.
+         */
+        public void writeAggregateMembers(Map<Integer, List<Integer>> aggregateId2NodeRows) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream section = new DataOutputStream(bytes);
+            section.writeInt(aggregateId2NodeRows.size());
+            for (Map.Entry<Integer, List<Integer>> e : aggregateId2NodeRows.entrySet()) {
+                section.writeInt(e.getKey());
+                List<Integer> nodeRows = e.getValue();
+                section.writeInt(nodeRows.size());
+                for (int row : nodeRows) {
+                    section.writeInt(row);
+                }
+            }
+            section.flush();
+            writeSection(AGGREGATE_MEMBERS, bytes);
+        }
+
+        public void close() throws IOException {
+            out.flush();
+            out.close();
+        }
+
+        private void writeSection(int id, ByteArrayOutputStream bytes) throws IOException {
+            out.writeInt(id);
+            out.writeLong(bytes.size());
+            bytes.writeTo(out);
+        }
+
+        private void writeColumn(DataOutputStream out, Column column, int[] rows, int nrows) throws IOException {
+            Class type = column.getColumnType();
+            if (type == int.class) {
+                out.writeByte(INT);
+                out.writeInt(column.getDefaultValue() == null ? 0 : ((Number) column.getDefaultValue()).intValue());
+                for (int i = 0; i < nrows; i++) {
+                    out.writeInt(column.getInt(rows[i]));
+                }
+            } else if (type == long.class) {
+                out.writeByte(LONG);
+                out.writeLong(column.getDefaultValue() == null ? 0L : ((Number) column.getDefaultValue()).longValue());
+                for (int i = 0; i < nrows; i++) {
+                    out.writeLong(column.getLong(rows[i]));
+                }
+            } else if (type == float.class) {
+                out.writeByte(FLOAT);
+                out.writeFloat(column.getDefaultValue() == null ? 0f : ((Number) column.getDefaultValue()).floatValue());
+                for (int i = 0; i < nrows; i++) {
+                    out.writeFloat(column.getFloat(rows[i]));
+                }
+            } else if (type == double.class) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(column.getDefaultValue() == null ? 0d : ((Number) column.getDefaultValue()).doubleValue());
+                for (int i = 0; i < nrows; i++) {
+                    out.writeDouble(column.getDouble(rows[i]));
+                }
+            } else if (type == boolean.class) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(Boolean.TRUE.equals(column.getDefaultValue()));
+                for (int i = 0; i < nrows; i++) {
+                    out.writeBoolean(column.getBoolean(rows[i]));
+                }
+            } else if (type == String.class) {
+                out.writeByte(STRING);
+                writeString(out, (String) column.getDefaultValue());
+                Map<String, Integer> codes = new HashMap<String, Integer>();
+                List<String> dictionary = new ArrayList<String>();
+                int[] values = new int[nrows];
+                for (int i = 0; i < nrows; i++) {
+                    String s = (String) column.get(rows[i]);
+                    if (s == null) {
+                        values[i] = -1;
+                        continue;
+                    }
+                    Integer code = codes.get(s);
+                    if (code == null) {
+                        codes.put(s, code = dictionary.size());
+                        dictionary.add(s);
+                    }
+                    values[i] = code;
+                }
+                out.writeInt(dictionary.size());
+                for (String s : dictionary) {
+                    writeString(out, s);
+                }
+                for (int i = 0; i < nrows; i++) {
+                    out.writeInt(values[i]);
+                }
+            } else {
+                out.writeByte(OBJECT);
+                writeString(out, type.getName());
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream oos = new ObjectOutputStream(bytes);
+                oos.writeObject(marshall(type, column.getDefaultValue()));
+                for (int i = 0; i < nrows; i++) {
+                    oos.writeObject(marshall(type, column.get(rows[i])));
+                }
+                oos.close();
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Reads sections of the columnar format from a buffer.
+     */
+    public static class Reader {
+
+        private final Map<Integer, ByteBuffer> sections = new HashMap<Integer, ByteBuffer>();
+
+        public Reader(ByteBuffer buf) throws IOException {
+            if (buf.remaining() < 8 || buf.getInt() != MAGIC) {
+                throw new IOException("Not a columnar visual graph");
+            }
+            int version = buf.getInt();
+            if (version > VERSION) {
+                throw new IOException("Unsupported version of the columnar visual graph: " + version);
+            }
+            while (buf.remaining() >= 12) {
+                int id = buf.getInt();
+                long length = buf.getLong();
+                if (length < 0 || length > Integer.MAX_VALUE || length > buf.remaining()) {
+                    throw new IOException("Invalid length of section " + id + " of the columnar visual graph: " + length);
+                }
+                ByteBuffer section = buf.slice();
+                section.limit((int) length);
+                sections.put(id, section);
+                buf.position(buf.position() + (int) length);
+            }
+        }
+
+        public boolean hasSection(int id) {
+            return sections.containsKey(id);
+        }
+
+        /**
+         * Read the graph stored by {@link Writer#writeGraph}.
+         *
+         * @return the graph, with compact adjacency lists
+         */
+        public Graph readGraph() throws IOException {
+            ByteBuffer section = getSection(GRAPH);
+            boolean directed = section.get() != 0;
+            String nodeKey = readString(section);
+            String sourceKey = readString(section);
+            String targetKey = readString(section);
+            String nodeLabel = readString(section);
+            String edgeLabel = readString(section);
+            Graph g = new Graph(readTable(NODES), readTable(EDGES), directed, nodeKey, sourceKey, targetKey);
+            g.compactLinks();
+            g.setNodeLabelField(nodeLabel);
+            g.setEdgeLabelField(edgeLabel);
+            return g;
+        }
+
+        /**
+         * Read the table stored in the section of the given id.
+         */
+        public Table readTable(int id) throws IOException {
+            ByteBuffer section = getSection(id);
+            int ncols = section.getInt();
+            int nrows = section.getInt();
+            Table table = new Table(nrows, ncols);
+            for (int col = 0; col < ncols; col++) {
+                String name = readString(section);
+                Column column = readColumn(section, nrows);
+                table.addColumn(name, column.getColumnType(), column.getDefaultValue());
+                table.replaceColumn(name, column);
+            }
+            return table;
+        }
+
+        /**
+         * Read the member node rows of aggregates stored by
+         * {@link Writer#writeAggregateMembers(java.util.Map)}.
+         */
+        public Map<Integer, List<Integer>> readAggregateMembers() throws IOException {
+            ByteBuffer section = getSection(AGGREGATE_MEMBERS);
+            int count = section.getInt();
+            Map<Integer, List<Integer>> aggregateId2NodeRows = new HashMap<Integer, List<Integer>>(count * 2);
+            while ((count--) > 0) {
+                int id = section.getInt();
+                int size = section.getInt();
+                List<Integer> nodeRows = new ArrayList<Integer>(size);
+                while ((size--) > 0) {
+                    nodeRows.add(section.getInt());
+                }
+                aggregateId2NodeRows.put(id, nodeRows);
+            }
+            return aggregateId2NodeRows;
+        }
+
+        private ByteBuffer getSection(int id) throws IOException {
+            ByteBuffer section = sections.get(id);
+            if (section == null) {
+                throw new IOException("Missing section: " + id);
+            }
+            return section.duplicate();
+        }
+
+        private Column readColumn(ByteBuffer in, int nrows) throws IOException {
+            byte type = in.get();
+            Column column;
+            switch (type) {
+                case INT: {
+                    column = ColumnFactory.getColumn(int.class, nrows, in.getInt());
+                    int[] values = new int[nrows];
+                    IntBuffer block = in.asIntBuffer();
+                    block.get(values);
+                    in.position(in.position() + nrows * 4);
+                    for (int row = 0; row < nrows; row++) {
+                        column.setInt(values[row], row);
+                    }
+                    break;
+                }
+                case LONG: {
+                    column = ColumnFactory.getColumn(long.class, nrows, in.getLong());
+                    long[] values = new long[nrows];
+                    LongBuffer block = in.asLongBuffer();
+                    block.get(values);
+                    in.position(in.position() + nrows * 8);
+                    for (int row = 0; row < nrows; row++) {
+                        column.setLong(values[row], row);
+                    }
+                    break;
+                }
+                case FLOAT: {
+                    column = ColumnFactory.getColumn(float.class, nrows, in.getFloat());
+                    float[] values = new float[nrows];
+                    FloatBuffer block = in.asFloatBuffer();
+                    block.get(values);
+                    in.position(in.position() + nrows * 4);
+                    for (int row = 0; row < nrows; row++) {
+                        column.setFloat(values[row], row);
+                    }
+                    break;
+                }
+                case DOUBLE: {
+                    column = ColumnFactory.getColumn(double.class, nrows, in.getDouble());
+                    double[] values = new double[nrows];
+                    DoubleBuffer block = in.asDoubleBuffer();
+                    block.get(values);
+                    in.position(in.position() + nrows * 8);
+                    for (int row = 0; row < nrows; row++) {
+                        column.setDouble(values[row], row);
+                    }
+                    break;
+                }
+                case BOOLEAN: {
+                    column = ColumnFactory.getColumn(boolean.class, nrows, in.get() != 0);
+                    for (int row = 0; row < nrows; row++) {
+                        column.setBoolean(in.get() != 0, row);
+                    }
+                    break;
+                }
+                case STRING: {
+                    column = ColumnFactory.getColumn(String.class, nrows, readString(in));
+                    String[] dictionary = new String[in.getInt()];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        dictionary[i] = readString(in);
+                    }
+                    int[] codes = new int[nrows];
+                    in.asIntBuffer().get(codes);
+                    in.position(in.position() + nrows * 4);
+                    for (int row = 0; row < nrows; row++) {
+                        column.set(codes[row] < 0 ? null : dictionary[codes[row]], row);
+                    }
+                    break;
+                }
+                case OBJECT: {
+                    Class ctype;
+                    try {
+                        ctype = Class.forName(readString(in));
+                    } catch (ClassNotFoundException ex) {
+                        throw new IOException(ex.getMessage());
+                    }
+                    int length = in.getInt();
+                    ByteBuffer block = in.slice();
+                    block.limit(length);
+                    in.position(in.position() + length);
+                    ObjectInputStream ois = new ObjectInputStream(new ByteBufferInputStream(block));
+                    try {
+                        column = ColumnFactory.getColumn(ctype, nrows, unmarshall(ctype, ois.readObject()));
+                        for (int row = 0; row < nrows; row++) {
+                            column.set(unmarshall(ctype, ois.readObject()), row);
+                        }
+                    } catch (ClassNotFoundException ex) {
+                        throw new IOException(ex.getMessage());
+                    } finally {
+                        ois.close();
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown column type: " + type);
+            }
+            return column;
+        }
+    }
+
+    private static Object marshall(Class type, Object unserializable) {
+        if (type == Stroke.class && unserializable != null) {
+            return new SerializableTable.SerializableBasicStroke((BasicStroke) unserializable);
+        }
+        return unserializable;
+    }
+
+    private static Object unmarshall(Class type, Object serializable) {
+        if (serializable == null) {
+            return null;
+        } else if (type == Stroke.class) {
+            return ((SerializableTable.SerializableBasicStroke) serializable).getStroke();
+        } else if (type == Font.class) {
+            Font f = (Font) serializable;
+            return FontLib.getFont(f.getName(), f.getStyle(), f.getSize());
+        }
+        return serializable;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buf;
+
+        ByteBufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buf.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buf.remaining());
+            buf.get(b, off, len);
+            return len;
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package kobic.prefuse.data.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,6 +42,7 @@ public class GraphIO {
             g = new Graph(((SerializableTable) in.readObject()).getTable(),
                     ((SerializableTable) in.readObject()).getTable(),
                     in.readBoolean(), (String) in.readObject(), (String) in.readObject(), (String) in.readObject());
+            g.compactLinks();
             g.setNodeLabelField((String) in.readObject());
             g.setEdgeLabelField((String) in.readObject());
         } catch (Exception ex) {
@@ -105,4 +107,64 @@ public class GraphIO {
         logger.log(Level.INFO, "Graph is written successfully");
         return true;
     }
+
+    /**
+     * Read a graph written by {@link #writeColumnarGraph(Graph, OutputStream)}.
+     * If the stream is a {@link FileInputStream}, the file is memory-mapped.
+     */
+    public static Graph readColumnarGraph(InputStream from) {
+        Graph g = null;
+        try {
+            ByteBuffer buf = ColumnarGraphIO.map(from);
+            g = new ColumnarGraphIO.Reader(buf).readGraph();
+        } catch (Exception ex) {
+            Exceptions.printStackTrace(ex);
+        }
+
+        if (g != null) {
+            logger.log(Level.INFO, "Graph is loaded successfully");
+        } else {
+            logger.log(Level.SEVERE, "Graph can not be loaded from the input stream");
+        }
+        return g;
+    }
+
+    /**
+     * Write a graph in the columnar binary format of {@link ColumnarGraphIO}.
+     */
+    public static boolean writeColumnarGraph(Graph g, OutputStream to) {
+        ColumnarGraphIO.Writer out = null;
+        try {
+            out = new ColumnarGraphIO.Writer(to);
+            SerializableTable serializableNodeTable = new SerializableTable(g.getNodeTable());
+            SerializableTable serializableEdgeTable = new SerializableTable(g.getEdgeTable());
+            String nodeKey = g.getNodeKeyField();
+            String sourceKey = g.getEdgeSourceField();
+            String targetKey = g.getEdgeTargetField();
+            if (nodeKey == null) {
+                for (Iterator<Tuple> edgesIter = serializableEdgeTable.getTable().tuples(); edgesIter.hasNext();) {
+                    Tuple edge = edgesIter.next();
+                    edge.setInt(sourceKey, serializableNodeTable.getRow(edge.getInt(sourceKey)));
+                    edge.setInt(targetKey, serializableNodeTable.getRow(edge.getInt(targetKey)));
+                }
+            }
+            out.writeGraph(serializableNodeTable.getTable(), serializableEdgeTable.getTable(), g.isDirected(),
+                    nodeKey, sourceKey, targetKey, g.getNodeLabelField(), g.getEdgeLabelField());
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                    Exceptions.printStackTrace(ex);
+                    return false;
+                }
+            }
+        }
+
+        logger.log(Level.INFO, "Graph is written successfully");
+        return true;
+    }
 }
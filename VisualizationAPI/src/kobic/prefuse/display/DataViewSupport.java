@@ -28,6 +28,7 @@ import prefuse.data.expression.AbstractPredicate;
 import prefuse.data.expression.AndPredicate;
 import prefuse.data.expression.Predicate;
 import prefuse.util.StringLib;
+import prefuse.util.collections.IntIterator;
 
 /**
  *
@@ -89,10 +90,28 @@ public abstract class DataViewSupport {
         return filters.remove(filter);
     }
 
+    /**
+     * Returns whether any filter is set, i.e. the rows shown may change with
+     * the values of the table.
+     */
+    public boolean isFiltered() {
+        return filters.size() > 0;
+    }
+
     public final Iterator<Tuple> tuples() {
         return filters.size() > 0 ? table.tuples(filters) : table.tuples();
     }
 
+    /**
+     * Returns the rows of the tuples not filtered, without creating the tuples
+     * where the filters can be answered by the indices of the table.
+     *
+     * @return an iterator of the rows not filtered
+     */
+    public final IntIterator rows() {
+        return filters.size() > 0 ? table.rows(filters) : table.rows();
+    }
+
     public abstract Schema getOutlineSchema();
 
     public Table getTable() {
@@ -112,11 +131,23 @@ public abstract class DataViewSupport {
     }
 
     public String getStringAt(Tuple data, String field) {
-        if (data.getTable().getMetadata(field).hasMultipleValues()) {
-            Object val = data.get(field);
+        return getStringAt(data.getRow(), field);
+    }
+
+    /**
+     * Returns the value at the given row of the table as shown, read from the
+     * column without creating the tuple.
+     *
+     * @param row the row of the table
+     * @param field the column
+     * @return the value as a string, or an empty string if none
+     */
+    public String getStringAt(int row, String field) {
+        if (table.getMetadata(field).hasMultipleValues()) {
+            Object val = table.get(row, field);
             return val != null ? StringLib.concatStringArray(((String) val).split(Column.MULTI_VAL_SEPARATOR), ", ") : "";
         }
         String string = null;
-        return data.canGetString(field) && (string = data.getString(field)) != null ? string : "";
+        return table.canGetString(field) && (string = table.getString(row, field)) != null ? string : "";
     }
 }
@@ -1061,10 +1061,11 @@ public abstract class NetworkDisplay extends Display {
         for (DecoratorLayout l : aggregateDecoratorLayouts.getLayouts()) {
             layout.add(l);
         }
-        layout.add(new AggregateShapeLayout(v));
+        final AggregateShapeLayout aggregateShapeLayout = new AggregateShapeLayout(v);
+        layout.add(aggregateShapeLayout);
         nodeItemsInAggregateTable = AggregateShapeLayout.createNodeItemsProjectionTable(v);
-        final TableListener aggregateShapeLayout = nodeItemsInAggregateTable.createNodeItemsProjectionListener();
-        nodeItemsInAggregateTable.addTableListener(aggregateShapeLayout);
+        // keeps listening while laying out, marking the aggregates of the moved nodes
+        nodeItemsInAggregateTable.addTableListener(aggregateShapeLayout.createNodeItemsProjectionListener());
         layout.addActivityListener(new ActivityAdapter() {
             @Override
             public void activityCancelled(Activity a) {
@@ -1076,7 +1077,6 @@ public abstract class NetworkDisplay extends Display {
                 getVisualGraph().getNodeTable().addTableListener(nodeDecoratorLayouts);
                 getVisualGraph().getEdgeTable().addTableListener(edgeDecoratorLayouts);
                 ((VisualTable) v.getVisualGroup(AGGR_ITEMS)).addTableListener(aggregateDecoratorLayouts);
-                nodeItemsInAggregateTable.addTableListener(aggregateShapeLayout);
             }
 
             @Override
@@ -1084,7 +1084,7 @@ public abstract class NetworkDisplay extends Display {
                 getVisualGraph().getNodeTable().removeTableListener(nodeDecoratorLayouts);
                 getVisualGraph().getEdgeTable().removeTableListener(edgeDecoratorLayouts);
                 ((VisualTable) v.getVisualGroup(AGGR_ITEMS)).removeTableListener(aggregateDecoratorLayouts);
-                nodeItemsInAggregateTable.removeTableListener(aggregateShapeLayout);
+                aggregateShapeLayout.invalidateAll();
             }
         });
     }
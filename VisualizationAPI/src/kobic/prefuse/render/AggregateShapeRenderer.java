@@ -31,6 +31,15 @@ import prefuse.visual.VisualItem;
  */
 public class AggregateShapeRenderer extends AbstractShapeRenderer {
 
+    /**
+     * The shapes are made by the renderers shared in {@link AggregateShape},
+     * so this renderer can not be copied for drawing in another thread.
+     */
+    @Override
+    public AbstractShapeRenderer copy() {
+        return null;
+    }
+
     @Override
     protected Shape getRawShape(VisualItem item) {
         throw new AssertionError("Should not be called.");
@@ -69,9 +69,17 @@ public class ExtendedEdgeRenderer extends EdgeRenderer {
         }
         return super.getRawShape(item);
     }
-    private final Ellipse2D ellipse = new Ellipse2D.Float();
-    private final Rectangle2D intersect = new Rectangle2D.Float();
-    private final Arc2D arc = new Arc2D.Float();
+    private Ellipse2D ellipse = new Ellipse2D.Float();
+    private Rectangle2D intersect = new Rectangle2D.Float();
+    private Arc2D arc = new Arc2D.Float();
+
+    @Override
+    protected void copyTemporaries() {
+        super.copyTemporaries();
+        ellipse = new Ellipse2D.Float();
+        intersect = new Rectangle2D.Float();
+        arc = new Arc2D.Float();
+    }
 
     @Override
     protected Polygon getArrowHead(EdgeItem e) {
@@ -18,7 +18,12 @@
  */
 package org.mongkie.visualization.impl;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import kobic.prefuse.data.TupleProvider;
@@ -27,6 +32,7 @@ import org.mongkie.visualization.search.SearchOption;
 import org.mongkie.visualization.search.SearchResult;
 import org.openide.util.lookup.ServiceProvider;
 import prefuse.data.Schema;
+import prefuse.data.Table;
 import prefuse.data.Tuple;
 
 /**
@@ -36,6 +42,12 @@ import prefuse.data.Tuple;
 @ServiceProvider(service = SearchController.class)
 public class SearchControllerImpl implements SearchController {
 
+    private final Map<Table, SearchIndex> indices = new WeakHashMap<Table, SearchIndex>();
+    // the pattern of the last text matched a tuple at a time
+    private String lastText;
+    private boolean lastWholeWords, lastCaseSensitive;
+    private Pattern lastPattern;
+
     @Override
     public boolean isStringColumnAvailable(Schema s) {
         for (int i = 0; i < s.getColumnCount(); i++) {
@@ -53,14 +65,7 @@ public class SearchControllerImpl implements SearchController {
         } else {
             assert results.isEmpty();
         }
-        Pattern pattern = makeRegexPattern(text, options);
-        results.setPattern(pattern);
-        for (T data : sources) {
-            if (!results.contains(data) && match(data.getTuple(), pattern, columns)) {
-                results.add(data);
-            }
-        }
-        return results;
+        return search(Arrays.asList(sources).iterator(), text, options, results, columns);
     }
 
     @Override
@@ -70,15 +75,7 @@ public class SearchControllerImpl implements SearchController {
         } else {
             assert results.isEmpty();
         }
-        Pattern pattern = makeRegexPattern(text, options);
-        results.setPattern(pattern);
-        for (Object source : sources) {
-            T data = (T) source;
-            if (!results.contains(data) && match(data.getTuple(), pattern, columns)) {
-                results.add(data);
-            }
-        }
-        return results;
+        return search((Iterator<T>) (Iterator<?>) Arrays.asList(sources).iterator(), text, options, results, columns);
     }
 
     @Override
@@ -90,15 +87,39 @@ public class SearchControllerImpl implements SearchController {
         }
         Pattern pattern = makeRegexPattern(text, options);
         results.setPattern(pattern);
+        // only the candidate rows of each table are matched
+        Map<Table, BitSet> candidates = new IdentityHashMap<Table, BitSet>();
         while (sources.hasNext()) {
             T data = sources.next();
-            if (!results.contains(data) && match(data.getTuple(), pattern, columns)) {
+            Tuple tuple = data.getTuple();
+            Table table = tuple.getTable();
+            if (table != null) {
+                if (!candidates.containsKey(table)) {
+                    candidates.put(table, getIndex(table).getCandidates(table, text, options.isWholeWords(), columns));
+                }
+                BitSet rows = candidates.get(table);
+                if (rows != null && !rows.get(tuple.getRow())) {
+                    continue;
+                }
+            }
+            if (!results.contains(data) && match(tuple, pattern, columns)) {
                 results.add(data);
             }
         }
         return results;
     }
 
+    private SearchIndex getIndex(Table table) {
+        synchronized (indices) {
+            SearchIndex index = indices.get(table);
+            if (index == null) {
+                indices.put(table, index = new SearchIndex());
+                table.addTableListener(index);
+            }
+            return index;
+        }
+    }
+
     @Override
     public Pattern makeRegexPattern(String text, SearchOption options) {
         return makeRegexPattern(text, options.isWholeWords(), options.isCaseSensitive());
@@ -106,10 +127,37 @@ public class SearchControllerImpl implements SearchController {
 
     @Override
     public Pattern makeRegexPattern(String text, boolean wholeWords, boolean caseSensitive) {
-        String query = wholeWords ? ".*\\b(" + text + ")\\b.*" : ".*(" + text + ").*";
+        String query = makeQuery(text, wholeWords);
         return caseSensitive ? Pattern.compile(query) : Pattern.compile(query, Pattern.CASE_INSENSITIVE);
     }
 
+    @Override
+    public boolean match(Tuple data, String text, SearchOption options, String... columns) {
+        Table table = data.getTable();
+        if (table != null) {
+            BitSet rows = getIndex(table).getCandidates(table, text, options.isWholeWords(), columns);
+            if (rows != null && !rows.get(data.getRow())) {
+                return false;
+            }
+        }
+        Pattern pattern;
+        synchronized (this) {
+            if (lastPattern == null || !text.equals(lastText) || options.isWholeWords() != lastWholeWords
+                    || options.isCaseSensitive() != lastCaseSensitive) {
+                lastPattern = makeRegexPattern(text, options);
+                lastText = text;
+                lastWholeWords = options.isWholeWords();
+                lastCaseSensitive = options.isCaseSensitive();
+            }
+            pattern = lastPattern;
+        }
+        return match(data, pattern, columns);
+    }
+
+    private static String makeQuery(String text, boolean wholeWords) {
+        return wholeWords ? ".*\\b(" + text + ")\\b.*" : ".*(" + text + ").*";
+    }
+
     @Override
     public boolean match(Tuple data, Pattern pattern, String... columns) {
         for (String col : columns) {
@@ -0,0 +1,438 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.visualization.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import prefuse.data.Table;
+import prefuse.data.event.EventConstants;
+import prefuse.data.event.TableListener;
+import prefuse.util.collections.IntIterator;
+
+/**
+ * Inverted index of the string columns of a table, which finds the rows whose
+ * values may match a search text without matching every value. Each searched
+ * column is indexed on its first search by the trigrams and the words of its
+ * values, all in lower case, and the index is kept current by listening to
+ * the table.
+ * <p>
+ * The index answers the candidate rows of a literal text: the rows sharing all
+ * the trigrams of the text, the rows having the text as a word for whole word
+ * searches, or for texts shorter than a trigram, the rows containing the text.
+ * Trigrams common to most values are not kept, and stand for all rows.
+ * Candidates ignore the case, so callers still match the candidates against
+ * the search pattern.
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+class SearchIndex implements TableListener {
+
+    private static final int GRAM = 3;
+    // changes to more rows than this drop the index instead of updating it
+    private static final int REBUILD_ROWS = 1024;
+    // trigrams of more than half of the values, and of more rows than this,
+    // select too few to be worth their postings
+    private static final int COMMON_ROWS = 4096;
+    private static final Postings COMMON = new Postings();
+    private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+    private final Map<String, ColumnIndex> columns = new HashMap<String, ColumnIndex>();
+    // the candidates of the last query, for searches of a tuple at a time
+    private String lastText;
+    private boolean lastWholeWords;
+    private String[] lastColumns;
+    private BitSet lastCandidates;
+
+    /**
+     * Returns the rows of the given table which may match the search text in
+     * any of the given columns. The returned set must not be modified.
+     *
+     * @param t the table listened to by this index
+     * @param text the search text
+     * @param wholeWords if the text is searched as whole words
+     * @param cols the columns to search
+     * @return the candidate rows, or <code>null</code> if the text is not a
+     * literal or a column can not be indexed, then all rows are candidates
+     */
+    public synchronized BitSet getCandidates(Table t, String text, boolean wholeWords, String... cols) {
+        if (lastCandidates != null && wholeWords == lastWholeWords
+                && text.equals(lastText) && Arrays.equals(cols, lastColumns)) {
+            return lastCandidates;
+        }
+        if (!isLiteral(text)) {
+            return null;
+        }
+        String query = fold(text);
+        BitSet candidates = new BitSet();
+        for (String col : cols) {
+            ColumnIndex index = getColumnIndex(t, col);
+            if (index == null) {
+                return null;
+            }
+            index.collect(query, wholeWords, candidates);
+        }
+        lastText = text;
+        lastWholeWords = wholeWords;
+        lastColumns = cols.clone();
+        lastCandidates = candidates;
+        return candidates;
+    }
+
+    private ColumnIndex getColumnIndex(Table t, String col) {
+        ColumnIndex index = columns.get(col);
+        if (index == null) {
+            if (!t.canGetString(col)) {
+                return null;
+            }
+            index = new ColumnIndex();
+            for (IntIterator rows = t.rows(); rows.hasNext();) {
+                int row = rows.nextInt();
+                index.set(row, t.getString(row, col));
+            }
+            columns.put(col, index);
+        }
+        return index;
+    }
+
+    @Override
+    public synchronized void tableChanged(Table t, int start, int end, int col, int type) {
+        if (columns.isEmpty()) {
+            return;
+        }
+        lastCandidates = null;
+        if (col != EventConstants.ALL_COLUMNS && type != EventConstants.UPDATE) {
+            // a column is added or removed, and the others renumbered
+            columns.clear();
+        } else if (end - start >= REBUILD_ROWS) {
+            if (col == EventConstants.ALL_COLUMNS) {
+                columns.clear();
+            } else {
+                columns.remove(t.getColumnName(col));
+            }
+        } else if (col == EventConstants.ALL_COLUMNS) {
+            for (Map.Entry<String, ColumnIndex> e : columns.entrySet()) {
+                update(t, start, end, e.getKey(), e.getValue(), type);
+            }
+        } else {
+            String name = t.getColumnName(col);
+            ColumnIndex index = columns.get(name);
+            if (index != null) {
+                update(t, start, end, name, index, type);
+            }
+        }
+    }
+
+    private static void update(Table t, int start, int end, String col, ColumnIndex index, int type) {
+        for (int row = start; row <= end; row++) {
+            index.set(row, type != EventConstants.DELETE && t.isValidRow(row) ? t.getString(row, col) : null);
+        }
+    }
+
+    static boolean isLiteral(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (REGEX_CHARS.indexOf(text.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lower case the given text a character at a time, so that the folded
+     * text keeps the positions of the original.
+     */
+    static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isWord(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!isWordChar(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trigram and word postings of a column.
+     */
+    private static class ColumnIndex {
+
+        private String[] values = new String[0];
+        private final GramMap grams = new GramMap();
+        private final Map<String, Postings> words = new HashMap<String, Postings>();
+        private int count = 0;
+
+        void set(int row, String value) {
+            if (row >= values.length) {
+                if (value == null) {
+                    return;
+                }
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 3 / 2));
+            }
+            String old = values[row];
+            if (old == value || (old != null && old.equals(value))) {
+                return;
+            }
+            if (old != null) {
+                index(row, old, false);
+                count--;
+            }
+            values[row] = value;
+            if (value != null) {
+                index(row, value, true);
+                count++;
+            }
+        }
+
+        private void index(int row, String value, boolean add) {
+            String folded = fold(value);
+            for (int i = 0; i + GRAM <= folded.length(); i++) {
+                long gram = gram(folded, i);
+                Postings p = grams.get(gram);
+                if (p == COMMON) {
+                    // stands for all rows
+                } else if (add) {
+                    if (p == null) {
+                        grams.put(gram, p = new Postings());
+                    }
+                    p.add(row);
+                    if (p.size > COMMON_ROWS && 2 * p.size > count) {
+                        grams.put(gram, COMMON);
+                    }
+                } else if (p != null) {
+                    p.remove(row);
+                }
+            }
+            int start = -1;
+            for (int i = 0; i <= folded.length(); i++) {
+                if (i < folded.length() && isWordChar(folded.charAt(i))) {
+                    if (start < 0) {
+                        start = i;
+                    }
+                } else if (start >= 0) {
+                    post(words, folded.substring(start, i), row, add);
+                    start = -1;
+                }
+            }
+        }
+
+        private static void post(Map<String, Postings> map, String key, int row, boolean add) {
+            Postings p = map.get(key);
+            if (add) {
+                if (p == null) {
+                    map.put(key, p = new Postings());
+                }
+                p.add(row);
+            } else if (p != null && p.remove(row) && p.size == 0) {
+                map.remove(key);
+            }
+        }
+
+        void collect(String query, boolean wholeWords, BitSet candidates) {
+            if (wholeWords && isWord(query)) {
+                Postings p = words.get(query);
+                if (p != null) {
+                    for (int i = 0; i < p.size; i++) {
+                        candidates.set(p.rows[i]);
+                    }
+                }
+            } else if (query.length() >= GRAM) {
+                List<Postings> selective = new ArrayList<Postings>();
+                for (int i = 0; i + GRAM <= query.length(); i++) {
+                    Postings p = grams.get(gram(query, i));
+                    if (p == null) {
+                        return;
+                    } else if (p != COMMON) {
+                        selective.add(p);
+                    }
+                }
+                if (selective.isEmpty()) {
+                    scan(query, candidates);
+                    return;
+                }
+                Postings[] lists = selective.toArray(new Postings[selective.size()]);
+                // walk the sorted lists together, from the shortest one
+                Arrays.sort(lists, new Comparator<Postings>() {
+                    @Override
+                    public int compare(Postings p1, Postings p2) {
+                        return p1.size - p2.size;
+                    }
+                });
+                int[] next = new int[lists.length];
+                Postings shortest = lists[0];
+                rows:
+                for (int i = 0; i < shortest.size; i++) {
+                    int row = shortest.rows[i];
+                    for (int j = 1; j < lists.length; j++) {
+                        Postings p = lists[j];
+                        while (next[j] < p.size && p.rows[next[j]] < row) {
+                            next[j]++;
+                        }
+                        if (next[j] == p.size) {
+                            return;
+                        } else if (p.rows[next[j]] != row) {
+                            continue rows;
+                        }
+                    }
+                    candidates.set(row);
+                }
+            } else {
+                scan(query, candidates);
+            }
+        }
+
+        private void scan(String query, BitSet candidates) {
+            for (int row = 0; row < values.length; row++) {
+                String value = values[row];
+                if (value != null && contains(value, query)) {
+                    candidates.set(row);
+                }
+            }
+        }
+
+        private static boolean contains(String value, String query) {
+            for (int i = 0; i + query.length() <= value.length(); i++) {
+                int j = 0;
+                while (j < query.length()
+                        && Character.toLowerCase(value.charAt(i + j)) == query.charAt(j)) {
+                    j++;
+                }
+                if (j == query.length()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sorted rows of a posting list.
+     */
+    private static class Postings {
+
+        private int[] rows = new int[2];
+        private int size = 0;
+
+        void add(int row) {
+            // rows are mostly indexed in ascending order
+            if (size > 0 && rows[size - 1] >= row) {
+                int i = Arrays.binarySearch(rows, 0, size, row);
+                if (i >= 0) {
+                    return;
+                }
+                insert(-i - 1, row);
+            } else {
+                insert(size, row);
+            }
+        }
+
+        private void insert(int i, int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            System.arraycopy(rows, i, rows, i + 1, size - i);
+            rows[i] = row;
+            size++;
+        }
+
+        boolean remove(int row) {
+            int i = Arrays.binarySearch(rows, 0, size, row);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+    }
+
+    private static long gram(String text, int i) {
+        return (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+    }
+
+    /**
+     * Open addressing hash map of the trigrams, packed in longs, to their
+     * posting lists. Trigrams are never removed, a trigram of an empty list is
+     * only missed by the candidates.
+     */
+    private static class GramMap {
+
+        private long[] keys = new long[64];
+        private Postings[] values = new Postings[64];
+        private int size = 0;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Postings value) {
+            if (2 * (size + 1) > keys.length) {
+                long[] oldKeys = keys;
+                Postings[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new Postings[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldValues[i] != null) {
+                        put(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
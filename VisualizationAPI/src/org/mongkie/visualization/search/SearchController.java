@@ -44,6 +44,8 @@ public interface SearchController {
 
     public boolean match(Tuple data, Pattern pattern, String... columns);
 
+    public boolean match(Tuple data, String text, SearchOption options, String... columns);
+
     public <T extends TupleProvider> T replace(SearchResult<T> results, String replacement, boolean forward, String... columns);
 
     public <T extends TupleProvider> int replaceAll(SearchResult<T> results, String replacement, String... columns);
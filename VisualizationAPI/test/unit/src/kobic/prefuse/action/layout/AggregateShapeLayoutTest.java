@@ -0,0 +1,136 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package kobic.prefuse.action.layout;
+
+import java.util.Iterator;
+import java.util.Random;
+import kobic.prefuse.AggregateShape;
+import static kobic.prefuse.Constants.GRAPH;
+import kobic.prefuse.action.layout.AggregateShapeLayout.NodeItemsProjectionTable;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import prefuse.Visualization;
+import prefuse.data.Graph;
+import prefuse.visual.AggregateItem;
+import prefuse.visual.AggregateTable;
+import prefuse.visual.VisualGraph;
+import prefuse.visual.VisualItem;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class AggregateShapeLayoutTest {
+
+    public AggregateShapeLayoutTest() {
+    }
+
+    private static float[] copy(float[] polygon) {
+        int len = 0;
+        while (len < polygon.length && !Float.isNaN(polygon[len])) {
+            len++;
+        }
+        float[] copy = new float[len];
+        System.arraycopy(polygon, 0, copy, 0, len);
+        return copy;
+    }
+
+    // every vertex of each polygon is a vertex of the other one, or on its edges
+    private static void assertSameShape(String message, float[] expected, float[] actual) {
+        assertOnEdges(message, expected, actual);
+        assertOnEdges(message, actual, expected);
+    }
+
+    private static void assertOnEdges(String message, float[] polygon, float[] vertices) {
+        for (int v = 0; v < vertices.length; v += 2) {
+            boolean found = false;
+            for (int i = 0; i < polygon.length && !found; i += 2) {
+                int j = (i + 2) % polygon.length;
+                double dx = polygon[j] - polygon[i], dy = polygon[j + 1] - polygon[i + 1];
+                double px = vertices[v] - polygon[i], py = vertices[v + 1] - polygon[i + 1];
+                double t = (dx * px + dy * py) / Math.max(dx * dx + dy * dy, 1e-9);
+                double cross = dx * py - dy * px;
+                found = Math.abs(cross) / Math.max(Math.sqrt(dx * dx + dy * dy), 1e-9) < 0.01 && t > -1e-3 && t < 1 + 1e-3;
+            }
+            assertTrue(message + ": vertex " + vertices[v] + "," + vertices[v + 1], found);
+        }
+    }
+
+    @Test
+    public void testIncrementalShapes() {
+        for (AggregateShape shape : new AggregateShape[]{AggregateShape.CONVEX_HULL_CURVE, AggregateShape.RECTANGLE}) {
+            Random random = new Random(11);
+            Graph graph = new Graph();
+            int n = 120;
+            for (int i = 0; i < n; i++) {
+                graph.addNode();
+            }
+            Visualization vis = new Visualization();
+            VisualGraph vg = vis.addGraph(GRAPH, graph);
+            AggregateTable aggregates = (AggregateTable) vis.getVisualGroup(Visualization.AGGR_ITEMS);
+            for (int i = 0; i < n; i++) {
+                VisualItem item = (VisualItem) vg.getNode(i);
+                item.setX(random.nextDouble() * 500);
+                item.setY(random.nextDouble() * 500);
+                item.validateBounds();
+            }
+            int groups = 6;
+            for (int a = 0; a < groups; a++) {
+                AggregateItem aggregate = (AggregateItem) aggregates.addItem();
+                aggregate.setShape(shape.getCode());
+                for (int i = a; i < n; i += groups) {
+                    aggregate.addItem((VisualItem) vg.getNode(i));
+                }
+                shape.layout(aggregate);
+            }
+            AggregateShapeLayout layout = new AggregateShapeLayout(vis);
+            NodeItemsProjectionTable projection = AggregateShapeLayout.createNodeItemsProjectionTable(vis);
+            projection.addTableListener(layout.createNodeItemsProjectionListener());
+
+            for (int round = 0; round < 30; round++) {
+                // drags a few nodes, mostly by small steps
+                for (int m = random.nextInt(5); m >= 0; m--) {
+                    VisualItem item = (VisualItem) vg.getNode(random.nextInt(n));
+                    double step = random.nextInt(4) == 0 ? 200 : 10;
+                    item.setX(item.getX() + (random.nextDouble() - 0.5) * step);
+                    item.setY(item.getY() + (random.nextDouble() - 0.5) * step);
+                    if (random.nextBoolean()) {
+                        item.validateBounds();
+                    }
+                }
+                layout.run(0);
+
+                // the updated shapes are the shapes laid out again
+                for (Iterator<AggregateItem> aggregateIter = aggregates.tuples(); aggregateIter.hasNext();) {
+                    AggregateItem aggregate = aggregateIter.next();
+                    float[] actual = copy((float[]) aggregate.get(VisualItem.POLYGON));
+                    shape.layout(aggregate);
+                    float[] expected = copy((float[]) aggregate.get(VisualItem.POLYGON));
+                    if (shape == AggregateShape.RECTANGLE) {
+                        for (int i = 0; i < expected.length; i++) {
+                            assertEquals(shape + " round " + round, expected[i], actual[i], 0.01F);
+                        }
+                    } else {
+                        assertSameShape(shape + " round " + round, expected, actual);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -21,9 +21,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import static org.junit.Assert.*;
 import org.junit.*;
 import prefuse.data.Graph;
+import prefuse.data.Table;
 import prefuse.data.io.GraphMLReader;
 
 /**
@@ -34,6 +37,7 @@ public class GraphIOTest {
 
     static Graph G;
     static final File seg = new File("test.seg");
+    static final File cseg = new File("test.vlgc");
 
     public GraphIOTest() {
     }
@@ -82,4 +86,49 @@ public class GraphIOTest {
         assertEquals(G.getEdgeCount(), g.getEdgeCount());
         assertTrue(seg.delete());
     }
+
+    @Test
+    public void testColumnarGraph() throws FileNotFoundException {
+        cseg.delete();
+        assertTrue(GraphIO.writeColumnarGraph(G, new FileOutputStream(cseg)));
+        Graph g = GraphIO.readColumnarGraph(new FileInputStream(cseg));
+        assertNotNull(g);
+        assertTableEquals(G.getNodeTable(), g.getNodeTable());
+        assertTableEquals(G.getEdgeTable(), g.getEdgeTable());
+        assertEquals(G.isDirected(), g.isDirected());
+        assertEquals(G.getNodeLabelField(), g.getNodeLabelField());
+        for (int row = 0; row < g.getEdgeCount(); row++) {
+            assertEquals(G.getSourceNode(row), g.getSourceNode(row));
+            assertEquals(G.getTargetNode(row), g.getTargetNode(row));
+        }
+        assertTrue(cseg.delete());
+    }
+
+    @Test
+    public void testBrokenColumnarGraph() {
+        long[] lengths = {-1, 16, (long) Integer.MAX_VALUE + 1};
+        for (long length : lengths) {
+            ByteBuffer buf = ByteBuffer.allocate(32);
+            buf.putInt(ColumnarGraphIO.MAGIC).putInt(ColumnarGraphIO.VERSION);
+            buf.putInt(ColumnarGraphIO.GRAPH).putLong(length);
+            buf.flip();
+            try {
+                new ColumnarGraphIO.Reader(buf);
+                fail("Accepted a section of " + length + " bytes");
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    private void assertTableEquals(Table one, Table another) {
+        assertEquals(one.getColumnCount(), another.getColumnCount());
+        assertEquals(one.getRowCount(), another.getRowCount());
+        for (int col = 0; col < one.getColumnCount(); col++) {
+            assertEquals(one.getColumnName(col), another.getColumnName(col));
+            assertEquals(one.getColumnType(col), another.getColumnType(col));
+            for (int row = 0; row < one.getRowCount(); row++) {
+                assertEquals(one.get(row, col), another.get(row, col));
+            }
+        }
+    }
 }
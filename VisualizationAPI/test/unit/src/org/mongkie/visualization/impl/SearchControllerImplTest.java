@@ -0,0 +1,118 @@
+/*
+ * This file is part of MONGKIE. Visit <http://www.mongkie.org/> for details.
+ * Visit <http://www.mongkie.org> for details about MONGKIE.
+ * Copyright (C) 2013 Korean Bioinformation Center (KOBIC)
+ *
+ * MONGKIE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MONGKIE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mongkie.visualization.impl;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.regex.Pattern;
+import kobic.prefuse.data.TupleProvider;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.mongkie.visualization.search.SearchOption;
+import org.mongkie.visualization.search.SearchResult;
+import prefuse.data.Table;
+import prefuse.data.Tuple;
+
+/**
+ *
+ * @author Yeongjun Jang <yjjang@kribb.re.kr>
+ */
+public class SearchControllerImplTest {
+
+    private static final String[] WORDS = {"Kinase", "kinase-2", "MAPK1", "tp53", "Cyclin_D", "p53", "ATP", "A", "ab", ""};
+    private static final String[] QUERIES = {"kinase", "KIN", "p5", "53", "a", "tp53", "mapk1 ", "d", "cyclin_d", "atp kinase", "k.n", "p[0-9]"};
+
+    public SearchControllerImplTest() {
+    }
+
+    private static class Provider implements TupleProvider {
+
+        private final Tuple tuple;
+
+        Provider(Tuple tuple) {
+            this.tuple = tuple;
+        }
+
+        @Override
+        public Tuple getTuple() {
+            return tuple;
+        }
+    }
+
+    private static String randomValue(Random random) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            value.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextBoolean() ? " " : "/");
+        }
+        return value.toString().trim();
+    }
+
+    @Test
+    public void testIndexedSearch() {
+        Random random = new Random(17);
+        Table table = new Table();
+        table.addColumn("name", String.class);
+        table.addColumn("description", String.class);
+        for (int i = 0; i < 500; i++) {
+            int row = table.addRow();
+            table.setString(row, "name", randomValue(random));
+            table.setString(row, "description", randomValue(random));
+        }
+        SearchControllerImpl searcher = new SearchControllerImpl();
+        for (int round = 0; round < 3; round++) {
+            Provider[] sources = new Provider[table.getRowCount()];
+            Iterator<?> tuples = table.tuples();
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = new Provider((Tuple) tuples.next());
+            }
+            for (String query : QUERIES) {
+                for (int options = 0; options < 4; options++) {
+                    SearchOption option = new SearchOption();
+                    option.setWholeWords((options & 1) != 0);
+                    option.setCaseSensitive((options & 2) != 0);
+                    SearchResult<Provider> results = searcher.search(sources, query, option, null, "name", "description");
+
+                    // the index finds the same tuples as matching all of them
+                    Pattern pattern = searcher.makeRegexPattern(query, option);
+                    int expected = 0;
+                    for (Provider source : sources) {
+                        boolean match = searcher.match(source.getTuple(), pattern, "name", "description");
+                        assertEquals(query, match, results.contains(source));
+                        assertEquals(query, match, searcher.match(source.getTuple(), query, option, "name", "description"));
+                        expected += match ? 1 : 0;
+                    }
+                    assertEquals(expected, results.size());
+                }
+            }
+            // the index follows the changes of the table
+            for (int i = 0; i < 100; i++) {
+                int row = random.nextInt(table.getRowCount());
+                if (!table.isValidRow(row)) {
+                    continue;
+                }
+                table.setString(row, random.nextBoolean() ? "name" : "description", randomValue(random));
+            }
+            table.removeRow(random.nextInt(table.getRowCount()));
+            table.setString(table.addRow(), "name", "MAPK1 kinase");
+        }
+    }
+}